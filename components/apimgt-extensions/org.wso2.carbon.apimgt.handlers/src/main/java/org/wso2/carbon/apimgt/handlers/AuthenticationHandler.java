@@ -21,8 +21,13 @@ import com.google.gson.Gson;
 import org.apache.axis2.context.MessageContext;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.json.JSONException;
+import org.json.JSONObject;
 import org.apache.synapse.core.axis2.Axis2MessageContext;
 import org.apache.synapse.rest.AbstractHandler;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cms.CMSException;
+import org.bouncycastle.cms.CMSSignedData;
 import org.wso2.carbon.apimgt.handlers.beans.Certificate;
 import org.wso2.carbon.apimgt.handlers.beans.ValidationResponce;
 import org.wso2.carbon.apimgt.handlers.config.IOTServerConfiguration;
@@ -30,6 +35,7 @@ import org.wso2.carbon.apimgt.handlers.invoker.RESTInvoker;
 import org.wso2.carbon.apimgt.handlers.invoker.RESTResponse;
 import org.wso2.carbon.apimgt.handlers.utils.AuthConstants;
 import org.wso2.carbon.apimgt.handlers.utils.Utils;
+import org.wso2.carbon.apimgt.handlers.utils.VerificationCache;
 import org.wso2.carbon.certificate.mgt.core.impl.CertificateGenerator;
 import org.wso2.carbon.context.PrivilegedCarbonContext;
 
@@ -38,9 +44,12 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.security.cert.CertificateException;
 import java.security.cert.CertificateFactory;
 import java.security.cert.X509Certificate;
+import java.util.Base64;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.StringTokenizer;
@@ -57,16 +66,31 @@ public class AuthenticationHandler extends AbstractHandler {
     private static final String AUTHORIZATION = "Authorization";
     private static final String BEARER = "Bearer ";
     private static final String CONTENT_TYPE = "Content-Type";
+    private static final String EXPIRY_CLAIM = "exp";
+    private static final String VALID = "valid";
+    private static final Gson gson = new Gson();
 
     private IOTServerConfiguration iotServerConfiguration;
+    private VerificationCache verificationCache;
+    private long verificationCacheExpiry;
 
     /**
      * Setting up configurations at the constructor
      */
     public AuthenticationHandler() {
+        this(Utils.initConfig());
+    }
+
+    AuthenticationHandler(IOTServerConfiguration iotServerConfiguration) {
         log.info("Engaging API Security Handler..........");
         restInvoker = new RESTInvoker();
-        this.iotServerConfiguration = Utils.initConfig();
+        this.iotServerConfiguration = iotServerConfiguration;
+        if (iotServerConfiguration != null) {
+            this.verificationCache = new VerificationCache(iotServerConfiguration.getVerificationCacheSize());
+            this.verificationCacheExpiry = iotServerConfiguration.getVerificationCacheExpiry() * 1000L;
+        } else {
+            this.verificationCache = new VerificationCache(0);
+        }
     }
 
     /**
@@ -88,6 +112,10 @@ public class AuthenticationHandler extends AbstractHandler {
         try {
             int tenantId = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId();
             RESTResponse response = null;
+            String cacheKey = null;
+            String cacheValue = "";
+            long cacheExpiryTime = Long.MAX_VALUE;
+            boolean verified = false;
             if (headers.containsKey(AuthConstants.MDM_SIGNATURE)) {
 
                 String mdmSignature = headers.get(AuthConstants.MDM_SIGNATURE);
@@ -98,6 +126,18 @@ public class AuthenticationHandler extends AbstractHandler {
                 if (deviceType == null) {
                     return false;
                 }
+                // Every request is signed separately, hence the verification is cached against the certificate
+                // of the device which signed it.
+                X509CertificateHolder signerCertificate = getSignerCertificate(mdmSignature);
+                if (signerCertificate != null) {
+                    cacheKey = getCacheKey(AuthConstants.MDM_SIGNATURE, tenantId, deviceType,
+                            VerificationCache.digest(signerCertificate.getEncoded()));
+                    String cachedAssertion = verificationCache.get(cacheKey);
+                    if (cachedAssertion != null) {
+                        headers.put(X_JWT_ASSERTION, cachedAssertion);
+                        return true;
+                    }
+                }
                 URI certVerifyUrl = new URI(iotServerConfiguration.getVerificationEndpoint() + deviceType);
                 Map<String, String> certVerifyHeaders = this.setHeaders(this.restInvoker);
 
@@ -106,7 +146,6 @@ public class AuthenticationHandler extends AbstractHandler {
                 certificate.setTenantId(tenantId);
                 certificate.setSerial("");
 
-                Gson gson = new Gson();
                 String certVerifyContent = gson.toJson(certificate);
                 response = restInvoker.invokePOST(certVerifyUrl, certVerifyHeaders, certVerifyContent);
 
@@ -118,6 +157,12 @@ public class AuthenticationHandler extends AbstractHandler {
                 if (response.getHttpStatus() == 200 && str.contains(JWTTOKEN)) {
                     ValidationResponce validationResponce = gson.fromJson(str, ValidationResponce.class);
                     headers.put(X_JWT_ASSERTION, validationResponce.getJWTToken());
+                    cacheValue = validationResponce.getJWTToken();
+                    verified = cacheValue != null;
+                    cacheExpiryTime = getAssertionExpiry(cacheValue);
+                    if (signerCertificate != null) {
+                        cacheExpiryTime = Math.min(cacheExpiryTime, signerCertificate.getNotAfter().getTime());
+                    }
                 } else {
                     return false;
                 }
@@ -130,6 +175,11 @@ public class AuthenticationHandler extends AbstractHandler {
                 }
 
                 String deviceType = this.getDeviceType(messageContext.getTo().getAddress().trim());
+                cacheKey = getCacheKey(AuthConstants.PROXY_MUTUAL_AUTH_HEADER, tenantId, deviceType,
+                        VerificationCache.digest(subjectDN));
+                if (verificationCache.get(cacheKey) != null) {
+                    return true;
+                }
                 URI certVerifyUrl = new URI(iotServerConfiguration.getVerificationEndpoint() + deviceType);
                 Map<String, String> certVerifyHeaders = this.setHeaders(this.restInvoker);
                 Certificate certificate = new Certificate();
@@ -137,12 +187,12 @@ public class AuthenticationHandler extends AbstractHandler {
                 certificate.setTenantId(tenantId);
                 certificate.setSerial(AuthConstants.PROXY_MUTUAL_AUTH_HEADER);
 
-                Gson gson = new Gson();
                 String certVerifyContent = gson.toJson(certificate);
                 response = restInvoker.invokePOST(certVerifyUrl, certVerifyHeaders, certVerifyContent);
                 if (log.isDebugEnabled()) {
                     log.debug("Verify response:" + response.getContent());
                 }
+                verified = isVerified(response);
             } else if (headers.containsKey(AuthConstants.MUTUAL_AUTH_HEADER)) {
                 javax.security.cert.X509Certificate[] certs =
                         (javax.security.cert.X509Certificate[]) axisMC.getProperty(AuthConstants.CLIENT_CERTIFICATE);
@@ -160,6 +210,11 @@ public class AuthenticationHandler extends AbstractHandler {
                     log.debug("Verify Cert:\n" + encodedPem);
                 }
                 String deviceType = this.getDeviceType(messageContext.getTo().getAddress().trim());
+                cacheKey = getCacheKey(AuthConstants.ENCODED_PEM, tenantId, deviceType,
+                        VerificationCache.digest(encodedPem));
+                if (verificationCache.get(cacheKey) != null) {
+                    return true;
+                }
                 URI certVerifyUrl = new URI(iotServerConfiguration.getVerificationEndpoint() + deviceType);
                 Map<String, String> certVerifyHeaders = this.setHeaders(this.restInvoker);
 
@@ -167,17 +222,24 @@ public class AuthenticationHandler extends AbstractHandler {
                 certificate.setPem(encodedPem);
                 certificate.setTenantId(tenantId);
                 certificate.setSerial("");
-                Gson gson = new Gson();
                 String certVerifyContent = gson.toJson(certificate);
                 response = restInvoker.invokePOST(certVerifyUrl, certVerifyHeaders, certVerifyContent);
                 if (log.isDebugEnabled()) {
                     log.debug("Verify response:" + response.getContent());
                 }
+                verified = isVerified(response);
+                cacheExpiryTime = getCertificateExpiry(encodedPem);
             } else {
                 log.warn("Unauthorized request for api: " + ctxPath);
                 return false;
             }
             if (response != null && !response.getContent().contains("invalid")) {
+                // Only a positive result of the IoT server is reused, so that a certificate which could not be
+                // verified due to an error of the server is verified again on the next request.
+                if (cacheKey != null && verified) {
+                    verificationCache.put(cacheKey, cacheValue,
+                            Math.min(System.currentTimeMillis() + verificationCacheExpiry, cacheExpiryTime));
+                }
                 return true;
             }
             log.warn("Unauthorized request for api: " + ctxPath);
@@ -216,6 +278,95 @@ public class AuthenticationHandler extends AbstractHandler {
         return null;
     }
 
+    /**
+     * Builds the key of a verification in the cache, from the hash of the certificate and the details which are sent
+     * to the verification endpoint along with it.
+     */
+    private static String getCacheKey(String header, int tenantId, String deviceType, String certificateHash) {
+        return header + ":" + tenantId + ":" + deviceType + ":" + certificateHash;
+    }
+
+    /**
+     * Checks whether the IoT server has verified a certificate, which it reports with a successful response carrying
+     * nothing but the word "valid".
+     */
+    private static boolean isVerified(RESTResponse response) {
+        if (response.getHttpStatus() != 200 || response.getContent() == null) {
+            return false;
+        }
+        String content = response.getContent().trim();
+        if (content.length() > 1 && content.startsWith("\"") && content.endsWith("\"")) {
+            content = content.substring(1, content.length() - 1);
+        }
+        return VALID.equals(content);
+    }
+
+    /**
+     * Returns the certificate carried by an MDM signature, which identifies the device that signed the request, or
+     * null if the signature cannot be decoded at the gateway, in which case the verification is not cached.
+     */
+    @SuppressWarnings("unchecked")
+    private static X509CertificateHolder getSignerCertificate(String mdmSignature) {
+        try {
+            CMSSignedData signedData = new CMSSignedData(Base64.getMimeDecoder().decode(mdmSignature));
+            Collection<X509CertificateHolder> certificates = signedData.getCertificates().getMatches(null);
+            if (certificates != null && !certificates.isEmpty()) {
+                return certificates.iterator().next();
+            }
+        } catch (IllegalArgumentException | CMSException e) {
+            if (log.isDebugEnabled()) {
+                log.debug("Unable to read the certificate of the MDM signature.", e);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the time at which the encoded certificate expires, or {@link Long#MAX_VALUE} if it cannot be decoded at
+     * the gateway, in which case the verification is reused only for the configured expiry.
+     */
+    private static long getCertificateExpiry(String encodedPem) {
+        try {
+            CertificateFactory cf = CertificateFactory.getInstance("X.509");
+            X509Certificate x509 = (X509Certificate) cf.generateCertificate(
+                    new ByteArrayInputStream(Base64.getMimeDecoder().decode(encodedPem)));
+            return x509.getNotAfter().getTime();
+        } catch (IllegalArgumentException | CertificateException e) {
+            if (log.isDebugEnabled()) {
+                log.debug("Unable to read the expiry time of the encoded certificate.", e);
+            }
+            return Long.MAX_VALUE;
+        }
+    }
+
+    /**
+     * Returns the time at which the JWT issued for a device expires, or 0 if it cannot be read, so that an assertion
+     * is never passed on to the backend after it has expired.
+     */
+    private static long getAssertionExpiry(String jwtToken) {
+        if (jwtToken == null) {
+            return 0;
+        }
+        String[] parts = jwtToken.split("\\.");
+        if (parts.length < 2) {
+            return 0;
+        }
+        try {
+            JSONObject claims = new JSONObject(new String(Base64.getUrlDecoder().decode(parts[1]),
+                    StandardCharsets.UTF_8));
+            return claims.getLong(EXPIRY_CLAIM) * 1000L;
+        } catch (IllegalArgumentException | JSONException e) {
+            if (log.isDebugEnabled()) {
+                log.debug("Unable to read the expiry time of the JWT issued for the device.", e);
+            }
+            return 0;
+        }
+    }
+
+    VerificationCache getVerificationCache() {
+        return verificationCache;
+    }
+
     private Map<String, String> setHeaders(RESTInvoker restInvoker) throws APIMCertificateMGTException {
         Map<String, String> map = new HashMap<>();
         String accessToken = Utils.getAccessToken(iotServerConfiguration, restInvoker);
@@ -39,6 +39,8 @@ public class IOTServerConfiguration {
     private  String dynamicClientRegistrationEndpoint;
     private  String oauthTokenEndpoint;
     private List<ContextPath> apis;
+    private int verificationCacheSize = 10000;
+    private int verificationCacheExpiry = 60;
 
     @XmlElement(name = "Hostname", required = true)
     public String getHostname() {
@@ -94,6 +96,27 @@ public class IOTServerConfiguration {
         this.oauthTokenEndpoint = oauthTokenEndpoint;
     }
 
+    @XmlElement(name = "VerificationCacheSize")
+    public int getVerificationCacheSize() {
+        return verificationCacheSize;
+    }
+
+    public void setVerificationCacheSize(int verificationCacheSize) {
+        this.verificationCacheSize = verificationCacheSize;
+    }
+
+    /**
+     * @return Number of seconds for which a successful certificate verification is reused.
+     */
+    @XmlElement(name = "VerificationCacheExpiry")
+    public int getVerificationCacheExpiry() {
+        return verificationCacheExpiry;
+    }
+
+    public void setVerificationCacheExpiry(int verificationCacheExpiry) {
+        this.verificationCacheExpiry = verificationCacheExpiry;
+    }
+
     @XmlElementWrapper(name="APIS")
     @XmlElement(name = "ContextPath", required = true)
     public List<ContextPath> getApis() {
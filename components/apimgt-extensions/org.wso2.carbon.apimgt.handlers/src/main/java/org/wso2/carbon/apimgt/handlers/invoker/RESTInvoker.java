@@ -37,13 +37,30 @@ public class RESTInvoker {
 
     private static final Log log = LogFactory.getLog(RESTInvoker.class);
 
+    private static volatile CloseableHttpClient sharedClient;
+
     private CloseableHttpClient client = null;
 
+    /**
+     * All the invokers share a single pooled HTTP client, so that connections to the IoT server and the key manager
+     * are kept alive and reused across requests and gateway handlers.
+     */
     public RESTInvoker() {
-        configureHttpClient();
+        client = getSharedClient();
     }
 
-    private void configureHttpClient() {
+    private static CloseableHttpClient getSharedClient() {
+        if (sharedClient == null) {
+            synchronized (RESTInvoker.class) {
+                if (sharedClient == null) {
+                    sharedClient = configureHttpClient();
+                }
+            }
+        }
+        return sharedClient;
+    }
+
+    private static CloseableHttpClient configureHttpClient() {
         int connectionTimeout = 120000;
         int socketTimeout = 120000;
         int maxTotalConnectionsPerRoute = 100;
@@ -56,7 +73,7 @@ public class RESTInvoker {
         PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
         connectionManager.setDefaultMaxPerRoute(maxTotalConnectionsPerRoute);
         connectionManager.setMaxTotal(maxTotalConnections);
-        client = HttpClients.custom()
+        CloseableHttpClient httpClient = HttpClients.custom()
                 .setConnectionManager(connectionManager)
                 .setDefaultRequestConfig(defaultRequestConfig)
                 .build();
@@ -66,7 +83,7 @@ public class RESTInvoker {
                     "maxConnectionsPerRoute = " + maxTotalConnectionsPerRoute +
                     "connectionTimeout = " + connectionTimeout);
         }
-
+        return httpClient;
     }
 
     public RESTResponse invokePOST(URI uri, Map<String, String> requestHeaders, String payload) throws IOException {
@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.handlers.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded, least recently used cache of successful certificate verifications of the IoT server. Every entry carries
+ * its own expiry time, so that a verification is never reused after the certificate it was made for has expired.
+ */
+public class VerificationCache {
+
+    private static final String HASH_ALGORITHM = "SHA-256";
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private final int maxEntries;
+    private final Map<String, CacheEntry> entries;
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    public VerificationCache(final int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<String, CacheEntry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest) {
+                return size() > VerificationCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached verification result of the key, or null if there is no such entry or if it has already
+     * expired.
+     */
+    public synchronized String get(String key) {
+        CacheEntry entry = entries.get(key);
+        if (entry == null) {
+            missCount.incrementAndGet();
+            return null;
+        }
+        if (entry.expiryTime <= System.currentTimeMillis()) {
+            entries.remove(key);
+            missCount.incrementAndGet();
+            return null;
+        }
+        hitCount.incrementAndGet();
+        return entry.value;
+    }
+
+    /**
+     * Adds a verification result to the cache, which is served until the given expiry time. Results which have
+     * already expired are not added.
+     *
+     * @param expiryTime Time in milliseconds since the epoch, after which the result must not be served
+     */
+    public synchronized void put(String key, String value, long expiryTime) {
+        if (maxEntries > 0 && expiryTime > System.currentTimeMillis()) {
+            entries.put(key, new CacheEntry(value, expiryTime));
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * Returns the hex encoded SHA-256 digest of a certificate, so that certificates are not kept in memory as keys.
+     */
+    public static String digest(String certificate) {
+        return digest(certificate.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns the hex encoded SHA-256 digest of an encoded certificate.
+     */
+    public static String digest(byte[] certificate) {
+        try {
+            byte[] digest = MessageDigest.getInstance(HASH_ALGORITHM).digest(certificate);
+            char[] hex = new char[digest.length * 2];
+            for (int i = 0; i < digest.length; i++) {
+                hex[2 * i] = HEX_DIGITS[(digest[i] >> 4) & 0xF];
+                hex[2 * i + 1] = HEX_DIGITS[digest[i] & 0xF];
+            }
+            return new String(hex);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(HASH_ALGORITHM + " is not supported by the JVM", e);
+        }
+    }
+
+    private static class CacheEntry {
+
+        private final String value;
+        private final long expiryTime;
+
+        CacheEntry(String value, long expiryTime) {
+            this.value = value;
+            this.expiryTime = expiryTime;
+        }
+    }
+
+}
@@ -0,0 +1,341 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.handlers;
+
+import com.google.gson.Gson;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.axis2.addressing.EndpointReference;
+import org.apache.axis2.context.ConfigurationContext;
+import org.apache.axis2.engine.AxisConfiguration;
+import org.apache.commons.io.IOUtils;
+import org.apache.synapse.MessageContext;
+import org.apache.synapse.config.SynapseConfiguration;
+import org.apache.synapse.core.axis2.Axis2MessageContext;
+import org.apache.synapse.core.axis2.Axis2SynapseEnvironment;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cert.jcajce.JcaCertStore;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.cms.CMSProcessableByteArray;
+import org.bouncycastle.cms.CMSSignedData;
+import org.bouncycastle.cms.CMSSignedDataGenerator;
+import org.bouncycastle.cms.jcajce.JcaSignerInfoGeneratorBuilder;
+import org.bouncycastle.operator.ContentSigner;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.bouncycastle.operator.jcajce.JcaDigestCalculatorProviderBuilder;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.carbon.apimgt.handlers.beans.ValidationResponce;
+import org.wso2.carbon.apimgt.handlers.config.IOTServerConfiguration;
+import org.wso2.carbon.apimgt.handlers.utils.AuthConstants;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.cert.X509Certificate;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class tests the caching of certificate verifications in {@link AuthenticationHandler}, against a local HTTP
+ * stub of the IoT server verification, client registration and token endpoints.
+ */
+public class AuthenticationHandlerCacheTest extends BaseAPIHandlerTest {
+
+    private static final String ANDROID_API = "https://test.com/testservice/api/android";
+    private static final String IOS_API = "https://test.com/testservice/api/ios";
+    private static final String X_JWT_ASSERTION = "X-JWT-Assertion";
+    private static final String SIGNATURE_ALGORITHM = "SHA256withRSA";
+
+    private HttpServer server;
+    private SynapseConfiguration synapseConfiguration;
+    private IOTServerConfiguration serverConfiguration;
+    private AuthenticationHandler handler;
+    private final AtomicInteger verificationCount = new AtomicInteger();
+    private volatile String verificationResponse = "valid";
+    private volatile int verificationStatus = 200;
+
+    @BeforeClass
+    public void initTest() throws IOException {
+        final String dcrResponse = getContent(TestUtils.getAbsolutePathOfConfig("dcr-response.json"));
+        final String tokenResponse = getContent(TestUtils.getAbsolutePathOfConfig("accesstoken-response.json"));
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/register", new StubHandler() {
+            @Override
+            String getResponse() {
+                return dcrResponse;
+            }
+        });
+        server.createContext("/token", new StubHandler() {
+            @Override
+            String getResponse() {
+                return tokenResponse;
+            }
+        });
+        server.createContext("/verify/", new StubHandler() {
+            @Override
+            String getResponse() {
+                verificationCount.incrementAndGet();
+                return verificationResponse;
+            }
+
+            @Override
+            int getStatus() {
+                return verificationStatus;
+            }
+        });
+        server.start();
+
+        String serverUrl = "http://localhost:" + server.getAddress().getPort();
+        serverConfiguration = new IOTServerConfiguration();
+        serverConfiguration.setUsername("testuser");
+        serverConfiguration.setPassword("testuserpwd");
+        serverConfiguration.setVerificationEndpoint(serverUrl + "/verify/");
+        serverConfiguration.setDynamicClientRegistrationEndpoint(serverUrl + "/register");
+        serverConfiguration.setOauthTokenEndpoint(serverUrl + "/token");
+        handler = new AuthenticationHandler(serverConfiguration);
+        synapseConfiguration = new SynapseConfiguration();
+    }
+
+    @AfterClass
+    public void cleanup() {
+        server.stop(0);
+    }
+
+    @Test(description = "Handle repeated requests with the same encoded PEM")
+    public void testEncodedPemIsVerifiedOnce() throws Exception {
+        verificationResponse = "valid";
+        int verifications = verificationCount.get();
+        long cacheHits = handler.getVerificationCache().getHitCount();
+        for (int i = 0; i < 5; i++) {
+            Assert.assertTrue(handler.handleRequest(createRequest(AuthConstants.ENCODED_PEM, "encoded pem",
+                    ANDROID_API)), "Request with a valid certificate is not authenticated");
+        }
+        Assert.assertEquals(verificationCount.get() - verifications, 1,
+                "Certificate is verified with the IoT server more than once");
+        Assert.assertEquals(handler.getVerificationCache().getHitCount() - cacheHits, 4);
+
+        Assert.assertTrue(handler.handleRequest(createRequest(AuthConstants.ENCODED_PEM, "another encoded pem",
+                ANDROID_API)));
+        Assert.assertEquals(verificationCount.get() - verifications, 2,
+                "Verification of a different certificate is served from the cache");
+    }
+
+    @Test(description = "Handle repeated requests with a certificate which fails the verification")
+    public void testInvalidCertificateIsNotCached() throws Exception {
+        verificationResponse = "invalid";
+        int verifications = verificationCount.get();
+        for (int i = 0; i < 2; i++) {
+            Assert.assertFalse(handler.handleRequest(createRequest(AuthConstants.ENCODED_PEM, "revoked pem",
+                    ANDROID_API)), "Request with an invalid certificate is authenticated");
+        }
+        Assert.assertEquals(verificationCount.get() - verifications, 2,
+                "Failed verification is served from the cache");
+    }
+
+    @Test(description = "Handle repeated requests while the verification endpoint fails")
+    public void testServerErrorIsNotCached() throws Exception {
+        verificationResponse = "{\"code\":500,\"message\":\"Error occurred while verifying the certificate.\"}";
+        verificationStatus = 500;
+        int verifications = verificationCount.get();
+        try {
+            for (int i = 0; i < 2; i++) {
+                handler.handleRequest(createRequest(AuthConstants.ENCODED_PEM, "pem during outage", ANDROID_API));
+                handler.handleRequest(createRequest(AuthConstants.PROXY_MUTUAL_AUTH_HEADER, "CN=outage",
+                        ANDROID_API));
+            }
+        } finally {
+            verificationStatus = 200;
+        }
+        Assert.assertEquals(verificationCount.get() - verifications, 4,
+                "Response of a failed verification endpoint is served from the cache");
+
+        verificationResponse = "valid";
+        Assert.assertTrue(handler.handleRequest(createRequest(AuthConstants.ENCODED_PEM, "pem during outage",
+                ANDROID_API)));
+        Assert.assertEquals(verificationCount.get() - verifications, 5,
+                "Certificate is not verified again once the verification endpoint recovers");
+    }
+
+    @Test(description = "Handle repeated requests for which the verification endpoint responds with an unknown result")
+    public void testUnknownResultIsNotCached() throws Exception {
+        verificationResponse = "";
+        int verifications = verificationCount.get();
+        for (int i = 0; i < 2; i++) {
+            handler.handleRequest(createRequest(AuthConstants.ENCODED_PEM, "unknown pem", ANDROID_API));
+        }
+        Assert.assertEquals(verificationCount.get() - verifications, 2,
+                "Verification without a positive result is served from the cache");
+    }
+
+    @Test(description = "Handle repeated requests with an expired certificate")
+    public void testExpiredCertificateIsNotCached() throws Exception {
+        verificationResponse = "valid";
+        byte[] expiredCertificate = Files.readAllBytes(new File(TestUtils.getAbsolutePathOfConfig("ra_cert.pem"))
+                .toPath());
+        String encodedPem = Base64.getEncoder().encodeToString(expiredCertificate);
+        int verifications = verificationCount.get();
+        for (int i = 0; i < 2; i++) {
+            handler.handleRequest(createRequest(AuthConstants.ENCODED_PEM, encodedPem, ANDROID_API));
+        }
+        Assert.assertEquals(verificationCount.get() - verifications, 2,
+                "Verification of an expired certificate is served from the cache");
+    }
+
+    @Test(description = "Handle repeated requests with the same MDM signature")
+    public void testMdmSignatureAssertionIsCached() throws Exception {
+        String payload = "{\"exp\":" + (System.currentTimeMillis() / 1000 + 3600) + "}";
+        String jwtToken = Base64.getUrlEncoder().encodeToString("{\"alg\":\"none\"}".getBytes(StandardCharsets.UTF_8))
+                + "." + Base64.getUrlEncoder().encodeToString(payload.getBytes(StandardCharsets.UTF_8)) + ".";
+        ValidationResponce validationResponce = new ValidationResponce();
+        validationResponce.setDeviceId("1234");
+        validationResponce.setDeviceType("ios");
+        validationResponce.setJWTToken(jwtToken);
+        validationResponce.setTenantId(-1234);
+        verificationResponse = new Gson().toJson(validationResponce);
+
+        KeyPair keyPair = KeyPairGenerator.getInstance("RSA").generateKeyPair();
+        X509Certificate deviceCertificate = createCertificate(keyPair, "CN=device-1");
+        int verifications = verificationCount.get();
+        for (int i = 0; i < 3; i++) {
+            // Every request carries a different signature, made with the same device certificate
+            String mdmSignature = createMdmSignature(keyPair, deviceCertificate, "request " + i);
+            MessageContext messageContext = createRequest(AuthConstants.MDM_SIGNATURE, mdmSignature, IOS_API);
+            Assert.assertTrue(handler.handleRequest(messageContext));
+            Assert.assertEquals(getTransportHeaders(messageContext).get(X_JWT_ASSERTION), jwtToken,
+                    "JWT assertion of the device is not added to the request");
+        }
+        Assert.assertEquals(verificationCount.get() - verifications, 1,
+                "Signatures of the same device are verified with the IoT server more than once");
+
+        KeyPair anotherKeyPair = KeyPairGenerator.getInstance("RSA").generateKeyPair();
+        X509Certificate anotherCertificate = createCertificate(anotherKeyPair, "CN=device-2");
+        Assert.assertTrue(handler.handleRequest(createRequest(AuthConstants.MDM_SIGNATURE,
+                createMdmSignature(anotherKeyPair, anotherCertificate, "request"), IOS_API)));
+        Assert.assertEquals(verificationCount.get() - verifications, 2,
+                "Verification of another device is served from the cache");
+
+        for (int i = 0; i < 2; i++) {
+            Assert.assertTrue(handler.handleRequest(createRequest(AuthConstants.MDM_SIGNATURE, "mdm signature",
+                    IOS_API)));
+        }
+        Assert.assertEquals(verificationCount.get() - verifications, 4,
+                "Verification of a signature which cannot be decoded is served from the cache");
+    }
+
+    @Test(description = "Handle repeated requests when the verification cache is disabled")
+    public void testDisabledCache() throws Exception {
+        verificationResponse = "valid";
+        serverConfiguration.setVerificationCacheSize(0);
+        AuthenticationHandler uncachedHandler = new AuthenticationHandler(serverConfiguration);
+        int verifications = verificationCount.get();
+        for (int i = 0; i < 3; i++) {
+            Assert.assertTrue(uncachedHandler.handleRequest(createRequest(AuthConstants.ENCODED_PEM, "encoded pem",
+                    ANDROID_API)));
+        }
+        Assert.assertEquals(verificationCount.get() - verifications, 3);
+    }
+
+    private MessageContext createRequest(String header, String value, String address) throws Exception {
+        AxisConfiguration axisConfig = synapseConfiguration.getAxisConfiguration();
+        if (axisConfig == null) {
+            axisConfig = new AxisConfiguration();
+            synapseConfiguration.setAxisConfiguration(axisConfig);
+        }
+        org.apache.axis2.context.MessageContext axis2MessageContext = new org.apache.axis2.context.MessageContext();
+        MessageContext messageContext = new Axis2MessageContext(axis2MessageContext, synapseConfiguration,
+                new Axis2SynapseEnvironment(new ConfigurationContext(axisConfig), synapseConfiguration));
+        messageContext.setTo(new EndpointReference(address));
+        Map<String, String> transportHeaders = new HashMap<>();
+        transportHeaders.put(header, value);
+        axis2MessageContext.setProperty(org.apache.axis2.context.MessageContext.TRANSPORT_HEADERS, transportHeaders);
+        return messageContext;
+    }
+
+    private X509Certificate createCertificate(KeyPair keyPair, String subject) throws Exception {
+        long now = System.currentTimeMillis();
+        X500Name name = new X500Name(subject);
+        ContentSigner signer = new JcaContentSignerBuilder(SIGNATURE_ALGORITHM).build(keyPair.getPrivate());
+        X509CertificateHolder holder = new JcaX509v3CertificateBuilder(name, BigInteger.valueOf(now),
+                new Date(now - 60 * 1000L), new Date(now + 24 * 60 * 60 * 1000L), name, keyPair.getPublic())
+                .build(signer);
+        return new JcaX509CertificateConverter().getCertificate(holder);
+    }
+
+    private String createMdmSignature(KeyPair keyPair, X509Certificate certificate, String content)
+            throws Exception {
+        CMSSignedDataGenerator generator = new CMSSignedDataGenerator();
+        ContentSigner signer = new JcaContentSignerBuilder(SIGNATURE_ALGORITHM).build(keyPair.getPrivate());
+        generator.addSignerInfoGenerator(new JcaSignerInfoGeneratorBuilder(
+                new JcaDigestCalculatorProviderBuilder().build()).build(signer, certificate));
+        generator.addCertificates(new JcaCertStore(Collections.singletonList(certificate)));
+        CMSSignedData signedData = generator.generate(
+                new CMSProcessableByteArray(content.getBytes(StandardCharsets.UTF_8)), false);
+        return Base64.getEncoder().encodeToString(signedData.getEncoded());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, String> getTransportHeaders(MessageContext messageContext) {
+        return (Map<String, String>) ((Axis2MessageContext) messageContext).getAxis2MessageContext()
+                .getProperty(org.apache.axis2.context.MessageContext.TRANSPORT_HEADERS);
+    }
+
+    private String getContent(String filePath) throws IOException {
+        return new String(Files.readAllBytes(new File(filePath).toPath()), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Stub endpoint which consumes the request and responds with a fixed payload.
+     */
+    private abstract static class StubHandler implements HttpHandler {
+
+        abstract String getResponse();
+
+        int getStatus() {
+            return 200;
+        }
+
+        @Override
+        public void handle(HttpExchange exchange) throws IOException {
+            IOUtils.toString(exchange.getRequestBody());
+            byte[] response = getResponse().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", TestUtils.CONTENT_TYPE);
+            exchange.sendResponseHeaders(getStatus(), response.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(response);
+            }
+        }
+    }
+
+}
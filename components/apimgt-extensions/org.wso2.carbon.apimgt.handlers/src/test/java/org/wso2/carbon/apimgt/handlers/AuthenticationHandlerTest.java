@@ -249,6 +249,7 @@ public class AuthenticationHandlerTest extends BaseAPIHandlerTest {
         clientField.setAccessible(true);
         this.mockClient = new MockClient();
         clientField.set(restInvoker, this.mockClient);
+        this.handler.getVerificationCache().clear();
     }
 
     private CloseableHttpResponse getDCRResponse() throws IOException {
@@ -56,7 +56,7 @@ public class OAuthRequestInterceptor implements RequestInterceptor {
     private static final String APIM_SUBSCRIBE_SCOPE = "apim:subscribe";
     private static final long DEFAULT_REFRESH_TIME_OFFSET_IN_MILLIS = 100000;
     private DCRClient dcrClient;
-    private static OAuthApplication oAuthApplication;
+    private static volatile OAuthApplication oAuthApplication;
     private static Map<String, AccessTokenInfo> tenantUserTokenMap = new ConcurrentHashMap<>();
     private static final Log log = LogFactory.getLog(OAuthRequestInterceptor.class);
 
@@ -76,16 +76,7 @@ public class OAuthRequestInterceptor implements RequestInterceptor {
 
     @Override
     public void apply(RequestTemplate template) {
-        if (oAuthApplication == null) {
-            //had to do on demand initialization due to start up error.
-            ClientProfile clientProfile = new ClientProfile();
-            clientProfile.setClientName(APPLICATION_NAME);
-            clientProfile.setCallbackUrl("");
-            clientProfile.setGrantType(GRANT_TYPES);
-            clientProfile.setOwner(APIMConfigReader.getInstance().getConfig().getUsername());
-            clientProfile.setSaasApp(true);
-            oAuthApplication = dcrClient.register(clientProfile);
-        }
+        OAuthApplication oAuthApplication = getOAuthApplication();
         try {
             String tenantDomain = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantDomain();
             String username = PrivilegedCarbonContext.getThreadLocalCarbonContext().getUsername();
@@ -122,6 +113,30 @@ public class OAuthRequestInterceptor implements RequestInterceptor {
         }
     }
 
+    /**
+     * Returns the OAuth application of the client, which is registered on demand due to start up error. Requests may
+     * be sent from several threads at once, so the application is registered only by the first of them.
+     */
+    private OAuthApplication getOAuthApplication() {
+        OAuthApplication application = oAuthApplication;
+        if (application == null) {
+            synchronized (OAuthRequestInterceptor.class) {
+                application = oAuthApplication;
+                if (application == null) {
+                    ClientProfile clientProfile = new ClientProfile();
+                    clientProfile.setClientName(APPLICATION_NAME);
+                    clientProfile.setCallbackUrl("");
+                    clientProfile.setGrantType(GRANT_TYPES);
+                    clientProfile.setOwner(APIMConfigReader.getInstance().getConfig().getUsername());
+                    clientProfile.setSaasApp(true);
+                    application = dcrClient.register(clientProfile);
+                    oAuthApplication = application;
+                }
+            }
+        }
+        return application;
+    }
+
     public void removeToken(String username, String tenantDomain) {
         if (!tenantDomain.equals(MultitenantConstants.SUPER_TENANT_DOMAIN_NAME)) {
             username = username + "@" + tenantDomain;
@@ -51,23 +51,19 @@ public class APIPublisherServiceImpl implements APIPublisherService {
                     .getPublisherClient();
             API api = getAPI(apiConfig);
             APIList apiList = publisherClient.getApis().apisGet(100, 0, "name:" + api.getName(), CONTENT_TYPE, null);
+            APIInfo existingApi = getExistingAPIs(apiList).get(getAPIKey(api.getName(), api.getVersion()));
 
-            if (!isExist(api, apiList)) {
+            if (existingApi == null) {
                 api = publisherClient.getApi().apisPost(api, CONTENT_TYPE, null);
                 if (CREATED_STATUS.equals(api.getStatus())) {
                     publisherClient.getApi().apisChangeLifecyclePost(PUBLISH_ACTION, api.getId(), null, null, null);
                 }
             } else {
                 if (WebappPublisherConfig.getInstance().isEnabledUpdateApi()) {
-                    for (APIInfo apiInfo : apiList.getList()) {
-                        if (api.getName().equals(apiInfo.getName()) && api.getVersion().equals(apiInfo.getVersion())) {
-                            api = publisherClient.getApi().apisApiIdPut(apiInfo.getId(), api, CONTENT_TYPE, null, null);
-                            if (api != null && CREATED_STATUS.equals(api.getStatus())) {
-                                publisherClient.getApi().apisChangeLifecyclePost(PUBLISH_ACTION, api.getId(), null, null,
-                                                                                 null);
-                            }
-                        }
-
+                    api = publisherClient.getApi().apisApiIdPut(existingApi.getId(), api, CONTENT_TYPE, null, null);
+                    if (api != null && CREATED_STATUS.equals(api.getStatus())) {
+                        publisherClient.getApi().apisChangeLifecyclePost(PUBLISH_ACTION, api.getId(), null, null,
+                                                                         null);
                     }
                 }
             }
@@ -78,18 +74,24 @@ public class APIPublisherServiceImpl implements APIPublisherService {
         }
     }
 
-    private boolean isExist(API api, APIList apiList) {
+    /**
+     * Maps the existing APIs by their name and version, so that an API is looked up without scanning the list.
+     */
+    private Map<String, APIInfo> getExistingAPIs(APIList apiList) {
         if (apiList == null || apiList.getList() == null || apiList.getList().size() == 0) {
-            return false;
+            return Collections.emptyMap();
         }
+        Map<String, APIInfo> existingApis = new HashMap<>();
         for (APIInfo existingApi : apiList.getList()) {
-            if (existingApi.getName() != null && existingApi.getName().equals(api.
-                    getName()) && existingApi.getVersion() != null &&
-                    existingApi.getVersion().equals(api.getVersion())) {
-                return true;
+            if (existingApi.getName() != null && existingApi.getVersion() != null) {
+                existingApis.put(getAPIKey(existingApi.getName(), existingApi.getVersion()), existingApi);
             }
         }
-        return false;
+        return existingApis;
+    }
+
+    private String getAPIKey(String name, String version) {
+        return name + ":" + version;
     }
 
     private API getAPI(APIConfig config) {
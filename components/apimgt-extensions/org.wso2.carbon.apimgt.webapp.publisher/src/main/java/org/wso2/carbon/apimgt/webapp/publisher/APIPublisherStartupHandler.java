@@ -25,7 +25,14 @@ import org.wso2.carbon.apimgt.webapp.publisher.exception.APIManagerPublisherExce
 import org.wso2.carbon.apimgt.webapp.publisher.internal.APIPublisherDataHolder;
 import org.wso2.carbon.core.ServerStartupObserver;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Stack;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 public class APIPublisherStartupHandler implements ServerStartupObserver {
 
@@ -33,6 +40,7 @@ public class APIPublisherStartupHandler implements ServerStartupObserver {
     private static int retryTime = 2000;
     private static final int CONNECTION_RETRY_FACTOR = 2;
     private static final int MAX_RETRY_COUNT = 5;
+    private static final int MAX_PUBLISHER_THREADS = 4;
     private static Stack<APIConfig> failedAPIsStack = new Stack<>();
     private static Stack<APIConfig> currentAPIsStack;
 
@@ -90,15 +98,49 @@ public class APIPublisherStartupHandler implements ServerStartupObserver {
         t.start();
     }
 
-    private void publishAPIs(Stack<APIConfig> apis, Stack<APIConfig> failedStack) {
+    /**
+     * Publishes the APIs in parallel with a bounded number of threads. APIs which share a name are published one
+     * after the other, so that an API is not created twice by concurrent publishers.
+     */
+    private void publishAPIs(Stack<APIConfig> apis, final Stack<APIConfig> failedStack) {
+        Map<String, List<APIConfig>> apisByName = new LinkedHashMap<>();
         while (!apis.isEmpty()) {
             APIConfig api = apis.pop();
-            try {
-                publisher.publishAPI(api);
-            } catch (APIManagerPublisherException e) {
-                log.error("failed to publish api.", e);
-                failedStack.push(api);
+            List<APIConfig> namedApis = apisByName.get(api.getName());
+            if (namedApis == null) {
+                namedApis = new ArrayList<>();
+                apisByName.put(api.getName(), namedApis);
             }
+            namedApis.add(api);
+        }
+        if (apisByName.isEmpty()) {
+            return;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(MAX_PUBLISHER_THREADS, apisByName.size()));
+        for (final List<APIConfig> namedApis : apisByName.values()) {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    for (APIConfig api : namedApis) {
+                        try {
+                            publisher.publishAPI(api);
+                        } catch (APIManagerPublisherException e) {
+                            log.error("failed to publish api.", e);
+                            failedStack.push(api);
+                        }
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        try {
+            while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Waiting for the APIs to be published");
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
     }
 
@@ -99,6 +99,7 @@ public class AnnotationProcessor {
     private Map<String, ApiScope> apiScopes;
 
     public AnnotationProcessor(final StandardContext context) {
+        this.context = context;
         servletContext = context.getServletContext();
         classLoader = servletContext.getClassLoader();
         try {
@@ -126,13 +127,54 @@ public class AnnotationProcessor {
     }
 
     public Set<String> scanStandardContext(String className) throws IOException {
+        AnnotationScanIndex scanIndex = AnnotationScanIndex.getInstance();
+        File archive = findWebappArchive();
+        String checksum = null;
+        if (archive != null) {
+            checksum = scanIndex.getChecksum(archive);
+            Set<String> annotatedClasses = scanIndex.getAnnotatedClasses(servletContext.getContextPath(), checksum,
+                    className);
+            if (annotatedClasses != null) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Annotated classes of " + servletContext.getContextPath() + " are loaded from the " +
+                            "scan index as " + archive.getName() + " has not been modified");
+                }
+                return annotatedClasses;
+            }
+        }
         ExtendedAnnotationDB db = new ExtendedAnnotationDB();
         db.addIgnoredPackages(PACKAGE_ORG_APACHE);
         db.addIgnoredPackages(PACKAGE_ORG_CODEHAUS);
         db.addIgnoredPackages(PACKAGE_ORG_SPRINGFRAMEWORK);
         URL classPath = findWebInfClassesPath(servletContext);
         db.scanArchives(classPath);
-        return db.getAnnotationIndex().get(className);
+        Set<String> annotatedClasses = db.getAnnotationIndex().get(className);
+        if (checksum != null) {
+            scanIndex.addAnnotatedClasses(servletContext.getContextPath(), checksum, className, annotatedClasses);
+        }
+        return annotatedClasses;
+    }
+
+    /**
+     * Finds the archive which the webapp is deployed from, which is either the document base itself or the archive
+     * which the document base has been extracted from.
+     *
+     * @return the archive, or null if the webapp is not deployed from an archive.
+     */
+    private File findWebappArchive() {
+        String docBase = context.getDocBase();
+        if (docBase != null) {
+            File archive = new File(docBase);
+            if (archive.isFile()) {
+                return archive;
+            }
+        }
+        String rootPath = servletContext.getRealPath("/");
+        if (rootPath == null) {
+            return null;
+        }
+        File archive = new File(new File(rootPath).getAbsolutePath() + ".war");
+        return archive.isFile() ? archive : null;
     }
 
     public List<APIResourceConfiguration> extractAPIInfo(final ServletContext servletContext, Set<String> entityClasses)
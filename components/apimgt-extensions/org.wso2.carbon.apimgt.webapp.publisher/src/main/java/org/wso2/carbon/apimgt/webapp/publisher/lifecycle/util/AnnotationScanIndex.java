@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.webapp.publisher.lifecycle.util;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * Index of the classes of webapp archives which carry a given annotation, persisted across server restarts. Each
+ * webapp context has a single entry, which holds the checksum of the archive it was scanned from. Hence an archive
+ * which has not changed since it was last deployed is not scanned again, while the entry of a modified archive is
+ * replaced once the archive is scanned again.
+ */
+public class AnnotationScanIndex {
+
+    private static final Log log = LogFactory.getLog(AnnotationScanIndex.class);
+    private static final String INDEX_DIRECTORY = "webapp-publisher-scan-index";
+    private static final String INDEX_FILE_EXTENSION = ".properties";
+    private static final String CLASS_NAME_SEPARATOR = ",";
+    private static final String CHECKSUM_PROPERTY = "archive.checksum";
+    private static final AnnotationScanIndex instance =
+            new AnnotationScanIndex(new File(System.getProperty("java.io.tmpdir"), INDEX_DIRECTORY));
+
+    private final File indexDirectory;
+
+    AnnotationScanIndex(File indexDirectory) {
+        this.indexDirectory = indexDirectory;
+    }
+
+    public static AnnotationScanIndex getInstance() {
+        return instance;
+    }
+
+    /**
+     * Computes the checksum of a webapp archive, which identifies its entries in the index.
+     */
+    public String getChecksum(File archive) throws IOException {
+        MessageDigest messageDigest = getMessageDigest();
+        byte[] buffer = new byte[8192];
+        try (InputStream inputStream = new FileInputStream(archive)) {
+            int length;
+            while ((length = inputStream.read(buffer)) != -1) {
+                messageDigest.update(buffer, 0, length);
+            }
+        }
+        return toHex(messageDigest.digest());
+    }
+
+    /**
+     * Returns the classes of the archive which carry the annotation, or null if the archive has not been scanned for
+     * the annotation yet.
+     *
+     * @param context    Path of the webapp context, which the archive is deployed to.
+     * @param checksum   Checksum of the archive.
+     * @param annotation Name of the annotation.
+     */
+    public synchronized Set<String> getAnnotatedClasses(String context, String checksum, String annotation) {
+        String classNames = loadIndex(context, checksum).getProperty(annotation);
+        if (classNames == null) {
+            return null;
+        }
+        Set<String> annotatedClasses = new HashSet<>();
+        for (String className : classNames.split(CLASS_NAME_SEPARATOR)) {
+            if (!className.isEmpty()) {
+                annotatedClasses.add(className);
+            }
+        }
+        return annotatedClasses;
+    }
+
+    /**
+     * Records the classes of the archive which carry the annotation, replacing the entry of a previous archive of the
+     * context. Failures are only logged, as the archive is then scanned again on its next deployment.
+     *
+     * @param context          Path of the webapp context, which the archive is deployed to.
+     * @param checksum         Checksum of the archive.
+     * @param annotation       Name of the annotation.
+     * @param annotatedClasses Classes of the archive which carry the annotation.
+     */
+    public synchronized void addAnnotatedClasses(String context, String checksum, String annotation,
+                                                 Set<String> annotatedClasses) {
+        Properties index = loadIndex(context, checksum);
+        StringBuilder classNames = new StringBuilder();
+        for (String className : annotatedClasses == null ? Collections.<String>emptySet() : annotatedClasses) {
+            if (classNames.length() > 0) {
+                classNames.append(CLASS_NAME_SEPARATOR);
+            }
+            classNames.append(className);
+        }
+        index.setProperty(annotation, classNames.toString());
+        if (!indexDirectory.isDirectory() && !indexDirectory.mkdirs()) {
+            log.warn("Unable to create the annotation scan index directory '" + indexDirectory + "'");
+            return;
+        }
+        File indexFile = getIndexFile(context);
+        File tempFile = new File(indexDirectory, indexFile.getName() + ".tmp");
+        try (OutputStream outputStream = new FileOutputStream(tempFile)) {
+            index.store(outputStream, null);
+        } catch (IOException e) {
+            log.warn("Error occurred while writing the annotation scan index '" + indexFile + "'", e);
+            return;
+        }
+        if ((indexFile.exists() && !indexFile.delete()) || !tempFile.renameTo(indexFile)) {
+            log.warn("Unable to replace the annotation scan index '" + indexFile + "'");
+        }
+    }
+
+    /**
+     * Loads the entry of the context, which is discarded if it has been recorded for a different archive.
+     */
+    private Properties loadIndex(String context, String checksum) {
+        Properties index = new Properties();
+        File indexFile = getIndexFile(context);
+        if (indexFile.isFile()) {
+            try (InputStream inputStream = new FileInputStream(indexFile)) {
+                index.load(inputStream);
+            } catch (IOException e) {
+                log.warn("Error occurred while reading the annotation scan index '" + indexFile + "'", e);
+            }
+        }
+        if (!checksum.equals(index.getProperty(CHECKSUM_PROPERTY))) {
+            index.clear();
+            index.setProperty(CHECKSUM_PROPERTY, checksum);
+        }
+        return index;
+    }
+
+    private File getIndexFile(String context) {
+        // Context paths contain characters which are not allowed in file names, hence the file is named by a digest.
+        MessageDigest messageDigest = getMessageDigest();
+        messageDigest.update(context.getBytes(StandardCharsets.UTF_8));
+        return new File(indexDirectory, toHex(messageDigest.digest()) + INDEX_FILE_EXTENSION);
+    }
+
+    private static MessageDigest getMessageDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256.
+            throw new IllegalStateException("SHA-256 is not supported", e);
+        }
+    }
+
+    private static String toHex(byte[] digest) {
+        StringBuilder hex = new StringBuilder();
+        for (byte digestByte : digest) {
+            hex.append(Character.forDigit((digestByte >> 4) & 0xF, 16))
+                    .append(Character.forDigit(digestByte & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+}
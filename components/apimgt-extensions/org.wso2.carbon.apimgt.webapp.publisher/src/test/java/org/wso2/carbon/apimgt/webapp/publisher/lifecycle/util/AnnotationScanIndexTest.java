@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.apimgt.webapp.publisher.lifecycle.util;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * This is the test class for {@link AnnotationScanIndex}.
+ */
+public class AnnotationScanIndexTest {
+
+    private static final String ANNOTATION = "io.swagger.annotations.SwaggerDefinition";
+    private static final String CONTEXT = "/api/device-mgt/v1.0";
+    private File archive;
+    private File indexDirectory;
+
+    @BeforeClass
+    public void init() throws IOException {
+        File baseDirectory = Files.createTempDirectory("scan-index-test").toFile();
+        archive = new File(baseDirectory, "api.war");
+        writeArchive("version 1");
+        indexDirectory = new File(baseDirectory, "index");
+    }
+
+    @Test(description = "This method tests whether the scanned classes of an unchanged archive are reused")
+    public void testUnchangedArchiveIsNotScannedAgain() throws IOException {
+        AnnotationScanIndex scanIndex = new AnnotationScanIndex(indexDirectory);
+        String checksum = scanIndex.getChecksum(archive);
+        Assert.assertNull(scanIndex.getAnnotatedClasses(CONTEXT, checksum, ANNOTATION),
+                "Archive is indexed before a scan");
+
+        Set<String> annotatedClasses = new HashSet<>(Arrays.asList("org.wso2.api.DeviceService",
+                "org.wso2.api.GroupService"));
+        scanIndex.addAnnotatedClasses(CONTEXT, checksum, ANNOTATION, annotatedClasses);
+
+        AnnotationScanIndex restartedScanIndex = new AnnotationScanIndex(indexDirectory);
+        Assert.assertEquals(restartedScanIndex.getChecksum(archive), checksum);
+        Assert.assertEquals(restartedScanIndex.getAnnotatedClasses(CONTEXT, checksum, ANNOTATION), annotatedClasses,
+                "Annotated classes are not persisted in the index");
+    }
+
+    @Test(description = "This method tests whether a modified archive is scanned again",
+            dependsOnMethods = "testUnchangedArchiveIsNotScannedAgain")
+    public void testModifiedArchiveIsScannedAgain() throws IOException {
+        AnnotationScanIndex scanIndex = new AnnotationScanIndex(indexDirectory);
+        String checksum = scanIndex.getChecksum(archive);
+        writeArchive("version 2");
+        String modifiedChecksum = scanIndex.getChecksum(archive);
+        Assert.assertNotEquals(modifiedChecksum, checksum, "Checksum of a modified archive is not changed");
+        Assert.assertNull(scanIndex.getAnnotatedClasses(CONTEXT, modifiedChecksum, ANNOTATION),
+                "Annotated classes of the previous archive are used for the modified archive");
+
+        scanIndex.addAnnotatedClasses(CONTEXT, modifiedChecksum, ANNOTATION, null);
+        Assert.assertTrue(scanIndex.getAnnotatedClasses(CONTEXT, modifiedChecksum, ANNOTATION).isEmpty(),
+                "Archive without annotated classes is not indexed");
+        Assert.assertNull(scanIndex.getAnnotatedClasses(CONTEXT, checksum, ANNOTATION),
+                "Entry of the previous archive is kept after the modified archive is indexed");
+        Assert.assertEquals(indexDirectory.listFiles().length, 1, "Index holds more than one entry per context");
+    }
+
+    private void writeArchive(String content) throws IOException {
+        try (OutputStream outputStream = new FileOutputStream(archive)) {
+            outputStream.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+}
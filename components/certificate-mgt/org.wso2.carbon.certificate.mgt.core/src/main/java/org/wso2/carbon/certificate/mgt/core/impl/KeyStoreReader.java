@@ -31,6 +31,7 @@ import org.wso2.carbon.certificate.mgt.core.exception.CertificateManagementExcep
 import org.wso2.carbon.certificate.mgt.core.exception.KeystoreException;
 import org.wso2.carbon.certificate.mgt.core.util.Serializer;
 
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
@@ -46,6 +47,8 @@ public class KeyStoreReader {
 
     private static final Log log = LogFactory.getLog(KeyStoreReader.class);
 
+    private static volatile KeyMaterial keyMaterial;
+
     private CertificateDAO certDao;
 
     public KeyStoreReader() {
@@ -146,22 +149,67 @@ public class KeyStoreReader {
         } catch (CertificateManagementException e) {
             String errorMsg = "Unable to find KeyStore configuration in certificate-mgt.config file.";
             throw new KeystoreException(errorMsg, e);
+        } finally {
+            keyMaterial = null;
+        }
+    }
+
+    /**
+     * Returns the CA and RA material of the certificate keystore. The keystore is read only when it has not been read
+     * yet, or when the keystore file has been modified since it was read.
+     */
+    private KeyMaterial getKeyMaterial() throws KeystoreException {
+        CertificateKeystoreConfig certificateKeystoreConfig;
+        try {
+            certificateKeystoreConfig = CertificateConfigurationManager.getInstance().getCertificateKeyStoreConfig();
+        } catch (CertificateManagementException e) {
+            String errorMsg = "Unable to find KeyStore configuration in certificate-mgt.config file.";
+            throw new KeystoreException(errorMsg, e);
+        }
+        File keyStoreFile = new File(certificateKeystoreConfig.getCertificateKeystoreLocation());
+        KeyMaterial material = keyMaterial;
+        if (material != null && material.isCurrent(keyStoreFile)) {
+            return material;
+        }
+        synchronized (KeyStoreReader.class) {
+            material = keyMaterial;
+            if (material == null || !material.isCurrent(keyStoreFile)) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Loading CA and RA material from the KeyStore " + keyStoreFile.getPath());
+                }
+                long lastModified = keyStoreFile.lastModified();
+                long length = keyStoreFile.length();
+                KeyStore keyStore = loadKeyStore(certificateKeystoreConfig.getCertificateKeystoreType(),
+                        certificateKeystoreConfig.getCertificateKeystoreLocation(),
+                        certificateKeystoreConfig.getCertificateKeystorePassword());
+                material = new KeyMaterial(keyStoreFile.getPath(), lastModified, length, keyStore,
+                        certificateKeystoreConfig);
+                keyMaterial = material;
+            }
+            return material;
         }
     }
 
     public Certificate getCACertificate() throws KeystoreException {
-        KeyStore keystore = loadCertificateKeyStore();
+        return getKeyMaterial().getCACertificate();
+    }
+
+    PrivateKey getCAPrivateKey() throws KeystoreException {
+        return getKeyMaterial().getCAPrivateKey();
+    }
+
+    public Certificate getRACertificate() throws KeystoreException {
+        return getKeyMaterial().getRACertificate();
+    }
+
+    private static Certificate readCACertificate(KeyStore keystore, CertificateKeystoreConfig certificateKeystoreConfig)
+            throws KeystoreException {
         Certificate caCertificate;
         try {
-            CertificateKeystoreConfig certificateKeystoreConfig = CertificateConfigurationManager.getInstance().
-                    getCertificateKeyStoreConfig();
             caCertificate = keystore.getCertificate(certificateKeystoreConfig.getCACertAlias());
         } catch (KeyStoreException e) {
             String errorMsg = "KeyStore issue occurred when loading KeyStore";
             throw new KeystoreException(errorMsg, e);
-        } catch (CertificateManagementException e) {
-            String errorMsg = "Unable to find KeyStore configuration in certificate-mgt.config file.";
-            throw new KeystoreException(errorMsg, e);
         }
 
         if (caCertificate == null) {
@@ -171,15 +219,12 @@ public class KeyStoreReader {
         return caCertificate;
     }
 
-    PrivateKey getCAPrivateKey() throws KeystoreException {
-        KeyStore keyStore = loadCertificateKeyStore();
+    private static PrivateKey readCAPrivateKey(KeyStore keyStore, CertificateKeystoreConfig certificateKeystoreConfig)
+            throws KeystoreException {
         PrivateKey caPrivateKey;
         try {
-            CertificateKeystoreConfig certificateKeystoreConfig = CertificateConfigurationManager.getInstance().
-                    getCertificateKeyStoreConfig();
-            caPrivateKey = (PrivateKey) keyStore.getKey(certificateKeystoreConfig.getCACertAlias(), certificateKeystoreConfig
-                    .
-                            getCAPrivateKeyPassword().toCharArray());
+            caPrivateKey = (PrivateKey) keyStore.getKey(certificateKeystoreConfig.getCACertAlias(),
+                    certificateKeystoreConfig.getCAPrivateKeyPassword().toCharArray());
         } catch (UnrecoverableKeyException e) {
             String errorMsg = "Key is unrecoverable when retrieving CA private key";
             throw new KeystoreException(errorMsg, e);
@@ -189,9 +234,6 @@ public class KeyStoreReader {
         } catch (NoSuchAlgorithmException e) {
             String errorMsg = "Algorithm not found when retrieving CA private key";
             throw new KeystoreException(errorMsg, e);
-        } catch (CertificateManagementException e) {
-            String errorMsg = "Unable to find KeyStore configuration in certificate-mgt.config file.";
-            throw new KeystoreException(errorMsg, e);
         }
 
         if (caPrivateKey == null) {
@@ -201,19 +243,14 @@ public class KeyStoreReader {
         return caPrivateKey;
     }
 
-    public Certificate getRACertificate() throws KeystoreException {
-        KeyStore keystore = loadCertificateKeyStore();
+    private static Certificate readRACertificate(KeyStore keystore, CertificateKeystoreConfig certificateKeystoreConfig)
+            throws KeystoreException {
         Certificate raCertificate;
         try {
-            CertificateKeystoreConfig certificateKeystoreConfig = CertificateConfigurationManager.getInstance().
-                    getCertificateKeyStoreConfig();
             raCertificate = keystore.getCertificate(certificateKeystoreConfig.getRACertAlias());
         } catch (KeyStoreException e) {
             String errorMsg = "KeyStore issue occurred when retrieving RA private key";
             throw new KeystoreException(errorMsg, e);
-        } catch (CertificateManagementException e) {
-            String errorMsg = "Unable to find KeyStore configuration in certificate-mgt.config file.";
-            throw new KeystoreException(errorMsg, e);
         }
 
         if (raCertificate == null) {
@@ -247,11 +284,13 @@ public class KeyStoreReader {
     }
 
     public PrivateKey getRAPrivateKey() throws KeystoreException {
-        KeyStore keystore = loadCertificateKeyStore();
+        return getKeyMaterial().getRAPrivateKey();
+    }
+
+    private static PrivateKey readRAPrivateKey(KeyStore keystore, CertificateKeystoreConfig certificateKeystoreConfig)
+            throws KeystoreException {
         PrivateKey raPrivateKey;
         try {
-            CertificateKeystoreConfig certificateKeystoreConfig = CertificateConfigurationManager.getInstance().
-                    getCertificateKeyStoreConfig();
             raPrivateKey = (PrivateKey) keystore.getKey(certificateKeystoreConfig.getRACertAlias(),
                     certificateKeystoreConfig.getRAPrivateKeyPassword().toCharArray());
         } catch (UnrecoverableKeyException e) {
@@ -263,9 +302,6 @@ public class KeyStoreReader {
         } catch (NoSuchAlgorithmException e) {
             String errorMsg = "Algorithm not found when retrieving RA private key";
             throw new KeystoreException(errorMsg, e);
-        } catch (CertificateManagementException e) {
-            String errorMsg = "Unable to find KeyStore configuration in certificate-mgt.config file.";
-            throw new KeystoreException(errorMsg, e);
         }
 
         if (raPrivateKey == null) {
@@ -311,4 +347,103 @@ public class KeyStoreReader {
         }
         return certificateResponse;
     }
+
+    /**
+     * Immutable holder of the CA and RA certificates and keys read from a version of the certificate keystore file.
+     * Failures to read an entry are kept as well, so that they are reported only when that entry is requested.
+     */
+    private static final class KeyMaterial {
+
+        private final String keyStoreLocation;
+        private final long lastModified;
+        private final long length;
+        private final Certificate caCertificate;
+        private final PrivateKey caPrivateKey;
+        private final Certificate raCertificate;
+        private final PrivateKey raPrivateKey;
+        private final KeystoreException caCertificateError;
+        private final KeystoreException caPrivateKeyError;
+        private final KeystoreException raCertificateError;
+        private final KeystoreException raPrivateKeyError;
+
+        private KeyMaterial(String keyStoreLocation, long lastModified, long length, KeyStore keyStore,
+                            CertificateKeystoreConfig certificateKeystoreConfig) {
+            this.keyStoreLocation = keyStoreLocation;
+            this.lastModified = lastModified;
+            this.length = length;
+
+            Certificate certificate = null;
+            KeystoreException error = null;
+            try {
+                certificate = readCACertificate(keyStore, certificateKeystoreConfig);
+            } catch (KeystoreException e) {
+                error = e;
+            }
+            this.caCertificate = certificate;
+            this.caCertificateError = error;
+
+            PrivateKey privateKey = null;
+            error = null;
+            try {
+                privateKey = readCAPrivateKey(keyStore, certificateKeystoreConfig);
+            } catch (KeystoreException e) {
+                error = e;
+            }
+            this.caPrivateKey = privateKey;
+            this.caPrivateKeyError = error;
+
+            certificate = null;
+            error = null;
+            try {
+                certificate = readRACertificate(keyStore, certificateKeystoreConfig);
+            } catch (KeystoreException e) {
+                error = e;
+            }
+            this.raCertificate = certificate;
+            this.raCertificateError = error;
+
+            privateKey = null;
+            error = null;
+            try {
+                privateKey = readRAPrivateKey(keyStore, certificateKeystoreConfig);
+            } catch (KeystoreException e) {
+                error = e;
+            }
+            this.raPrivateKey = privateKey;
+            this.raPrivateKeyError = error;
+        }
+
+        private boolean isCurrent(File keyStoreFile) {
+            return keyStoreLocation.equals(keyStoreFile.getPath()) && lastModified == keyStoreFile.lastModified()
+                    && length == keyStoreFile.length();
+        }
+
+        private Certificate getCACertificate() throws KeystoreException {
+            if (caCertificateError != null) {
+                throw caCertificateError;
+            }
+            return caCertificate;
+        }
+
+        private PrivateKey getCAPrivateKey() throws KeystoreException {
+            if (caPrivateKeyError != null) {
+                throw caPrivateKeyError;
+            }
+            return caPrivateKey;
+        }
+
+        private Certificate getRACertificate() throws KeystoreException {
+            if (raCertificateError != null) {
+                throw raCertificateError;
+            }
+            return raCertificate;
+        }
+
+        private PrivateKey getRAPrivateKey() throws KeystoreException {
+            if (raPrivateKeyError != null) {
+                throw raPrivateKeyError;
+            }
+            return raPrivateKey;
+        }
+    }
 }
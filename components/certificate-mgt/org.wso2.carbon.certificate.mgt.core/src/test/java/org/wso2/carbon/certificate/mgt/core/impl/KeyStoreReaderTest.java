@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.certificate.mgt.core.impl;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.carbon.certificate.mgt.core.config.CertificateConfigurationManager;
+import org.wso2.carbon.certificate.mgt.core.config.CertificateKeystoreConfig;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.KeyStore;
+import java.security.PrivateKey;
+import java.security.cert.Certificate;
+
+/**
+ * This class tests the caching of CA and RA material in {@link KeyStoreReader}, using a temporary keystore file.
+ */
+public class KeyStoreReaderTest {
+
+    private CertificateKeystoreConfig keystoreConfig;
+    private String originalKeystoreLocation;
+    private File temporaryKeystore;
+
+    @BeforeClass
+    public void init() throws Exception {
+        keystoreConfig = CertificateConfigurationManager.getInstance().getCertificateKeyStoreConfig();
+        originalKeystoreLocation = keystoreConfig.getCertificateKeystoreLocation();
+        temporaryKeystore = File.createTempFile("wso2certs", ".jks");
+        Files.copy(new File(originalKeystoreLocation).toPath(), temporaryKeystore.toPath(),
+                StandardCopyOption.REPLACE_EXISTING);
+        keystoreConfig.setCertificateKeystoreLocation(temporaryKeystore.getAbsolutePath());
+    }
+
+    @AfterClass
+    public void cleanup() {
+        keystoreConfig.setCertificateKeystoreLocation(originalKeystoreLocation);
+        if (!temporaryKeystore.delete()) {
+            temporaryKeystore.deleteOnExit();
+        }
+    }
+
+    @Test(description = "This test case tests whether the CA and RA material is loaded only once")
+    public void testMaterialIsLoadedOnce() throws Exception {
+        KeyStoreReader keyStoreReader = new KeyStoreReader();
+        Certificate caCertificate = keyStoreReader.getCACertificate();
+        PrivateKey caPrivateKey = keyStoreReader.getCAPrivateKey();
+        Assert.assertSame(new KeyStoreReader().getCACertificate(), caCertificate,
+                "CA certificate is read from the keystore again");
+        Assert.assertSame(new KeyStoreReader().getCAPrivateKey(), caPrivateKey,
+                "CA private key is read from the keystore again");
+        Assert.assertSame(keyStoreReader.getRACertificate(), keyStoreReader.getRACertificate(),
+                "RA certificate is read from the keystore again");
+        Assert.assertSame(keyStoreReader.getRAPrivateKey(), keyStoreReader.getRAPrivateKey(),
+                "RA private key is read from the keystore again");
+    }
+
+    @Test(description = "This test case tests whether the material is reloaded once the keystore file changes",
+            dependsOnMethods = "testMaterialIsLoadedOnce")
+    public void testMaterialIsReloadedOnChange() throws Exception {
+        KeyStoreReader keyStoreReader = new KeyStoreReader();
+        Certificate caCertificate = keyStoreReader.getCACertificate();
+        Certificate raCertificate = keyStoreReader.getRACertificate();
+        Assert.assertNotEquals(caCertificate, raCertificate, "CA and RA certificates of the keystore are the same");
+
+        // Replace the CA entry with the RA key and certificate
+        KeyStore keyStore = KeyStore.getInstance(keystoreConfig.getCertificateKeystoreType());
+        char[] keystorePassword = keystoreConfig.getCertificateKeystorePassword().toCharArray();
+        try (InputStream inputStream = new FileInputStream(temporaryKeystore)) {
+            keyStore.load(inputStream, keystorePassword);
+        }
+        keyStore.setKeyEntry(keystoreConfig.getCACertAlias(), keyStoreReader.getRAPrivateKey(),
+                keystoreConfig.getCAPrivateKeyPassword().toCharArray(), new Certificate[]{raCertificate});
+        long lastModified = temporaryKeystore.lastModified();
+        try (OutputStream outputStream = new FileOutputStream(temporaryKeystore)) {
+            keyStore.store(outputStream, keystorePassword);
+        }
+        Assert.assertTrue(temporaryKeystore.setLastModified(lastModified + 10000),
+                "Unable to change the modification time of the temporary keystore");
+
+        Assert.assertEquals(keyStoreReader.getCACertificate(), raCertificate,
+                "CA certificate is not reloaded after the keystore file is modified");
+        Assert.assertEquals(keyStoreReader.getCAPrivateKey(), keyStoreReader.getRAPrivateKey(),
+                "CA private key is not reloaded after the keystore file is modified");
+    }
+
+}
@@ -19,24 +19,50 @@
 package org.wso2.carbon.device.mgt.extensions.push.notification.provider.fcm;
 
 import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
 import com.google.gson.JsonPrimitive;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
 import org.wso2.carbon.device.mgt.common.Device;
+import org.wso2.carbon.device.mgt.common.DeviceIdentifier;
 import org.wso2.carbon.device.mgt.common.DeviceManagementException;
+import org.wso2.carbon.device.mgt.common.operation.mgt.OperationManagementException;
 import org.wso2.carbon.device.mgt.common.push.notification.NotificationContext;
 import org.wso2.carbon.device.mgt.common.push.notification.NotificationStrategy;
 import org.wso2.carbon.device.mgt.common.push.notification.PushNotificationConfig;
 import org.wso2.carbon.device.mgt.common.push.notification.PushNotificationExecutionFailedException;
 import org.wso2.carbon.device.mgt.extensions.push.notification.provider.fcm.internal.FCMDataHolder;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.HttpURLConnection;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Sends wake up calls to devices through Firebase Cloud Messaging. Notifications of the same operation are collected
+ * for a short while and sent as a single multicast request of up to {@link #MAX_REGISTRATION_IDS} registration tokens,
+ * from a single sender thread so that the connection to FCM is kept alive between requests. Since notifications are
+ * sent after {@link #execute(NotificationContext)} has returned, notifications which could not be sent are handed back
+ * to the push notification scheduler task instead of failing the execution. A device which has several notifications
+ * of the same operation pending is woken up once, and all of the notifications are rescheduled if the call fails.
+ */
 public class FCMNotificationStrategy implements NotificationStrategy {
 
     private static final Log log = LogFactory.getLog(FCMNotificationStrategy.class);
@@ -44,13 +70,43 @@ public class FCMNotificationStrategy implements NotificationStrategy {
     private static final String NOTIFIER_TYPE_FCM = "FCM";
     private static final String FCM_TOKEN = "FCM_TOKEN";
     private static final String FCM_ENDPOINT = "https://fcm.googleapis.com/fcm/send";
+    private static final String FCM_ENDPOINT_PROPERTY = "fcmEndpoint";
     private static final String FCM_API_KEY = "fcmAPIKey";
     private static final int TIME_TO_LIVE = 5 * 60; //Set FCM TTL to 5 minutes
     private static final int HTTP_STATUS_CODE_OK = 200;
+    private static final int HTTP_STATUS_CODE_BAD_REQUEST = 400;
+    private static final int HTTP_STATUS_CODE_SERVER_ERROR = 500;
+    private static final int MAX_REGISTRATION_IDS = 1000;
+    private static final long BATCH_DELAY = 100L;
+    private static final int MAX_SEND_ATTEMPTS = 3;
+    private static final long RETRY_DELAY = 1000L;
+    private static final int MAX_CACHED_TOKENS = 10000;
+    private static final long TOKEN_EXPIRY = 60 * 1000L;
+    private static final String ERROR_NOT_REGISTERED = "NotRegistered";
+    private static final String ERROR_INVALID_REGISTRATION = "InvalidRegistration";
+    private static final String ERROR_UNAVAILABLE = "Unavailable";
+    private static final String ERROR_INTERNAL_SERVER_ERROR = "InternalServerError";
+
     private final PushNotificationConfig config;
+    private final ScheduledExecutorService sender;
+    private final Map<String, Batch> pendingBatches = new HashMap<>();
+    private final Map<String, CachedToken> tokenCache = new LinkedHashMap<String, CachedToken>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedToken> eldest) {
+            return size() > MAX_CACHED_TOKENS;
+        }
+    };
 
     public FCMNotificationStrategy(PushNotificationConfig config) {
         this.config = config;
+        this.sender = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "FCMNotificationSender");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
     }
 
     @Override
@@ -62,10 +118,15 @@ public class FCMNotificationStrategy implements NotificationStrategy {
     public void execute(NotificationContext ctx) throws PushNotificationExecutionFailedException {
         try {
             if (NOTIFIER_TYPE_FCM.equals(config.getType())) {
-                Device device = FCMDataHolder.getInstance().getDeviceManagementProviderService()
-                        .getDeviceWithTypeProperties(ctx.getDeviceId());
-                if(getFCMToken(device.getProperties()) != null) {
-                    this.sendWakeUpCall(ctx.getOperation().getCode(), device);
+                String tokenKey = getTokenKey(ctx.getDeviceId());
+                String fcmToken = getCachedFCMToken(tokenKey);
+                boolean tokenCached = fcmToken != null;
+                if (!tokenCached) {
+                    fcmToken = getFCMToken(ctx.getDeviceId(), tokenKey);
+                }
+                if (fcmToken != null) {
+                    this.addToBatch(ctx.getOperation().getCode(), fcmToken, new Recipient(tokenKey, ctx.getDeviceId(),
+                            ctx.getOperation().getId(), tokenCached));
                 }
             } else {
                 if (log.isDebugEnabled()) {
@@ -75,7 +136,7 @@ public class FCMNotificationStrategy implements NotificationStrategy {
             }
         } catch (DeviceManagementException e) {
             throw new PushNotificationExecutionFailedException("Error occurred while retrieving device information", e);
-        } catch (IOException e) {
+        } catch (RejectedExecutionException e) {
             throw new PushNotificationExecutionFailedException("Error occurred while sending push notification", e);
         }
     }
@@ -85,23 +146,208 @@ public class FCMNotificationStrategy implements NotificationStrategy {
         return null;
     }
 
+    /**
+     * Sends the notifications which are still pending and stops the sender once they are sent.
+     */
     @Override
     public void undeploy() {
+        List<Batch> batches;
+        synchronized (pendingBatches) {
+            batches = new ArrayList<>(pendingBatches.values());
+            pendingBatches.clear();
+        }
+        try {
+            for (Batch batch : batches) {
+                submit(batch, 1);
+            }
+        } finally {
+            sender.shutdown();
+        }
+    }
+
+    private void addToBatch(String message, String fcmToken, Recipient recipient) {
+        Batch fullBatch = null;
+        synchronized (pendingBatches) {
+            Batch batch = pendingBatches.get(message);
+            if (batch == null) {
+                final Batch newBatch = new Batch(message);
+                sender.schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        flush(newBatch);
+                    }
+                }, BATCH_DELAY, TimeUnit.MILLISECONDS);
+                pendingBatches.put(message, newBatch);
+                batch = newBatch;
+            }
+            batch.add(fcmToken, recipient);
+            if (batch.tokens.size() >= MAX_REGISTRATION_IDS) {
+                pendingBatches.remove(message);
+                fullBatch = batch;
+            }
+        }
+        if (fullBatch != null) {
+            submit(fullBatch, 1);
+        }
+    }
 
+    private void flush(Batch batch) {
+        synchronized (pendingBatches) {
+            if (pendingBatches.get(batch.message) != batch) {
+                // The batch has already been sent since it was full.
+                return;
+            }
+            pendingBatches.remove(batch.message);
+        }
+        send(batch, 1);
+    }
+
+    private void submit(final Batch batch, final int attempt) {
+        sender.execute(new Runnable() {
+            @Override
+            public void run() {
+                send(batch, attempt);
+            }
+        });
+    }
+
+    private void retry(final Batch batch, final int attempt) {
+        if (attempt > MAX_SEND_ATTEMPTS) {
+            log.error("Failed to send push notification to " + batch.tokens.size() + " device(s) after " +
+                      MAX_SEND_ATTEMPTS + " attempts");
+            reschedule(batch);
+            return;
+        }
+        try {
+            sender.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    send(batch, attempt);
+                }
+            }, RETRY_DELAY * (attempt - 1), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            log.warn("Push notification to " + batch.tokens.size() + " device(s) is not retried as the FCM " +
+                     "notification strategy has been undeployed");
+            reschedule(batch);
+        }
+    }
+
+    /**
+     * Marks the notifications of a batch which could not be sent as scheduled, so that the push notification
+     * scheduler task sends them again, as it does for notifications of which the execution failed.
+     */
+    private void reschedule(Batch batch) {
+        for (List<Recipient> recipients : batch.tokens.values()) {
+            for (Recipient recipient : recipients) {
+                reschedule(recipient);
+            }
+        }
+    }
+
+    private void reschedule(Recipient recipient) {
+        PrivilegedCarbonContext.startTenantFlow();
+        try {
+            PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantId(recipient.tenantId);
+            PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantDomain(recipient.tenantDomain);
+            FCMDataHolder.getInstance().getDeviceManagementProviderService()
+                    .reschedulePushNotification(recipient.deviceId, recipient.operationId);
+        } catch (OperationManagementException e) {
+            log.error("Error occurred while rescheduling the push notification of operation '" +
+                      recipient.operationId + "' to device '" + recipient.tokenKey + "'", e);
+        } finally {
+            PrivilegedCarbonContext.endTenantFlow();
+        }
+    }
+
+    private void send(Batch batch, int attempt) {
+        List<String> registrationIds = new ArrayList<>(batch.tokens.keySet());
+        try {
+            JsonArray results = sendWakeUpCall(batch.message, registrationIds);
+            if (results != null) {
+                Batch failedBatch = handleResults(batch, registrationIds, results);
+                if (failedBatch != null) {
+                    retry(failedBatch, attempt + 1);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Error occurred while sending push notification to " + registrationIds.size() +
+                     " device(s), attempt " + attempt, e);
+            retry(batch, attempt + 1);
+        } catch (PushNotificationExecutionFailedException e) {
+            // Client errors such as an invalid server key are not resolved by sending the batch again right away.
+            log.error(e.getMessage());
+            reschedule(batch);
+        }
+    }
+
+    /**
+     * Goes through the per token results of a multicast request. Tokens which are no longer valid are evicted from
+     * the token cache, so that they are loaded again from the device properties, and tokens which failed due to a
+     * temporary error at FCM are returned as a new batch to be sent again. Notifications which were sent to a cached
+     * token that is no longer valid are rescheduled, so that they are sent again to the token which the device has
+     * registered meanwhile.
+     */
+    private Batch handleResults(Batch batch, List<String> registrationIds, JsonArray results) {
+        Batch failedBatch = null;
+        for (int i = 0; i < results.size() && i < registrationIds.size(); i++) {
+            if (!results.get(i).isJsonObject()) {
+                continue;
+            }
+            JsonObject result = results.get(i).getAsJsonObject();
+            String registrationId = registrationIds.get(i);
+            List<Recipient> recipients = batch.tokens.get(registrationId);
+            if (result.has("registration_id")) {
+                for (Recipient recipient : recipients) {
+                    if (log.isDebugEnabled()) {
+                        log.debug("FCM token of device '" + recipient.tokenKey + "' has been replaced by a " +
+                                  "canonical token");
+                    }
+                    evictToken(recipient.tokenKey);
+                }
+            } else if (result.has("error")) {
+                String error = result.get("error").getAsString();
+                if (ERROR_UNAVAILABLE.equals(error) || ERROR_INTERNAL_SERVER_ERROR.equals(error)) {
+                    if (failedBatch == null) {
+                        failedBatch = new Batch(batch.message);
+                    }
+                    failedBatch.tokens.put(registrationId, recipients);
+                } else {
+                    boolean unregistered = ERROR_NOT_REGISTERED.equals(error) ||
+                                           ERROR_INVALID_REGISTRATION.equals(error);
+                    for (Recipient recipient : recipients) {
+                        if (unregistered) {
+                            evictToken(recipient.tokenKey);
+                        }
+                        if (unregistered && recipient.tokenCached) {
+                            if (log.isDebugEnabled()) {
+                                log.debug("Push notification to device '" + recipient.tokenKey + "' is " +
+                                          "rescheduled as its cached FCM token is no longer valid");
+                            }
+                            reschedule(recipient);
+                        } else if (log.isDebugEnabled()) {
+                            log.debug("Push notification to device '" + recipient.tokenKey + "' failed with the " +
+                                      "FCM error '" + error + "'");
+                        }
+                    }
+                }
+            }
+        }
+        return failedBatch;
     }
 
-    private void sendWakeUpCall(String message, Device device) throws IOException,
-                                                                      PushNotificationExecutionFailedException {
+    private JsonArray sendWakeUpCall(String message, List<String> registrationIds)
+            throws IOException, PushNotificationExecutionFailedException {
         OutputStream os = null;
-        byte[] bytes = getFCMRequest(message, getFCMToken(device.getProperties())).getBytes();
+        byte[] bytes = getFCMRequest(message, registrationIds).getBytes(StandardCharsets.UTF_8);
 
         HttpURLConnection conn;
         try {
-            conn = (HttpURLConnection) new URL(FCM_ENDPOINT).openConnection();
+            conn = (HttpURLConnection) new URL(getEndpoint()).openConnection();
             conn.setRequestProperty("Content-Type", "application/json");
             conn.setRequestProperty("Authorization", "key=" + config.getProperty(FCM_API_KEY));
             conn.setRequestMethod("POST");
             conn.setDoOutput(true);
+            conn.setFixedLengthStreamingMode(bytes.length);
             os = conn.getOutputStream();
             os.write(bytes);
         } finally {
@@ -110,16 +356,56 @@ public class FCMNotificationStrategy implements NotificationStrategy {
             }
         }
         int status = conn.getResponseCode();
+        // The response is read completely, so that the connection is kept alive for the next request.
+        String response = readResponse(status >= 400 ? conn.getErrorStream() : conn.getInputStream());
         if (log.isDebugEnabled()) {
             log.debug("Result code: " + status + ", Message: " + conn.getResponseMessage());
         }
+        if (status >= HTTP_STATUS_CODE_SERVER_ERROR) {
+            throw new IOException("Push notification sending failed with the HTTP error code '" + status + "'");
+        }
+        if (status >= HTTP_STATUS_CODE_BAD_REQUEST) {
+            throw new PushNotificationExecutionFailedException("Push notification sending to " +
+                    registrationIds.size() + " device(s) failed with the HTTP error code '" + status + "'");
+        }
         if (status != HTTP_STATUS_CODE_OK) {
-            throw new PushNotificationExecutionFailedException("Push notification sending failed with the HTTP " +
-                    "error code '" + status + "'");
+            log.warn("Push notification sending to " + registrationIds.size() + " device(s) returned the HTTP " +
+                     "status code '" + status + "'");
+            return null;
         }
+        try {
+            JsonElement results = new JsonParser().parse(response).getAsJsonObject().get("results");
+            return (results != null && results.isJsonArray()) ? results.getAsJsonArray() : null;
+        } catch (JsonParseException | IllegalStateException e) {
+            log.warn("Unable to read the results of the push notification sent to " + registrationIds.size() +
+                     " device(s)", e);
+            return null;
+        }
+    }
+
+    private static String readResponse(InputStream is) throws IOException {
+        if (is == null) {
+            return "";
+        }
+        try {
+            ByteArrayOutputStream response = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int length;
+            while ((length = is.read(buffer)) != -1) {
+                response.write(buffer, 0, length);
+            }
+            return new String(response.toByteArray(), StandardCharsets.UTF_8);
+        } finally {
+            is.close();
+        }
+    }
+
+    private String getEndpoint() {
+        String endpoint = config.getProperty(FCM_ENDPOINT_PROPERTY);
+        return (endpoint == null || endpoint.isEmpty()) ? FCM_ENDPOINT : endpoint;
     }
 
-    private static String getFCMRequest(String message, String registrationId) {
+    private static String getFCMRequest(String message, List<String> registrationIds) {
         JsonObject fcmRequest = new JsonObject();
         fcmRequest.addProperty("delay_while_idle", false);
         fcmRequest.addProperty("time_to_live", TIME_TO_LIVE);
@@ -131,14 +417,65 @@ public class FCMNotificationStrategy implements NotificationStrategy {
             fcmRequest.add("data", data);
         }
 
-        //Set device reg-id
+        //Set device reg-ids
         JsonArray regIds = new JsonArray();
-        regIds.add(new JsonPrimitive(registrationId));
+        for (String registrationId : registrationIds) {
+            regIds.add(new JsonPrimitive(registrationId));
+        }
 
         fcmRequest.add("registration_ids", regIds);
         return fcmRequest.toString();
     }
 
+    /**
+     * Returns the FCM token of the device from the token cache, which serves a token for a short while after it is
+     * loaded from the device properties.
+     */
+    private String getCachedFCMToken(String tokenKey) {
+        synchronized (tokenCache) {
+            CachedToken cachedToken = tokenCache.get(tokenKey);
+            if (cachedToken != null) {
+                if (cachedToken.expiryTime > System.currentTimeMillis()) {
+                    return cachedToken.token;
+                }
+                tokenCache.remove(tokenKey);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Loads the FCM token of the device from the device properties, and caches it.
+     */
+    private String getFCMToken(DeviceIdentifier deviceId, String tokenKey) throws DeviceManagementException {
+        Device device = FCMDataHolder.getInstance().getDeviceManagementProviderService()
+                .getDeviceWithTypeProperties(deviceId);
+        if (device == null || device.getProperties() == null) {
+            if (log.isDebugEnabled()) {
+                log.debug("Push notification is not sent as properties of device '" + tokenKey + "' are not found");
+            }
+            return null;
+        }
+        String fcmToken = getFCMToken(device.getProperties());
+        if (fcmToken != null) {
+            synchronized (tokenCache) {
+                tokenCache.put(tokenKey, new CachedToken(fcmToken, System.currentTimeMillis() + TOKEN_EXPIRY));
+            }
+        }
+        return fcmToken;
+    }
+
+    private void evictToken(String tokenKey) {
+        synchronized (tokenCache) {
+            tokenCache.remove(tokenKey);
+        }
+    }
+
+    private static String getTokenKey(DeviceIdentifier deviceId) {
+        return PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId() + ":" + deviceId.getType() + ":" +
+               deviceId.getId();
+    }
+
     private static String getFCMToken(List<Device.Property> properties) {
         String fcmToken = null;
         for (Device.Property property : properties) {
@@ -155,4 +492,61 @@ public class FCMNotificationStrategy implements NotificationStrategy {
         return config;
     }
 
+    /**
+     * Registration tokens of devices to be notified with the same message, mapped to the notifications of the devices
+     * they belong to.
+     */
+    private static class Batch {
+
+        private final String message;
+        private final Map<String, List<Recipient>> tokens = new LinkedHashMap<>();
+
+        Batch(String message) {
+            this.message = message;
+        }
+
+        void add(String fcmToken, Recipient recipient) {
+            List<Recipient> recipients = tokens.get(fcmToken);
+            if (recipients == null) {
+                recipients = new ArrayList<>();
+                tokens.put(fcmToken, recipients);
+            }
+            recipients.add(recipient);
+        }
+    }
+
+    /**
+     * Device and operation of a notification, along with the tenant it belongs to, which are needed to reschedule the
+     * notification if it could not be sent, and whether the token of the device was served from the token cache.
+     */
+    private static class Recipient {
+
+        private final String tokenKey;
+        private final DeviceIdentifier deviceId;
+        private final int operationId;
+        private final int tenantId;
+        private final String tenantDomain;
+        private final boolean tokenCached;
+
+        Recipient(String tokenKey, DeviceIdentifier deviceId, int operationId, boolean tokenCached) {
+            this.tokenKey = tokenKey;
+            this.deviceId = deviceId;
+            this.operationId = operationId;
+            this.tokenCached = tokenCached;
+            this.tenantId = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId();
+            this.tenantDomain = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantDomain();
+        }
+    }
+
+    private static class CachedToken {
+
+        private final String token;
+        private final long expiryTime;
+
+        CachedToken(String token, long expiryTime) {
+            this.token = token;
+            this.expiryTime = expiryTime;
+        }
+    }
+
 }
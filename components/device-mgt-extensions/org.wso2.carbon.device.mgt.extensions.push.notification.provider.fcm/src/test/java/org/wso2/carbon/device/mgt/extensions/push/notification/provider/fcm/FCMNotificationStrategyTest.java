@@ -0,0 +1,270 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.device.mgt.extensions.push.notification.provider.fcm;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.base.MultitenantConstants;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
+import org.wso2.carbon.device.mgt.common.Device;
+import org.wso2.carbon.device.mgt.common.DeviceIdentifier;
+import org.wso2.carbon.device.mgt.common.operation.mgt.Operation;
+import org.wso2.carbon.device.mgt.common.push.notification.NotificationContext;
+import org.wso2.carbon.device.mgt.common.push.notification.PushNotificationConfig;
+import org.wso2.carbon.device.mgt.core.service.DeviceManagementProviderService;
+import org.wso2.carbon.device.mgt.extensions.push.notification.provider.fcm.internal.FCMDataHolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Unit tests for {@link FCMNotificationStrategy}, which send the notifications to a local HTTP stub of FCM.
+ */
+public class FCMNotificationStrategyTest {
+
+    private static final String CARBON_HOME = "carbon.home";
+    private static final String DEVICE_TYPE = "android";
+    private static final String FCM_TOKEN = "FCM_TOKEN";
+    private static final String FCM_PATH = "/fcm/send";
+    private static final long TIMEOUT = 10000L;
+
+    private final List<JsonObject> requests = Collections.synchronizedList(new ArrayList<JsonObject>());
+    private final Map<String, String> tokenErrors = new ConcurrentHashMap<>();
+    private volatile int responseStatus;
+    private volatile String tokenPrefix;
+    private HttpServer fcmStub;
+    private DeviceManagementProviderService deviceManagementProviderService;
+    private FCMNotificationStrategy fcmNotificationStrategy;
+
+    @BeforeClass
+    public void init() throws IOException {
+        if (System.getProperty(CARBON_HOME) == null) {
+            File file = new File("src/test/resources");
+            if (file.exists()) {
+                System.setProperty(CARBON_HOME, file.getAbsolutePath());
+            }
+        }
+        PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantDomain(
+                MultitenantConstants.SUPER_TENANT_DOMAIN_NAME);
+        PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantId(MultitenantConstants.SUPER_TENANT_ID);
+
+        fcmStub = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        fcmStub.createContext(FCM_PATH, new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                JsonObject request = new JsonParser().parse(read(exchange.getRequestBody())).getAsJsonObject();
+                requests.add(request);
+                JsonArray results = new JsonArray();
+                JsonArray registrationIds = request.getAsJsonArray("registration_ids");
+                for (int i = 0; i < registrationIds.size(); i++) {
+                    JsonObject result = new JsonObject();
+                    String error = tokenErrors.get(registrationIds.get(i).getAsString());
+                    if (error != null) {
+                        result.addProperty("error", error);
+                    } else {
+                        result.addProperty("message_id", "0:" + i);
+                    }
+                    results.add(result);
+                }
+                JsonObject response = new JsonObject();
+                response.add("results", results);
+                byte[] responseBytes = response.toString().getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(responseStatus, responseBytes.length);
+                try (OutputStream outputStream = exchange.getResponseBody()) {
+                    outputStream.write(responseBytes);
+                }
+            }
+        });
+        fcmStub.start();
+
+        deviceManagementProviderService = Mockito.mock(DeviceManagementProviderService.class);
+        FCMDataHolder.getInstance().setDeviceManagementProviderService(deviceManagementProviderService);
+    }
+
+    @BeforeMethod
+    public void resetStub() throws Exception {
+        requests.clear();
+        tokenErrors.clear();
+        tokenPrefix = "token-";
+        Mockito.reset(deviceManagementProviderService);
+        Mockito.when(deviceManagementProviderService.getDeviceWithTypeProperties(
+                Mockito.any(DeviceIdentifier.class))).thenAnswer(new Answer<Device>() {
+            @Override
+            public Device answer(InvocationOnMock invocation) {
+                DeviceIdentifier deviceIdentifier = (DeviceIdentifier) invocation.getArguments()[0];
+                Device.Property fcmToken = new Device.Property();
+                fcmToken.setName(FCM_TOKEN);
+                fcmToken.setValue(tokenPrefix + deviceIdentifier.getId());
+                Device device = new Device();
+                device.setProperties(Collections.singletonList(fcmToken));
+                return device;
+            }
+        });
+        Map<String, String> properties = new HashMap<>();
+        properties.put("fcmEndpoint", "http://localhost:" + fcmStub.getAddress().getPort() + FCM_PATH);
+        properties.put("fcmAPIKey", "SampleServerKey");
+        fcmNotificationStrategy = new FCMNotificationStrategy(new PushNotificationConfig("FCM", false, properties));
+    }
+
+    @AfterClass
+    public void cleanUp() {
+        fcmStub.stop(0);
+    }
+
+    @Test(description = "Testing whether notifications of the same operation are sent as one multicast request")
+    public void testExecuteSendsBatch() throws Exception {
+        responseStatus = 200;
+        List<DeviceIdentifier> deviceIdentifiers = execute("DEVICE_LOCK", 1, 3);
+        fcmNotificationStrategy.undeploy();
+
+        waitForRequests(1);
+        Assert.assertEquals(requests.size(), 1, "Notifications are not sent as a single request");
+        Assert.assertEquals(requests.get(0).getAsJsonArray("registration_ids").size(), deviceIdentifiers.size(),
+                "Not all the devices are notified");
+        Mockito.verify(deviceManagementProviderService, Mockito.never()).reschedulePushNotification(
+                Mockito.any(DeviceIdentifier.class), Mockito.anyInt());
+    }
+
+    @Test(description = "Testing whether notifications rejected by FCM with a client error are rescheduled")
+    public void testClientErrorIsRescheduled() throws Exception {
+        responseStatus = 401;
+        List<DeviceIdentifier> deviceIdentifiers = execute("DEVICE_RING", 2, 2);
+
+        for (DeviceIdentifier deviceIdentifier : deviceIdentifiers) {
+            Mockito.verify(deviceManagementProviderService, Mockito.timeout(TIMEOUT))
+                    .reschedulePushNotification(deviceIdentifier, 2);
+        }
+        Assert.assertEquals(requests.size(), 1, "Notifications rejected with a client error are sent again");
+        fcmNotificationStrategy.undeploy();
+    }
+
+    @Test(description = "Testing whether notifications are rescheduled once FCM fails on every attempt")
+    public void testServerErrorIsRescheduledAfterRetries() throws Exception {
+        responseStatus = 503;
+        List<DeviceIdentifier> deviceIdentifiers = execute("DEVICE_MUTE", 3, 1);
+
+        Mockito.verify(deviceManagementProviderService, Mockito.timeout(TIMEOUT))
+                .reschedulePushNotification(deviceIdentifiers.get(0), 3);
+        Assert.assertEquals(requests.size(), 3, "Notification is not retried before it is rescheduled");
+        fcmNotificationStrategy.undeploy();
+    }
+
+    @Test(description = "Testing whether every notification of a device is rescheduled when the device is notified "
+            + "of several operations with the same code")
+    public void testNotificationsOfSameDeviceAreRescheduled() throws Exception {
+        responseStatus = 401;
+        DeviceIdentifier deviceIdentifier = new DeviceIdentifier("shared-device", DEVICE_TYPE);
+        execute("DEVICE_REBOOT", 4, deviceIdentifier);
+        execute("DEVICE_REBOOT", 5, deviceIdentifier);
+
+        Mockito.verify(deviceManagementProviderService, Mockito.timeout(TIMEOUT))
+                .reschedulePushNotification(deviceIdentifier, 4);
+        Mockito.verify(deviceManagementProviderService, Mockito.timeout(TIMEOUT))
+                .reschedulePushNotification(deviceIdentifier, 5);
+        Assert.assertEquals(requests.size(), 1, "Notifications of the same operation code are not sent together");
+        Assert.assertEquals(requests.get(0).getAsJsonArray("registration_ids").size(), 1,
+                "Device is woken up more than once");
+        fcmNotificationStrategy.undeploy();
+    }
+
+    @Test(description = "Testing whether a notification sent to a cached token which is no longer valid is "
+            + "rescheduled, while one sent to a token which is just loaded is not")
+    public void testStaleCachedTokenIsRescheduled() throws Exception {
+        responseStatus = 200;
+        DeviceIdentifier staleDevice = new DeviceIdentifier("stale-device", DEVICE_TYPE);
+        DeviceIdentifier unregisteredDevice = new DeviceIdentifier("unregistered-device", DEVICE_TYPE);
+        tokenErrors.put("token-" + unregisteredDevice.getId(), "NotRegistered");
+        execute("DEVICE_LOCK", 6, staleDevice);
+        execute("DEVICE_LOCK", 6, unregisteredDevice);
+        waitForRequests(1);
+
+        // the device registers a new token, while the previous one is still in the token cache
+        tokenPrefix = "renewed-token-";
+        tokenErrors.put("token-" + staleDevice.getId(), "NotRegistered");
+        execute("DEVICE_LOCK", 7, staleDevice);
+        Mockito.verify(deviceManagementProviderService, Mockito.timeout(TIMEOUT))
+                .reschedulePushNotification(staleDevice, 7);
+        Mockito.verify(deviceManagementProviderService, Mockito.never())
+                .reschedulePushNotification(unregisteredDevice, 6);
+
+        execute("DEVICE_LOCK", 7, staleDevice);
+        waitForRequests(3);
+        Assert.assertEquals(requests.get(2).getAsJsonArray("registration_ids").get(0).getAsString(),
+                "renewed-token-" + staleDevice.getId(), "Rescheduled notification is not sent to the new token");
+        fcmNotificationStrategy.undeploy();
+    }
+
+    private List<DeviceIdentifier> execute(String operationCode, int operationId, int deviceCount)
+            throws Exception {
+        List<DeviceIdentifier> deviceIdentifiers = new ArrayList<>();
+        for (int i = 0; i < deviceCount; i++) {
+            DeviceIdentifier deviceIdentifier = new DeviceIdentifier(operationCode + "-" + i, DEVICE_TYPE);
+            execute(operationCode, operationId, deviceIdentifier);
+            deviceIdentifiers.add(deviceIdentifier);
+        }
+        return deviceIdentifiers;
+    }
+
+    private void execute(String operationCode, int operationId, DeviceIdentifier deviceIdentifier) throws Exception {
+        Operation operation = new Operation();
+        operation.setCode(operationCode);
+        operation.setId(operationId);
+        fcmNotificationStrategy.execute(new NotificationContext(deviceIdentifier, operation));
+    }
+
+    private void waitForRequests(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT;
+        while (requests.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+    }
+
+    private static String read(InputStream inputStream) throws IOException {
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int length;
+        while ((length = inputStream.read(buffer)) != -1) {
+            content.write(buffer, 0, length);
+        }
+        return new String(content.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+}
@@ -3,9 +3,11 @@ package org.wso2.carbon.device.mgt.extensions.push.notification.provider.http;
 import com.google.gson.Gson;
 import org.apache.commons.httpclient.HostConfiguration;
 import org.apache.commons.httpclient.HttpClient;
+import org.apache.commons.httpclient.MultiThreadedHttpConnectionManager;
 import org.apache.commons.httpclient.methods.EntityEnclosingMethod;
 import org.apache.commons.httpclient.methods.PostMethod;
 import org.apache.commons.httpclient.methods.StringRequestEntity;
+import org.apache.commons.httpclient.params.HttpConnectionManagerParams;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.carbon.device.mgt.common.InvalidConfigurationException;
@@ -34,6 +36,22 @@ public class HTTPMessageExecutor implements Runnable {
         this.httpClient = httpClient;
     }
 
+    /**
+     * Creates an HTTP client backed by a pool of connections, which can be shared by the executors of a notification
+     * strategy so that connections to the endpoint are reused across notifications.
+     *
+     * @param maxConnections Maximum number of connections to be opened to the endpoint
+     * @return An instance of HttpClient with a MultiThreadedHttpConnectionManager
+     */
+    public static HttpClient createHttpClient(int maxConnections) {
+        HttpConnectionManagerParams params = new HttpConnectionManagerParams();
+        params.setDefaultMaxConnectionsPerHost(maxConnections);
+        params.setMaxTotalConnections(maxConnections);
+        MultiThreadedHttpConnectionManager connectionManager = new MultiThreadedHttpConnectionManager();
+        connectionManager.setParams(params);
+        return new HttpClient(connectionManager);
+    }
+
     public String getUrl() {
         return url;
     }
@@ -68,17 +86,31 @@ public class HTTPMessageExecutor implements Runnable {
 
     @Override
     public void run() {
+        send();
+    }
+
+    /**
+     * Posts the notification to the endpoint. The connection is released to the pool of the HTTP client whatever the
+     * outcome is.
+     *
+     * @return true if the endpoint accepted the notification with a 2xx response, false otherwise
+     */
+    public boolean send() {
         EntityEnclosingMethod method = null;
 
         try {
             method = new PostMethod(this.getUrl());
             method.setRequestEntity(new StringRequestEntity(this.getPayload(), APPLIATION_JSON, "UTF-8"));
-            if (authorizationHeader != null && authorizationHeader.isEmpty()) {
+            if (authorizationHeader != null && !authorizationHeader.isEmpty()) {
                 method.setRequestHeader(AUTHORIZATION_HEADER, authorizationHeader);
             }
 
-            this.getHttpClient().executeMethod(hostConfiguration, method);
-
+            int status = this.getHttpClient().executeMethod(hostConfiguration, method);
+            if (status < 200 || status >= 300) {
+                log.error("Push Notification message rejected by " + url + " with HTTP status " + status);
+                return false;
+            }
+            return true;
         } catch (UnknownHostException e) {
             log.error("Push Notification message dropped " + url, e);
             throw new InvalidConfigurationException("invalid host: url", e);
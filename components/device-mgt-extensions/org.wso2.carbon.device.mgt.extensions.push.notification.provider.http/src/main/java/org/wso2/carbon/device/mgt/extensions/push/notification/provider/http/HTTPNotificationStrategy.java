@@ -20,6 +20,7 @@ package org.wso2.carbon.device.mgt.extensions.push.notification.provider.http;
 
 import org.apache.commons.httpclient.HostConfiguration;
 import org.apache.commons.httpclient.HttpClient;
+import org.apache.commons.httpclient.MultiThreadedHttpConnectionManager;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.carbon.device.mgt.common.InvalidConfigurationException;
@@ -30,9 +31,13 @@ import org.wso2.carbon.device.mgt.common.push.notification.PushNotificationExecu
 
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class HTTPNotificationStrategy implements NotificationStrategy {
 
@@ -40,12 +45,21 @@ public class HTTPNotificationStrategy implements NotificationStrategy {
     private final PushNotificationConfig config;
     private static final String URL_PROPERTY = "url";
     private static final String AUTHORIZATION_HEADER_PROPERTY = "authorization";
+    private static final String POOL_SIZE_PROPERTY = "executorPoolSize";
+    private static final String QUEUE_SIZE_PROPERTY = "executorQueueSize";
+    private static final int DEFAULT_POOL_SIZE = 4;
+    private static final int DEFAULT_QUEUE_SIZE = 1000;
+    private static final long THREAD_KEEP_ALIVE_TIME = 60L;
+    private static final AtomicInteger instanceCount = new AtomicInteger();
     private String endpoint;
-    private static ExecutorService executorService;
+    private ThreadPoolExecutor executorService;
     private HttpClient httpClient = null;
     private HostConfiguration hostConfiguration;
     private String authorizationHeaderValue;
     private String uri;
+    private final AtomicLong sentCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong totalLatency = new AtomicLong();
 
     public HTTPNotificationStrategy(PushNotificationConfig config) {
         this.config = config;
@@ -62,8 +76,23 @@ public class HTTPNotificationStrategy implements NotificationStrategy {
             hostConfiguration = new HostConfiguration();
             hostConfiguration.setHost(url.getHost(), url.getPort(), url.getProtocol());
             this.authorizationHeaderValue = config.getProperties().get(AUTHORIZATION_HEADER_PROPERTY);
-            executorService = Executors.newFixedThreadPool(1);
-            httpClient = new HttpClient();
+            int poolSize = getIntProperty(POOL_SIZE_PROPERTY, DEFAULT_POOL_SIZE);
+            int queueSize = getIntProperty(QUEUE_SIZE_PROPERTY, DEFAULT_QUEUE_SIZE);
+            final String threadNamePrefix = "HTTPNotificationSender-" + instanceCount.incrementAndGet() + "-";
+            executorService = new ThreadPoolExecutor(poolSize, poolSize, THREAD_KEEP_ALIVE_TIME, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<Runnable>(queueSize), new ThreadFactory() {
+                        private final AtomicInteger threadCount = new AtomicInteger();
+
+                        @Override
+                        public Thread newThread(Runnable runnable) {
+                            Thread thread = new Thread(runnable, threadNamePrefix + threadCount.incrementAndGet());
+                            thread.setDaemon(true);
+                            return thread;
+                        }
+                    });
+            // Sender threads of a strategy which is idle are released, and started again on the next notification.
+            executorService.allowCoreThreadTimeOut(true);
+            httpClient = HTTPMessageExecutor.createHttpClient(poolSize);
         } catch (MalformedURLException e) {
             throw new InvalidConfigurationException("Property - 'url' is malformed.", e);
         }
@@ -77,10 +106,29 @@ public class HTTPNotificationStrategy implements NotificationStrategy {
     @Override
     public void execute(NotificationContext ctx) throws PushNotificationExecutionFailedException {
         try {
-            executorService.submit(new HTTPMessageExecutor(ctx, authorizationHeaderValue, uri, hostConfiguration
-                    , httpClient));
+            final long submittedTime = System.currentTimeMillis();
+            final HTTPMessageExecutor messageExecutor = new HTTPMessageExecutor(ctx, authorizationHeaderValue, uri,
+                    hostConfiguration, httpClient);
+            executorService.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        if (messageExecutor.send()) {
+                            sentCount.incrementAndGet();
+                        } else {
+                            failedCount.incrementAndGet();
+                        }
+                    } catch (RuntimeException e) {
+                        failedCount.incrementAndGet();
+                    } finally {
+                        totalLatency.addAndGet(System.currentTimeMillis() - submittedTime);
+                    }
+                }
+            });
         } catch (RejectedExecutionException e) {
-            log.error("Failed to publish to external endpoint url: " + endpoint, e);
+            failedCount.incrementAndGet();
+            log.error("Failed to publish to external endpoint url: " + endpoint + ", pending notifications: " +
+                      getQueueDepth(), e);
         }
     }
 
@@ -92,6 +140,22 @@ public class HTTPNotificationStrategy implements NotificationStrategy {
     @Override
     public void undeploy() {
         executorService.shutdown();
+        try {
+            if (!executorService.awaitTermination(10, TimeUnit.SECONDS)) {
+                executorService.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executorService.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        if (httpClient.getHttpConnectionManager() instanceof MultiThreadedHttpConnectionManager) {
+            ((MultiThreadedHttpConnectionManager) httpClient.getHttpConnectionManager()).shutdown();
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("HTTP notification strategy of endpoint '" + endpoint + "' undeployed after sending " +
+                      sentCount.get() + " notification(s), with " + failedCount.get() + " failure(s) and an " +
+                      "average latency of " + getAverageLatency() + " ms");
+        }
     }
 
     @Override
@@ -99,5 +163,50 @@ public class HTTPNotificationStrategy implements NotificationStrategy {
         return config;
     }
 
-}
+    /**
+     * @return Number of notifications waiting to be sent to the endpoint
+     */
+    public int getQueueDepth() {
+        return executorService.getQueue().size();
+    }
 
+    /**
+     * @return Number of notifications accepted by the endpoint with a 2xx response
+     */
+    public long getSentCount() {
+        return sentCount.get();
+    }
+
+    /**
+     * @return Number of notifications which were rejected by the endpoint, or which could not be sent or queued
+     */
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    /**
+     * @return Average time in milliseconds from the submission of a notification until it is sent, including the
+     * time spent in the queue
+     */
+    public long getAverageLatency() {
+        long completed = sentCount.get() + failedCount.get();
+        return completed == 0 ? 0 : totalLatency.get() / completed;
+    }
+
+    private int getIntProperty(String name, int defaultValue) {
+        String value = config.getProperties().get(name);
+        if (value == null || value.isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            int intValue = Integer.parseInt(value.trim());
+            if (intValue <= 0) {
+                throw new InvalidConfigurationException("Property - '" + name + "' should be a positive number");
+            }
+            return intValue;
+        } catch (NumberFormatException e) {
+            throw new InvalidConfigurationException("Property - '" + name + "' is not a number", e);
+        }
+    }
+
+}
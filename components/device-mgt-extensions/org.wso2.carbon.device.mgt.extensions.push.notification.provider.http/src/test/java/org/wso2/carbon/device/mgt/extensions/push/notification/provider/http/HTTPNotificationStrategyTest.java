@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.extensions.push.notification.provider.http;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.device.mgt.common.DeviceIdentifier;
+import org.wso2.carbon.device.mgt.common.operation.mgt.Operation;
+import org.wso2.carbon.device.mgt.common.push.notification.NotificationContext;
+import org.wso2.carbon.device.mgt.common.push.notification.PushNotificationConfig;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit tests for {@link HTTPNotificationStrategy}, which send the notifications to a local HTTP stub endpoint.
+ */
+public class HTTPNotificationStrategyTest {
+
+    private static final String NOTIFICATION_PATH = "/notify";
+    private static final int POOL_SIZE = 4;
+    private static final long RESPONSE_DELAY = 200L;
+    private static final long TIMEOUT = 10000L;
+
+    private final AtomicInteger requestCount = new AtomicInteger();
+    private final AtomicInteger concurrentRequests = new AtomicInteger();
+    private final AtomicInteger maxConcurrentRequests = new AtomicInteger();
+    private volatile int responseStatus;
+    private ExecutorService stubExecutor;
+    private HttpServer stub;
+    private HTTPNotificationStrategy httpNotificationStrategy;
+
+    @BeforeClass
+    public void init() throws IOException {
+        stub = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        stub.createContext(NOTIFICATION_PATH, new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                int concurrent = concurrentRequests.incrementAndGet();
+                int max = maxConcurrentRequests.get();
+                while (concurrent > max && !maxConcurrentRequests.compareAndSet(max, concurrent)) {
+                    max = maxConcurrentRequests.get();
+                }
+                try (InputStream inputStream = exchange.getRequestBody()) {
+                    byte[] buffer = new byte[1024];
+                    while (inputStream.read(buffer) != -1) {
+                        // the notification payload is not checked
+                    }
+                    Thread.sleep(RESPONSE_DELAY);
+                    requestCount.incrementAndGet();
+                    exchange.sendResponseHeaders(responseStatus, -1);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    concurrentRequests.decrementAndGet();
+                    exchange.close();
+                }
+            }
+        });
+        // requests are handled in parallel, so that the parallelism of the strategy can be observed
+        stubExecutor = Executors.newCachedThreadPool();
+        stub.setExecutor(stubExecutor);
+        stub.start();
+    }
+
+    @BeforeMethod
+    public void initStrategy() {
+        requestCount.set(0);
+        maxConcurrentRequests.set(0);
+        Map<String, String> properties = new HashMap<>();
+        properties.put("url", "http://localhost:" + stub.getAddress().getPort() + NOTIFICATION_PATH);
+        properties.put("executorPoolSize", String.valueOf(POOL_SIZE));
+        httpNotificationStrategy = new HTTPNotificationStrategy(new PushNotificationConfig("HTTP", false,
+                properties));
+    }
+
+    @AfterMethod
+    public void undeployStrategy() {
+        httpNotificationStrategy.undeploy();
+    }
+
+    @AfterClass
+    public void cleanUp() {
+        stub.stop(0);
+        stubExecutor.shutdownNow();
+    }
+
+    @Test(description = "Testing whether notifications are sent in parallel, up to the size of the pool")
+    public void testNotificationsAreSentInParallel() throws Exception {
+        responseStatus = 200;
+        execute(3 * POOL_SIZE);
+        waitForCompletion(3 * POOL_SIZE);
+
+        Assert.assertEquals(httpNotificationStrategy.getSentCount(), 3 * POOL_SIZE, "Notifications are not sent");
+        Assert.assertEquals(httpNotificationStrategy.getFailedCount(), 0);
+        Assert.assertEquals(maxConcurrentRequests.get(), POOL_SIZE,
+                "Notifications are not sent in parallel by all the threads of the pool");
+    }
+
+    @Test(description = "Testing whether rejected notifications are counted as failures and release their connections")
+    public void testRejectedNotificationsReleaseConnections() throws Exception {
+        responseStatus = 500;
+        execute(2 * POOL_SIZE);
+        waitForCompletion(2 * POOL_SIZE);
+
+        Assert.assertEquals(httpNotificationStrategy.getSentCount(), 0,
+                "Notifications rejected by the endpoint are counted as sent");
+        Assert.assertEquals(httpNotificationStrategy.getFailedCount(), 2 * POOL_SIZE);
+
+        // all the connections of the pool would be taken by now, if rejected notifications did not release them
+        responseStatus = 202;
+        execute(POOL_SIZE);
+        waitForCompletion(3 * POOL_SIZE);
+        Assert.assertEquals(httpNotificationStrategy.getSentCount(), POOL_SIZE,
+                "Notifications are not sent after the endpoint rejected notifications");
+        Assert.assertEquals(requestCount.get(), 3 * POOL_SIZE);
+    }
+
+    private void execute(int count) throws Exception {
+        Operation operation = new Operation();
+        operation.setCode("DEVICE_LOCK");
+        operation.setId(1);
+        for (int i = 0; i < count; i++) {
+            httpNotificationStrategy.execute(new NotificationContext(new DeviceIdentifier("device-" + i, "android"),
+                    operation));
+        }
+    }
+
+    private void waitForCompletion(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT;
+        while (httpNotificationStrategy.getSentCount() + httpNotificationStrategy.getFailedCount() < count
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+    }
+
+}
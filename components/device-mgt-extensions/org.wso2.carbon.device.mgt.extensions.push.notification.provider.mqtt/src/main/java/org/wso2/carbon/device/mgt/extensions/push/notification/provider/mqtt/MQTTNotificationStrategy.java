@@ -18,6 +18,7 @@
  */
 package org.wso2.carbon.device.mgt.extensions.push.notification.provider.mqtt;
 
+import com.google.gson.Gson;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.carbon.context.PrivilegedCarbonContext;
@@ -35,26 +36,32 @@ import org.wso2.carbon.event.output.adapter.core.OutputEventAdapterConfiguration
 import org.wso2.carbon.event.output.adapter.core.exception.OutputEventAdapterException;
 import org.wso2.carbon.device.mgt.core.operation.mgt.PolicyOperation;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 public class MQTTNotificationStrategy implements NotificationStrategy {
 
     private static final String MQTT_ADAPTER_TOPIC = "mqtt.adapter.topic";
+    private static final String PROFILE_OPERATION_TYPE = "profile";
     private String mqttAdapterName;
     private static final Log log = LogFactory.getLog(MQTTNotificationStrategy.class);
     private final PushNotificationConfig config;
     private final String providerTenantDomain;
-    private static final Object lockObj = new Object();
+    private final boolean compactPolicyPayload;
+    private static final Gson gson = new Gson();
+    // Locks which serialize the creation of each adapter, so that notifications published through adapters which are
+    // already created are not blocked. Adapters belong to a tenant, hence the locks are keyed by the tenant id along
+    // with the adapter name.
+    private static final ConcurrentMap<String, Object> adapterLocks = new ConcurrentHashMap<>();
 
     public MQTTNotificationStrategy(PushNotificationConfig config) {
         this.config = config;
-        OutputEventAdapterConfiguration adapterConfig = new OutputEventAdapterConfiguration();
-        adapterConfig.setType(MQTTAdapterConstants.MQTT_ADAPTER_TYPE);
-        adapterConfig.setMessageFormat(MessageType.TEXT);
-
         Map<String, String> configProperties = new HashMap<String, String>();
         if (config.getProperties() != null && config.getProperties().size() > 0) {
             String brokerUrl = config.getProperty(MQTTAdapterConstants.MQTT_ADAPTER_PROPERTY_BROKER_URL);
@@ -72,21 +79,16 @@ public class MQTTNotificationStrategy implements NotificationStrategy {
                                  config.getProperty(MQTTAdapterConstants.MQTT_ADAPTER_PROPERTY_SCOPES));
             configProperties.put(MQTTAdapterConstants.MQTT_ADAPTER_PROPERTY_MESSAGE_QOS,
                                  config.getProperty(MQTTAdapterConstants.MQTT_ADAPTER_PROPERTY_MESSAGE_QOS));
+            compactPolicyPayload = Boolean.parseBoolean(
+                    config.getProperty(MQTTAdapterConstants.MQTT_ADAPTER_PROPERTY_COMPACT_POLICY_PAYLOAD));
         } else {
             mqttAdapterName = "mqtt.adapter." + PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantDomain()
                     .toLowerCase();
+            compactPolicyPayload = false;
         }
-        adapterConfig.setName(mqttAdapterName);
-        adapterConfig.setStaticProperties(configProperties);
+        int providerTenantId = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId();
         try {
-            synchronized (lockObj) {
-                try {
-                    MQTTDataHolder.getInstance().getOutputEventAdapterService().isPolled(mqttAdapterName);
-                } catch (OutputEventAdapterException e) {
-                    //event adapter not created
-                    MQTTDataHolder.getInstance().getOutputEventAdapterService().create(adapterConfig);
-                }
-            }
+            createAdapterIfAbsent(providerTenantId, mqttAdapterName, configProperties);
         } catch (OutputEventAdapterException e) {
             throw new InvalidConfigurationException("Error occurred while initializing MQTT output event adapter", e);
         }
@@ -109,26 +111,13 @@ public class MQTTNotificationStrategy implements NotificationStrategy {
             adapterName = "mqtt.adapter." + PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantDomain()
                     .toLowerCase();
             try {
-                MQTTDataHolder.getInstance().getOutputEventAdapterService().isPolled(adapterName);
+                createAdapterIfAbsent(PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId(),
+                                      adapterName, new HashMap<String, String>());
             } catch (OutputEventAdapterException e) {
-                //event adapter not created
-                synchronized (lockObj) {
-                    OutputEventAdapterConfiguration adapterConfig = new OutputEventAdapterConfiguration();
-                    adapterConfig.setType(MQTTAdapterConstants.MQTT_ADAPTER_TYPE);
-                    adapterConfig.setMessageFormat(MessageType.TEXT);
-                    adapterConfig.setName(adapterName);
-                    Map<String, String> configProperties = new HashMap<String, String>();
-                    adapterConfig.setStaticProperties(configProperties);
-                    try {
-                        MQTTDataHolder.getInstance().getOutputEventAdapterService().create(adapterConfig);
-                    } catch (OutputEventAdapterException e1) {
-                        throw new PushNotificationExecutionFailedException
-                                ("Error occurred while initializing MQTT output event adapter for shared tenant: "
-                                         + tenantDomain, e);
-                    }
-                }
+                throw new PushNotificationExecutionFailedException
+                        ("Error occurred while initializing MQTT output event adapter for shared tenant: "
+                                 + tenantDomain, e);
             }
-
         }
 
         Operation operation = ctx.getOperation();
@@ -144,14 +133,23 @@ public class MQTTNotificationStrategy implements NotificationStrategy {
                 List<ProfileOperation> profileOperations = policyOperation.getProfileOperations();
                 String deviceType = ctx.getDeviceId().getType();
                 String deviceId = ctx.getDeviceId().getId();
-                for (ProfileOperation profileOperation : profileOperations) {
+                if (compactPolicyPayload) {
                     Map<String, String> dynamicProperties = new HashMap<>();
-                    String topic = tenantDomain + "/"
-                            + deviceType + "/" + deviceId + "/operation/" + profileOperation.getType()
-                            .toString().toLowerCase() + "/" + profileOperation.getCode().toLowerCase();
+                    String topic = tenantDomain + "/" + deviceType + "/" + deviceId + "/operation/" +
+                            PROFILE_OPERATION_TYPE + "/" + PolicyOperation.POLICY_OPERATION_CODE.toLowerCase();
                     dynamicProperties.put("topic", topic);
                     MQTTDataHolder.getInstance().getOutputEventAdapterService().publish(adapterName, dynamicProperties,
-                            profileOperation.getPayLoad());
+                            getCompactPolicyPayload(profileOperations));
+                } else {
+                    for (ProfileOperation profileOperation : profileOperations) {
+                        Map<String, String> dynamicProperties = new HashMap<>();
+                        String topic = tenantDomain + "/"
+                                + deviceType + "/" + deviceId + "/operation/" + profileOperation.getType()
+                                .toString().toLowerCase() + "/" + profileOperation.getCode().toLowerCase();
+                        dynamicProperties.put("topic", topic);
+                        MQTTDataHolder.getInstance().getOutputEventAdapterService().publish(adapterName,
+                                dynamicProperties, profileOperation.getPayLoad());
+                    }
                 }
 
             } else {
@@ -191,5 +189,61 @@ public class MQTTNotificationStrategy implements NotificationStrategy {
         return config;
     }
 
-}
+    /**
+     * Creates the output event adapter with the given name unless the output event adapter service already holds it.
+     * The service is asked on every call, which is a lookup of its own adapter map, so that an adapter destroyed
+     * elsewhere is created again. Only the creation of the same adapter is serialized, hence publishing through other
+     * adapters is not blocked meanwhile.
+     */
+    private static void createAdapterIfAbsent(int tenantId, String adapterName, Map<String, String> staticProperties)
+            throws OutputEventAdapterException {
+        if (isAdapterCreated(adapterName)) {
+            return;
+        }
+        String adapterKey = tenantId + ":" + adapterName;
+        Object lock = adapterLocks.get(adapterKey);
+        if (lock == null) {
+            Object newLock = new Object();
+            lock = adapterLocks.putIfAbsent(adapterKey, newLock);
+            if (lock == null) {
+                lock = newLock;
+            }
+        }
+        synchronized (lock) {
+            if (!isAdapterCreated(adapterName)) {
+                OutputEventAdapterConfiguration adapterConfig = new OutputEventAdapterConfiguration();
+                adapterConfig.setType(MQTTAdapterConstants.MQTT_ADAPTER_TYPE);
+                adapterConfig.setMessageFormat(MessageType.TEXT);
+                adapterConfig.setName(adapterName);
+                adapterConfig.setStaticProperties(staticProperties);
+                MQTTDataHolder.getInstance().getOutputEventAdapterService().create(adapterConfig);
+            }
+        }
+    }
+
+    private static boolean isAdapterCreated(String adapterName) {
+        try {
+            MQTTDataHolder.getInstance().getOutputEventAdapterService().isPolled(adapterName);
+            return true;
+        } catch (OutputEventAdapterException e) {
+            //event adapter not created
+            return false;
+        }
+    }
+
+    /**
+     * Builds a single payload which carries all the profile operations of a policy, as a JSON array of the code and
+     * the payload of each profile operation.
+     */
+    private static String getCompactPolicyPayload(List<ProfileOperation> profileOperations) {
+        List<Map<String, Object>> compactOperations = new ArrayList<>();
+        for (ProfileOperation profileOperation : profileOperations) {
+            Map<String, Object> compactOperation = new LinkedHashMap<>();
+            compactOperation.put("code", profileOperation.getCode());
+            compactOperation.put("payload", profileOperation.getPayLoad());
+            compactOperations.add(compactOperation);
+        }
+        return gson.toJson(compactOperations);
+    }
 
+}
@@ -32,5 +32,6 @@ public final class MQTTAdapterConstants {
     public static final String MQTT_ADAPTER_PROPERTY_CLEAR_SESSION = "cleanSession";
     public static final String MQTT_ADAPTER_PROPERTY_MESSAGE_QOS = "qos";
     public static final String MQTT_ADAPTER_PROPERTY_NAME = "mqttAdapterName";
+    public static final String MQTT_ADAPTER_PROPERTY_COMPACT_POLICY_PAYLOAD = "compactPolicyPayload";
 
 }
@@ -31,6 +31,7 @@ import org.wso2.carbon.device.mgt.core.operation.mgt.PolicyOperation;
 import org.wso2.carbon.device.mgt.core.operation.mgt.ProfileOperation;
 import org.wso2.carbon.device.mgt.extensions.push.notification.provider.mqtt.internal.MQTTDataHolder;
 import org.wso2.carbon.device.mgt.extensions.push.notification.provider.mqtt.internal.util.MQTTAdapterConstants;
+import org.wso2.carbon.event.output.adapter.core.OutputEventAdapterService;
 import org.wso2.carbon.event.output.adapter.core.exception.OutputEventAdapterException;
 import org.wso2.carbon.event.output.adapter.core.internal.CarbonOutputEventAdapterService;
 import org.wso2.carbon.registry.core.exceptions.RegistryException;
@@ -160,4 +161,64 @@ public class MQTTNotificationStrategyTest {
         providerTenantDomain.set(mqttNotificationStrategy, "SampleTenantDomain");
         mqttNotificationStrategy.execute(notificationContext);
     }
+
+    @Test(dependsOnMethods = {"testExecutePolicyOperation"}, description = "testing execute method with a policy " +
+            "operation published as a compact payload")
+    public void testExecutePolicyOperationWithCompactPayload() throws PushNotificationExecutionFailedException,
+            OutputEventAdapterException {
+        PolicyOperation policyOperation = new PolicyOperation();
+        policyOperation.setCode(POLICY_OPERATION_CODE);
+        List<ProfileOperation> profileOperationList = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            ProfileOperation profileOperation = new ProfileOperation();
+            profileOperation.setCode("SampleCode" + i);
+            profileOperation.setPayLoad("SamplePayload" + i);
+            profileOperationList.add(profileOperation);
+        }
+        policyOperation.setProfileOperations(profileOperationList);
+        notificationContext = new NotificationContext(deviceIdentifier, policyOperation);
+
+        OutputEventAdapterService outputEventAdapterService = Mockito.mock(OutputEventAdapterService.class);
+        MQTTDataHolder.getInstance().setOutputEventAdapterService(outputEventAdapterService);
+        try {
+            Map<String, String> properties = new HashMap<>();
+            properties.put(MQTTAdapterConstants.MQTT_ADAPTER_PROPERTY_NAME, ADAPTER_NAME + "Compact");
+            new MQTTNotificationStrategy(new PushNotificationConfig("MQTT", true, properties))
+                    .execute(notificationContext);
+            Mockito.verify(outputEventAdapterService, Mockito.times(3)).publish(Mockito.anyString(),
+                    Mockito.anyMap(), Mockito.any());
+
+            properties.put(MQTTAdapterConstants.MQTT_ADAPTER_PROPERTY_COMPACT_POLICY_PAYLOAD, "true");
+            Mockito.reset(outputEventAdapterService);
+            new MQTTNotificationStrategy(new PushNotificationConfig("MQTT", true, properties))
+                    .execute(notificationContext);
+            Mockito.verify(outputEventAdapterService, Mockito.times(1)).publish(Mockito.anyString(),
+                    Mockito.anyMap(), Mockito.eq("[{\"code\":\"SampleCode0\",\"payload\":\"SamplePayload0\"}," +
+                            "{\"code\":\"SampleCode1\",\"payload\":\"SamplePayload1\"}," +
+                            "{\"code\":\"SampleCode2\",\"payload\":\"SamplePayload2\"}]"));
+            Mockito.verify(outputEventAdapterService, Mockito.never()).create(Mockito.any());
+        } finally {
+            MQTTDataHolder.getInstance().setOutputEventAdapterService(carbonOutputEventAdapterService);
+        }
+    }
+
+    @Test(description = "testing whether an adapter which is destroyed elsewhere is created again")
+    public void testDestroyedAdapterIsCreatedAgain() throws OutputEventAdapterException {
+        String adapterName = ADAPTER_NAME + "Destroyed";
+        Map<String, String> properties = new HashMap<>();
+        properties.put(MQTTAdapterConstants.MQTT_ADAPTER_PROPERTY_NAME, adapterName);
+        OutputEventAdapterService outputEventAdapterService = Mockito.mock(OutputEventAdapterService.class);
+        MQTTDataHolder.getInstance().setOutputEventAdapterService(outputEventAdapterService);
+        try {
+            new MQTTNotificationStrategy(new PushNotificationConfig("MQTT", true, properties));
+            Mockito.verify(outputEventAdapterService, Mockito.never()).create(Mockito.any());
+
+            Mockito.doThrow(new OutputEventAdapterException("Adapter " + adapterName + " is not found"))
+                    .when(outputEventAdapterService).isPolled(adapterName);
+            new MQTTNotificationStrategy(new PushNotificationConfig("MQTT", true, properties));
+            Mockito.verify(outputEventAdapterService, Mockito.times(1)).create(Mockito.any());
+        } finally {
+            MQTTDataHolder.getInstance().setOutputEventAdapterService(carbonOutputEventAdapterService);
+        }
+    }
 }
@@ -30,8 +30,8 @@ import org.wso2.carbon.device.mgt.analytics.data.publisher.config.AnalyticsConfi
 import org.wso2.carbon.device.mgt.analytics.data.publisher.exception.DataPublisherConfigurationException;
 import org.wso2.carbon.device.mgt.analytics.data.publisher.service.EventsPublisherServiceImpl;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * This is used to manage data publisher per tenant.
@@ -40,11 +40,11 @@ public class DeviceDataPublisher {
 
     private static Log log = LogFactory.getLog(EventsPublisherServiceImpl.class);
 
-    private Map<String, DataPublisher> dataPublishers;
-    private static DeviceDataPublisher deviceDataPublisher;
+    private final ConcurrentMap<String, DataPublisherHolder> dataPublishers;
+    private static volatile DeviceDataPublisher deviceDataPublisher;
 
     private DeviceDataPublisher() {
-        dataPublishers = new HashMap<>();
+        dataPublishers = new ConcurrentHashMap<>();
     }
 
     public static DeviceDataPublisher getInstance() {
@@ -59,7 +59,9 @@ public class DeviceDataPublisher {
     }
 
     /**
-     * This returns the data publisher for the tenant based on the analytics node id.
+     * This returns the data publisher for the tenant based on the analytics node id. The data publisher of a receiver
+     * URL set is created once, on its first use, and only the threads which need the same data publisher wait for
+     * its creation.
      *
      * @param analyticsConfig Analytics configurations
      * @param receiverURLSet Data receiver URL set as string
@@ -68,43 +70,61 @@ public class DeviceDataPublisher {
      */
     public DataPublisher getDataPublisher(AnalyticsConfiguration analyticsConfig, String receiverURLSet)
             throws DataPublisherConfigurationException {
-        synchronized (this) {
-            if (this.dataPublishers.containsKey(receiverURLSet)) {
-                return this.dataPublishers.get(receiverURLSet);
-            } else {
-                String analyticsServerUrlGroups = analyticsConfig.getReceiverServerUrl();
-                String analyticsServerUsername = analyticsConfig.getAdminUsername();
-                String analyticsServerPassword = analyticsConfig.getAdminPassword();
-
-                try {
-                    DataPublisher dataPublisher = new DataPublisher(receiverURLSet, analyticsServerUsername,
-                            analyticsServerPassword);
-                    this.dataPublishers.put(receiverURLSet, dataPublisher);
-                    return dataPublisher;
-                } catch (DataEndpointAgentConfigurationException e) {
-                    String msg = "Configuration Exception on data publisher for " +
-                            "ReceiverGroup = " + analyticsServerUrlGroups + " for username " + analyticsServerUsername;
-                    log.error(msg, e);
-                    throw new DataPublisherConfigurationException(msg, e);
-                } catch (DataEndpointException e) {
-                    String msg = "Invalid ReceiverGroup = " + analyticsServerUrlGroups;
-                    log.error(msg, e);
-                    throw new DataPublisherConfigurationException(msg, e);
-                } catch (DataEndpointConfigurationException e) {
-                    String msg = "Invalid Data endpoint configuration.";
-                    log.error(msg, e);
-                    throw new DataPublisherConfigurationException(msg, e);
-                } catch (DataEndpointAuthenticationException e) {
-                    String msg = "Authentication Failed for user " + analyticsServerUsername;
-                    log.error(msg, e);
-                    throw new DataPublisherConfigurationException(msg, e);
-                } catch (TransportException e) {
-                    String msg = "Error occurred while retrieving data publisher";
-                    log.error(msg, e);
-                    throw new DataPublisherConfigurationException(msg, e);
-                }
+        DataPublisherHolder holder = this.dataPublishers.get(receiverURLSet);
+        if (holder == null) {
+            DataPublisherHolder newHolder = new DataPublisherHolder();
+            holder = this.dataPublishers.putIfAbsent(receiverURLSet, newHolder);
+            if (holder == null) {
+                holder = newHolder;
             }
         }
+        DataPublisher dataPublisher = holder.dataPublisher;
+        if (dataPublisher != null) {
+            return dataPublisher;
+        }
+        synchronized (holder) {
+            if (holder.dataPublisher == null) {
+                holder.dataPublisher = createDataPublisher(analyticsConfig, receiverURLSet);
+            }
+            return holder.dataPublisher;
+        }
+    }
+
+    private DataPublisher createDataPublisher(AnalyticsConfiguration analyticsConfig, String receiverURLSet)
+            throws DataPublisherConfigurationException {
+        String analyticsServerUrlGroups = analyticsConfig.getReceiverServerUrl();
+        String analyticsServerUsername = analyticsConfig.getAdminUsername();
+        String analyticsServerPassword = analyticsConfig.getAdminPassword();
+
+        try {
+            return new DataPublisher(receiverURLSet, analyticsServerUsername, analyticsServerPassword);
+        } catch (DataEndpointAgentConfigurationException e) {
+            String msg = "Configuration Exception on data publisher for " +
+                    "ReceiverGroup = " + analyticsServerUrlGroups + " for username " + analyticsServerUsername;
+            log.error(msg, e);
+            throw new DataPublisherConfigurationException(msg, e);
+        } catch (DataEndpointException e) {
+            String msg = "Invalid ReceiverGroup = " + analyticsServerUrlGroups;
+            log.error(msg, e);
+            throw new DataPublisherConfigurationException(msg, e);
+        } catch (DataEndpointConfigurationException e) {
+            String msg = "Invalid Data endpoint configuration.";
+            log.error(msg, e);
+            throw new DataPublisherConfigurationException(msg, e);
+        } catch (DataEndpointAuthenticationException e) {
+            String msg = "Authentication Failed for user " + analyticsServerUsername;
+            log.error(msg, e);
+            throw new DataPublisherConfigurationException(msg, e);
+        } catch (TransportException e) {
+            String msg = "Error occurred while retrieving data publisher";
+            log.error(msg, e);
+            throw new DataPublisherConfigurationException(msg, e);
+        }
+    }
+
+    private static class DataPublisherHolder {
+
+        private volatile DataPublisher dataPublisher;
     }
 
 }
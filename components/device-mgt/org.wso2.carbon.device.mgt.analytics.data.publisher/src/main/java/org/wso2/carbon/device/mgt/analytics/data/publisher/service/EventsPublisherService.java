@@ -38,4 +38,11 @@ public interface EventsPublisherService {
     boolean publishEvent(String streamName, String version, Object[] metaDataArray, Object[] correlationDataArray,
                          Object[] payloadDataArray) throws DataPublisherConfigurationException;
 
+    /**
+     * This is used to get the number of events which could not be published, since the data publisher did not accept
+     * them.
+     * @return number of events failed to be published
+     */
+    long getFailedPublishCount();
+
 }
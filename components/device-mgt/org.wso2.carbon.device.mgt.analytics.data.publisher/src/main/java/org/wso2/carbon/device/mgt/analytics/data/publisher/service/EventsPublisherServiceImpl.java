@@ -31,6 +31,9 @@ import org.wso2.carbon.device.mgt.analytics.data.publisher.exception.DataPublish
 import org.wso2.carbon.utils.multitenancy.MultitenantConstants;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * This is the implementation of Osgi Service which can be used to publish and retireved
@@ -39,6 +42,8 @@ import java.util.ArrayList;
 public class EventsPublisherServiceImpl implements EventsPublisherService {
 
 	private static Log log = LogFactory.getLog(EventsPublisherServiceImpl.class);
+	private static final AtomicLong failedPublishCount = new AtomicLong();
+	private static volatile EndpointGroups endpointGroups;
 
 	/**
 	 * @param streamName           is the name of the stream that the data needs to pushed
@@ -65,7 +70,7 @@ public class EventsPublisherServiceImpl implements EventsPublisherService {
             throw new DataPublisherConfigurationException(msg);
         }
 
-        ArrayList<String> receiverURLGroups = DataPublisherUtil.getEndpointGroups(analyticsConfig.getReceiverServerUrl());
+        List<String> receiverURLGroups = getEndpointGroups(analyticsConfig.getReceiverServerUrl());
         int hashId = DataPublisherUtil.obtainHashId(metaDataArray[0].toString(), receiverURLGroups.size());
         if (receiverURLGroups.size() <= hashId) {
             String msg = "Invalid receiver url group size. Expected to be higher than: " + hashId + " Actual: " +
@@ -87,9 +92,17 @@ public class EventsPublisherServiceImpl implements EventsPublisherService {
                     .getDataPublisher(analyticsConfig, receiverURLGroups.get(hashId));
             if (dataPublisher != null) {
                 String streamId = DataBridgeCommonsUtils.generateStreamId(streamName, version);
-                return dataPublisher.tryPublish(streamId, System.currentTimeMillis(), metaDataArray,
-                                                correlationDataArray,
-                                                payloadDataArray);
+                boolean published = dataPublisher.tryPublish(streamId, System.currentTimeMillis(), metaDataArray,
+                                                             correlationDataArray,
+                                                             payloadDataArray);
+                if (!published) {
+                    long failedCount = failedPublishCount.incrementAndGet();
+                    if (log.isDebugEnabled()) {
+                        log.debug("Event of stream '" + streamId + "' is not accepted by the data publisher, " +
+                                  failedCount + " event(s) failed to be published so far.");
+                    }
+                }
+                return published;
             } else {
                 return false;
             }
@@ -97,4 +110,34 @@ public class EventsPublisherServiceImpl implements EventsPublisherService {
             PrivilegedCarbonContext.endTenantFlow();
         }
     }
+
+    @Override
+    public long getFailedPublishCount() {
+        return failedPublishCount.get();
+    }
+
+    /**
+     * Returns the receiver URL groups of the receiver server URL, which are parsed again only when the configured
+     * URL changes.
+     */
+    private static List<String> getEndpointGroups(String receiverServerUrl) {
+        EndpointGroups groups = endpointGroups;
+        if (groups == null || !groups.receiverServerUrl.equals(receiverServerUrl)) {
+            groups = new EndpointGroups(receiverServerUrl,
+                                        DataPublisherUtil.getEndpointGroups(receiverServerUrl));
+            endpointGroups = groups;
+        }
+        return groups.urlGroups;
+    }
+
+    private static class EndpointGroups {
+
+        private final String receiverServerUrl;
+        private final List<String> urlGroups;
+
+        EndpointGroups(String receiverServerUrl, ArrayList<String> urlGroups) {
+            this.receiverServerUrl = receiverServerUrl;
+            this.urlGroups = Collections.unmodifiableList(urlGroups);
+        }
+    }
 }
\ No newline at end of file
@@ -30,6 +30,12 @@ import org.wso2.carbon.device.mgt.analytics.data.publisher.service.EventsPublish
 import org.wso2.carbon.device.mgt.analytics.data.publisher.service.EventsPublisherServiceImpl;
 
 import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * This test class will test the methods that are exposed from {@link EventsPublisherService}
@@ -79,6 +85,46 @@ public class EventPublisherServiceTest extends BaseAnalyticsDataPublisherTest {
         publishAsTenant(getEventProps());
     }
 
+    @Test(description = "Publish concurrently as tenant", dependsOnMethods = "publishAsTenant")
+    public void publishConcurrently() throws Exception {
+        final int threadCount = 8;
+        final int eventsPerThread = 50;
+        long failedPublishCount = this.eventsPublisherService.getFailedPublishCount();
+        ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < threadCount; i++) {
+                results.add(executorService.submit(new Callable<Integer>() {
+                    @Override
+                    public Integer call() throws Exception {
+                        int notPublished = 0;
+                        PrivilegedCarbonContext.startTenantFlow();
+                        PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantDomain(TENANT_DOMAIN, true);
+                        try {
+                            for (int j = 0; j < eventsPerThread; j++) {
+                                if (!eventsPublisherService.publishEvent(STREAM_NAME, "1.0.0", getEventProps(),
+                                        getEventProps(), getEventProps())) {
+                                    notPublished++;
+                                }
+                            }
+                        } finally {
+                            PrivilegedCarbonContext.endTenantFlow();
+                        }
+                        return notPublished;
+                    }
+                }));
+            }
+            int notPublished = 0;
+            for (Future<Integer> result : results) {
+                notPublished += result.get();
+            }
+            Assert.assertEquals(this.eventsPublisherService.getFailedPublishCount() - failedPublishCount,
+                    notPublished, "Failed publish attempts are not counted");
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
     @Test(description = "Publish the with no meta data as tenant", dependsOnMethods = "publishAsTenant",
             expectedExceptions = DataPublisherConfigurationException.class)
     public void publishAsTenantWithNoMetaData() throws DataPublisherConfigurationException {
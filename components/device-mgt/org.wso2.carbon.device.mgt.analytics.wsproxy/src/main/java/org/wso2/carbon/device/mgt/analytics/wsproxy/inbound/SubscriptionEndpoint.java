@@ -25,15 +25,18 @@ import org.wso2.carbon.device.mgt.analytics.data.publisher.DataPublisherUtil;
 import org.wso2.carbon.device.mgt.analytics.data.publisher.config.AnalyticsConfiguration;
 import org.wso2.carbon.device.mgt.analytics.wsproxy.exception.WSProxyException;
 import org.wso2.carbon.device.mgt.analytics.wsproxy.outbound.AnalyticsClient;
+import org.wso2.carbon.device.mgt.analytics.wsproxy.outbound.AnalyticsClientPool;
+import org.wso2.carbon.device.mgt.analytics.wsproxy.outbound.ClientSessionSender;
 
 import javax.websocket.CloseReason;
 import javax.websocket.Session;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Interface for subscription and un-subscription for web socket
@@ -42,7 +45,7 @@ import java.util.Map;
 public class SubscriptionEndpoint {
 
     private static final Log log = LogFactory.getLog(SubscriptionEndpoint.class);
-    private Map<String, List<AnalyticsClient>> analyticsClientsMap = new HashMap<>();
+    private Map<String, Subscription> subscriptions = new ConcurrentHashMap<>();
 
     /**
      * Web socket onOpen - When client sends a message
@@ -57,7 +60,7 @@ public class SubscriptionEndpoint {
         AnalyticsConfiguration analyticsConfig = AnalyticsConfiguration.getInstance();
         ArrayList<String> publisherGroups =
                 DataPublisherUtil.getEndpointGroups(analyticsConfig.getAnalyticsPublisherUrl());
-        List<AnalyticsClient> analyticsClients = new ArrayList<>();
+        Subscription subscription = new Subscription(new ClientSessionSender(session));
         for (String publisherURLGroup : publisherGroups) {
             try {
                 String[] endpoints = DataPublisherUtil.getEndpoints(publisherURLGroup);
@@ -68,8 +71,10 @@ public class SubscriptionEndpoint {
                             endpoint += "/";
                         }
                         endpoint += session.getRequestURI().getSchemeSpecificPart().replace("secured-websocket-proxy","");
-                        AnalyticsClient analyticsClient = new AnalyticsClient(session, new URI(endpoint));
-                        analyticsClients.add(analyticsClient);
+                        URI endpointURI = new URI(endpoint);
+                        AnalyticsClient analyticsClient = AnalyticsClientPool.getInstance()
+                                .subscribe(endpointURI, subscription.sender);
+                        subscription.analyticsClients.put(endpointURI, analyticsClient);
                     } catch (URISyntaxException e) {
                         log.error("Unable to create URL from: " + endpoint, e);
                     } catch (WSProxyException e) {
@@ -81,10 +86,10 @@ public class SubscriptionEndpoint {
             }
         }
         if (log.isDebugEnabled()) {
-            log.debug("Configured " + analyticsClients.size() + " analytics clients for Session id: " +
+            log.debug("Configured " + subscription.analyticsClients.size() + " analytics clients for Session id: " +
                     session.getId());
         }
-        analyticsClientsMap.put(session.getId(), analyticsClients);
+        subscriptions.put(session.getId(), subscription);
     }
 
     /**
@@ -101,17 +106,17 @@ public class SubscriptionEndpoint {
             log.debug("Closing a WebSocket due to " + reason.getReasonPhrase() + ", for session ID:" +
                     session.getId() + ", for request URI - " + session.getRequestURI());
         }
-        for (AnalyticsClient analyticsClient : analyticsClientsMap.get(session.getId())) {
-            if (analyticsClient != null) {
-                try {
-                    analyticsClient.closeConnection(reason);
-                } catch (WSProxyException e) {
-                    log.error("Error occurred while closing ws connection due to " + reason.getReasonPhrase() +
-                            ", for session ID:" + session.getId() + ", for request URI - " + session.getRequestURI(), e);
-                }
+        Subscription subscription = subscriptions.remove(session.getId());
+        if (subscription == null) {
+            return;
+        }
+        subscription.sender.close();
+        synchronized (subscription) {
+            for (Map.Entry<URI, AnalyticsClient> analyticsClient : subscription.analyticsClients.entrySet()) {
+                AnalyticsClientPool.getInstance().unsubscribe(analyticsClient.getKey(), analyticsClient.getValue(),
+                        subscription.sender, reason);
             }
         }
-        analyticsClientsMap.remove(session.getId());
     }
 
     /**
@@ -121,8 +126,31 @@ public class SubscriptionEndpoint {
      * @param message - Status code for web-socket close.
      */
     void onMessage(Session session, String message) {
-        for (AnalyticsClient analyticsClient : analyticsClientsMap.get(session.getId())) {
-            if (analyticsClient != null) {
+        Subscription subscription = subscriptions.get(session.getId());
+        if (subscription == null) {
+            return;
+        }
+        synchronized (subscription) {
+            // Messages of the client must not reach the analytics connections shared with other clients.
+            if (!subscription.detached) {
+                Iterator<Map.Entry<URI, AnalyticsClient>> iterator =
+                        subscription.analyticsClients.entrySet().iterator();
+                while (iterator.hasNext()) {
+                    Map.Entry<URI, AnalyticsClient> analyticsClient = iterator.next();
+                    try {
+                        analyticsClient.setValue(AnalyticsClientPool.getInstance().detach(analyticsClient.getKey(),
+                                analyticsClient.getValue(), subscription.sender));
+                    } catch (WSProxyException e) {
+                        log.error("Unable to create WS client for: " + analyticsClient.getKey(), e);
+                        AnalyticsClientPool.getInstance().unsubscribe(analyticsClient.getKey(),
+                                analyticsClient.getValue(), subscription.sender,
+                                new CloseReason(CloseReason.CloseCodes.NORMAL_CLOSURE, "Detached"));
+                        iterator.remove();
+                    }
+                }
+                subscription.detached = true;
+            }
+            for (AnalyticsClient analyticsClient : subscription.analyticsClients.values()) {
                 analyticsClient.sendMessage(message);
             }
         }
@@ -142,4 +170,19 @@ public class SubscriptionEndpoint {
                 session.getRequestURI() + ", " + throwable.getMessage(), throwable);
     }
 
+    /**
+     * Connections to analytics which a client session is subscribed to, keyed by their endpoint URIs. The connections
+     * are shared with other client sessions until the client sends a message.
+     */
+    private static class Subscription {
+
+        private final ClientSessionSender sender;
+        private final Map<URI, AnalyticsClient> analyticsClients = new LinkedHashMap<>();
+        private boolean detached;
+
+        Subscription(ClientSessionSender sender) {
+            this.sender = sender;
+        }
+    }
+
 }
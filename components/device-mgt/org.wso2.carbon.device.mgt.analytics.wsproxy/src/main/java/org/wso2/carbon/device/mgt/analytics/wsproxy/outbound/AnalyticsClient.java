@@ -31,9 +31,13 @@ import javax.websocket.Session;
 import javax.websocket.WebSocketContainer;
 import java.io.IOException;
 import java.net.URI;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
 
 /**
- * This class holds web socket client implementation
+ * This class holds web socket client implementation. A single connection to an analytics endpoint is shared by all
+ * the client sessions subscribed to it, and each message received from analytics is handed over to the senders of
+ * those sessions.
  *
  * @since 1.0.0
  */
@@ -43,14 +47,13 @@ public class AnalyticsClient {
     private static final Log log = LogFactory.getLog(AnalyticsClient.class);
 
     private final Session analyticsSession;
-    private final Session clientSession;
+    private final Set<ClientSessionSender> subscribers = new CopyOnWriteArraySet<>();
 
     /**
      * Create {@link AnalyticsClient} instance.
      */
-    public AnalyticsClient(Session clientSession, URI endpointURI) throws WSProxyException {
+    public AnalyticsClient(URI endpointURI) throws WSProxyException {
         WebSocketContainer container = ContainerProvider.getWebSocketContainer();
-        this.clientSession = clientSession;
 
         try {
             this.analyticsSession = container.connectToServer(this, endpointURI);
@@ -61,6 +64,28 @@ public class AnalyticsClient {
         }
     }
 
+    void addSubscriber(ClientSessionSender sender) {
+        subscribers.add(sender);
+    }
+
+    /**
+     * Remove a subscriber of this connection.
+     *
+     * @return the number of remaining subscribers.
+     */
+    int removeSubscriber(ClientSessionSender sender) {
+        subscribers.remove(sender);
+        return subscribers.size();
+    }
+
+    int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    public boolean isOpen() {
+        return this.analyticsSession.isOpen();
+    }
+
     /**
      * Callback hook for Connection close events.
      *
@@ -84,15 +109,8 @@ public class AnalyticsClient {
      */
     @OnMessage
     public void onMessage(String message) {
-        synchronized (this.clientSession) {
-            try {
-                this.clientSession.getBasicRemote().sendText(message);
-            } catch (IOException e) {
-                log.warn("Sending message to client failed due to " + e.getMessage());
-                if (log.isDebugEnabled()) {
-                    log.debug("Full stack trace:", e);
-                }
-            }
+        for (ClientSessionSender subscriber : subscribers) {
+            subscriber.send(message);
         }
     }
 
@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.analytics.wsproxy.outbound;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.device.mgt.analytics.wsproxy.exception.WSProxyException;
+
+import javax.websocket.CloseReason;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * This class shares the connections to analytics endpoints among the client sessions subscribed to the same
+ * endpoint URI. A connection is opened when the first client subscribes to it, and closed once the last client
+ * unsubscribes.
+ *
+ * @since 1.0.0
+ */
+public class AnalyticsClientPool {
+
+    private static final Log log = LogFactory.getLog(AnalyticsClientPool.class);
+    private static final AnalyticsClientPool instance = new AnalyticsClientPool();
+
+    private final Map<URI, AnalyticsClient> analyticsClients = new HashMap<>();
+
+    private AnalyticsClientPool() {
+    }
+
+    public static AnalyticsClientPool getInstance() {
+        return instance;
+    }
+
+    /**
+     * Subscribe a client session to an analytics endpoint, connecting to the endpoint unless a connection to it is
+     * already open.
+     *
+     * @param endpointURI URI of the analytics endpoint.
+     * @param sender      Sender of the client session.
+     * @return the connection to the analytics endpoint.
+     * @throws WSProxyException if connecting to the endpoint fails.
+     */
+    public AnalyticsClient subscribe(URI endpointURI, ClientSessionSender sender) throws WSProxyException {
+        AnalyticsClient analyticsClient = addSubscriber(endpointURI, sender);
+        if (analyticsClient != null) {
+            return analyticsClient;
+        }
+        // The connection is opened without holding the lock, so that clients of other endpoints are not held up.
+        AnalyticsClient newAnalyticsClient = new AnalyticsClient(endpointURI);
+        synchronized (analyticsClients) {
+            analyticsClient = analyticsClients.get(endpointURI);
+            if (analyticsClient == null || !analyticsClient.isOpen()) {
+                analyticsClients.put(endpointURI, newAnalyticsClient);
+                newAnalyticsClient.addSubscriber(sender);
+                return newAnalyticsClient;
+            }
+            analyticsClient.addSubscriber(sender);
+        }
+        // Another client has connected to the same endpoint meanwhile.
+        closeQuietly(newAnalyticsClient, new CloseReason(CloseReason.CloseCodes.NORMAL_CLOSURE, "Duplicate"));
+        return analyticsClient;
+    }
+
+    /**
+     * Unsubscribe a client session from an analytics endpoint, and close the connection to the endpoint if no other
+     * client session is subscribed to it.
+     *
+     * @param endpointURI     URI of the analytics endpoint.
+     * @param analyticsClient Connection to the analytics endpoint.
+     * @param sender          Sender of the client session.
+     * @param reason          Reason to close the connection with.
+     */
+    public void unsubscribe(URI endpointURI, AnalyticsClient analyticsClient, ClientSessionSender sender,
+                            CloseReason reason) {
+        boolean close;
+        synchronized (analyticsClients) {
+            close = analyticsClient.removeSubscriber(sender) == 0;
+            if (close && analyticsClients.get(endpointURI) == analyticsClient) {
+                analyticsClients.remove(endpointURI);
+            }
+        }
+        if (close) {
+            closeQuietly(analyticsClient, reason);
+        }
+    }
+
+    /**
+     * Move a client session from a shared connection to a connection of its own, so that the messages the client
+     * sends to analytics, and the responses to them, do not reach the other client sessions of the shared
+     * connection. The connection is kept as it is if no other client session is subscribed to it.
+     *
+     * @param endpointURI     URI of the analytics endpoint.
+     * @param analyticsClient Connection to the analytics endpoint, which the client session is subscribed to.
+     * @param sender          Sender of the client session.
+     * @return the connection to the analytics endpoint, which is not shared with other client sessions.
+     * @throws WSProxyException if connecting to the endpoint fails.
+     */
+    public AnalyticsClient detach(URI endpointURI, AnalyticsClient analyticsClient, ClientSessionSender sender)
+            throws WSProxyException {
+        synchronized (analyticsClients) {
+            if (analyticsClient.getSubscriberCount() == 1) {
+                if (analyticsClients.get(endpointURI) == analyticsClient) {
+                    analyticsClients.remove(endpointURI);
+                }
+                return analyticsClient;
+            }
+        }
+        AnalyticsClient dedicatedAnalyticsClient = new AnalyticsClient(endpointURI);
+        dedicatedAnalyticsClient.addSubscriber(sender);
+        unsubscribe(endpointURI, analyticsClient, sender,
+                new CloseReason(CloseReason.CloseCodes.NORMAL_CLOSURE, "Detached"));
+        if (log.isDebugEnabled()) {
+            log.debug("Opened a dedicated connection to " + endpointURI + " for client session '" +
+                    sender.getClientSession().getId() + "'");
+        }
+        return dedicatedAnalyticsClient;
+    }
+
+    private AnalyticsClient addSubscriber(URI endpointURI, ClientSessionSender sender) {
+        synchronized (analyticsClients) {
+            AnalyticsClient analyticsClient = analyticsClients.get(endpointURI);
+            if (analyticsClient != null && analyticsClient.isOpen()) {
+                analyticsClient.addSubscriber(sender);
+                if (log.isDebugEnabled()) {
+                    log.debug("Reusing the connection to " + endpointURI + " for client session '" +
+                            sender.getClientSession().getId() + "'");
+                }
+                return analyticsClient;
+            }
+            return null;
+        }
+    }
+
+    private void closeQuietly(AnalyticsClient analyticsClient, CloseReason reason) {
+        try {
+            analyticsClient.closeConnection(reason);
+        } catch (WSProxyException e) {
+            log.error("Error occurred while closing ws connection due to " + reason.getReasonPhrase(), e);
+        }
+    }
+}
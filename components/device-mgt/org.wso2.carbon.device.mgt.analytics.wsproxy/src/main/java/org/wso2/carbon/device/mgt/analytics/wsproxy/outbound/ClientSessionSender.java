@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.analytics.wsproxy.outbound;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import javax.websocket.CloseReason;
+import javax.websocket.Session;
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class delivers the messages received from analytics to a client session. Messages are buffered in a bounded
+ * queue and written by a shared pool of sender threads, so that a slow client does not hold up the other clients of
+ * the same analytics connection. A client which falls behind by more than the size of the buffer is disconnected.
+ *
+ * @since 1.0.0
+ */
+public class ClientSessionSender {
+
+    private static final Log log = LogFactory.getLog(ClientSessionSender.class);
+
+    private static final int MAX_PENDING_MESSAGES = 1000;
+    private static final int SENDER_THREADS = 16;
+    private static final ExecutorService senderExecutor = createSenderExecutor();
+
+    private final Session clientSession;
+    private final BlockingQueue<String> pendingMessages = new ArrayBlockingQueue<>(MAX_PENDING_MESSAGES);
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+
+    /**
+     * Create {@link ClientSessionSender} instance.
+     */
+    public ClientSessionSender(Session clientSession) {
+        this.clientSession = clientSession;
+    }
+
+    public Session getClientSession() {
+        return clientSession;
+    }
+
+    /**
+     * Queue a message to be sent to the client. This method does not block.
+     *
+     * @param message the message which is going to send.
+     */
+    public void send(String message) {
+        if (closed.get()) {
+            return;
+        }
+        if (!pendingMessages.offer(message)) {
+            log.warn("Disconnecting slow client session '" + clientSession.getId() + "' as " + MAX_PENDING_MESSAGES +
+                    " messages are pending to be sent");
+            disconnect();
+            return;
+        }
+        schedule();
+    }
+
+    /**
+     * Stop sending messages to the client, and drop the messages which are still pending.
+     */
+    public void close() {
+        closed.set(true);
+        pendingMessages.clear();
+    }
+
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            try {
+                senderExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        drain();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                scheduled.set(false);
+                log.warn("Unable to schedule sending messages to client session '" + clientSession.getId() + "'");
+            }
+        }
+    }
+
+    private void drain() {
+        try {
+            String message;
+            while (!closed.get() && (message = pendingMessages.poll()) != null) {
+                try {
+                    this.clientSession.getBasicRemote().sendText(message);
+                } catch (IOException e) {
+                    log.warn("Sending message to client failed due to " + e.getMessage());
+                    if (log.isDebugEnabled()) {
+                        log.debug("Full stack trace:", e);
+                    }
+                }
+            }
+        } finally {
+            scheduled.set(false);
+        }
+        // A message may have been queued after the queue was found empty, but before the flag was cleared.
+        if (!closed.get() && !pendingMessages.isEmpty()) {
+            schedule();
+        }
+    }
+
+    private void disconnect() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        pendingMessages.clear();
+        try {
+            senderExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    closeClientSession();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            closeClientSession();
+        }
+    }
+
+    private void closeClientSession() {
+        try {
+            if (clientSession.isOpen()) {
+                clientSession.close(new CloseReason(CloseReason.CloseCodes.TRY_AGAIN_LATER,
+                        "Client is not consuming messages fast enough"));
+            }
+        } catch (IOException e) {
+            log.warn("Error occurred while closing slow client session '" + clientSession.getId() + "'", e);
+        }
+    }
+
+    private static ExecutorService createSenderExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(SENDER_THREADS, SENDER_THREADS, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                    private final AtomicInteger threadCount = new AtomicInteger();
+
+                    @Override
+                    public Thread newThread(Runnable runnable) {
+                        Thread thread = new Thread(runnable, "WSProxyClientSender-" + threadCount.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
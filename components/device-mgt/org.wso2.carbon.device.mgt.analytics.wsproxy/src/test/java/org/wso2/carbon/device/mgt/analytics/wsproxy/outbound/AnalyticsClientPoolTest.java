@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.analytics.wsproxy.outbound;
+
+import org.glassfish.tyrus.server.Server;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import javax.websocket.CloseReason;
+import javax.websocket.OnClose;
+import javax.websocket.OnMessage;
+import javax.websocket.OnOpen;
+import javax.websocket.Session;
+import javax.websocket.server.ServerEndpoint;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Unit tests for {@link AnalyticsClientPool}, which connect the client sessions to an embedded web socket server
+ * standing in for analytics.
+ */
+public class AnalyticsClientPoolTest {
+
+    private static final String STREAM_PATH = "/stream";
+    private static final long TIMEOUT = 10000L;
+    private static final CloseReason CLOSE_REASON =
+            new CloseReason(CloseReason.CloseCodes.NORMAL_CLOSURE, "Unsubscribed");
+
+    private Server server;
+    private String endpoint;
+
+    @BeforeClass
+    public void init() throws Exception {
+        int port;
+        try (ServerSocket serverSocket = new ServerSocket(0)) {
+            port = serverSocket.getLocalPort();
+        }
+        server = new Server("localhost", port, "/", null, AnalyticsEndpoint.class);
+        server.start();
+        endpoint = "ws://localhost:" + port + STREAM_PATH;
+    }
+
+    @AfterClass
+    public void cleanUp() {
+        server.stop();
+    }
+
+    @Test(description = "Testing whether the messages of a shared connection are delivered to all its subscribers")
+    public void testMessagesAreFannedOut() throws Exception {
+        URI endpointURI = new URI(endpoint + "?test=fan-out");
+        RecordingSender[] senders = {new RecordingSender(), new RecordingSender(), new RecordingSender()};
+        AnalyticsClient analyticsClient = AnalyticsClientPool.getInstance().subscribe(endpointURI, senders[0]);
+        for (int i = 1; i < senders.length; i++) {
+            Assert.assertSame(AnalyticsClientPool.getInstance().subscribe(endpointURI, senders[i]), analyticsClient,
+                    "Connection to the endpoint is not shared");
+        }
+        waitForSessions(1);
+        Assert.assertEquals(AnalyticsEndpoint.sessions.size(), 1, "More than one connection is opened");
+
+        AnalyticsEndpoint.broadcast("event");
+        for (RecordingSender sender : senders) {
+            Assert.assertEquals(sender.messages.poll(TIMEOUT, TimeUnit.MILLISECONDS), "event",
+                    "Message is not delivered to every subscriber");
+        }
+
+        for (RecordingSender sender : senders) {
+            AnalyticsClientPool.getInstance().unsubscribe(endpointURI, analyticsClient, sender, CLOSE_REASON);
+        }
+        waitForSessions(0);
+        Assert.assertTrue(AnalyticsEndpoint.sessions.isEmpty(),
+                "Connection is not closed after the last subscriber is gone");
+    }
+
+    @Test(description = "Testing whether the messages of a client do not reach the other clients of its connection")
+    public void testClientMessagesAreNotShared() throws Exception {
+        URI endpointURI = new URI(endpoint + "?test=detach");
+        RecordingSender sendingSender = new RecordingSender();
+        RecordingSender listeningSender = new RecordingSender();
+        AnalyticsClient sharedAnalyticsClient = AnalyticsClientPool.getInstance().subscribe(endpointURI,
+                sendingSender);
+        AnalyticsClientPool.getInstance().subscribe(endpointURI, listeningSender);
+
+        AnalyticsClient dedicatedAnalyticsClient = AnalyticsClientPool.getInstance().detach(endpointURI,
+                sharedAnalyticsClient, sendingSender);
+        Assert.assertNotSame(dedicatedAnalyticsClient, sharedAnalyticsClient,
+                "Client which sends messages is kept on the shared connection");
+        waitForSessions(2);
+
+        dedicatedAnalyticsClient.sendMessage("filter");
+        Assert.assertEquals(sendingSender.messages.poll(TIMEOUT, TimeUnit.MILLISECONDS), "echo:filter",
+                "Response is not delivered to the client which sent the message");
+        AnalyticsEndpoint.broadcast("event");
+        Assert.assertEquals(listeningSender.messages.poll(TIMEOUT, TimeUnit.MILLISECONDS), "event",
+                "Response to the message of another client is delivered");
+        Assert.assertEquals(sendingSender.messages.poll(TIMEOUT, TimeUnit.MILLISECONDS), "event");
+        RecordingSender newSender = new RecordingSender();
+        Assert.assertSame(AnalyticsClientPool.getInstance().subscribe(endpointURI, newSender),
+                sharedAnalyticsClient, "New client is not subscribed to the shared connection");
+
+        // a client which is left alone on its connection keeps the connection
+        Assert.assertSame(AnalyticsClientPool.getInstance().detach(endpointURI, dedicatedAnalyticsClient,
+                sendingSender), dedicatedAnalyticsClient, "Connection of a single client is replaced");
+
+        AnalyticsClientPool.getInstance().unsubscribe(endpointURI, dedicatedAnalyticsClient, sendingSender,
+                CLOSE_REASON);
+        AnalyticsClientPool.getInstance().unsubscribe(endpointURI, sharedAnalyticsClient, listeningSender,
+                CLOSE_REASON);
+        AnalyticsClientPool.getInstance().unsubscribe(endpointURI, sharedAnalyticsClient, newSender, CLOSE_REASON);
+        waitForSessions(0);
+        Assert.assertTrue(AnalyticsEndpoint.sessions.isEmpty(), "Connections are not closed after unsubscribing");
+    }
+
+    private void waitForSessions(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT;
+        while (AnalyticsEndpoint.sessions.size() != count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+    }
+
+    /**
+     * Analytics endpoint, which echoes the messages of a connection back to the same connection.
+     */
+    @ServerEndpoint(STREAM_PATH)
+    public static class AnalyticsEndpoint {
+
+        private static final Set<Session> sessions = new CopyOnWriteArraySet<>();
+
+        @OnOpen
+        public void onOpen(Session session) {
+            sessions.add(session);
+        }
+
+        @OnClose
+        public void onClose(Session session) {
+            sessions.remove(session);
+        }
+
+        @OnMessage
+        public void onMessage(Session session, String message) throws IOException {
+            session.getBasicRemote().sendText("echo:" + message);
+        }
+
+        private static void broadcast(String message) throws IOException {
+            for (Session session : sessions) {
+                session.getBasicRemote().sendText(message);
+            }
+        }
+    }
+
+    /**
+     * Sender which records the messages of a client session, instead of writing them to the session.
+     */
+    private static class RecordingSender extends ClientSessionSender {
+
+        private final BlockingQueue<String> messages = new LinkedBlockingQueue<>();
+
+        private RecordingSender() {
+            super(null);
+        }
+
+        @Override
+        public void send(String message) {
+            messages.offer(message);
+        }
+    }
+
+}
@@ -301,13 +301,7 @@ public class DeviceAgentServiceImpl implements DeviceAgentService {
             log.error("Failed to connect with the user store, tenantDomain: " + tenantDomain, e);
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR).build();
         } finally {
-            if (eventStreamAdminServiceStub != null) {
-                try {
-                    eventStreamAdminServiceStub.cleanup();
-                } catch (AxisFault axisFault) {
-                    log.warn("Failed to clean eventStreamAdminServiceStub");
-                }
-            }
+            DeviceMgtAPIUtils.releaseEventStreamAdminServiceStub(eventStreamAdminServiceStub);
         }
     }
 
@@ -401,13 +395,7 @@ public class DeviceAgentServiceImpl implements DeviceAgentService {
             log.error("Failed to connect with the user store, tenantDomain: " + tenantDomain, e);
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR).build();
         } finally {
-            if (eventStreamAdminServiceStub != null) {
-                try {
-                    eventStreamAdminServiceStub.cleanup();
-                } catch (AxisFault axisFault) {
-                    log.warn("Failed to clean eventStreamAdminServiceStub");
-                }
-            }
+            DeviceMgtAPIUtils.releaseEventStreamAdminServiceStub(eventStreamAdminServiceStub);
         }
     }
 
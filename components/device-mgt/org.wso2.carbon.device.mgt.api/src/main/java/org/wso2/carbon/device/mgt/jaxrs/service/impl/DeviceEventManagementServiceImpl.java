@@ -176,7 +176,7 @@ public class DeviceEventManagementServiceImpl implements DeviceEventManagementSe
             log.error("Failed to access device management service, tenantDomain: " + tenantDomain, e);
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR).build();
         } finally {
-            cleanup(eventStreamAdminServiceStub);
+            DeviceMgtAPIUtils.releaseEventStreamAdminServiceStub(eventStreamAdminServiceStub);
             cleanup(eventReceiverAdminServiceStub);
         }
     }
@@ -203,6 +203,8 @@ public class DeviceEventManagementServiceImpl implements DeviceEventManagementSe
             String streamName = DeviceMgtAPIUtils.getStreamDefinition(deviceType, tenantDomain);
             String streamNameWithVersion = streamName + ":" + Constants.DEFAULT_STREAM_VERSION;
             publishStreamDefinitons(streamName, Constants.DEFAULT_STREAM_VERSION, deviceType, eventAttributes);
+            // Events of the device type have to be published against the updated stream definition from now on
+            DeviceMgtAPIUtils.getDynamicEventCache().remove(deviceType);
             publishEventReceivers(streamNameWithVersion, transportType, tenantDomain, deviceType);
             publishEventStore(streamName, Constants.DEFAULT_STREAM_VERSION, eventAttributes);
             publishWebsocketPublisherDefinition(streamNameWithVersion, deviceType);
@@ -267,6 +269,7 @@ public class DeviceEventManagementServiceImpl implements DeviceEventManagementSe
                 return Response.status(Response.Status.NO_CONTENT).build();
             }
             eventStreamAdminServiceStub.removeEventStreamDefinition(streamName, Constants.DEFAULT_STREAM_VERSION);
+            DeviceMgtAPIUtils.getDynamicEventCache().remove(deviceType);
             EventReceiverAdminServiceCallbackHandler eventReceiverAdminServiceCallbackHandler =
                     new EventReceiverAdminServiceCallbackHandler() {
                     };
@@ -303,7 +306,7 @@ public class DeviceEventManagementServiceImpl implements DeviceEventManagementSe
                 }
             } finally {
                 cleanup(tenantBasedEventReceiverAdminServiceStub);
-                cleanup(tenantBasedEventStreamAdminServiceStub);
+                DeviceMgtAPIUtils.releaseEventStreamAdminServiceStub(tenantBasedEventStreamAdminServiceStub);
                 PrivilegedCarbonContext.endTenantFlow();
             }
             return Response.ok().build();
@@ -323,11 +326,9 @@ public class DeviceEventManagementServiceImpl implements DeviceEventManagementSe
             log.error("Failed to access device management service, tenantDomain: " + tenantDomain, e);
             return Response.status(Response.Status.INTERNAL_SERVER_ERROR).build();
         } finally {
-            cleanup(eventStreamAdminServiceStub);
+            DeviceMgtAPIUtils.releaseEventStreamAdminServiceStub(eventStreamAdminServiceStub);
             cleanup(eventPublisherAdminServiceStub);
             cleanup(eventReceiverAdminServiceStub);
-            cleanup(eventReceiverAdminServiceStub);
-            cleanup(eventStreamAdminServiceStub);
         }
     }
 
@@ -513,7 +514,7 @@ public class DeviceEventManagementServiceImpl implements DeviceEventManagementSe
                 eventStreamAdminServiceStub.addEventStreamDefinitionAsDto(eventStreamDefinitionDto);
             }
         } finally {
-            cleanup(eventStreamAdminServiceStub);
+            DeviceMgtAPIUtils.releaseEventStreamAdminServiceStub(eventStreamAdminServiceStub);
         }
     }
 
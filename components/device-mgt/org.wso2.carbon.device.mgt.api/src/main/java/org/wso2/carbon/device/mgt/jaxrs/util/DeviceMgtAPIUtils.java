@@ -511,36 +511,58 @@ public class DeviceMgtAPIUtils {
         return STREAM_DEFINITION_PREFIX + tenantDomain + "." + deviceType.replace(" ", ".");
     }
 
+    /**
+     * Returns a configured event stream admin service stub of the tenant, reusing an idle stub of the tenant when
+     * there is one. The stub must be handed back with {@link #releaseEventStreamAdminServiceStub} within the same
+     * tenant flow, once the caller is done with it.
+     */
     public static EventStreamAdminServiceStub getEventStreamAdminServiceStub()
             throws AxisFault, UserStoreException, JWTClientException {
-        EventStreamAdminServiceStub eventStreamAdminServiceStub = new EventStreamAdminServiceStub(
-                Utils.replaceSystemProperty(DAS_ADMIN_SERVICE_EP + EVENT_STREAM_CONTEXT));
-        Options streamOptions = eventStreamAdminServiceStub._getServiceClient().getOptions();
-        if (streamOptions == null) {
-            streamOptions = new Options();
-        }
         String tenantDomain = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantDomain();
+        EventStreamAdminServiceStubPool stubPool = EventStreamAdminServiceStubPool.getInstance();
+        EventStreamAdminServiceStub eventStreamAdminServiceStub = stubPool.borrow(tenantDomain);
+        if (eventStreamAdminServiceStub == null) {
+            eventStreamAdminServiceStub = new EventStreamAdminServiceStub(
+                    Utils.replaceSystemProperty(DAS_ADMIN_SERVICE_EP + EVENT_STREAM_CONTEXT));
+            Options streamOptions = eventStreamAdminServiceStub._getServiceClient().getOptions();
+            if (streamOptions == null) {
+                streamOptions = new Options();
+            }
+            streamOptions.setProperty(HTTPConstants.CUSTOM_PROTOCOL_HANDLER
+                    , new Protocol(DEFAULT_HTTP_PROTOCOL
+                            , (ProtocolSocketFactory) new SSLProtocolSocketFactory(sslContext)
+                            , Integer.parseInt(Utils.replaceSystemProperty(DAS_PORT))));
+            eventStreamAdminServiceStub._getServiceClient().setOptions(streamOptions);
+        }
         String username = PrivilegedCarbonContext.getThreadLocalCarbonContext().getUserRealm()
                 .getRealmConfiguration().getAdminUserName() + "@" + tenantDomain;
         JWTClient jwtClient = DeviceMgtAPIUtils.getJWTClientManagerService().getJWTClient();
-
-        String authValue = AUTHORIZATION_HEADER_VALUE + " " + new String(Base64.encodeBase64(
-                jwtClient.getJwtToken(username).getBytes()));
-
-        List<Header> list = new ArrayList<>();
-        Header httpHeader = new Header();
-        httpHeader.setName(AUTHORIZATION_HEADER);
-        httpHeader.setValue(authValue);
-        list.add(httpHeader);//"https"
-        streamOptions.setProperty(HTTPConstants.HTTP_HEADERS, list);
-        streamOptions.setProperty(HTTPConstants.CUSTOM_PROTOCOL_HANDLER
-                , new Protocol(DEFAULT_HTTP_PROTOCOL
-                        , (ProtocolSocketFactory) new SSLProtocolSocketFactory(sslContext)
-                        , Integer.parseInt(Utils.replaceSystemProperty(DAS_PORT))));
-        eventStreamAdminServiceStub._getServiceClient().setOptions(streamOptions);
+        // The token of a pooled stub may have expired, hence the authorization header is set on every borrow
+        eventStreamAdminServiceStub._getServiceClient().getOptions().setProperty(HTTPConstants.HTTP_HEADERS,
+                stubPool.getAuthorizationHeaders(tenantDomain, jwtClient.getJwtToken(username)));
         return eventStreamAdminServiceStub;
     }
 
+    /**
+     * Hands back a stub obtained from {@link #getEventStreamAdminServiceStub} to the pool of the tenant, or cleans it
+     * up if the pool of the tenant is already full.
+     */
+    public static void releaseEventStreamAdminServiceStub(EventStreamAdminServiceStub eventStreamAdminServiceStub) {
+        if (eventStreamAdminServiceStub == null) {
+            return;
+        }
+        String tenantDomain = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantDomain();
+        try {
+            eventStreamAdminServiceStub._getServiceClient().cleanupTransport();
+            if (tenantDomain == null ||
+                    !EventStreamAdminServiceStubPool.getInstance().release(tenantDomain, eventStreamAdminServiceStub)) {
+                eventStreamAdminServiceStub.cleanup();
+            }
+        } catch (AxisFault axisFault) {
+            log.warn("Failed to clean eventStreamAdminServiceStub of tenant " + tenantDomain);
+        }
+    }
+
     public static EventReceiverAdminServiceStub getEventReceiverAdminServiceStub()
             throws AxisFault, UserStoreException, JWTClientException {
         EventReceiverAdminServiceStub receiverAdminServiceStub = new EventReceiverAdminServiceStub(
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.jaxrs.util;
+
+import org.apache.commons.codec.binary.Base64;
+import org.apache.commons.httpclient.Header;
+import org.wso2.carbon.event.stream.stub.EventStreamAdminServiceStub;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Pool of configured event stream admin service stubs of each tenant, along with the authorization headers built for
+ * the JWT tokens of the tenant admin. Stubs are not thread safe, hence a stub is handed out to a single caller at a
+ * time and is returned to the pool once the caller is done with it.
+ */
+class EventStreamAdminServiceStubPool {
+
+    private static final int MAX_IDLE_STUBS_PER_TENANT = 10;
+    private static final String AUTHORIZATION_HEADER = "Authorization";
+    private static final String AUTHORIZATION_HEADER_VALUE = "Bearer";
+    private static final EventStreamAdminServiceStubPool instance = new EventStreamAdminServiceStubPool();
+
+    private final ConcurrentMap<String, TenantStubs> tenantStubs = new ConcurrentHashMap<>();
+
+    private EventStreamAdminServiceStubPool() {
+    }
+
+    static EventStreamAdminServiceStubPool getInstance() {
+        return instance;
+    }
+
+    /**
+     * Returns an idle stub of the tenant, or null if a new stub has to be created.
+     */
+    EventStreamAdminServiceStub borrow(String tenantDomain) {
+        return getTenantStubs(tenantDomain).idleStubs.poll();
+    }
+
+    /**
+     * Returns a stub to the pool of the tenant.
+     *
+     * @return false if the pool of the tenant is already full, in which case the stub must be cleaned up
+     */
+    boolean release(String tenantDomain, EventStreamAdminServiceStub stub) {
+        BlockingQueue<EventStreamAdminServiceStub> idleStubs = getTenantStubs(tenantDomain).idleStubs;
+        synchronized (idleStubs) {
+            return idleStubs.contains(stub) || idleStubs.offer(stub);
+        }
+    }
+
+    /**
+     * Returns the HTTP headers which authorize the requests of the tenant with the given JWT token. The headers are
+     * built again only when the token of the tenant admin changes.
+     */
+    List<Header> getAuthorizationHeaders(String tenantDomain, String jwtToken) {
+        TenantStubs stubs = getTenantStubs(tenantDomain);
+        AuthorizationHeaders authorizationHeaders = stubs.authorizationHeaders;
+        if (authorizationHeaders == null || !authorizationHeaders.jwtToken.equals(jwtToken)) {
+            authorizationHeaders = new AuthorizationHeaders(jwtToken);
+            stubs.authorizationHeaders = authorizationHeaders;
+        }
+        return authorizationHeaders.headers;
+    }
+
+    private TenantStubs getTenantStubs(String tenantDomain) {
+        TenantStubs stubs = tenantStubs.get(tenantDomain);
+        if (stubs == null) {
+            TenantStubs newStubs = new TenantStubs();
+            stubs = tenantStubs.putIfAbsent(tenantDomain, newStubs);
+            if (stubs == null) {
+                stubs = newStubs;
+            }
+        }
+        return stubs;
+    }
+
+    private static class TenantStubs {
+
+        private final BlockingQueue<EventStreamAdminServiceStub> idleStubs =
+                new ArrayBlockingQueue<>(MAX_IDLE_STUBS_PER_TENANT);
+        private volatile AuthorizationHeaders authorizationHeaders;
+    }
+
+    private static class AuthorizationHeaders {
+
+        private final String jwtToken;
+        private final List<Header> headers = new ArrayList<>();
+
+        AuthorizationHeaders(String jwtToken) {
+            this.jwtToken = jwtToken;
+            Header httpHeader = new Header();
+            httpHeader.setName(AUTHORIZATION_HEADER);
+            httpHeader.setValue(AUTHORIZATION_HEADER_VALUE + " " + new String(Base64.encodeBase64(
+                    jwtToken.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8));
+            headers.add(httpHeader);
+        }
+    }
+
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.device.mgt.jaxrs.util;
+
+import org.apache.commons.httpclient.Header;
+import org.mockito.Mockito;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.carbon.event.stream.stub.EventStreamAdminServiceStub;
+
+import java.util.List;
+
+/**
+ * This class tests the pooling of event stream admin service stubs in {@link EventStreamAdminServiceStubPool}.
+ */
+public class EventStreamAdminServiceStubPoolTest {
+
+    private static final String TEST_TENANT_DOMAIN = "pool.test.com";
+    private static final String OTHER_TENANT_DOMAIN = "other.pool.test.com";
+
+    @Test(description = "This method tests whether a released stub is handed out again to the same tenant only")
+    public void testReleasedStubIsReused() {
+        EventStreamAdminServiceStubPool stubPool = EventStreamAdminServiceStubPool.getInstance();
+        EventStreamAdminServiceStub stub = Mockito.mock(EventStreamAdminServiceStub.class);
+        Assert.assertNull(stubPool.borrow(TEST_TENANT_DOMAIN), "Pool of a new tenant is not empty");
+        Assert.assertTrue(stubPool.release(TEST_TENANT_DOMAIN, stub), "Stub is not returned to the pool");
+        Assert.assertTrue(stubPool.release(TEST_TENANT_DOMAIN, stub), "Stub returned twice is rejected");
+        Assert.assertNull(stubPool.borrow(OTHER_TENANT_DOMAIN), "Stub is handed out to a different tenant");
+        Assert.assertSame(stubPool.borrow(TEST_TENANT_DOMAIN), stub, "Pooled stub is not reused");
+        Assert.assertNull(stubPool.borrow(TEST_TENANT_DOMAIN), "Stub is handed out more than once");
+    }
+
+    @Test(description = "This method tests whether the pool of a tenant is bounded",
+            dependsOnMethods = "testReleasedStubIsReused")
+    public void testPoolIsBounded() {
+        EventStreamAdminServiceStubPool stubPool = EventStreamAdminServiceStubPool.getInstance();
+        int pooledStubs = 0;
+        while (stubPool.release(TEST_TENANT_DOMAIN, Mockito.mock(EventStreamAdminServiceStub.class))) {
+            pooledStubs++;
+            Assert.assertTrue(pooledStubs <= 100, "Pool of the tenant is not bounded");
+        }
+        for (int i = 0; i < pooledStubs; i++) {
+            Assert.assertNotNull(stubPool.borrow(TEST_TENANT_DOMAIN), "Pooled stub is lost");
+        }
+        Assert.assertNull(stubPool.borrow(TEST_TENANT_DOMAIN));
+    }
+
+    @Test(description = "This method tests whether the authorization headers are built once per token")
+    public void testAuthorizationHeadersAreReused() {
+        EventStreamAdminServiceStubPool stubPool = EventStreamAdminServiceStubPool.getInstance();
+        List<Header> headers = stubPool.getAuthorizationHeaders(TEST_TENANT_DOMAIN, "token");
+        Assert.assertEquals(headers.size(), 1);
+        Assert.assertEquals(headers.get(0).getName(), "Authorization");
+        Assert.assertEquals(headers.get(0).getValue(), "Bearer dG9rZW4=");
+        Assert.assertSame(stubPool.getAuthorizationHeaders(TEST_TENANT_DOMAIN, "token"), headers,
+                "Authorization headers are built again for the same token");
+        Assert.assertEquals(stubPool.getAuthorizationHeaders(TEST_TENANT_DOMAIN, "renewed token").get(0).getValue(),
+                "Bearer cmVuZXdlZCB0b2tlbg==", "Authorization headers are not built again for a renewed token");
+    }
+
+}
@@ -86,6 +86,17 @@ public interface OperationManager {
     Operation getOperationByDeviceAndOperationId(DeviceIdentifier deviceId, int operationId)
             throws OperationManagementException;
 
+    /**
+     * Marks the push notification of an operation to a device as scheduled, so that it is sent again by the push
+     * notification scheduler task. Notification strategies which send push notifications asynchronously use this to
+     * report the push notifications they failed to send.
+     *
+     * @param deviceId    DeviceIdentifier of the device
+     * @param operationId Id of the operation
+     * @throws OperationManagementException If the push notification status could not be updated.
+     */
+    void reschedulePushNotification(DeviceIdentifier deviceId, int operationId) throws OperationManagementException;
+
     List<? extends Operation> getOperationsByDeviceAndStatus(DeviceIdentifier identifier,
                                                              Operation.Status status)
             throws OperationManagementException, DeviceManagementException;
@@ -17,7 +17,6 @@
  */
 package org.wso2.carbon.device.mgt.core;
 
-import com.google.gson.Gson;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.carbon.context.PrivilegedCarbonContext;
@@ -53,6 +52,11 @@ import org.wso2.carbon.device.mgt.core.util.DeviceManagerUtil;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 public class DeviceManagementPluginRepository implements DeviceManagerStartupListener {
 
@@ -61,9 +65,23 @@ public class DeviceManagementPluginRepository implements DeviceManagerStartupLis
     private static final Log log = LogFactory.getLog(DeviceManagementPluginRepository.class);
     private OperationManagerRepository operationManagerRepository;
     private static final long DEFAULT_UPDATE_TIMESTAMP = 900000L;
+    private static final long DEFINITION_REFRESHER_KEEP_ALIVE = 60000L;
+    // Refreshes outdated device type definitions, so that requests are served with the loaded definition meanwhile.
+    private final ThreadPoolExecutor definitionRefreshExecutor;
 
     public DeviceManagementPluginRepository() {
         this.operationManagerRepository = new OperationManagerRepository();
+        this.definitionRefreshExecutor = new ThreadPoolExecutor(1, 1, DEFINITION_REFRESHER_KEEP_ALIVE,
+                TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "device-type-definition-refresher");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        // The refresher thread is not kept while there is nothing to refresh.
+        this.definitionRefreshExecutor.allowCoreThreadTimeOut(true);
         providers = Collections.synchronizedMap(new HashMap<DeviceTypeServiceIdentifier, DeviceManagementServiceHolder>());
         DeviceManagementServiceComponent.registerStartupListener(this);
     }
@@ -116,6 +134,10 @@ public class DeviceManagementPluginRepository implements DeviceManagerStartupLis
                 }
             }
             DeviceManagementServiceHolder deviceManagementServiceHolder = new DeviceManagementServiceHolder(provider);
+            if (deviceTypeDefinition != null) {
+                deviceManagementServiceHolder.setDefinitionHash(
+                        DeviceManagerUtil.getDeviceTypeDefinitionHash(deviceTypeDefinition));
+            }
             if (isSharedWithAllTenants) {
                 DeviceTypeServiceIdentifier deviceTypeIdentifier = new DeviceTypeServiceIdentifier(deviceType);
                 providers.put(deviceTypeIdentifier, deviceManagementServiceHolder);
@@ -162,10 +184,7 @@ public class DeviceManagementPluginRepository implements DeviceManagerStartupLis
         if (log.isDebugEnabled()) {
             log.debug(deviceTypeIdentifier.getDeviceType() + " device type management service is " +
                               "retrieved for tenant id: " + deviceTypeIdentifier.getTenantId());
-            for (Map.Entry<DeviceTypeServiceIdentifier, DeviceManagementServiceHolder> entry : providers.entrySet()) {
-                log.debug("Device Type : " + entry.getKey().getDeviceType() + " Tenant Id : " +
-                                  entry.getKey().getTenantId());
-            }
+            logDeviceManagementProviders();
         }
         if (operationManager != null) {
             try {
@@ -186,15 +205,14 @@ public class DeviceManagementPluginRepository implements DeviceManagerStartupLis
         DeviceManagementServiceHolder provider = providers.get(deviceTypeIdentifier);
         if (log.isDebugEnabled()) {
             log.debug(type + " device type management service is retrieved for tenant id: " + tenantId);
-            for (Map.Entry<DeviceTypeServiceIdentifier, DeviceManagementServiceHolder> entry : providers.entrySet()) {
-                log.debug("Device Type : " + entry.getKey().getDeviceType() + " Tenant Id : " +
-                                  entry.getKey().getTenantId());
-            }
         }
         if (provider == null) {
             deviceTypeIdentifier = new DeviceTypeServiceIdentifier(type);
             provider = providers.get(deviceTypeIdentifier);
             if (provider == null) {
+                if (log.isDebugEnabled()) {
+                    logDeviceManagementProviders();
+                }
                 try {
                     DeviceType deviceType = DeviceManagerUtil.getDeviceType(type, tenantId);
                     if (deviceType == null) {
@@ -224,40 +242,91 @@ public class DeviceManagementPluginRepository implements DeviceManagerStartupLis
         } else {
             // retrieves per tenant device type management service
             if (provider.getDeviceManagementService() instanceof DeviceTypeDefinitionProvider) {
-                //handle updates.
+                //handle updates in the background, while the loaded definition keeps serving the requests.
                 long updatedTimestamp = provider.getTimestamp();
-                if (System.currentTimeMillis() - updatedTimestamp > DEFAULT_UPDATE_TIMESTAMP) {
+                if (System.currentTimeMillis() - updatedTimestamp > DEFAULT_UPDATE_TIMESTAMP
+                        && provider.startRefresh()) {
+                    scheduleDefinitionRefresh(type, tenantId, provider);
+                }
+            }
+        }
+        return provider.getDeviceManagementService();
+    }
+
+    private void scheduleDefinitionRefresh(final String type, final int tenantId,
+                                           final DeviceManagementServiceHolder provider) {
+        try {
+            definitionRefreshExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    PrivilegedCarbonContext.startTenantFlow();
                     try {
-                        DeviceType deviceType = DeviceManagerUtil.getDeviceType(type,tenantId);
-                        DeviceTypeMetaDefinition deviceTypeMetaDefinition = deviceType.getDeviceTypeMetaDefinition();
-                        if (deviceTypeMetaDefinition != null) {
-                            Gson gson = new Gson();
-                            String dbStoredDefinition = gson.toJson(deviceTypeMetaDefinition);
-                            deviceTypeMetaDefinition = ((DeviceTypeDefinitionProvider)
-                                    provider.getDeviceManagementService()).getDeviceTypeMetaDefinition();
-                            String cachedDefinition = gson.toJson(deviceTypeMetaDefinition);
-                            if (!cachedDefinition.equals(dbStoredDefinition)) {
-                                DeviceManagementService deviceTypeManagerService = DeviceManagementDataHolder.getInstance()
-                                        .getDeviceTypeGeneratorService().populateDeviceManagementService(type, deviceTypeMetaDefinition);
-                                if (deviceTypeManagerService == null) {
-                                    log.error("Failing to retrieve the device type service for " + type);
-                                    return null;
-                                }
-                                addDeviceManagementProvider(deviceTypeManagerService);
-                                deviceTypeIdentifier = new DeviceTypeServiceIdentifier(type, tenantId);
-                                provider = providers.get(deviceTypeIdentifier);
-                            } else {
-                                provider.setTimestamp(System.currentTimeMillis());
-                            }
-                        }
+                        PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantId(tenantId, true);
+                        refreshDefinition(type, tenantId, provider);
                     } catch (DeviceManagementException e) {
-                        log.error("Failing to retrieve the device type service for " + type, e);
-                        return null;
+                        log.error("Failing to refresh the device type service for " + type, e);
+                    } finally {
+                        provider.setTimestamp(System.currentTimeMillis());
+                        provider.endRefresh();
+                        PrivilegedCarbonContext.endTenantFlow();
                     }
                 }
+            });
+        } catch (RejectedExecutionException e) {
+            // The repository is shut down, hence the loaded definition is kept.
+            provider.endRefresh();
+        }
+    }
+
+    /**
+     * Stops refreshing the device type definitions, discarding the refreshes which have not started yet.
+     */
+    public void shutdown() {
+        definitionRefreshExecutor.shutdownNow();
+    }
+
+    /**
+     * Reloads the device type management service if its definition has been updated in the database since the
+     * service was created. Definitions are compared by the hash of their stored form.
+     */
+    private void refreshDefinition(String type, int tenantId, DeviceManagementServiceHolder provider)
+            throws DeviceManagementException {
+        String storedDefinitionHash = DeviceManagerUtil.getDeviceTypeDefinitionHash(type, tenantId);
+        if (storedDefinitionHash == null) {
+            return;
+        }
+        String definitionHash = provider.getDefinitionHash();
+        if (definitionHash == null) {
+            definitionHash = DeviceManagerUtil.getDeviceTypeDefinitionHash(((DeviceTypeDefinitionProvider)
+                    provider.getDeviceManagementService()).getDeviceTypeMetaDefinition());
+            provider.setDefinitionHash(definitionHash);
+        }
+        if (storedDefinitionHash.equals(definitionHash)) {
+            return;
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Definition of " + type + " device type has been updated for tenant id: " + tenantId);
+        }
+        DeviceType deviceType = DeviceManagerUtil.getDeviceType(type, tenantId);
+        if (deviceType == null || deviceType.getDeviceTypeMetaDefinition() == null) {
+            return;
+        }
+        DeviceManagementService deviceTypeManagerService = DeviceManagementDataHolder.getInstance()
+                .getDeviceTypeGeneratorService().populateDeviceManagementService(type,
+                        deviceType.getDeviceTypeMetaDefinition());
+        if (deviceTypeManagerService == null) {
+            log.error("Failing to retrieve the device type service for " + type);
+            return;
+        }
+        addDeviceManagementProvider(deviceTypeManagerService);
+    }
+
+    private void logDeviceManagementProviders() {
+        synchronized (providers) {
+            for (DeviceTypeServiceIdentifier identifier : providers.keySet()) {
+                log.debug("Device Type : " + identifier.getDeviceType() + " Tenant Id : " + identifier.getTenantId());
             }
         }
-        return provider.getDeviceManagementService();
     }
 
     public Map<DeviceTypeServiceIdentifier, DeviceManagementService> getAllDeviceManagementServices(int tenantId) {
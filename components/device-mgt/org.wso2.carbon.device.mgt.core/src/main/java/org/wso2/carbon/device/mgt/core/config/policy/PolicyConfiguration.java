@@ -35,6 +35,9 @@ public class PolicyConfiguration {
     private List<String> platforms;
     private String policyEvaluationPoint;
     private boolean cacheEnable;
+    private int monitoringThreadPoolSize;
+    private int monitoringThreadsPerTenant;
+    private int monitoringDevicePageSize;
 
     @XmlElement(name = "MonitoringClass", required = true)
     public String getMonitoringClass() {
@@ -118,4 +121,31 @@ public class PolicyConfiguration {
         this.cacheEnable = cacheEnable;
     }
 
+    @XmlElement(name = "MonitoringThreadPoolSize")
+    public int getMonitoringThreadPoolSize() {
+        return monitoringThreadPoolSize;
+    }
+
+    public void setMonitoringThreadPoolSize(int monitoringThreadPoolSize) {
+        this.monitoringThreadPoolSize = monitoringThreadPoolSize;
+    }
+
+    @XmlElement(name = "MonitoringThreadsPerTenant")
+    public int getMonitoringThreadsPerTenant() {
+        return monitoringThreadsPerTenant;
+    }
+
+    public void setMonitoringThreadsPerTenant(int monitoringThreadsPerTenant) {
+        this.monitoringThreadsPerTenant = monitoringThreadsPerTenant;
+    }
+
+    @XmlElement(name = "MonitoringDevicePageSize")
+    public int getMonitoringDevicePageSize() {
+        return monitoringDevicePageSize;
+    }
+
+    public void setMonitoringDevicePageSize(int monitoringDevicePageSize) {
+        this.monitoringDevicePageSize = monitoringDevicePageSize;
+    }
+
 }
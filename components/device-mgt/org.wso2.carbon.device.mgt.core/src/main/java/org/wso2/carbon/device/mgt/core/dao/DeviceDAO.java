@@ -373,6 +373,22 @@ public interface DeviceDAO {
      */
     List<Device> getDevicesByStatus(EnrolmentInfo.Status status, int tenantId) throws DeviceManagementDAOException;
 
+    /**
+     * This method is used to retrieve a page of the devices of a given type which are in any of the given enrollment
+     * statuses, ordered by the enrollment id. Pages are fetched by the enrollment id of the last device of the
+     * previous page, so that devices enrolled or removed meanwhile do not shift the following pages.
+     *
+     * @param type            device type.
+     * @param statuses        enrollment statuses.
+     * @param lastEnrolmentId enrollment id of the last device of the previous page, 0 for the first page.
+     * @param limit           maximum number of devices of the page.
+     * @param tenantId        tenant id.
+     * @return returns the devices of the page.
+     * @throws DeviceManagementDAOException
+     */
+    List<Device> getDevicesByTypeAndStatus(String type, List<EnrolmentInfo.Status> statuses, int lastEnrolmentId,
+                                           int limit, int tenantId) throws DeviceManagementDAOException;
+
     /**
      * This method is used to retrieve devices of a given ownership as a paginated result.
      *
@@ -78,6 +78,15 @@ public interface DeviceTypeDAO {
 	 */
 	DeviceType getDeviceType(String name, int tenantId) throws DeviceManagementDAOException;
 
+	/**
+	 * @param name     retrieve the definition of the device type with its name.
+	 * @param tenantId retrieve the definition of the device type with its tenant id.
+	 * @return the definition of the device type as it is stored, without deserializing it, or null if the device
+	 * type or its definition is not available.
+	 * @throws DeviceManagementDAOException
+	 */
+	String getDeviceTypeMetaDefinition(String name, int tenantId) throws DeviceManagementDAOException;
+
 	/**
 	 * remove the device type from tenant.
 	 *
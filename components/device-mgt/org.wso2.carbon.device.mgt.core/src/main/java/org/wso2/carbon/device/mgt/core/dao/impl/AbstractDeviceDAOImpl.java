@@ -976,6 +976,51 @@ public abstract class AbstractDeviceDAOImpl implements DeviceDAO {
         return devices;
     }
 
+    @Override
+    public List<Device> getDevicesByTypeAndStatus(String type, List<EnrolmentInfo.Status> statuses,
+                                                  int lastEnrolmentId, int limit, int tenantId)
+            throws DeviceManagementDAOException {
+        Connection conn;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        List<Device> devices = new ArrayList<>();
+        if (statuses.isEmpty()) {
+            return devices;
+        }
+        try {
+            conn = this.getConnection();
+            StringBuilder sql = new StringBuilder("SELECT d.ID AS DEVICE_ID, d.DESCRIPTION, d.NAME AS DEVICE_NAME, " +
+                    "t.NAME AS DEVICE_TYPE, d.DEVICE_IDENTIFICATION, e.OWNER, e.OWNERSHIP, e.STATUS, " +
+                    "e.DATE_OF_LAST_UPDATE, e.DATE_OF_ENROLMENT, e.ID AS ENROLMENT_ID FROM DM_ENROLMENT e, " +
+                    "DM_DEVICE d, DM_DEVICE_TYPE t WHERE e.DEVICE_ID = d.ID AND d.DEVICE_TYPE_ID = t.ID AND " +
+                    "t.NAME = ? AND e.TENANT_ID = ? AND e.ID > ? AND e.STATUS IN (?");
+            for (int i = 1; i < statuses.size(); i++) {
+                sql.append(", ?");
+            }
+            sql.append(") ORDER BY e.ID");
+            stmt = conn.prepareStatement(sql.toString());
+            stmt.setMaxRows(limit);
+            stmt.setFetchSize(limit);
+            int paramIdx = 1;
+            stmt.setString(paramIdx++, type);
+            stmt.setInt(paramIdx++, tenantId);
+            stmt.setInt(paramIdx++, lastEnrolmentId);
+            for (EnrolmentInfo.Status status : statuses) {
+                stmt.setString(paramIdx++, status.toString());
+            }
+            rs = stmt.executeQuery();
+            while (rs.next()) {
+                devices.add(DeviceManagementDAOUtil.loadDevice(rs));
+            }
+        } catch (SQLException e) {
+            throw new DeviceManagementDAOException("Error occurred while fetching the list of " + type +
+                    " devices that matches to statuses " + statuses, e);
+        } finally {
+            DeviceManagementDAOUtil.cleanupResources(stmt, rs);
+        }
+        return devices;
+    }
+
     @Override
     public List<DeviceType> getDeviceTypes()
             throws DeviceManagementDAOException {
@@ -256,6 +256,32 @@ public class DeviceTypeDAOImpl implements DeviceTypeDAO {
 		}
 	}
 
+	@Override
+	public String getDeviceTypeMetaDefinition(String type, int tenantId) throws DeviceManagementDAOException {
+		Connection conn;
+		PreparedStatement stmt = null;
+		ResultSet rs = null;
+		try {
+			conn = this.getConnection();
+			String sql = "SELECT DEVICE_TYPE_META FROM DM_DEVICE_TYPE WHERE (PROVIDER_TENANT_ID =? OR " +
+							"SHARED_WITH_ALL_TENANTS = ?) AND NAME =?";
+			stmt = conn.prepareStatement(sql);
+			stmt.setInt(1, tenantId);
+			stmt.setBoolean(2, true);
+			stmt.setString(3, type);
+			rs = stmt.executeQuery();
+			if (rs.next()) {
+				return rs.getString("DEVICE_TYPE_META");
+			}
+			return null;
+		} catch (SQLException e) {
+			throw new DeviceManagementDAOException(
+					"Error occurred while fetching the definition of device type '" + type + "'", e);
+		} finally {
+			DeviceManagementDAOUtil.cleanupResources(stmt, rs);
+		}
+	}
+
 	@Override
 	public void removeDeviceType(String type, int tenantId) throws DeviceManagementDAOException {
 
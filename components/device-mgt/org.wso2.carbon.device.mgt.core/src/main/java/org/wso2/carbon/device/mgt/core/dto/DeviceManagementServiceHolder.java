@@ -19,6 +19,8 @@ package org.wso2.carbon.device.mgt.core.dto;
 
 import org.wso2.carbon.device.mgt.common.spi.DeviceManagementService;
 
+import java.util.concurrent.atomic.AtomicBoolean;
+
 /**
  * This holds the information of the registered device management service against the device type
  * definition loaded timestamp. This is used to handle device type update scenario.
@@ -26,7 +28,9 @@ import org.wso2.carbon.device.mgt.common.spi.DeviceManagementService;
 public class DeviceManagementServiceHolder {
 
     private DeviceManagementService deviceManagementService;
-    private long timestamp;
+    private volatile long timestamp;
+    private volatile String definitionHash;
+    private final AtomicBoolean refreshing = new AtomicBoolean(false);
 
     public DeviceManagementServiceHolder(DeviceManagementService deviceManagementService) {
         this.deviceManagementService = deviceManagementService;
@@ -44,4 +48,28 @@ public class DeviceManagementServiceHolder {
     public void setTimestamp(long timestamp) {
         this.timestamp = timestamp;
     }
+
+    /**
+     * @return hash of the device type definition which the service was created from, or null if it is not known yet.
+     */
+    public String getDefinitionHash() {
+        return definitionHash;
+    }
+
+    public void setDefinitionHash(String definitionHash) {
+        this.definitionHash = definitionHash;
+    }
+
+    /**
+     * Marks the device type definition as being refreshed, so that a single refresh runs at a time.
+     *
+     * @return false if a refresh is already in progress.
+     */
+    public boolean startRefresh() {
+        return refreshing.compareAndSet(false, true);
+    }
+
+    public void endRefresh() {
+        refreshing.set(false);
+    }
 }
@@ -243,7 +243,11 @@ public class DeviceManagementServiceComponent {
 
     @SuppressWarnings("unused")
     protected void deactivate(ComponentContext componentContext) {
-        //do nothing
+        DeviceManagementProviderService deviceManagementProvider =
+                DeviceManagementDataHolder.getInstance().getDeviceManagementProvider();
+        if (deviceManagementProvider instanceof DeviceManagementProviderServiceImpl) {
+            ((DeviceManagementProviderServiceImpl) deviceManagementProvider).shutdown();
+        }
     }
 
     private void initOperationsManager() throws OperationManagementException {
@@ -69,9 +69,9 @@ import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Collections;
 import java.util.Date;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * This class implements all the functionality exposed as part of the OperationManager. Any transaction initiated
@@ -107,8 +107,8 @@ public class OperationManagerImpl implements OperationManager {
         operationDAO = OperationManagementDAOFactory.getOperationDAO();
         deviceDAO = DeviceManagementDAOFactory.getDeviceDAO();
         enrollmentDAO = DeviceManagementDAOFactory.getEnrollmentDAO();
-        notificationStrategies = new HashMap<>();
-        lastUpdatedTimeStamps = new HashMap<>();
+        notificationStrategies = new ConcurrentHashMap<>();
+        lastUpdatedTimeStamps = new ConcurrentHashMap<>();
     }
 
     public OperationManagerImpl(String deviceType, DeviceManagementService deviceManagementService) {
@@ -123,29 +123,72 @@ public class OperationManagerImpl implements OperationManager {
         // a resource intensive retrieval, we are maintaining tenant aware local cache here to keep device
         // type specific notification strategy.
         int tenantId = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId(false);
-        long lastUpdatedTimeStamp = 0;
-        if (lastUpdatedTimeStamps.containsKey(tenantId)){
-            lastUpdatedTimeStamp = lastUpdatedTimeStamps.get(tenantId);
-        }
-        if (Calendar.getInstance().getTimeInMillis() - lastUpdatedTimeStamp > CACHE_VALIDITY_PERIOD) {
-            PushNotificationConfig pushNoteConfig = deviceManagementService.getPushNotificationConfig();
-            if (pushNoteConfig != null && !NOTIFIER_TYPE_LOCAL.equals(pushNoteConfig.getType())) {
-                PushNotificationProvider provider = DeviceManagementDataHolder.getInstance()
-                        .getPushNotificationProviderRepository().getProvider(pushNoteConfig.getType());
-                if (provider == null) {
-                    log.error("No registered push notification provider found for the type '" +
-                              pushNoteConfig.getType() + "' under tenant ID '" + tenantId + "'.");
-                    return null;
+        if (!isNotificationStrategyExpired(tenantId)) {
+            return notificationStrategies.get(tenantId);
+        }
+        NotificationStrategy replacedStrategy = null;
+        synchronized (notificationStrategies) {
+            // Another thread may have refreshed the strategy while this thread was waiting for the lock.
+            if (isNotificationStrategyExpired(tenantId)) {
+                PushNotificationConfig pushNoteConfig = deviceManagementService.getPushNotificationConfig();
+                if (pushNoteConfig != null && !NOTIFIER_TYPE_LOCAL.equals(pushNoteConfig.getType())) {
+                    PushNotificationProvider provider = DeviceManagementDataHolder.getInstance()
+                            .getPushNotificationProviderRepository().getProvider(pushNoteConfig.getType());
+                    if (provider == null) {
+                        log.error("No registered push notification provider found for the type '" +
+                                  pushNoteConfig.getType() + "' under tenant ID '" + tenantId + "'.");
+                        return null;
+                    }
+                    // Strategies hold sender threads and connections of their own. A strategy is kept as long as
+                    // its configuration is unchanged, and is undeployed once it is replaced.
+                    NotificationStrategy notificationStrategy = notificationStrategies.get(tenantId);
+                    if (notificationStrategy == null ||
+                            !isSameConfig(notificationStrategy.getConfig(), pushNoteConfig)) {
+                        notificationStrategies.put(tenantId, provider.getNotificationStrategy(pushNoteConfig));
+                        replacedStrategy = notificationStrategy;
+                    }
+                } else {
+                    replacedStrategy = notificationStrategies.remove(tenantId);
                 }
-                notificationStrategies.put(tenantId, provider.getNotificationStrategy(pushNoteConfig));
-            } else if (notificationStrategies.containsKey(tenantId)){
-                notificationStrategies.remove(tenantId);
+                lastUpdatedTimeStamps.put(tenantId, Calendar.getInstance().getTimeInMillis());
             }
-            lastUpdatedTimeStamps.put(tenantId, Calendar.getInstance().getTimeInMillis());
+        }
+        if (replacedStrategy != null) {
+            undeployNotificationStrategy(replacedStrategy);
         }
         return notificationStrategies.get(tenantId);
     }
 
+    private boolean isNotificationStrategyExpired(int tenantId) {
+        Long lastUpdatedTimeStamp = lastUpdatedTimeStamps.get(tenantId);
+        return lastUpdatedTimeStamp == null ||
+                Calendar.getInstance().getTimeInMillis() - lastUpdatedTimeStamp > CACHE_VALIDITY_PERIOD;
+    }
+
+    private boolean isSameConfig(PushNotificationConfig config, PushNotificationConfig otherConfig) {
+        if (config == null || otherConfig == null) {
+            return false;
+        }
+        if (config.getType() == null ? otherConfig.getType() != null :
+                !config.getType().equals(otherConfig.getType())) {
+            return false;
+        }
+        if (config.isScheduled() != otherConfig.isScheduled()) {
+            return false;
+        }
+        return config.getProperties() == null ? otherConfig.getProperties() == null :
+                config.getProperties().equals(otherConfig.getProperties());
+    }
+
+    private void undeployNotificationStrategy(NotificationStrategy notificationStrategy) {
+        try {
+            notificationStrategy.undeploy();
+        } catch (RuntimeException e) {
+            log.error("Error occurred while undeploying the replaced notification strategy of device type '" +
+                      deviceType + "'", e);
+        }
+    }
+
     @Override
     public Activity addOperation(Operation operation,
                                  List<DeviceIdentifier> deviceIds)
@@ -675,6 +718,31 @@ public class OperationManagerImpl implements OperationManager {
         }
     }
 
+    @Override
+    public void reschedulePushNotification(DeviceIdentifier deviceId, int operationId)
+            throws OperationManagementException {
+        EnrolmentInfo enrolmentInfo = this.getActiveEnrolmentInfo(deviceId);
+        if (enrolmentInfo == null) {
+            throw new OperationManagementException(
+                    "Device not found for device id:" + deviceId.getId() + " " + "type:" +
+                            deviceId.getType());
+        }
+        try {
+            OperationManagementDAOFactory.beginTransaction();
+            operationMappingDAO.updateOperationMapping(operationId, enrolmentInfo.getId(), org.wso2.carbon
+                    .device.mgt.core.dto.operation.mgt.Operation.PushNotificationStatus.SCHEDULED);
+            OperationManagementDAOFactory.commitTransaction();
+        } catch (OperationManagementDAOException e) {
+            OperationManagementDAOFactory.rollbackTransaction();
+            throw new OperationManagementException("Error occurred while setting push notification status of the " +
+                    "operation: " + operationId + " to SCHEDULED", e);
+        } catch (TransactionManagementException e) {
+            throw new OperationManagementException("Error occurred while initiating a transaction", e);
+        } finally {
+            OperationManagementDAOFactory.closeConnection();
+        }
+    }
+
     @Override
     public Operation getOperationByDeviceAndOperationId(DeviceIdentifier deviceId, int operationId)
             throws OperationManagementException {
@@ -63,6 +63,26 @@ public class PermissionNode {
         return child;
     }
 
+    /**
+     * Returns the child whose path name equals the given region of the request path, without creating a substring
+     * of the request path.
+     *
+     * @param path       Request path.
+     * @param beginIndex Index of the first character of the path segment.
+     * @param endIndex   Index after the last character of the path segment.
+     */
+    PermissionNode getChild(String path, int beginIndex, int endIndex) {
+        int length = endIndex - beginIndex;
+        for (int i = 0; i < children.size(); i++) {
+            PermissionNode node = children.get(i);
+            String nodePathName = node.getPathName();
+            if (nodePathName.length() == length && path.regionMatches(beginIndex, nodePathName, 0, length)) {
+                return node;
+            }
+        }
+        return null;
+    }
+
     public void addChild(PermissionNode node) {
         children.add(node);
     }
@@ -22,18 +22,35 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.carbon.device.mgt.common.permission.mgt.Permission;
 
+import java.util.Map;
 import java.util.StringTokenizer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * This class represents a tree data structure which will be used for adding and retrieving permissions.
+ * Resolved permissions are cached per HTTP method and request URL, which includes the context of the web app, and
+ * the cache is cleared whenever a permission is added to the tree. Only permissions without dynamic path variables are
+ * cached, as the request URLs which match a dynamic permission differ in the values of its variables. Hence the
+ * caches are bounded by the static permissions of the tree, and are plain concurrent maps which are read without
+ * locking.
  */
 public class PermissionTree {
 
     private PermissionNode rootNode;
     private static final String DYNAMIC_PATH_NOTATION = "*";
     private static final String ROOT = "/";
+    private static final char PATH_SEPARATOR = '/';
+    // request URLs which differ only in empty path segments resolve to the same permission, hence the cache is capped
+    private static final int MAX_CACHED_LOOKUPS_PER_METHOD = 5000;
+    // bounds the number of caches, as the HTTP method is taken from the request as it is
+    private static final int MAX_CACHED_METHODS = 16;
     private static final Log log = LogFactory.getLog(PermissionTree.class);
 
+    private final ConcurrentMap<String, ConcurrentMap<String, Permission>> lookupCache = new ConcurrentHashMap<>();
+    private final AtomicLong version = new AtomicLong();
+
     public PermissionTree() {
         rootNode = new PermissionNode(ROOT); // initializing the root node.
     }
@@ -45,7 +62,7 @@ public class PermissionTree {
      *
      * @param permission Permission object.
      */
-    public void addPermission(Permission permission) {
+    public synchronized void addPermission(Permission permission) {
         StringTokenizer st = new StringTokenizer(permission.getUrl(), ROOT);
         PermissionNode tempRoot = rootNode;
         PermissionNode tempChild;
@@ -54,6 +71,12 @@ public class PermissionTree {
             tempRoot = addPermissionNode(tempRoot, tempChild);
         }
         tempRoot.addPermission(permission.getMethod(), permission); //setting permission to the vertex
+        // the version is changed before the cache is cleared, so that lookups which walked the tree before the
+        // permission was added do not put their results back to the cache
+        version.incrementAndGet();
+        for (Map<String, Permission> methodCache : lookupCache.values()) {
+            methodCache.clear();
+        }
     }
 
     /**
@@ -83,16 +106,52 @@ public class PermissionTree {
      * no any permission that is stored with respected to the given request path.
      */
     public Permission getPermission(String url, String httpMethod) {
-        StringTokenizer st = new StringTokenizer(url, ROOT);
+        ConcurrentMap<String, Permission> methodCache = getLookupCache(httpMethod);
+        if (methodCache == null) {
+            return findPermission(url, httpMethod);
+        }
+        Permission permission = methodCache.get(url);
+        if (permission != null) {
+            return permission;
+        }
+        long lookupVersion = version.get();
+        permission = findPermission(url, httpMethod);
+        // request paths without a permission are not cached either, as any path can be requested
+        if (permission != null && !permission.getUrl().contains(DYNAMIC_PATH_NOTATION) &&
+                methodCache.size() < MAX_CACHED_LOOKUPS_PER_METHOD) {
+            methodCache.put(url, permission);
+            // a permission added meanwhile may have cleared the cache before the result was put, in which case the
+            // result is dropped again
+            if (lookupVersion != version.get()) {
+                methodCache.remove(url, permission);
+            }
+        }
+        return permission;
+    }
+
+    /**
+     * This method walks the tree along the segments of the request path. The segments are matched against the
+     * path names of the nodes in place, hence no substrings of the request path are created.
+     */
+    private Permission findPermission(String url, String httpMethod) {
         PermissionNode tempRoot;
         PermissionNode currentRoot = rootNode;
-        while (st.hasMoreTokens()) {
-            String currentToken = st.nextToken();
+        int length = url.length();
+        int beginIndex = 0;
+        while (beginIndex < length) {
+            if (url.charAt(beginIndex) == PATH_SEPARATOR) {
+                beginIndex++;
+                continue;
+            }
+            int endIndex = url.indexOf(PATH_SEPARATOR, beginIndex);
+            if (endIndex < 0) {
+                endIndex = length;
+            }
 
-            // returns the child node which matches with the 'currentToken' path.
-            tempRoot = currentRoot.getChild(currentToken);
+            // returns the child node which matches with the current segment of the path.
+            tempRoot = currentRoot.getChild(url, beginIndex, endIndex);
 
-            // if tempRoot is null, that means 'currentToken' is not matched with the child's path.
+            // if tempRoot is null, that means the current segment is not matched with the child's path.
             // It means that it is at a point where the request must have dynamic path variables.
             // Therefor it looks for '*' in the request path. ('*' denotes dynamic path variable).
             if (tempRoot == null) {
@@ -107,7 +166,40 @@ public class PermissionTree {
                 }
             }
             currentRoot = tempRoot;
+            beginIndex = endIndex + 1;
         }
         return currentRoot.getPermission(httpMethod);
     }
+
+    /**
+     * Returns the number of request paths of which the permissions are cached.
+     */
+    int getCachedLookupCount() {
+        int count = 0;
+        for (Map<String, Permission> methodCache : lookupCache.values()) {
+            count += methodCache.size();
+        }
+        return count;
+    }
+
+    /**
+     * Returns the lookup cache of the HTTP method, or null if lookups of the method are not cached.
+     */
+    private ConcurrentMap<String, Permission> getLookupCache(String httpMethod) {
+        if (httpMethod == null) {
+            return null;
+        }
+        ConcurrentMap<String, Permission> methodCache = lookupCache.get(httpMethod);
+        if (methodCache == null) {
+            if (lookupCache.size() >= MAX_CACHED_METHODS) {
+                return null;
+            }
+            ConcurrentMap<String, Permission> newMethodCache = new ConcurrentHashMap<>();
+            methodCache = lookupCache.putIfAbsent(httpMethod, newMethodCache);
+            if (methodCache == null) {
+                methodCache = newMethodCache;
+            }
+        }
+        return methodCache;
+    }
 }
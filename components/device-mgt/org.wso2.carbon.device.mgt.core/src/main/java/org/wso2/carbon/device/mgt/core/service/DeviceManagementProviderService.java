@@ -447,6 +447,20 @@ public interface DeviceManagementProviderService {
      */
     List<Device> getDevicesByStatus(EnrolmentInfo.Status status, boolean requireDeviceInfo) throws DeviceManagementException;
 
+    /**
+     * This method is used to retrieve a page of the devices of a given type which are in any of the given statuses,
+     * ordered by the enrolment id, without the device-info.
+     *
+     * @param deviceType      Device type
+     * @param statuses        Device statuses
+     * @param lastEnrolmentId Enrolment id of the last device of the previous page, 0 for the first page
+     * @param limit           Maximum number of devices of the page
+     * @return List of devices
+     * @throws DeviceManagementException
+     */
+    List<Device> getDevicesByTypeAndStatus(String deviceType, List<EnrolmentInfo.Status> statuses,
+                                           int lastEnrolmentId, int limit) throws DeviceManagementException;
+
     /**
      * Method to get the device count of user.
      *
@@ -562,6 +576,16 @@ public interface DeviceManagementProviderService {
     Operation getOperationByDeviceAndOperationId(DeviceIdentifier deviceId, int operationId)
             throws OperationManagementException;
 
+    /**
+     * Marks the push notification of an operation to a device as scheduled, so that it is sent again by the push
+     * notification scheduler task.
+     *
+     * @param deviceId    DeviceIdentifier of the device
+     * @param operationId Id of the operation
+     * @throws OperationManagementException If the push notification status could not be updated.
+     */
+    void reschedulePushNotification(DeviceIdentifier deviceId, int operationId) throws OperationManagementException;
+
     List<? extends Operation> getOperationsByDeviceAndStatus(DeviceIdentifier identifier,
                                                              Operation.Status status)
             throws OperationManagementException, DeviceManagementException;
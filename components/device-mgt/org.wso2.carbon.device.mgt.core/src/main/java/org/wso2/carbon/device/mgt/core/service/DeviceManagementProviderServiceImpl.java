@@ -120,6 +120,13 @@ public class DeviceManagementProviderServiceImpl implements DeviceManagementProv
         DeviceManagementServiceComponent.registerPluginInitializationListener(this);
     }
 
+    /**
+     * Releases the resources held by the device management plugins, once the service is no longer used.
+     */
+    public void shutdown() {
+        pluginRepository.shutdown();
+    }
+
     private void initDataAccessObjects() {
         this.deviceDAO = DeviceManagementDAOFactory.getDeviceDAO();
         this.deviceInfoDAO = DeviceManagementDAOFactory.getDeviceDetailsDAO();
@@ -1527,6 +1534,13 @@ public class DeviceManagementProviderServiceImpl implements DeviceManagementProv
                 .getOperationsByDeviceAndStatus(deviceId, status);
     }
 
+    @Override
+    public void reschedulePushNotification(DeviceIdentifier deviceId, int operationId)
+            throws OperationManagementException {
+        pluginRepository.getOperationManager(deviceId.getType(), this.getTenantId())
+                .reschedulePushNotification(deviceId, operationId);
+    }
+
     @Override
     public Operation getOperation(String type, int operationId) throws OperationManagementException {
         return pluginRepository.getOperationManager(type, this.getTenantId()).getOperation(operationId);
@@ -2080,6 +2094,29 @@ public class DeviceManagementProviderServiceImpl implements DeviceManagementProv
         return allDevices;
     }
 
+    @Override
+    public List<Device> getDevicesByTypeAndStatus(String deviceType, List<EnrolmentInfo.Status> statuses,
+                                                  int lastEnrolmentId, int limit) throws DeviceManagementException {
+        if (log.isDebugEnabled()) {
+            log.debug("get " + deviceType + " devices by statuses " + statuses + " after enrolment " +
+                    lastEnrolmentId);
+        }
+        try {
+            DeviceManagementDAOFactory.openConnection();
+            return deviceDAO.getDevicesByTypeAndStatus(deviceType, statuses, lastEnrolmentId, limit,
+                    this.getTenantId());
+        } catch (DeviceManagementDAOException e) {
+            throw new DeviceManagementException("Error occurred while fetching the list of " + deviceType +
+                    " devices that matches to statuses: " + statuses, e);
+        } catch (SQLException e) {
+            String msg = "Error occurred while opening a connection to the data source";
+            log.error(msg, e);
+            throw new DeviceManagementException(msg, e);
+        } finally {
+            DeviceManagementDAOFactory.closeConnection();
+        }
+    }
+
     @Override
     public PaginationResult getDevicesByStatus(PaginationRequest request) throws DeviceManagementException {
         return this.getDevicesByStatus(request, true);
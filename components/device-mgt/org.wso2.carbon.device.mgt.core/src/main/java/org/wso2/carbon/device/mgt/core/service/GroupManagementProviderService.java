@@ -213,6 +213,15 @@ public interface GroupManagementProviderService {
      */
     List<DeviceGroup> getGroups(DeviceIdentifier deviceIdentifier) throws GroupManagementException;
 
+    /**
+     * Get groups which contains particular device, without loading the device again.
+     *
+     * @param device already loaded device.
+     * @return groups contain the device.
+     * @throws GroupManagementException
+     */
+    List<DeviceGroup> getGroups(Device device) throws GroupManagementException;
+
     /**
      * Checks for the default group existence and create group based on device ownership.
      * @param groupName of the group
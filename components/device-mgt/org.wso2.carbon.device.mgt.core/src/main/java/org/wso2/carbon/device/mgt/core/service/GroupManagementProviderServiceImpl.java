@@ -797,6 +797,32 @@ public class GroupManagementProviderServiceImpl implements GroupManagementProvid
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<DeviceGroup> getGroups(Device device) throws GroupManagementException {
+        if (device == null) {
+            String msg = "Received empty device for getGroups";
+            log.error(msg);
+            throw new GroupManagementException(msg);
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Get groups of device " + device.getDeviceIdentifier());
+        }
+        try {
+            GroupManagementDAOFactory.openConnection();
+            return groupDAO.getGroups(device.getId(),
+                    PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId());
+        } catch (GroupManagementDAOException | SQLException e) {
+            String msg = "Error occurred while retrieving device groups.";
+            log.error(msg, e);
+            throw new GroupManagementException(msg, e);
+        } finally {
+            GroupManagementDAOFactory.closeConnection();
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
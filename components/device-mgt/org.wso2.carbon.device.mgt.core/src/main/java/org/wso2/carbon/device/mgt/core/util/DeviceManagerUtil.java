@@ -17,6 +17,8 @@
  */
 package org.wso2.carbon.device.mgt.core.util;
 
+import com.google.gson.Gson;
+import org.apache.commons.codec.binary.Hex;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.w3c.dom.Document;
@@ -64,6 +66,9 @@ import javax.xml.XMLConstants;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -76,6 +81,7 @@ import java.util.concurrent.TimeUnit;
 public final class DeviceManagerUtil {
 
     private static final Log log = LogFactory.getLog(DeviceManagerUtil.class);
+    private static final Gson gson = new Gson();
 
     private  static boolean isDeviceCacheInitialized = false;
 
@@ -193,6 +199,59 @@ public final class DeviceManagerUtil {
         return deviceType;
     }
 
+    /**
+     * Get the hash of the device type definition as it is stored in the database.
+     *
+     * @param typeName device type
+     * @param tenantId provider tenant Id
+     * @return hash of the stored definition, or null if the device type does not have a definition.
+     */
+    public static String getDeviceTypeDefinitionHash(String typeName, int tenantId)
+            throws DeviceManagementException {
+        String deviceTypeDefinition;
+        try {
+            DeviceManagementDAOFactory.openConnection();
+            DeviceTypeDAO deviceTypeDAO = DeviceManagementDAOFactory.getDeviceTypeDAO();
+            deviceTypeDefinition = deviceTypeDAO.getDeviceTypeMetaDefinition(typeName, tenantId);
+        } catch (DeviceManagementDAOException e) {
+            throw new DeviceManagementException("Error occurred while fetching the definition of device type '"
+                    + typeName + "'", e);
+        } catch (SQLException e) {
+            throw new DeviceManagementException("SQL Error occurred while fetching the definition of device type '"
+                    + typeName + "'", e);
+        } finally {
+            DeviceManagementDAOFactory.closeConnection();
+        }
+        if (deviceTypeDefinition == null || deviceTypeDefinition.isEmpty()) {
+            return null;
+        }
+        return getHash(deviceTypeDefinition);
+    }
+
+    /**
+     * Get the hash of a device type definition, which matches the hash of the same definition once it is stored in
+     * the database.
+     *
+     * @param deviceTypeDefinition device type definition
+     * @return hash of the definition, or null if the definition is null.
+     */
+    public static String getDeviceTypeDefinitionHash(DeviceTypeMetaDefinition deviceTypeDefinition) {
+        if (deviceTypeDefinition == null) {
+            return null;
+        }
+        return getHash(gson.toJson(deviceTypeDefinition));
+    }
+
+    private static String getHash(String value) {
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            return Hex.encodeHexString(messageDigest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256.
+            throw new IllegalStateException("SHA-256 is not supported", e);
+        }
+    }
+
     /**
      * Un-registers an existing device type from the device management metadata repository.
      *
@@ -22,13 +22,26 @@ import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 import org.wso2.carbon.device.mgt.common.DeviceManagementException;
 import org.wso2.carbon.device.mgt.common.spi.DeviceManagementService;
+import org.wso2.carbon.device.mgt.common.spi.DeviceTypeGeneratorService;
+import org.wso2.carbon.device.mgt.common.type.mgt.DeviceTypeDefinitionProvider;
+import org.wso2.carbon.device.mgt.common.type.mgt.DeviceTypeMetaDefinition;
 import org.wso2.carbon.device.mgt.core.common.BaseDeviceManagementTest;
 import org.wso2.carbon.device.mgt.core.common.TestDataHolder;
+import org.wso2.carbon.device.mgt.core.dto.DeviceManagementServiceHolder;
+import org.wso2.carbon.device.mgt.core.dto.DeviceTypeServiceIdentifier;
 import org.wso2.carbon.device.mgt.core.internal.DeviceManagementDataHolder;
 import org.wso2.carbon.device.mgt.core.task.impl.DeviceTaskManagerServiceImpl;
+import org.wso2.carbon.device.mgt.core.util.DeviceManagerUtil;
+
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.Map;
 
 public class DeviceManagementRepositoryTests{
 
+	private static final String DEFINITION_DEVICE_TYPE = "TEST-DEFINITION-DEVICE-TYPE";
+	private static final long REFRESH_TIMEOUT = 10000L;
+
 	private DeviceManagementPluginRepository repository;
 
 	@BeforeClass
@@ -68,8 +81,120 @@ public class DeviceManagementRepositoryTests{
 		Assert.assertNull(targetProvider);
 	}
 
+	@Test
+	public void testDeviceTypeDefinitionHash() {
+		DeviceTypeMetaDefinition definition = new DeviceTypeMetaDefinition();
+		definition.setDescription("test device type");
+		definition.setProperties(Arrays.asList("IMEI", "MODEL"));
+		DeviceTypeMetaDefinition sameDefinition = new DeviceTypeMetaDefinition();
+		sameDefinition.setDescription("test device type");
+		sameDefinition.setProperties(Arrays.asList("IMEI", "MODEL"));
+		String hash = DeviceManagerUtil.getDeviceTypeDefinitionHash(definition);
+		Assert.assertNotNull(hash);
+		Assert.assertEquals(DeviceManagerUtil.getDeviceTypeDefinitionHash(sameDefinition), hash,
+							"Hashes of equal device type definitions do not match");
+		sameDefinition.setDescription("updated test device type");
+		Assert.assertNotEquals(DeviceManagerUtil.getDeviceTypeDefinitionHash(sameDefinition), hash,
+							   "Hash of an updated device type definition is not changed");
+		Assert.assertNull(DeviceManagerUtil.getDeviceTypeDefinitionHash((DeviceTypeMetaDefinition) null));
+	}
+
+	@Test(description = "Testing whether an updated device type definition is picked up by the background refresh, "
+			+ "while the loaded service keeps being returned")
+	public void testUpdatedDeviceTypeDefinitionIsRefreshed() throws Exception {
+		DeviceTypeMetaDefinition definition = new DeviceTypeMetaDefinition();
+		definition.setDescription("test device type");
+		DeviceManagerUtil.registerDeviceType(DEFINITION_DEVICE_TYPE, TestDataHolder.SUPER_TENANT_ID, false,
+											 definition);
+		DeviceManagementService loadedService = new DefinitionDeviceManagementService(definition);
+		this.getRepository().addDeviceManagementProvider(loadedService);
+
+		DeviceTypeGeneratorService previousGeneratorService =
+				DeviceManagementDataHolder.getInstance().getDeviceTypeGeneratorService();
+		DeviceManagementDataHolder.getInstance().setDeviceTypeGeneratorService(new DeviceTypeGeneratorService() {
+			@Override
+			public DeviceManagementService populateDeviceManagementService(String deviceTypeName,
+					DeviceTypeMetaDefinition deviceTypeMetaDefinition) {
+				return new DefinitionDeviceManagementService(deviceTypeMetaDefinition);
+			}
+		});
+		try {
+			DeviceTypeMetaDefinition updatedDefinition = new DeviceTypeMetaDefinition();
+			updatedDefinition.setDescription("updated test device type");
+			// Updates the stored definition of the existing device type.
+			DeviceManagerUtil.registerDeviceType(DEFINITION_DEVICE_TYPE, TestDataHolder.SUPER_TENANT_ID, false,
+												 updatedDefinition);
+			getServiceHolder(this.getRepository()).setTimestamp(0L);
+
+			Assert.assertSame(this.getRepository().getDeviceManagementService(DEFINITION_DEVICE_TYPE,
+					TestDataHolder.SUPER_TENANT_ID), loadedService,
+					"Loaded service is not returned while the definition is being refreshed");
+			DeviceManagementService refreshedService = loadedService;
+			long deadline = System.currentTimeMillis() + REFRESH_TIMEOUT;
+			while (refreshedService == loadedService && System.currentTimeMillis() < deadline) {
+				Thread.sleep(50);
+				refreshedService = this.getRepository().getDeviceManagementService(DEFINITION_DEVICE_TYPE,
+						TestDataHolder.SUPER_TENANT_ID);
+			}
+			Assert.assertNotSame(refreshedService, loadedService, "Updated definition is not picked up");
+			Assert.assertEquals(((DeviceTypeDefinitionProvider) refreshedService).getDeviceTypeMetaDefinition()
+					.getDescription(), updatedDefinition.getDescription(),
+					"Service is not rebuilt from the updated definition");
+		} finally {
+			DeviceManagementDataHolder.getInstance().setDeviceTypeGeneratorService(previousGeneratorService);
+		}
+	}
+
+	@Test(description = "Testing whether the loaded service keeps being returned once the repository is shut down",
+		  dependsOnMethods = "testUpdatedDeviceTypeDefinitionIsRefreshed")
+	public void testShutdownKeepsLoadedDefinition() throws Exception {
+		DeviceManagementPluginRepository shutDownRepository = new DeviceManagementPluginRepository();
+		DeviceTypeMetaDefinition definition = new DeviceTypeMetaDefinition();
+		definition.setDescription("test device type");
+		DeviceManagementService loadedService = new DefinitionDeviceManagementService(definition);
+		shutDownRepository.addDeviceManagementProvider(loadedService);
+		shutDownRepository.shutdown();
+		getServiceHolder(shutDownRepository).setTimestamp(0L);
+
+		Assert.assertSame(shutDownRepository.getDeviceManagementService(DEFINITION_DEVICE_TYPE,
+				TestDataHolder.SUPER_TENANT_ID), loadedService,
+				"Loaded service is not returned once the repository is shut down");
+		Assert.assertTrue(getServiceHolder(shutDownRepository).startRefresh(),
+				"Refresh is left in progress once the repository is shut down");
+	}
+
+	@SuppressWarnings("unchecked")
+	private static DeviceManagementServiceHolder getServiceHolder(DeviceManagementPluginRepository repository)
+			throws Exception {
+		Field providers = DeviceManagementPluginRepository.class.getDeclaredField("providers");
+		providers.setAccessible(true);
+		Map<DeviceTypeServiceIdentifier, DeviceManagementServiceHolder> serviceHolders =
+				(Map<DeviceTypeServiceIdentifier, DeviceManagementServiceHolder>) providers.get(repository);
+		return serviceHolders.get(new DeviceTypeServiceIdentifier(DEFINITION_DEVICE_TYPE,
+																  TestDataHolder.SUPER_TENANT_ID));
+	}
+
 	private DeviceManagementPluginRepository getRepository() {
 		return repository;
 	}
 
+	/**
+	 * Device management service of a device type, which is created from the definition of the device type.
+	 */
+	private static class DefinitionDeviceManagementService extends TestDeviceManagementService
+			implements DeviceTypeDefinitionProvider {
+
+		private final DeviceTypeMetaDefinition definition;
+
+		private DefinitionDeviceManagementService(DeviceTypeMetaDefinition definition) {
+			super(DEFINITION_DEVICE_TYPE, TestDataHolder.SUPER_TENANT_DOMAIN);
+			this.definition = definition;
+		}
+
+		@Override
+		public DeviceTypeMetaDefinition getDeviceTypeMetaDefinition() {
+			return definition;
+		}
+	}
+
 }
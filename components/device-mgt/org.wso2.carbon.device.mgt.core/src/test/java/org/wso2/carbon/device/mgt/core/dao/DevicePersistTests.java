@@ -25,6 +25,7 @@ import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 import org.wso2.carbon.device.mgt.common.Device;
 import org.wso2.carbon.device.mgt.common.DeviceIdentifier;
+import org.wso2.carbon.device.mgt.common.EnrolmentInfo;
 import org.wso2.carbon.device.mgt.common.EnrolmentInfo.Status;
 import org.wso2.carbon.device.mgt.common.TransactionManagementException;
 import org.wso2.carbon.device.mgt.core.TestUtils;
@@ -33,6 +34,10 @@ import org.wso2.carbon.device.mgt.core.common.TestDataHolder;
 import org.wso2.carbon.device.mgt.core.dto.DeviceType;
 
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
 
 public class DevicePersistTests extends BaseDeviceManagementTest {
 
@@ -224,4 +229,71 @@ public class DevicePersistTests extends BaseDeviceManagementTest {
             DeviceManagementDAOFactory.closeConnection();
         }
     }
+
+    @Test(description = "Testing whether devices of a type and statuses are paged in the order of their enrolment ids")
+    public void testGetDevicesByTypeAndStatus() throws DeviceManagementDAOException, TransactionManagementException {
+        String deviceTypeName = "KEYSET_PAGE_TYPE";
+        Status[] statuses = {Status.ACTIVE, Status.REMOVED, Status.INACTIVE, Status.ACTIVE, Status.CREATED};
+        List<Integer> expectedEnrolmentIds = new ArrayList<>();
+        try {
+            DeviceManagementDAOFactory.beginTransaction();
+            deviceTypeDAO.addDeviceType(TestDataHolder.generateDeviceTypeData(deviceTypeName),
+                    TestDataHolder.SUPER_TENANT_ID, true);
+            DeviceManagementDAOFactory.commitTransaction();
+        } catch (DeviceManagementDAOException e) {
+            DeviceManagementDAOFactory.rollbackTransaction();
+            throw e;
+        } finally {
+            DeviceManagementDAOFactory.closeConnection();
+        }
+        int deviceTypeId = this.getDeviceTypeId(deviceTypeName);
+        try {
+            DeviceManagementDAOFactory.beginTransaction();
+            for (int i = 0; i < statuses.length; i++) {
+                Device device = TestDataHolder.generateDummyDeviceData("keyset-device-" + i, deviceTypeName,
+                        TestDataHolder.generateEnrollmentInfo(new Date().getTime(), new Date().getTime(),
+                                TestDataHolder.OWNER, EnrolmentInfo.OwnerShip.BYOD, statuses[i]));
+                device.setId(deviceDAO.addDevice(deviceTypeId, device, TestDataHolder.SUPER_TENANT_ID));
+                int enrolmentId = deviceDAO.addEnrollment(device, TestDataHolder.SUPER_TENANT_ID);
+                if (statuses[i] != Status.REMOVED) {
+                    expectedEnrolmentIds.add(enrolmentId);
+                }
+            }
+            DeviceManagementDAOFactory.commitTransaction();
+        } catch (DeviceManagementDAOException e) {
+            DeviceManagementDAOFactory.rollbackTransaction();
+            throw e;
+        } finally {
+            DeviceManagementDAOFactory.closeConnection();
+        }
+
+        List<Status> monitorableStatuses = Arrays.asList(Status.CREATED, Status.ACTIVE, Status.INACTIVE);
+        List<Integer> enrolmentIds = new ArrayList<>();
+        int lastEnrolmentId = 0;
+        int pageCount = 0;
+        List<Device> page;
+        do {
+            try {
+                DeviceManagementDAOFactory.openConnection();
+                page = deviceDAO.getDevicesByTypeAndStatus(deviceTypeName, monitorableStatuses, lastEnrolmentId, 2,
+                        TestDataHolder.SUPER_TENANT_ID);
+            } catch (SQLException e) {
+                throw new DeviceManagementDAOException("Error occurred while opening a connection", e);
+            } finally {
+                DeviceManagementDAOFactory.closeConnection();
+            }
+            Assert.assertTrue(page.size() <= 2, "Page holds more devices than the limit");
+            for (Device device : page) {
+                Assert.assertEquals(device.getType(), deviceTypeName);
+                enrolmentIds.add(device.getEnrolmentInfo().getId());
+            }
+            if (!page.isEmpty()) {
+                lastEnrolmentId = page.get(page.size() - 1).getEnrolmentInfo().getId();
+            }
+            pageCount++;
+        } while (page.size() == 2);
+        Assert.assertEquals(enrolmentIds, expectedEnrolmentIds,
+                "Devices are not paged in the order of their enrolment ids, or a device is skipped or repeated");
+        Assert.assertEquals(pageCount, 3, "Devices are not split into pages of the given limit");
+    }
 }
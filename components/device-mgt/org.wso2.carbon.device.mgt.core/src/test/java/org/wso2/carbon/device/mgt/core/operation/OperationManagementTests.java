@@ -20,6 +20,7 @@ package org.wso2.carbon.device.mgt.core.operation;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.mockito.Mockito;
 import org.powermock.api.mockito.PowerMockito;
 import org.testng.Assert;
 import org.testng.annotations.BeforeClass;
@@ -37,6 +38,9 @@ import org.wso2.carbon.device.mgt.common.operation.mgt.ActivityStatus;
 import org.wso2.carbon.device.mgt.common.operation.mgt.Operation;
 import org.wso2.carbon.device.mgt.common.operation.mgt.OperationManagementException;
 import org.wso2.carbon.device.mgt.common.operation.mgt.OperationManager;
+import org.wso2.carbon.device.mgt.common.push.notification.NotificationStrategy;
+import org.wso2.carbon.device.mgt.common.push.notification.PushNotificationConfig;
+import org.wso2.carbon.device.mgt.common.push.notification.PushNotificationProvider;
 import org.wso2.carbon.device.mgt.common.spi.DeviceManagementService;
 import org.wso2.carbon.device.mgt.core.DeviceManagementConstants;
 import org.wso2.carbon.device.mgt.core.TestDeviceManagementService;
@@ -48,15 +52,18 @@ import org.wso2.carbon.device.mgt.core.operation.mgt.ConfigOperation;
 import org.wso2.carbon.device.mgt.core.operation.mgt.OperationManagerImpl;
 import org.wso2.carbon.device.mgt.core.operation.mgt.PolicyOperation;
 import org.wso2.carbon.device.mgt.core.operation.mgt.ProfileOperation;
+import org.wso2.carbon.device.mgt.core.push.notification.mgt.PushNotificationProviderRepository;
 import org.wso2.carbon.device.mgt.core.service.DeviceManagementProviderService;
 import org.wso2.carbon.utils.multitenancy.MultitenantConstants;
 
+import java.lang.reflect.Field;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
 /**
  * This is the testcase which covers the methods from {@link OperationManager}
@@ -75,6 +82,7 @@ public class OperationManagementTests extends BaseDeviceManagementTest {
     private static final String ADMIN_USER = "admin";
     private static final String NON_ADMIN_USER = "test";
     private static final String INVALID_DEVICE = "ThisIsInvalid";
+    private static final String TEST_NOTIFIER_TYPE = "TEST_LIFECYCLE";
 
     private List<DeviceIdentifier> deviceIds = new ArrayList<>();
     private OperationManager operationMgtService;
@@ -521,6 +529,56 @@ public class OperationManagementTests extends BaseDeviceManagementTest {
         Assert.assertTrue(this.operationMgtService.getNotificationStrategy() != null);
     }
 
+    @Test(description = "Testing whether a notification strategy is kept while its configuration is unchanged, and "
+            + "is undeployed once it is replaced")
+    public void refreshNotificationStrategy() throws Exception {
+        PushNotificationProviderRepository providerRepository = DeviceManagementDataHolder.getInstance()
+                .getPushNotificationProviderRepository();
+        if (providerRepository == null) {
+            providerRepository = new PushNotificationProviderRepository();
+            DeviceManagementDataHolder.getInstance().setPushNotificationProviderRepository(providerRepository);
+        }
+        providerRepository.addProvider(new PushNotificationProvider() {
+            @Override
+            public String getType() {
+                return TEST_NOTIFIER_TYPE;
+            }
+
+            @Override
+            public NotificationStrategy getNotificationStrategy(PushNotificationConfig config) {
+                return new TestNotificationStrategy(config);
+            }
+        });
+        DeviceManagementService managementService = Mockito.mock(DeviceManagementService.class);
+        Mockito.when(managementService.getPushNotificationConfig()).thenReturn(new PushNotificationConfig(
+                TEST_NOTIFIER_TYPE, false, Collections.singletonMap("url", "http://localhost/notify")));
+        OperationManagerImpl operationManager = new OperationManagerImpl(DEVICE_TYPE, managementService);
+
+        TestNotificationStrategy notificationStrategy =
+                (TestNotificationStrategy) operationManager.getNotificationStrategy();
+        expireNotificationStrategies(operationManager);
+        Assert.assertSame(operationManager.getNotificationStrategy(), notificationStrategy,
+                "Notification strategy is created again although its configuration is not changed");
+        Assert.assertFalse(notificationStrategy.isUndeployed());
+
+        Mockito.when(managementService.getPushNotificationConfig()).thenReturn(new PushNotificationConfig(
+                TEST_NOTIFIER_TYPE, false, Collections.singletonMap("url", "http://localhost/notify-updated")));
+        expireNotificationStrategies(operationManager);
+        TestNotificationStrategy updatedNotificationStrategy =
+                (TestNotificationStrategy) operationManager.getNotificationStrategy();
+        Assert.assertNotSame(updatedNotificationStrategy, notificationStrategy,
+                "Notification strategy is not created again after its configuration is changed");
+        Assert.assertTrue(notificationStrategy.isUndeployed(), "Replaced notification strategy is not undeployed");
+        Assert.assertFalse(updatedNotificationStrategy.isUndeployed());
+    }
+
+    private void expireNotificationStrategies(OperationManagerImpl operationManager)
+            throws NoSuchFieldException, IllegalAccessException {
+        Field lastUpdatedTimeStamps = OperationManagerImpl.class.getDeclaredField("lastUpdatedTimeStamps");
+        lastUpdatedTimeStamps.setAccessible(true);
+        ((Map) lastUpdatedTimeStamps.get(operationManager)).clear();
+    }
+
     @Test(dependsOnMethods = {"getOperationByActivityIdAndDevice", "getOperationByActivityIdAndDeviceAsNonAdmin"})
     public void getOperationForInactiveDevice() throws DeviceManagementException, OperationManagementException {
         boolean disEnrolled = DeviceManagementDataHolder.getInstance().getDeviceManagementProvider().
@@ -27,6 +27,7 @@ import java.util.HashMap;
 public class TestNotificationStrategy implements NotificationStrategy {
     private PushNotificationConfig pushNotificationConfig;
     private boolean setToThrowException = false;
+    private boolean undeployed = false;
 
     public TestNotificationStrategy(boolean setToThrowException){
         this.setToThrowException = setToThrowException;
@@ -37,6 +38,10 @@ public class TestNotificationStrategy implements NotificationStrategy {
        this.pushNotificationConfig = new PushNotificationConfig("TEST", true, new HashMap<>());
     }
 
+    public TestNotificationStrategy(PushNotificationConfig pushNotificationConfig) {
+        this.pushNotificationConfig = pushNotificationConfig;
+    }
+
     @Override
     public void init() {
 
@@ -56,7 +61,11 @@ public class TestNotificationStrategy implements NotificationStrategy {
 
     @Override
     public void undeploy() {
+        undeployed = true;
+    }
 
+    public boolean isUndeployed() {
+        return undeployed;
     }
 
     @Override
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.core.permission.mgt;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.device.mgt.common.permission.mgt.Permission;
+
+/**
+ * This contains unit tests for the resolution and the caching of permissions in PermissionTree class.
+ */
+public class PermissionTreeTest {
+
+    private static final String CONTEXT = "/api/device-mgt/v1.0";
+    private static final String GET = "GET";
+    private static final String POST = "POST";
+    private PermissionTree permissionTree;
+
+    @BeforeMethod
+    public void init() {
+        permissionTree = new PermissionTree();
+        permissionTree.addPermission(createPermission(CONTEXT + "/devices", GET, "View Devices"));
+        permissionTree.addPermission(createPermission(CONTEXT + "/devices/*/*", GET, "View Device"));
+        permissionTree.addPermission(createPermission(CONTEXT + "/devices/*/*/info", GET, "View Device Info"));
+        permissionTree.addPermission(createPermission(CONTEXT + "/devices/*/*/operations", POST, "Add Operation"));
+    }
+
+    @Test(description = "Resolve permissions of request paths with dynamic path variables.")
+    public void testGetPermissionWithDynamicPath() {
+        Assert.assertEquals(permissionTree.getPermission(CONTEXT + "/devices", GET).getName(), "View Devices");
+        Assert.assertEquals(permissionTree.getPermission(CONTEXT + "/devices/android/1234", GET).getName(),
+                "View Device");
+        Assert.assertEquals(permissionTree.getPermission(CONTEXT + "/devices/ios/5678/info", GET).getName(),
+                "View Device Info");
+        Assert.assertEquals(permissionTree.getPermission(CONTEXT + "//devices/android/1234/", GET).getName(),
+                "View Device", "Empty segments of the request path are not ignored");
+        Assert.assertNull(permissionTree.getPermission(CONTEXT + "/devices/android/1234/operations", GET));
+        Assert.assertNull(permissionTree.getPermission(CONTEXT + "/devices/android/1234/info/location", GET));
+        Assert.assertNull(permissionTree.getPermission(CONTEXT + "/devices", null));
+    }
+
+    @Test(description = "Resolve the same request path repeatedly.")
+    public void testRepeatedLookupsReturnSamePermission() {
+        Permission permission = permissionTree.getPermission(CONTEXT + "/devices/android/1234/operations", POST);
+        Assert.assertEquals(permission.getName(), "Add Operation");
+        for (int i = 0; i < 3; i++) {
+            Assert.assertSame(permissionTree.getPermission(CONTEXT + "/devices/android/1234/operations", POST),
+                    permission);
+            Assert.assertNull(permissionTree.getPermission(CONTEXT + "/groups", POST));
+        }
+    }
+
+    @Test(description = "Resolve request paths again after permissions are added.")
+    public void testCachedLookupsAreInvalidatedOnAdd() {
+        Assert.assertNull(permissionTree.getPermission(CONTEXT + "/groups", GET));
+        Assert.assertEquals(permissionTree.getPermission(CONTEXT + "/devices/android/types", GET).getName(),
+                "View Device");
+
+        permissionTree.addPermission(createPermission(CONTEXT + "/groups", GET, "View Groups"));
+        permissionTree.addPermission(createPermission(CONTEXT + "/devices/android/types", GET, "View Types"));
+
+        Assert.assertEquals(permissionTree.getPermission(CONTEXT + "/groups", GET).getName(), "View Groups",
+                "Missing permission is served from the cache after the permission is added");
+        Assert.assertEquals(permissionTree.getPermission(CONTEXT + "/devices/android/types", GET).getName(),
+                "View Types", "Dynamic permission is served from the cache after a specific permission is added");
+    }
+
+    @Test(description = "Resolve request paths which differ only in the values of their path variables.")
+    public void testDynamicLookupsAreNotCached() {
+        for (int i = 0; i < 100; i++) {
+            Assert.assertEquals(permissionTree.getPermission(CONTEXT + "/devices/android/" + i, GET).getName(),
+                    "View Device");
+            Assert.assertNull(permissionTree.getPermission(CONTEXT + "/groups/" + i, GET));
+        }
+        Assert.assertEquals(permissionTree.getCachedLookupCount(), 0,
+                "Request paths with path variables or without a permission are cached");
+
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals(permissionTree.getPermission(CONTEXT + "/devices", GET).getName(), "View Devices");
+        }
+        Assert.assertEquals(permissionTree.getCachedLookupCount(), 1);
+    }
+
+    private Permission createPermission(String url, String method, String name) {
+        Permission permission = new Permission();
+        permission.setName(name);
+        permission.setPath("/permission/admin/device-mgt/" + name.toLowerCase().replace(' ', '-'));
+        permission.setMethod(method);
+        permission.setUrl(url);
+        return permission;
+    }
+}
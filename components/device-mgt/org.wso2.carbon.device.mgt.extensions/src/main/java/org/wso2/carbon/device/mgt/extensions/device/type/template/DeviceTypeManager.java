@@ -28,6 +28,7 @@ import org.wso2.carbon.device.mgt.common.DeviceManagementException;
 import org.wso2.carbon.device.mgt.common.DeviceManager;
 import org.wso2.carbon.device.mgt.common.EnrolmentInfo;
 import org.wso2.carbon.device.mgt.common.FeatureManager;
+import org.wso2.carbon.device.mgt.common.configuration.mgt.ConfigurationEntry;
 import org.wso2.carbon.device.mgt.common.configuration.mgt.PlatformConfiguration;
 import org.wso2.carbon.device.mgt.common.license.mgt.License;
 import org.wso2.carbon.device.mgt.common.license.mgt.LicenseManagementException;
@@ -62,7 +63,12 @@ import java.io.File;
 import java.io.StringReader;
 import java.io.StringWriter;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * This holds the implementation of the device manager. From which an instance of it will be created using the
@@ -83,7 +89,16 @@ public class DeviceTypeManager implements DeviceManager {
             CarbonUtils.getEtcCarbonConfigDirPath() + File.separator + "device-mgt-plugin-configs" + File.separator
                     + "mobile";
 
+    // Saving a configuration only drops the cached copy of this node, hence the other nodes of a cluster keep serving
+    // the previous configuration of the tenant until their copies expire.
+    private static final long CONFIGURATION_CACHE_EXPIRY = 60 * 1000L;
+    private static volatile JAXBContext platformConfigurationContext;
+    private static final XMLInputFactory xmlInputFactory = createXMLInputFactory();
+
     private FeatureManager featureManager;
+    // Platform configurations of tenants as last read from the registry, keyed by the tenant id.
+    private final ConcurrentMap<Integer, CachedConfiguration> tenantConfigurations = new ConcurrentHashMap<>();
+    private final AtomicLong configurationVersion = new AtomicLong();
 
     public DeviceTypeManager(DeviceTypeConfigIdentifier deviceTypeConfigIdentifier,
                              DeviceTypeConfiguration deviceTypeConfiguration) {
@@ -215,14 +230,21 @@ public class DeviceTypeManager implements DeviceManager {
                 log.debug("Persisting " + deviceType + " configurations in Registry");
             }
             StringWriter writer = new StringWriter();
-            JAXBContext context = JAXBContext.newInstance(PlatformConfiguration.class);
-            Marshaller marshaller = context.createMarshaller();
+            Marshaller marshaller = getPlatformConfigurationContext().createMarshaller();
             marshaller.marshal(tenantConfiguration, writer);
 
             Resource resource = DeviceTypeUtils.getConfigurationRegistry().newResource();
             resource.setContent(writer.toString());
             resource.setMediaType(DeviceTypePluginConstants.MEDIA_TYPE_XML);
-            DeviceTypeUtils.putRegistryResource(deviceType, resource);
+            int tenantId = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId();
+            try {
+                DeviceTypeUtils.putRegistryResource(deviceType, resource);
+            } finally {
+                synchronized (tenantConfigurations) {
+                    configurationVersion.incrementAndGet();
+                    tenantConfigurations.remove(tenantId);
+                }
+            }
             return true;
         } catch (DeviceTypeMgtPluginException e) {
             throw new DeviceManagementException(
@@ -239,20 +261,34 @@ public class DeviceTypeManager implements DeviceManager {
 
     @Override
     public PlatformConfiguration getConfiguration() throws DeviceManagementException {
+        int tenantId = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId();
+        CachedConfiguration cachedConfiguration = tenantConfigurations.get(tenantId);
+        if (cachedConfiguration != null && cachedConfiguration.expiryTime > System.currentTimeMillis()) {
+            return cachedConfiguration.configuration != null ? copyConfiguration(cachedConfiguration.configuration) :
+                    defaultPlatformConfiguration;
+        }
+        long version = configurationVersion.get();
         Resource resource;
         try {
             resource = DeviceTypeUtils.getRegistryResource(deviceType);
+            PlatformConfiguration configuration = null;
             if (resource != null) {
-                XMLInputFactory factory = XMLInputFactory.newInstance();
-                factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
-                factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
-                XMLStreamReader reader = factory.createXMLStreamReader(
+                XMLStreamReader reader = xmlInputFactory.createXMLStreamReader(
                         new StringReader(new String((byte[]) resource.getContent(), Charset
                                 .forName(DeviceTypePluginConstants.CHARSET_UTF8))));
 
-                JAXBContext context = JAXBContext.newInstance(PlatformConfiguration.class);
-                Unmarshaller unmarshaller = context.createUnmarshaller();
-                return (PlatformConfiguration) unmarshaller.unmarshal(reader);
+                Unmarshaller unmarshaller = getPlatformConfigurationContext().createUnmarshaller();
+                configuration = (PlatformConfiguration) unmarshaller.unmarshal(reader);
+            }
+            // The configuration is not cached if it has been saved meanwhile, since it may be stale already.
+            synchronized (tenantConfigurations) {
+                if (configurationVersion.get() == version) {
+                    tenantConfigurations.put(tenantId, new CachedConfiguration(configuration,
+                            System.currentTimeMillis() + CONFIGURATION_CACHE_EXPIRY));
+                }
+            }
+            if (configuration != null) {
+                return copyConfiguration(configuration);
             } else if (defaultPlatformConfiguration != null) {
                 return defaultPlatformConfiguration;
             }
@@ -300,6 +336,8 @@ public class DeviceTypeManager implements DeviceManager {
                 }
                 String msg = "Error while enrolling the " + deviceType + " device : " + device.getDeviceIdentifier();
                 throw new DeviceManagementException(msg, e);
+            } finally {
+                deviceTypePluginDAOManager.getDeviceDAO().evictDevice(device.getDeviceIdentifier());
             }
             return status;
         }
@@ -328,6 +366,8 @@ public class DeviceTypeManager implements DeviceManager {
                 String msg = "Error while updating the enrollment of the " + deviceType + " device : " +
                         device.getDeviceIdentifier();
                 throw new DeviceManagementException(msg, e);
+            } finally {
+                deviceTypePluginDAOManager.getDeviceDAO().evictDevice(device.getDeviceIdentifier());
             }
             return status;
         }
@@ -415,6 +455,43 @@ public class DeviceTypeManager implements DeviceManager {
         return null;
     }
 
+    /**
+     * Fetches the details of a list of devices of this device type in bulk, instead of a query per device.
+     *
+     * @param deviceIds identifiers of the devices.
+     * @return the devices which are found, in the order of the given identifiers.
+     * @throws DeviceManagementException on error while fetching the devices.
+     */
+    public List<Device> getDevices(List<DeviceIdentifier> deviceIds) throws DeviceManagementException {
+        if (deviceIds == null) {
+            throw new DeviceManagementException("Cannot get the devices. DeviceIdentifier list is null");
+        }
+        if (!propertiesExist || deviceIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> ids = new ArrayList<>(deviceIds.size());
+        for (DeviceIdentifier deviceId : deviceIds) {
+            ids.add(deviceId.getId());
+        }
+        try {
+            if (log.isDebugEnabled()) {
+                log.debug("Getting the details of " + ids.size() + " " + deviceType + " devices");
+            }
+            deviceTypePluginDAOManager.getDeviceTypeDAOHandler().beginTransaction();
+            return deviceTypePluginDAOManager.getDeviceDAO().getDevices(ids);
+        } catch (DeviceTypeMgtPluginException e) {
+            throw new DeviceManagementException(
+                    "Error occurred while fetching the " + deviceType + " devices: '" + ids + "'", e);
+        } finally {
+            try {
+                deviceTypePluginDAOManager.getDeviceTypeDAOHandler().closeConnection();
+            } catch (DeviceTypeMgtPluginException e) {
+                String msg = "Error occurred while closing the transaction to get devices " + ids;
+                log.warn(msg, e);
+            }
+        }
+    }
+
     @Override
     public boolean updateDeviceProperties(DeviceIdentifier deviceId, List<Device.Property> propertyList)
             throws DeviceManagementException {
@@ -439,6 +516,8 @@ public class DeviceTypeManager implements DeviceManager {
                 }
                 throw new DeviceManagementException(
                         "Error occurred while fetching the " + deviceType + " device: '" + deviceId.getId() + "'", e);
+            } finally {
+                deviceTypePluginDAOManager.getDeviceDAO().evictDevice(deviceId.getId());
             }
         }
         return status;
@@ -489,8 +568,7 @@ public class DeviceTypeManager implements DeviceManager {
 
             if (platformConfig.exists()) {
                 Document doc = DeviceTypeUtils.convertToDocument(platformConfig);
-                JAXBContext context = JAXBContext.newInstance(PlatformConfiguration.class);
-                Unmarshaller unmarshaller = context.createUnmarshaller();
+                Unmarshaller unmarshaller = getPlatformConfigurationContext().createUnmarshaller();
                 return (PlatformConfiguration) unmarshaller.unmarshal(doc);
             } else {
                 log.warn(deviceType + "-default-platform-configuration.xml is not available, hence default " +
@@ -537,6 +615,8 @@ public class DeviceTypeManager implements DeviceManager {
                 throw new DeviceManagementException(
                         "Error occurred while updating the " + deviceType + " device: '" +
                                 device.getDeviceIdentifier() + "'", e);
+            } finally {
+                deviceTypePluginDAOManager.getDeviceDAO().evictDevice(existingDevice.getDeviceIdentifier());
             }
             return status;
         }
@@ -568,4 +648,57 @@ public class DeviceTypeManager implements DeviceManager {
         return null;
     }
 
+    /**
+     * Copies a cached platform configuration, so that callers which modify the returned configuration do not modify
+     * the cached one. The values of the entries are not copied, as they are read-only once unmarshalled.
+     */
+    private static PlatformConfiguration copyConfiguration(PlatformConfiguration configuration) {
+        PlatformConfiguration copiedConfiguration = new PlatformConfiguration();
+        copiedConfiguration.setType(configuration.getType());
+        if (configuration.getConfiguration() != null) {
+            List<ConfigurationEntry> copiedEntries = new ArrayList<>(configuration.getConfiguration().size());
+            for (ConfigurationEntry entry : configuration.getConfiguration()) {
+                ConfigurationEntry copiedEntry = new ConfigurationEntry();
+                copiedEntry.setName(entry.getName());
+                copiedEntry.setContentType(entry.getContentType());
+                copiedEntry.setValue(entry.getValue());
+                copiedEntries.add(copiedEntry);
+            }
+            copiedConfiguration.setConfiguration(copiedEntries);
+        }
+        return copiedConfiguration;
+    }
+
+    private static JAXBContext getPlatformConfigurationContext() throws JAXBException {
+        if (platformConfigurationContext == null) {
+            synchronized (DeviceTypeManager.class) {
+                if (platformConfigurationContext == null) {
+                    platformConfigurationContext = JAXBContext.newInstance(PlatformConfiguration.class);
+                }
+            }
+        }
+        return platformConfigurationContext;
+    }
+
+    private static XMLInputFactory createXMLInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        return factory;
+    }
+
+    /**
+     * Platform configuration of a tenant read from the registry, which is null if the tenant has not saved one.
+     */
+    private static class CachedConfiguration {
+
+        private final PlatformConfiguration configuration;
+        private final long expiryTime;
+
+        CachedConfiguration(PlatformConfiguration configuration, long expiryTime) {
+            this.configuration = configuration;
+            this.expiryTime = expiryTime;
+        }
+    }
+
 }
@@ -30,7 +30,9 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Implements CRUD for Devices. This holds the generic implementation. An instance of this will be created for
@@ -45,6 +47,7 @@ public class DeviceTypePluginDAOImpl implements PluginDAO {
     private String createDBqueryForAddDevice;
     private String updateDBQueryForUpdateDevice;
     private String selectDBQueryToGetAllDevice;
+    private static final int MAX_DEVICE_IDS_PER_QUERY = 100;
 
     public DeviceTypePluginDAOImpl(DeviceDAODefinition deviceDAODefinition,
                                    DeviceTypeDAOHandler deviceTypeDAOHandler) {
@@ -94,6 +97,60 @@ public class DeviceTypePluginDAOImpl implements PluginDAO {
         return device;
     }
 
+    public List<Device> getDevices(List<String> deviceIds) throws DeviceTypeMgtPluginException {
+        Connection conn;
+        PreparedStatement stmt = null;
+        ResultSet resultSet = null;
+        Map<String, Device> deviceMap = new HashMap<>();
+        try {
+            conn = deviceTypeDAOHandler.getConnection();
+            for (int fromIndex = 0; fromIndex < deviceIds.size(); fromIndex += MAX_DEVICE_IDS_PER_QUERY) {
+                List<String> batch = deviceIds.subList(fromIndex,
+                        Math.min(fromIndex + MAX_DEVICE_IDS_PER_QUERY, deviceIds.size()));
+                stmt = conn.prepareStatement(selectDBQueryToGetAllDevice + " WHERE " +
+                        deviceDAODefinition.getPrimaryKey() + " IN (" + getPreparedInputString(batch.size()) + ")");
+                int index = 1;
+                for (String deviceId : batch) {
+                    stmt.setString(index++, deviceId);
+                }
+                resultSet = stmt.executeQuery();
+                while (resultSet.next()) {
+                    Device device = new Device();
+                    device.setDeviceIdentifier(resultSet.getString(deviceDAODefinition.getPrimaryKey()));
+                    List<Device.Property> properties = new ArrayList<>();
+                    for (String columnName : deviceDAODefinition.getColumnNames()) {
+                        Device.Property property = new Device.Property();
+                        property.setName(columnName);
+                        property.setValue(resultSet.getString(columnName));
+                        properties.add(property);
+                    }
+                    device.setProperties(properties);
+                    deviceMap.put(device.getDeviceIdentifier(), device);
+                }
+                DeviceTypeUtils.cleanupResources(stmt, resultSet);
+                stmt = null;
+                resultSet = null;
+            }
+        } catch (SQLException e) {
+            String msg = "Error occurred while fetching devices : '" + deviceIds + "' from " + deviceDAODefinition
+                    .getDeviceTableName();
+            log.error(msg, e);
+            throw new DeviceTypeMgtPluginException(msg, e);
+        } finally {
+            DeviceTypeUtils.cleanupResources(stmt, resultSet);
+            deviceTypeDAOHandler.closeConnection();
+        }
+
+        List<Device> devices = new ArrayList<>();
+        for (String deviceId : deviceIds) {
+            Device device = deviceMap.remove(deviceId);
+            if (device != null) {
+                devices.add(device);
+            }
+        }
+        return devices;
+    }
+
     public boolean addDevice(Device device) throws DeviceTypeMgtPluginException {
         boolean status = false;
         Connection conn = null;
@@ -157,6 +214,10 @@ public class DeviceTypePluginDAOImpl implements PluginDAO {
         return status;
     }
 
+    public void evictDevice(String deviceId) {
+        // Devices are not cached by this DAO.
+    }
+
     public List<Device> getAllDevices() throws DeviceTypeMgtPluginException {
         Connection conn;
         PreparedStatement stmt = null;
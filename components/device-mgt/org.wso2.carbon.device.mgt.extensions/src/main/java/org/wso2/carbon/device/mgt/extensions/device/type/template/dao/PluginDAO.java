@@ -26,9 +26,19 @@ public interface PluginDAO {
 
     Device getDevice(String deviceId) throws DeviceTypeMgtPluginException;
 
+    List<Device> getDevices(List<String> deviceIds) throws DeviceTypeMgtPluginException;
+
     boolean addDevice(Device device) throws DeviceTypeMgtPluginException;
 
     boolean updateDevice(Device device) throws DeviceTypeMgtPluginException;
 
     List<Device> getAllDevices() throws DeviceTypeMgtPluginException;
+
+    /**
+     * Discards the cached properties of a device, if any. This is called once the transaction which modified the
+     * device is committed or rolled back, as properties fetched while it was in progress are the previous ones.
+     *
+     * @param deviceId identifier of the device.
+     */
+    void evictDevice(String deviceId);
 }
@@ -32,9 +32,12 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Implements CRUD for Devices. This holds the generic implementation. An instance of this will be created for
@@ -48,51 +51,88 @@ public class PropertyBasedPluginDAOImpl implements PluginDAO {
     private String deviceType;
     private static final String PROPERTY_KEY_COLUMN_NAME = "PROPERTY_NAME";
     private static final String PROPERTY_VALUE_COLUMN_NAME = "PROPERTY_VALUE";
+    private static final String PROPERTY_CACHE_SIZE = "deviceTypePropertyCacheSize";
+    private static final long PROPERTY_CACHE_EXPIRY = 60 * 1000L;
+    private static final int MAX_DEVICE_IDS_PER_QUERY = 100;
+    // Properties of recently fetched devices, which are kept only if a cache size is configured.
+    private final Map<String, CachedProperties> propertyCache;
+    // Changed whenever properties are evicted, so that properties fetched before an eviction are not cached.
+    private final AtomicLong propertyCacheVersion = new AtomicLong();
 
     public PropertyBasedPluginDAOImpl(DeviceDetails deviceDetails,
                                       DeviceTypeDAOHandler deviceTypeDAOHandler, String deviceType) {
         this.deviceTypeDAOHandler = deviceTypeDAOHandler;
         this.deviceProps = deviceDetails.getProperties().getProperty();
         this.deviceType = deviceType;
+        final int propertyCacheSize = Integer.getInteger(PROPERTY_CACHE_SIZE, 0);
+        if (propertyCacheSize > 0) {
+            this.propertyCache = new LinkedHashMap<String, CachedProperties>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CachedProperties> eldest) {
+                    return size() > propertyCacheSize;
+                }
+            };
+        } else {
+            this.propertyCache = null;
+        }
     }
 
     public Device getDevice(String deviceId) throws DeviceTypeMgtPluginException {
-        Connection conn = null;
-        PreparedStatement stmt = null;
-        Device device = null;
-        ResultSet resultSet = null;
-        try {
-            conn = deviceTypeDAOHandler.getConnection();
-            stmt = conn.prepareStatement(
-                    "SELECT * FROM DM_DEVICE_PROPERTIES WHERE DEVICE_TYPE_NAME = ? AND DEVICE_IDENTIFICATION = ? " +
-                            "AND TENANT_ID = ?");
-            stmt.setString(1, deviceType);
-            stmt.setString(2, deviceId);
-            stmt.setInt(3, PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId(true));
-            resultSet = stmt.executeQuery();
-            List<Device.Property> properties = new ArrayList<>();
-            while (resultSet.next()) {
-                Device.Property property = new Device.Property();
-                property.setName(resultSet.getString(PROPERTY_KEY_COLUMN_NAME));
-                property.setValue(resultSet.getString(PROPERTY_VALUE_COLUMN_NAME));
-                properties.add(property);
+        List<Device> devices = getDevices(Collections.singletonList(deviceId));
+        return devices.isEmpty() ? null : devices.get(0);
+    }
+
+    /**
+     * Fetches the properties of a list of devices with a query per {@value #MAX_DEVICE_IDS_PER_QUERY} devices.
+     *
+     * @param deviceIds identifiers of the devices.
+     * @return devices which have properties, in the order of the given identifiers.
+     * @throws DeviceTypeMgtPluginException on error while fetching the properties.
+     */
+    public List<Device> getDevices(List<String> deviceIds) throws DeviceTypeMgtPluginException {
+        int tenantId = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId(true);
+        Map<String, List<Device.Property>> devicesProperties = new HashMap<>();
+        List<String> uncachedDeviceIds = new ArrayList<>();
+        for (String deviceId : deviceIds) {
+            List<Device.Property> properties = getCachedProperties(tenantId, deviceId);
+            if (properties != null) {
+                devicesProperties.put(deviceId, properties);
+            } else {
+                uncachedDeviceIds.add(deviceId);
             }
-            if (properties.size() > 0) {
-                device = new Device();
+        }
+        if (!uncachedDeviceIds.isEmpty()) {
+            long fetchVersion = propertyCacheVersion.get();
+            try {
+                Connection conn = deviceTypeDAOHandler.getConnection();
+                Map<String, List<Device.Property>> fetchedProperties =
+                        getDevicesProperties(conn, uncachedDeviceIds, tenantId);
+                for (Map.Entry<String, List<Device.Property>> deviceProperties : fetchedProperties.entrySet()) {
+                    cacheProperties(tenantId, deviceProperties.getKey(), deviceProperties.getValue(),
+                            fetchVersion);
+                }
+                devicesProperties.putAll(fetchedProperties);
+            } catch (SQLException e) {
+                String msg = "Error occurred while fetching devices : '" + uncachedDeviceIds + "' type " + deviceType;
+                log.error(msg, e);
+                throw new DeviceTypeMgtPluginException(msg, e);
+            } finally {
+                deviceTypeDAOHandler.closeConnection();
+            }
+        }
+
+        List<Device> devices = new ArrayList<>();
+        for (String deviceId : deviceIds) {
+            List<Device.Property> properties = devicesProperties.remove(deviceId);
+            if (properties != null && properties.size() > 0) {
+                Device device = new Device();
                 device.setDeviceIdentifier(deviceId);
                 device.setType(deviceType);
-                device.setProperties(properties);
+                device.setProperties(copyProperties(properties));
+                devices.add(device);
             }
-        } catch (SQLException e) {
-            String msg = "Error occurred while fetching device : '" + deviceId + "' type " + deviceType;
-            log.error(msg, e);
-            throw new DeviceTypeMgtPluginException(msg, e);
-        } finally {
-            DeviceTypeUtils.cleanupResources(stmt, resultSet);
-            deviceTypeDAOHandler.closeConnection();
         }
-
-        return device;
+        return devices;
     }
 
     public boolean addDevice(Device device) throws DeviceTypeMgtPluginException {
@@ -120,6 +160,8 @@ public class PropertyBasedPluginDAOImpl implements PluginDAO {
             log.error(msg, e);
             throw new DeviceTypeMgtPluginException(msg, e);
         } finally {
+            evictProperties(PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId(true),
+                    device.getDeviceIdentifier());
             DeviceTypeUtils.cleanupResources(stmt, null);
         }
         return status;
@@ -128,24 +170,36 @@ public class PropertyBasedPluginDAOImpl implements PluginDAO {
     public boolean updateDevice(Device device) throws DeviceTypeMgtPluginException {
         Connection conn;
         PreparedStatement stmt = null;
+        int tenantId = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId(true);
         try {
             conn = deviceTypeDAOHandler.getConnection();
+            List<Device.Property> existingProperties = getDevicesProperties(conn,
+                    Collections.singletonList(device.getDeviceIdentifier()), tenantId)
+                    .get(device.getDeviceIdentifier());
             stmt = conn.prepareStatement(
                     "UPDATE DM_DEVICE_PROPERTIES SET PROPERTY_VALUE = ? WHERE  DEVICE_TYPE_NAME = ? AND "
                             + "DEVICE_IDENTIFICATION = ? AND PROPERTY_NAME = ? AND TENANT_ID= ?");
 
+            int updatedProperties = 0;
             for (Device.Property property : device.getProperties()) {
-                if (!deviceProps.contains(property.getName())) {
+                if (!deviceProps.contains(property.getName()) || isUnchanged(existingProperties, property)) {
                     continue;
                 }
                 stmt.setString(1, property.getValue());
                 stmt.setString(2, deviceType);
                 stmt.setString(3, device.getDeviceIdentifier());
                 stmt.setString(4, property.getName());
-                stmt.setInt(5, PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId(true));
+                stmt.setInt(5, tenantId);
                 stmt.addBatch();
+                updatedProperties++;
+            }
+            if (updatedProperties > 0) {
+                stmt.executeBatch();
+            }
+            if (log.isDebugEnabled()) {
+                log.debug(updatedProperties + " properties of the device '" + device.getDeviceIdentifier() +
+                        "' have been modified.");
             }
-            stmt.executeBatch();
             return true;
         } catch (SQLException e) {
             String msg = "Error occurred while modifying the device '" + device.getDeviceIdentifier() + "' data on"
@@ -153,6 +207,7 @@ public class PropertyBasedPluginDAOImpl implements PluginDAO {
             log.error(msg, e);
             throw new DeviceTypeMgtPluginException(msg, e);
         } finally {
+            evictProperties(tenantId, device.getDeviceIdentifier());
             DeviceTypeUtils.cleanupResources(stmt, null);
         }
     }
@@ -182,7 +237,7 @@ public class PropertyBasedPluginDAOImpl implements PluginDAO {
                 }
                 Device.Property prop = new Device.Property();
                 prop.setName(resultSet.getString(PROPERTY_KEY_COLUMN_NAME));
-                prop.setName(resultSet.getString(PROPERTY_VALUE_COLUMN_NAME));
+                prop.setValue(resultSet.getString(PROPERTY_VALUE_COLUMN_NAME));
                 deviceInMap.getProperties().add(prop);
             }
             if (log.isDebugEnabled()) {
@@ -201,6 +256,124 @@ public class PropertyBasedPluginDAOImpl implements PluginDAO {
         }
     }
 
+    public void evictDevice(String deviceId) {
+        evictProperties(PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId(true), deviceId);
+    }
+
+    /**
+     * Fetches the properties of the given devices with the given connection, which is left open.
+     */
+    private Map<String, List<Device.Property>> getDevicesProperties(Connection conn, List<String> deviceIds,
+                                                                   int tenantId) throws SQLException {
+        Map<String, List<Device.Property>> devicesProperties = new HashMap<>();
+        for (int fromIndex = 0; fromIndex < deviceIds.size(); fromIndex += MAX_DEVICE_IDS_PER_QUERY) {
+            List<String> batch = deviceIds.subList(fromIndex,
+                    Math.min(fromIndex + MAX_DEVICE_IDS_PER_QUERY, deviceIds.size()));
+            StringBuilder query = new StringBuilder("SELECT DEVICE_IDENTIFICATION, PROPERTY_NAME, PROPERTY_VALUE " +
+                    "FROM DM_DEVICE_PROPERTIES WHERE DEVICE_TYPE_NAME = ? AND TENANT_ID = ? AND " +
+                    "DEVICE_IDENTIFICATION IN (?");
+            for (int i = 1; i < batch.size(); i++) {
+                query.append(", ?");
+            }
+            query.append(")");
+            PreparedStatement stmt = null;
+            ResultSet resultSet = null;
+            try {
+                stmt = conn.prepareStatement(query.toString());
+                int index = 1;
+                stmt.setString(index++, deviceType);
+                stmt.setInt(index++, tenantId);
+                for (String deviceId : batch) {
+                    stmt.setString(index++, deviceId);
+                }
+                resultSet = stmt.executeQuery();
+                while (resultSet.next()) {
+                    String deviceId = resultSet.getString("DEVICE_IDENTIFICATION");
+                    List<Device.Property> properties = devicesProperties.get(deviceId);
+                    if (properties == null) {
+                        properties = new ArrayList<>();
+                        devicesProperties.put(deviceId, properties);
+                    }
+                    Device.Property property = new Device.Property();
+                    property.setName(resultSet.getString(PROPERTY_KEY_COLUMN_NAME));
+                    property.setValue(resultSet.getString(PROPERTY_VALUE_COLUMN_NAME));
+                    properties.add(property);
+                }
+            } finally {
+                DeviceTypeUtils.cleanupResources(stmt, resultSet);
+            }
+        }
+        return devicesProperties;
+    }
+
+    private boolean isUnchanged(List<Device.Property> existingProperties, Device.Property property) {
+        if (existingProperties == null) {
+            return false;
+        }
+        for (Device.Property existingProperty : existingProperties) {
+            if (property.getName().equals(existingProperty.getName())) {
+                return property.getValue() == null ? existingProperty.getValue() == null :
+                        property.getValue().equals(existingProperty.getValue());
+            }
+        }
+        return false;
+    }
+
+    private List<Device.Property> getCachedProperties(int tenantId, String deviceId) {
+        if (propertyCache == null) {
+            return null;
+        }
+        String key = tenantId + ":" + deviceId;
+        synchronized (propertyCache) {
+            CachedProperties cachedProperties = propertyCache.get(key);
+            if (cachedProperties == null) {
+                return null;
+            }
+            if (cachedProperties.expiryTime <= System.currentTimeMillis()) {
+                propertyCache.remove(key);
+                return null;
+            }
+            return cachedProperties.properties;
+        }
+    }
+
+    /**
+     * Caches the properties of a device, unless properties have been evicted since they were fetched, as they may
+     * have been fetched before the device was modified.
+     */
+    private void cacheProperties(int tenantId, String deviceId, List<Device.Property> properties,
+                                 long fetchVersion) {
+        if (propertyCache != null) {
+            synchronized (propertyCache) {
+                if (fetchVersion != propertyCacheVersion.get()) {
+                    return;
+                }
+                propertyCache.put(tenantId + ":" + deviceId, new CachedProperties(copyProperties(properties),
+                        System.currentTimeMillis() + PROPERTY_CACHE_EXPIRY));
+            }
+        }
+    }
+
+    private void evictProperties(int tenantId, String deviceId) {
+        if (propertyCache != null) {
+            synchronized (propertyCache) {
+                propertyCacheVersion.incrementAndGet();
+                propertyCache.remove(tenantId + ":" + deviceId);
+            }
+        }
+    }
+
+    private static List<Device.Property> copyProperties(List<Device.Property> properties) {
+        List<Device.Property> copiedProperties = new ArrayList<>(properties.size());
+        for (Device.Property property : properties) {
+            Device.Property copiedProperty = new Device.Property();
+            copiedProperty.setName(property.getName());
+            copiedProperty.setValue(property.getValue());
+            copiedProperties.add(copiedProperty);
+        }
+        return copiedProperties;
+    }
+
     private String getPropertyValue(List<Device.Property> properties, String propertyName) {
         for (Device.Property property : properties) {
             if (property.getName() != null && property.getName().equals(propertyName)) {
@@ -210,4 +383,15 @@ public class PropertyBasedPluginDAOImpl implements PluginDAO {
         return null;
     }
 
-}
\ No newline at end of file
+    private static class CachedProperties {
+
+        private final List<Device.Property> properties;
+        private final long expiryTime;
+
+        CachedProperties(List<Device.Property> properties, long expiryTime) {
+            this.properties = properties;
+            this.expiryTime = expiryTime;
+        }
+    }
+
+}
@@ -53,6 +53,8 @@ import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * This class tests the {@link DeviceTypeManager}.
@@ -121,15 +123,35 @@ public class DeviceTypeManagerTest {
 
         deviceType.set(androidDeviceTypeManager, androidDeviceType);
         propertiesExist.set(androidDeviceTypeManager, true);
+        initConfigurationCache(androidDeviceTypeManager);
         createAndroidDevice();
 
         DeviceTypePluginDAOManager propertyBasedPluginDAOManager = createPluginBasedDeviceTypeManager();
         deviceTypePluginDAOManagerField.set(customDeviceTypeManager, propertyBasedPluginDAOManager);
         deviceType.set(customDeviceTypeManager, customDeviceType);
         propertiesExist.set(customDeviceTypeManager, true);
+        initConfigurationCache(customDeviceTypeManager);
         createCustomDevice();
     }
 
+    /**
+     * To initialize the platform configuration cache of a mocked DeviceTypeManager, as the field initializers are
+     * not run for mocks.
+     *
+     * @param deviceTypeManager Mocked DeviceTypeManager.
+     * @throws NoSuchFieldException No Such Field Exception.
+     * @throws IllegalAccessException Illegal Access Exception.
+     */
+    private void initConfigurationCache(DeviceTypeManager deviceTypeManager)
+            throws NoSuchFieldException, IllegalAccessException {
+        Field tenantConfigurations = DeviceTypeManager.class.getDeclaredField("tenantConfigurations");
+        tenantConfigurations.setAccessible(true);
+        tenantConfigurations.set(deviceTypeManager, new ConcurrentHashMap<>());
+        Field configurationVersion = DeviceTypeManager.class.getDeclaredField("configurationVersion");
+        configurationVersion.setAccessible(true);
+        configurationVersion.set(deviceTypeManager, new AtomicLong());
+    }
+
     @Test(description = "This test case tests IsEnrolled method of the DeviceTypeManager",
             dependsOnMethods = {"testEnrollDevice"})
     public void testIsEnrolled() throws DeviceManagementException {
@@ -189,6 +211,21 @@ public class DeviceTypeManagerTest {
                 "All the added devices are not fetched from the database");
     }
 
+    @Test(description = "This test case tests the bulk retrieval of devices of the DeviceTypeManager",
+            dependsOnMethods = {"testEnrollDevice"})
+    public void testGetDevices() throws DeviceManagementException {
+        List<Device> androidDevices = androidDeviceTypeManager.getDevices(Arrays.asList(nonExistingDeviceIdentifier,
+                new DeviceIdentifier(sampleDevice1.getDeviceIdentifier(), androidDeviceType)));
+        Assert.assertEquals(androidDevices.size(), 1, "Devices are not fetched in bulk from the device table");
+        Assert.assertEquals(androidDevices.get(0).getDeviceIdentifier(), sampleDevice1.getDeviceIdentifier());
+        List<Device> customDevices = customDeviceTypeManager.getDevices(Arrays.asList(
+                new DeviceIdentifier(customDeviceType, customDeviceType),
+                new DeviceIdentifier("NON-EXISTING", customDeviceType)));
+        Assert.assertEquals(customDevices.size(), 1, "Devices are not fetched in bulk from the property table");
+        Assert.assertEquals(customDevices.get(0).getProperties().size(), 2,
+                "Properties of the devices are not fetched in bulk");
+    }
+
     @Test(description = "This test case tests the addition of platform configuration and retrieval of the same")
     public void testAddPlatformConfiguration() throws RegistryException, DeviceManagementException {
         PlatformConfiguration platformConfiguration = new PlatformConfiguration();
@@ -203,6 +240,20 @@ public class DeviceTypeManagerTest {
         Assert.assertNull(customDeviceTypeManager.getConfiguration());
     }
 
+    @Test(description = "This test case tests whether a saved platform configuration is retrieved immediately",
+            dependsOnMethods = {"testAddPlatformConfiguration"})
+    public void testUpdatePlatformConfiguration() throws DeviceManagementException {
+        PlatformConfiguration cachedPlatformConfiguration = androidDeviceTypeManager.getConfiguration();
+        cachedPlatformConfiguration.setType(androidDeviceType + "-modified");
+        Assert.assertEquals(androidDeviceTypeManager.getConfiguration().getType(), androidDeviceType,
+                "Cached Platform Configuration is modified through a retrieved Platform Configuration");
+        PlatformConfiguration platformConfiguration = new PlatformConfiguration();
+        platformConfiguration.setType(androidDeviceType + "-updated");
+        androidDeviceTypeManager.saveConfiguration(platformConfiguration);
+        Assert.assertEquals(androidDeviceTypeManager.getConfiguration().getType(), androidDeviceType + "-updated",
+                "Updated Platform Configuration is not retrieved right after it is saved");
+    }
+
     @Test (description = "This test case tests the getDefaultConfiguration method")
     public void testGetDefaultConfiguration()
             throws NoSuchMethodException, InvocationTargetException, IllegalAccessException {
@@ -35,12 +35,25 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.StringWriter;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 public class VelocityBasedEmailContentProvider implements EmailContentProvider {
 
     private VelocityEngine engine;
     private static final Log log = LogFactory.getLog(VelocityBasedEmailContentProvider.class);
+    private static final int MAX_CACHED_TEMPLATES = 100;
+    private static final long TEMPLATE_EXPIRY = 5 * 60 * 1000L;
+    private static volatile JAXBContext emailDataContext;
+    /* Parsed templates of each tenant, which are loaded again from the registry once they expire, so that changes
+       to the templates take effect */
+    private final Map<String, CachedTemplate> templates =
+            new LinkedHashMap<String, CachedTemplate>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CachedTemplate> eldest) {
+                    return size() > MAX_CACHED_TEMPLATES;
+                }
+            };
 
     public VelocityBasedEmailContentProvider() {
         engine = new VelocityEngine();
@@ -58,15 +71,14 @@ public class VelocityBasedEmailContentProvider implements EmailContentProvider {
         for (Map.Entry<String, TypedValue<Class<?>, Object>> param : params.entrySet()) {
             ctx.put(param.getKey(), param.getValue().getValue());
         }
-        Template template = engine.getTemplate(name);
+        Template template = getTemplate(name);
 
         StringWriter content = new StringWriter();
         template.merge(ctx, content);
 
         InputStream is = null;
         try {
-            JAXBContext jaxbCtx = JAXBContext.newInstance(EmailData.class);
-            Unmarshaller unmarshaller = jaxbCtx.createUnmarshaller();
+            Unmarshaller unmarshaller = getEmailDataContext().createUnmarshaller();
 
             is = new ByteArrayInputStream(content.toString().getBytes());
             return (EmailData) unmarshaller.unmarshal(is);
@@ -84,4 +96,45 @@ public class VelocityBasedEmailContentProvider implements EmailContentProvider {
         }
     }
 
+    /**
+     * Returns the parsed template of the current tenant. Templates are thread safe once parsed, hence a cached
+     * template is shared by all the emails of the tenant.
+     */
+    private Template getTemplate(String name) {
+        String key = CarbonContext.getThreadLocalCarbonContext().getTenantId() + ":" + name;
+        synchronized (templates) {
+            CachedTemplate cachedTemplate = templates.get(key);
+            if (cachedTemplate != null && cachedTemplate.expiryTime > System.currentTimeMillis()) {
+                return cachedTemplate.template;
+            }
+        }
+        Template template = engine.getTemplate(name);
+        synchronized (templates) {
+            templates.put(key, new CachedTemplate(template, System.currentTimeMillis() + TEMPLATE_EXPIRY));
+        }
+        return template;
+    }
+
+    private static JAXBContext getEmailDataContext() throws JAXBException {
+        if (emailDataContext == null) {
+            synchronized (VelocityBasedEmailContentProvider.class) {
+                if (emailDataContext == null) {
+                    emailDataContext = JAXBContext.newInstance(EmailData.class);
+                }
+            }
+        }
+        return emailDataContext;
+    }
+
+    private static class CachedTemplate {
+
+        private final Template template;
+        private final long expiryTime;
+
+        CachedTemplate(Template template, long expiryTime) {
+            this.template = template;
+            this.expiryTime = expiryTime;
+        }
+    }
+
 }
@@ -35,23 +35,63 @@ import org.wso2.carbon.email.sender.core.internal.EmailSenderDataHolder;
 import org.wso2.carbon.utils.ConfigurationContextService;
 
 import javax.xml.stream.XMLStreamException;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class EmailSenderServiceImpl implements EmailSenderService {
 
     private static ThreadPoolExecutor threadPoolExecutor;
+    private static ScheduledExecutorService retryScheduler;
     private EmailContentProvider contentProvider;
     private static final String TRANSPORT_SENDER_NAME = "mailto";
+    private static final int MAX_RECIPIENTS_PER_BATCH = 50;
+    private static final int MAX_DELIVERY_ATTEMPTS = 3;
+    private static final long RETRY_DELAY = 30;
+    private static final int MAX_PENDING_RETRIES = 1000;
+    private static final AtomicInteger pendingRetries = new AtomicInteger();
+    // Service clients are not thread safe, hence each sender thread reuses a client of its own, which is cleaned up
+    // once the thread exits.
+    private static final ThreadLocal<ServiceClient> serviceClients = new ThreadLocal<>();
 
     static {
         EmailSenderConfig config = EmailSenderConfig.getInstance();
         threadPoolExecutor = new ThreadPoolExecutor(config.getMinThreads(), config.getMaxThreads(),
                 config.getKeepAliveDuration(), TimeUnit.SECONDS,
-                new LinkedBlockingQueue<Runnable>(config.getThreadQueueCapacity()));
+                new LinkedBlockingQueue<Runnable>(config.getThreadQueueCapacity()), new ThreadFactory() {
+            private final AtomicInteger threadCount = new AtomicInteger();
+
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                return new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            runnable.run();
+                        } finally {
+                            releaseServiceClient();
+                        }
+                    }
+                }, "email-sender-" + threadCount.incrementAndGet());
+            }
+        });
+        retryScheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "email-sender-retry");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
     }
 
     private static final String EMAIL_URI_SCHEME = "mailto:";
@@ -70,17 +110,27 @@ public class EmailSenderServiceImpl implements EmailSenderService {
     public void sendEmail(EmailContext emailCtx) throws EmailSendingFailedException,
             EmailTransportNotConfiguredException {
         if (this.isMailServerConfigured()) {
+            // The content does not depend on the recipient, hence it is rendered once and shared by all recipients.
+            ContentProviderInfo info = emailCtx.getContentProviderInfo();
+            EmailData emailData;
+            try {
+                emailData = contentProvider.getContent(info.getTemplate(), info.getParams());
+            } catch (ContentProcessingInterruptedException e) {
+                throw new EmailSendingFailedException("Error occurred while retrieving email content to be " +
+                        "sent for recipients '" + emailCtx.getRecipients() + "'", e);
+            }
+            List<String> recipients = new ArrayList<>();
             for (String recipient : emailCtx.getRecipients()) {
-                ContentProviderInfo info = emailCtx.getContentProviderInfo();
-                EmailData emailData;
-                try {
-                    emailData = contentProvider.getContent(info.getTemplate(), info.getParams());
-                    threadPoolExecutor.submit(new EmailSender(recipient, emailData.getSubject(), emailData.getBody()));
-                } catch (ContentProcessingInterruptedException e) {
-                    throw new EmailSendingFailedException("Error occurred while retrieving email content to be " +
-                            "sent for recipient '" + recipient + "'", e);
+                recipients.add(recipient);
+                if (recipients.size() == MAX_RECIPIENTS_PER_BATCH) {
+                    threadPoolExecutor.submit(new EmailSender(recipients, emailData.getSubject(),
+                            emailData.getBody(), 1));
+                    recipients = new ArrayList<>();
                 }
             }
+            if (!recipients.isEmpty()) {
+                threadPoolExecutor.submit(new EmailSender(recipients, emailData.getSubject(), emailData.getBody(), 1));
+            }
         } else {
             String msg = "Email sender transport is not configured. Please configure the 'mailto' sender" +
                     " transport in axis2.xml.";
@@ -89,16 +139,67 @@ public class EmailSenderServiceImpl implements EmailSenderService {
         }
     }
 
+    /**
+     * Queues the recipients which could not be reached, to be retried after a delay. Recipients are dropped once
+     * they run out of attempts or when too many recipients are already waiting to be retried.
+     */
+    private static void scheduleRetry(final List<String> recipients, final String subject, final String body,
+                                      final int attempt) {
+        if (attempt > MAX_DELIVERY_ATTEMPTS) {
+            log.error("Giving up delivering the message, subject: '" + subject + "', to: '" + recipients +
+                    "' after " + MAX_DELIVERY_ATTEMPTS + " attempts");
+            return;
+        }
+        if (pendingRetries.addAndGet(recipients.size()) > MAX_PENDING_RETRIES) {
+            pendingRetries.addAndGet(-recipients.size());
+            log.error("Retry queue is full, hence dropping the message, subject: '" + subject + "', to: '" +
+                    recipients + "'");
+            return;
+        }
+        retryScheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+                pendingRetries.addAndGet(-recipients.size());
+                try {
+                    threadPoolExecutor.execute(new EmailSender(recipients, subject, body, attempt));
+                } catch (RejectedExecutionException e) {
+                    log.error("Error occurred while retrying the message, subject: '" + subject + "', to: '" +
+                            recipients + "'", e);
+                }
+            }
+        }, RETRY_DELAY, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Cleans up the service client of the current thread, and removes it so that the next email sent by the thread
+     * is sent through a new client.
+     */
+    private static void releaseServiceClient() {
+        ServiceClient serviceClient = serviceClients.get();
+        if (serviceClient == null) {
+            return;
+        }
+        try {
+            serviceClient.cleanup();
+        } catch (AxisFault e) {
+            log.warn("Error occurred while cleaning up the service client of the email sender", e);
+        } finally {
+            serviceClients.remove();
+        }
+    }
+
     public static class EmailSender implements Runnable {
 
-        String to;
+        List<String> recipients;
         String subject;
         String body;
+        int attempt;
 
-        EmailSender(String to, String subject, String body) {
-            this.to = to;
+        EmailSender(List<String> recipients, String subject, String body, int attempt) {
+            this.recipients = recipients;
             this.subject = subject;
             this.body = body;
+            this.attempt = attempt;
         }
 
         public void run() {
@@ -108,34 +209,54 @@ public class EmailSenderServiceImpl implements EmailSenderService {
             } catch (XMLStreamException e) {
                 log.error("Error occurred while converting email body contents to an XML", e);
             }
-            try {
-                ConfigurationContextService configCtxService =
-                        EmailSenderDataHolder.getInstance().getConfigurationContextService();
-                if (configCtxService == null) {
-                    throw new IllegalStateException("Configuration Context Service is not available");
-                }
-                ConfigurationContext configCtx = configCtxService.getServerConfigContext();
-                ServiceClient serviceClient = new ServiceClient(configCtx, null);
-
-                Map<String, String> headerMap = new HashMap<>();
-                headerMap.put(MailConstants.MAIL_HEADER_SUBJECT, subject);
-
-                Options options = new Options();
-                options.setProperty(MessageContext.TRANSPORT_HEADERS, headerMap);
-                options.setProperty("FORCE_CONTENT_TYPE_BASED_FORMATTER", "true");
-                options.setProperty(Constants.Configuration.MESSAGE_TYPE, "application/xml");
-                options.setProperty(Constants.Configuration.CONTENT_TYPE, "text/html");
-                options.setTo(new EndpointReference(EMAIL_URI_SCHEME + to));
-
-                serviceClient.setOptions(options);
-                serviceClient.fireAndForget(payload);
-                if (log.isDebugEnabled()) {
-                    log.debug("Email has been successfully sent to '" + to + "'");
+            ConfigurationContextService configCtxService =
+                    EmailSenderDataHolder.getInstance().getConfigurationContextService();
+            if (configCtxService == null) {
+                throw new IllegalStateException("Configuration Context Service is not available");
+            }
+            ConfigurationContext configCtx = configCtxService.getServerConfigContext();
+
+            List<String> failedRecipients = new ArrayList<>();
+            for (String to : recipients) {
+                try {
+                    ServiceClient serviceClient = getServiceClient(configCtx);
+
+                    Map<String, String> headerMap = new HashMap<>();
+                    headerMap.put(MailConstants.MAIL_HEADER_SUBJECT, subject);
+
+                    Options options = new Options();
+                    options.setProperty(MessageContext.TRANSPORT_HEADERS, headerMap);
+                    options.setProperty("FORCE_CONTENT_TYPE_BASED_FORMATTER", "true");
+                    options.setProperty(Constants.Configuration.MESSAGE_TYPE, "application/xml");
+                    options.setProperty(Constants.Configuration.CONTENT_TYPE, "text/html");
+                    options.setTo(new EndpointReference(EMAIL_URI_SCHEME + to));
+
+                    serviceClient.setOptions(options);
+                    serviceClient.fireAndForget(payload == null ? null : payload.cloneOMElement());
+                    if (log.isDebugEnabled()) {
+                        log.debug("Email has been successfully sent to '" + to + "'");
+                    }
+                } catch (AxisFault e) {
+                    // The client may be left in an inconsistent state, hence a new one is created for the next email.
+                    releaseServiceClient();
+                    log.error("Error occurred while delivering the message, subject: '" + subject + "', to: '" + to +
+                            "', attempt: " + attempt, e);
+                    failedRecipients.add(to);
                 }
-            } catch (AxisFault e) {
-                log.error("Error occurred while delivering the message, subject: '" + subject + "', to: '" + to +
-                        "'", e);
             }
+            if (!failedRecipients.isEmpty()) {
+                scheduleRetry(failedRecipients, subject, body, attempt + 1);
+            }
+        }
+
+        private ServiceClient getServiceClient(ConfigurationContext configCtx) throws AxisFault {
+            ServiceClient serviceClient = serviceClients.get();
+            if (serviceClient == null || serviceClient.getServiceContext().getConfigurationContext() != configCtx) {
+                releaseServiceClient();
+                serviceClient = new ServiceClient(configCtx, null);
+                serviceClients.set(serviceClient);
+            }
+            return serviceClient;
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,288 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.email.sender.core.service;
+
+import org.apache.axis2.context.ConfigurationContext;
+import org.apache.axis2.context.ConfigurationContextFactory;
+import org.apache.axis2.description.Parameter;
+import org.apache.axis2.description.TransportOutDescription;
+import org.apache.axis2.engine.AxisConfiguration;
+import org.apache.axis2.transport.http.ApplicationXMLFormatter;
+import org.apache.axis2.transport.mail.MailTransportSender;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.carbon.email.sender.core.ContentProviderInfo;
+import org.wso2.carbon.email.sender.core.EmailContentProvider;
+import org.wso2.carbon.email.sender.core.EmailContext;
+import org.wso2.carbon.email.sender.core.EmailData;
+import org.wso2.carbon.email.sender.core.EmailSenderConfig;
+import org.wso2.carbon.email.sender.core.TypedValue;
+import org.wso2.carbon.email.sender.core.internal.EmailSenderDataHolder;
+import org.wso2.carbon.utils.ConfigurationContextService;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit tests for {@link EmailSenderServiceImpl}, which deliver the emails through the mail transport to a local SMTP
+ * stub.
+ */
+public class EmailSenderServiceImplTest {
+
+    private static final String SUBJECT = "Device enrollment";
+    private static final String BODY = "<html><body>Enroll your device</body></html>";
+    private static final String REJECTED_RECIPIENT_PREFIX = "rejected";
+    private static final int BATCH_SIZE = 50;
+    private static final int MAX_PENDING_RETRIES = 1000;
+    private static final long TIMEOUT = 30000L;
+
+    private SmtpStub smtpStub;
+    private EmailSenderServiceImpl emailSenderService;
+
+    @BeforeClass
+    public void init() throws Exception {
+        if (System.getProperty("carbon.home") == null) {
+            System.setProperty("carbon.home", new File("src/test/resources/carbon-home").getAbsolutePath());
+        }
+        EmailSenderConfig.init();
+
+        smtpStub = new SmtpStub();
+        smtpStub.start();
+
+        ConfigurationContext configCtx = ConfigurationContextFactory.createEmptyConfigurationContext();
+        AxisConfiguration axisConfig = configCtx.getAxisConfiguration();
+        axisConfig.addMessageFormatter("application/xml", new ApplicationXMLFormatter());
+        TransportOutDescription transportOut = new TransportOutDescription("mailto");
+        MailTransportSender sender = new MailTransportSender();
+        transportOut.setSender(sender);
+        transportOut.addParameter(new Parameter("mail.smtp.host", "localhost"));
+        transportOut.addParameter(new Parameter("mail.smtp.port", String.valueOf(smtpStub.getPort())));
+        transportOut.addParameter(new Parameter("mail.smtp.from", "iot@localhost"));
+        axisConfig.addTransportOut(transportOut);
+        sender.init(configCtx, transportOut);
+        EmailSenderDataHolder.getInstance().setConfigurationContextService(
+                new ConfigurationContextService(configCtx, null));
+
+        emailSenderService = new EmailSenderServiceImpl();
+        Field contentProvider = EmailSenderServiceImpl.class.getDeclaredField("contentProvider");
+        contentProvider.setAccessible(true);
+        contentProvider.set(emailSenderService, new EmailContentProvider() {
+            @Override
+            public EmailData getContent(String path, Map<String, TypedValue<Class<?>, Object>> params) {
+                EmailData emailData = new EmailData();
+                emailData.setSubject(SUBJECT);
+                emailData.setBody(BODY);
+                return emailData;
+            }
+        });
+    }
+
+    @AfterClass
+    public void cleanUp() throws IOException {
+        smtpStub.stop();
+    }
+
+    @Test(description = "Testing whether the recipients are sent in batches, each receiving a message of its own")
+    public void testRecipientsAreBatched() throws Exception {
+        Set<String> recipients = new HashSet<>();
+        for (int i = 0; i < 2 * BATCH_SIZE + 10; i++) {
+            recipients.add("user" + i + "@localhost");
+        }
+        ThreadPoolExecutor threadPoolExecutor = getThreadPoolExecutor();
+        long submittedTasks = threadPoolExecutor.getTaskCount();
+        int receivedMessages = smtpStub.getMessages().size();
+
+        emailSenderService.sendEmail(new EmailContext.EmailContextBuilder(new ContentProviderInfo("enrollment",
+                new HashMap<String, TypedValue<Class<?>, Object>>()), recipients).build());
+        Assert.assertEquals(threadPoolExecutor.getTaskCount() - submittedTasks, 3,
+                "Recipients are not sent in batches of " + BATCH_SIZE);
+
+        long deadline = System.currentTimeMillis() + TIMEOUT;
+        while (smtpStub.getMessages().size() - receivedMessages < recipients.size() &&
+                System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+        }
+        List<List<String>> messages = smtpStub.getMessages();
+        messages = messages.subList(receivedMessages, messages.size());
+        Assert.assertEquals(messages.size(), recipients.size(), "A recipient did not receive exactly one message");
+        Set<String> deliveredRecipients = new HashSet<>();
+        for (List<String> messageRecipients : messages) {
+            Assert.assertEquals(messageRecipients.size(), 1, "A message is shared by several recipients");
+            deliveredRecipients.add(messageRecipients.get(0));
+        }
+        Assert.assertEquals(deliveredRecipients, recipients, "A message is not delivered to its recipient");
+    }
+
+    @Test(description = "Testing whether the recipients which could not be reached are queued for a retry, as long "
+            + "as the retry queue is not full")
+    public void testRetryQueueIsCapped() throws Exception {
+        AtomicInteger pendingRetries = getPendingRetries();
+        int queuedRecipients = pendingRetries.get();
+
+        List<String> recipients = new ArrayList<>();
+        recipients.add(REJECTED_RECIPIENT_PREFIX + "-0@localhost");
+        recipients.add(REJECTED_RECIPIENT_PREFIX + "-1@localhost");
+        new EmailSenderServiceImpl.EmailSender(recipients, SUBJECT, BODY, 1).run();
+        Assert.assertEquals(pendingRetries.get() - queuedRecipients, recipients.size(),
+                "Recipients which could not be reached are not queued for a retry");
+
+        List<String> overflowingRecipients = new ArrayList<>();
+        for (int i = 0; i <= MAX_PENDING_RETRIES; i++) {
+            overflowingRecipients.add(REJECTED_RECIPIENT_PREFIX + "-overflow-" + i + "@localhost");
+        }
+        Method scheduleRetry = EmailSenderServiceImpl.class.getDeclaredMethod("scheduleRetry", List.class,
+                String.class, String.class, int.class);
+        scheduleRetry.setAccessible(true);
+        scheduleRetry.invoke(null, overflowingRecipients, SUBJECT, BODY, 2);
+        Assert.assertEquals(pendingRetries.get() - queuedRecipients, recipients.size(),
+                "Recipients are queued for a retry beyond the capacity of the retry queue");
+    }
+
+    private static ThreadPoolExecutor getThreadPoolExecutor() throws Exception {
+        Field threadPoolExecutor = EmailSenderServiceImpl.class.getDeclaredField("threadPoolExecutor");
+        threadPoolExecutor.setAccessible(true);
+        return (ThreadPoolExecutor) threadPoolExecutor.get(null);
+    }
+
+    private static AtomicInteger getPendingRetries() throws Exception {
+        Field pendingRetries = EmailSenderServiceImpl.class.getDeclaredField("pendingRetries");
+        pendingRetries.setAccessible(true);
+        return (AtomicInteger) pendingRetries.get(null);
+    }
+
+    /**
+     * SMTP server stub, which records the recipients of each message it accepts, and rejects the recipients whose
+     * address starts with {@link #REJECTED_RECIPIENT_PREFIX}.
+     */
+    private static class SmtpStub implements Runnable {
+
+        private final ServerSocket serverSocket;
+        private final List<List<String>> messages = Collections.synchronizedList(new ArrayList<List<String>>());
+
+        private SmtpStub() throws IOException {
+            serverSocket = new ServerSocket(0);
+        }
+
+        private int getPort() {
+            return serverSocket.getLocalPort();
+        }
+
+        private List<List<String>> getMessages() {
+            synchronized (messages) {
+                return new ArrayList<>(messages);
+            }
+        }
+
+        private void start() {
+            Thread thread = new Thread(this, "smtp-stub");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        private void stop() throws IOException {
+            serverSocket.close();
+        }
+
+        @Override
+        public void run() {
+            while (!serverSocket.isClosed()) {
+                try {
+                    final Socket socket = serverSocket.accept();
+                    Thread thread = new Thread(new Runnable() {
+                        @Override
+                        public void run() {
+                            handle(socket);
+                        }
+                    }, "smtp-stub-session");
+                    thread.setDaemon(true);
+                    thread.start();
+                } catch (IOException e) {
+                    // The stub is stopped.
+                }
+            }
+        }
+
+        private void handle(Socket socket) {
+            try (Socket session = socket;
+                 BufferedReader reader = new BufferedReader(new InputStreamReader(session.getInputStream(),
+                         StandardCharsets.US_ASCII));
+                 Writer writer = new OutputStreamWriter(session.getOutputStream(), StandardCharsets.US_ASCII)) {
+                reply(writer, "220 localhost SMTP stub");
+                List<String> recipients = new ArrayList<>();
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String command = line.toUpperCase();
+                    if (command.startsWith("RCPT TO:")) {
+                        String recipient = line.substring(line.indexOf('<') + 1, line.lastIndexOf('>'));
+                        if (recipient.startsWith(REJECTED_RECIPIENT_PREFIX)) {
+                            reply(writer, "550 Mailbox unavailable");
+                        } else {
+                            recipients.add(recipient);
+                            reply(writer, "250 OK");
+                        }
+                    } else if (command.startsWith("DATA")) {
+                        reply(writer, "354 End data with <CR><LF>.<CR><LF>");
+                        while ((line = reader.readLine()) != null && !".".equals(line)) {
+                            // The content of the message is not checked.
+                        }
+                        messages.add(recipients);
+                        recipients = new ArrayList<>();
+                        reply(writer, "250 OK");
+                    } else if (command.startsWith("RSET")) {
+                        recipients = new ArrayList<>();
+                        reply(writer, "250 OK");
+                    } else if (command.startsWith("QUIT")) {
+                        reply(writer, "221 Bye");
+                        return;
+                    } else {
+                        reply(writer, "250 OK");
+                    }
+                }
+            } catch (IOException e) {
+                // The client has closed the connection.
+            }
+        }
+
+        private static void reply(Writer writer, String reply) throws IOException {
+            writer.write(reply + "\r\n");
+            writer.flush();
+        }
+    }
+
+}
@@ -45,6 +45,7 @@ public class PermissionBasedScopeValidator extends OAuth2ScopeValidator {
 
     private static final Log log = LogFactory.getLog(PermissionBasedScopeValidator.class);
     private static final String UI_EXECUTE = "ui.execute";
+    private static final String SCOPE_VALIDATION_NAMESPACE = "permission";
 
 
     @Override
@@ -79,7 +80,14 @@ public class PermissionBasedScopeValidator extends OAuth2ScopeValidator {
                 tenantId = IdentityTenantUtil.getTenantIdOfUser(authorizedUser.getUserName());
             }
             //Get the permissions associated with the scope, if any
-            Set<String> permissionsOfScope = authScopeDAO.getBindingsOfScopeByScopeName(resourceScope, tenantId);
+            ScopeValidationCache scopeValidationCache = ScopeValidationCache.getInstance();
+            Set<String> permissionsOfScope = scopeValidationCache.getScopeBindings(SCOPE_VALIDATION_NAMESPACE, tenantId,
+                    resourceScope);
+            if (permissionsOfScope == null) {
+                permissionsOfScope = authScopeDAO.getBindingsOfScopeByScopeName(resourceScope, tenantId);
+                scopeValidationCache.addScopeBindings(SCOPE_VALIDATION_NAMESPACE, tenantId,
+                        resourceScope, permissionsOfScope);
+            }
 
             //If the scope doesn't have any permissions associated with it.
             if (permissionsOfScope == null || permissionsOfScope.isEmpty()) {
@@ -98,6 +106,21 @@ public class PermissionBasedScopeValidator extends OAuth2ScopeValidator {
                 log.debug(logMessage.toString());
             }
 
+            String username = MultitenantUtils.getTenantAwareUsername(authorizedUser.getUserName());
+            String userStore = authorizedUser.getUserStoreDomain();
+            if (userStore != null) {
+                username = userStore + "/" + username;
+            }
+            Boolean authorized = scopeValidationCache.getAuthorization(SCOPE_VALIDATION_NAMESPACE, tenantId,
+                    username, resourceScope);
+            if (authorized != null) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Found cached authorization of user '" + authorizedUser.getUserName() + "' for the " +
+                                      "scope '" + resourceScope + "'");
+                }
+                return authorized;
+            }
+
             AuthorizationManager authorizationManager;
             String[] userRoles;
             boolean tenantFlowStarted = false;
@@ -119,21 +142,15 @@ public class PermissionBasedScopeValidator extends OAuth2ScopeValidator {
                 }
             }
             boolean status = false;
-            String username = MultitenantUtils.getTenantAwareUsername(authorizedUser.getUserName());
-            for (String permission : permissionsOfScope) {
-                if (authorizationManager != null) {
-                    String userStore = authorizedUser.getUserStoreDomain();
-
-                    if (userStore != null) {
-                        status = authorizationManager
-                                .isUserAuthorized(userStore + "/" + username, permission, UI_EXECUTE);
-                    } else {
-                        status = authorizationManager.isUserAuthorized(username, permission, UI_EXECUTE);
-                    }
+            if (authorizationManager != null) {
+                for (String permission : permissionsOfScope) {
+                    status = authorizationManager.isUserAuthorized(username, permission, UI_EXECUTE);
                     if (status) {
                         break;
                     }
                 }
+                scopeValidationCache.addAuthorization(SCOPE_VALIDATION_NAMESPACE, tenantId,
+                        username, resourceScope, status);
             }
 
             if (status) {
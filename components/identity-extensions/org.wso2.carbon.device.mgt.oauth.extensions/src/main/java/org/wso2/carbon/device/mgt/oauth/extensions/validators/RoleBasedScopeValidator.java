@@ -38,6 +38,7 @@ import org.wso2.carbon.utils.multitenancy.MultitenantUtils;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
@@ -49,6 +50,7 @@ import java.util.Set;
 public class RoleBasedScopeValidator extends OAuth2ScopeValidator {
 
     Log log = LogFactory.getLog(RoleBasedScopeValidator.class);
+    private static final String SCOPE_VALIDATION_NAMESPACE = "role";
 
     @Override
     public boolean validateScope(AccessTokenDO accessTokenDO, String resourceScope) throws IdentityOAuth2Exception {
@@ -82,7 +84,14 @@ public class RoleBasedScopeValidator extends OAuth2ScopeValidator {
             }
 
             //Get the roles associated with the scope, if any
-            Set<String> rolesOfScope = scopeDAO.getBindingsOfScopeByScopeName(resourceScope, tenantId);
+            ScopeValidationCache scopeValidationCache = ScopeValidationCache.getInstance();
+            Set<String> rolesOfScope = scopeValidationCache.getScopeBindings(SCOPE_VALIDATION_NAMESPACE, tenantId,
+                    resourceScope);
+            if (rolesOfScope == null) {
+                rolesOfScope = scopeDAO.getBindingsOfScopeByScopeName(resourceScope, tenantId);
+                scopeValidationCache.addScopeBindings(SCOPE_VALIDATION_NAMESPACE, tenantId,
+                        resourceScope, rolesOfScope);
+            }
 
             //If the scope doesn't have any roles associated with it.
             if(rolesOfScope == null || rolesOfScope.isEmpty()){
@@ -101,6 +110,24 @@ public class RoleBasedScopeValidator extends OAuth2ScopeValidator {
                 log.debug(logMessage.toString());
             }
 
+            String username = MultitenantUtils.getTenantAwareUsername(authzUser.getUserName());
+            // The user store domain is part of the cache key only, so that users of different user stores sharing a
+            // name do not share their authorizations.
+            String authorizationKey = username;
+            String userStore = authzUser.getUserStoreDomain();
+            if (userStore != null) {
+                authorizationKey = userStore + "/" + username;
+            }
+            Boolean authorized = scopeValidationCache.getAuthorization(SCOPE_VALIDATION_NAMESPACE, tenantId,
+                    authorizationKey, resourceScope);
+            if (authorized != null) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Found cached authorization of user '" + authzUser.getUserName() + "' for the scope '" +
+                                      resourceScope + "'");
+                }
+                return authorized;
+            }
+
             UserStoreManager userStoreManager;
             String[] userRoles;
             boolean tenantFlowStarted = false;
@@ -115,8 +142,7 @@ public class RoleBasedScopeValidator extends OAuth2ScopeValidator {
                 }
 
                 userStoreManager = realmService.getTenantUserRealm(tenantId).getUserStoreManager();
-                userRoles = userStoreManager.getRoleListOfUser(
-                        MultitenantUtils.getTenantAwareUsername(authzUser.getUserName()));
+                userRoles = userStoreManager.getRoleListOfUser(username);
             } finally {
                 if (tenantFlowStarted) {
                     PrivilegedCarbonContext.endTenantFlow();
@@ -135,13 +161,19 @@ public class RoleBasedScopeValidator extends OAuth2ScopeValidator {
                     log.debug(logMessage.toString());
                 }
                 //Check if the user still has a valid role for this scope.
-                rolesOfScope.retainAll(Arrays.asList(userRoles));
-                return !rolesOfScope.isEmpty();
+                Set<String> rolesOfUser = new HashSet<>(rolesOfScope);
+                rolesOfUser.retainAll(Arrays.asList(userRoles));
+                boolean status = !rolesOfUser.isEmpty();
+                scopeValidationCache.addAuthorization(SCOPE_VALIDATION_NAMESPACE, tenantId,
+                        authorizationKey, resourceScope, status);
+                return status;
             }
             else{
                 if(log.isDebugEnabled()){
                     log.debug("No roles associated for the user " + authzUser.getUserName());
                 }
+                scopeValidationCache.addAuthorization(SCOPE_VALIDATION_NAMESPACE, tenantId,
+                        authorizationKey, resourceScope, false);
                 return false;
             }
 
@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.oauth.extensions.validators;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Cache shared by the scope validators. It holds the permissions or roles bound to each scope per tenant, which are
+ * reloaded from the database once the refresh interval of the tenant has elapsed, and the outcome of recent
+ * authorization checks of users, which are kept only for a short time so that role and permission changes of a user
+ * take effect quickly.
+ * <p>
+ * Every validator passes its own namespace, as the same scope is bound to permissions by one validator and to roles
+ * by another, and a user authorized by one of them is not necessarily authorized by the others.
+ * <p>
+ * The cache is local to the JVM, and nothing invalidates it when the bindings of a scope are changed, such as when
+ * APIs are published, or when the roles of a user are changed, on this or another node of the cluster. Hence a node
+ * keeps enforcing the previous bindings of a scope for at most {@link #SCOPE_BINDINGS_REFRESH_INTERVAL}, and the
+ * previous authorization of a user for at most {@link #AUTHORIZATION_EXPIRY}.
+ */
+public class ScopeValidationCache {
+
+    private static final long SCOPE_BINDINGS_REFRESH_INTERVAL = 5 * 60 * 1000L;
+    private static final long AUTHORIZATION_EXPIRY = 30 * 1000L;
+    private static final int MAX_AUTHORIZATIONS = 10000;
+    private static final ScopeValidationCache instance =
+            new ScopeValidationCache(SCOPE_BINDINGS_REFRESH_INTERVAL, AUTHORIZATION_EXPIRY);
+
+    private final long scopeBindingsRefreshInterval;
+    private final long authorizationExpiry;
+    private final ConcurrentMap<Integer, TenantScopeBindings> scopeBindings = new ConcurrentHashMap<>();
+    private final Map<String, Authorization> authorizations =
+            new LinkedHashMap<String, Authorization>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Authorization> eldest) {
+                    return size() > MAX_AUTHORIZATIONS;
+                }
+            };
+
+    ScopeValidationCache(long scopeBindingsRefreshInterval, long authorizationExpiry) {
+        this.scopeBindingsRefreshInterval = scopeBindingsRefreshInterval;
+        this.authorizationExpiry = authorizationExpiry;
+    }
+
+    public static ScopeValidationCache getInstance() {
+        return instance;
+    }
+
+    /**
+     * Returns the bindings of a scope of the tenant, or null if they have not been loaded since the last refresh.
+     * The returned set must not be modified.
+     */
+    public Set<String> getScopeBindings(String namespace, int tenantId, String scope) {
+        TenantScopeBindings tenantScopeBindings = scopeBindings.get(tenantId);
+        if (tenantScopeBindings == null) {
+            return null;
+        }
+        if (tenantScopeBindings.loadedTime + scopeBindingsRefreshInterval <= System.currentTimeMillis()) {
+            scopeBindings.remove(tenantId, tenantScopeBindings);
+            return null;
+        }
+        return tenantScopeBindings.bindings.get(namespace + ":" + scope);
+    }
+
+    /**
+     * Adds the bindings of a scope of the tenant, as loaded from the database. A scope without bindings is not
+     * cached, so that a binding added to it afterwards is enforced on the next request.
+     */
+    public void addScopeBindings(String namespace, int tenantId, String scope, Set<String> bindings) {
+        if (bindings == null || bindings.isEmpty()) {
+            return;
+        }
+        TenantScopeBindings tenantScopeBindings = scopeBindings.get(tenantId);
+        if (tenantScopeBindings == null) {
+            TenantScopeBindings newScopeBindings = new TenantScopeBindings();
+            tenantScopeBindings = scopeBindings.putIfAbsent(tenantId, newScopeBindings);
+            if (tenantScopeBindings == null) {
+                tenantScopeBindings = newScopeBindings;
+            }
+        }
+        tenantScopeBindings.bindings.put(namespace + ":" + scope, Collections.unmodifiableSet(new HashSet<>(bindings)));
+    }
+
+    /**
+     * Returns whether the user was recently found to be authorized for the scope, or null if the user has to be
+     * checked against the user store.
+     */
+    public Boolean getAuthorization(String namespace, int tenantId, String username, String scope) {
+        String key = getAuthorizationKey(namespace, tenantId, username, scope);
+        synchronized (authorizations) {
+            Authorization authorization = authorizations.get(key);
+            if (authorization == null) {
+                return null;
+            }
+            if (authorization.expiryTime <= System.currentTimeMillis()) {
+                authorizations.remove(key);
+                return null;
+            }
+            return authorization.authorized;
+        }
+    }
+
+    public void addAuthorization(String namespace, int tenantId, String username, String scope, boolean authorized) {
+        String key = getAuthorizationKey(namespace, tenantId, username, scope);
+        synchronized (authorizations) {
+            authorizations.put(key, new Authorization(authorized, System.currentTimeMillis() + authorizationExpiry));
+        }
+    }
+
+    /**
+     * Drops the scope bindings and the authorizations of a tenant, so that they are loaded again on the next request.
+     */
+    public void clear(int tenantId) {
+        scopeBindings.remove(tenantId);
+        String keyPrefix = tenantId + ":";
+        synchronized (authorizations) {
+            Iterator<String> keys = authorizations.keySet().iterator();
+            while (keys.hasNext()) {
+                if (keys.next().startsWith(keyPrefix)) {
+                    keys.remove();
+                }
+            }
+        }
+    }
+
+    public void clear() {
+        scopeBindings.clear();
+        synchronized (authorizations) {
+            authorizations.clear();
+        }
+    }
+
+    private static String getAuthorizationKey(String namespace, int tenantId, String username, String scope) {
+        return tenantId + ":" + namespace + ":" + username + ":" + scope;
+    }
+
+    private static class TenantScopeBindings {
+
+        private final long loadedTime = System.currentTimeMillis();
+        private final ConcurrentMap<String, Set<String>> bindings = new ConcurrentHashMap<>();
+    }
+
+    private static class Authorization {
+
+        private final boolean authorized;
+        private final long expiryTime;
+
+        Authorization(boolean authorized, long expiryTime) {
+            this.authorized = authorized;
+            this.expiryTime = expiryTime;
+        }
+    }
+
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.device.mgt.oauth.extensions.validators;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * This is the test class for {@link ScopeValidationCache}.
+ */
+public class ScopeValidationCacheTest {
+
+    private static final String PERMISSION_NAMESPACE = "permission";
+    private static final String ROLE_NAMESPACE = "role";
+    private static final int TENANT_ID = 1;
+    private static final String USERNAME = "PRIMARY/admin";
+    private static final String SCOPE = "perm:devices:view";
+    private static final long REFRESH_INTERVAL = 60 * 60 * 1000L;
+    private static final long AUTHORIZATION_EXPIRY = 60 * 1000L;
+
+    @Test(description = "This method tests whether a granted authorization is served from the cache")
+    public void testGrantedAuthorization() {
+        ScopeValidationCache cache = new ScopeValidationCache(REFRESH_INTERVAL, AUTHORIZATION_EXPIRY);
+        Assert.assertNull(cache.getAuthorization(PERMISSION_NAMESPACE, TENANT_ID, USERNAME, SCOPE),
+                "Authorization is found before it is checked");
+        cache.addAuthorization(PERMISSION_NAMESPACE, TENANT_ID, USERNAME, SCOPE, true);
+        Assert.assertEquals(cache.getAuthorization(PERMISSION_NAMESPACE, TENANT_ID, USERNAME, SCOPE), Boolean.TRUE,
+                "Granted authorization is not cached");
+    }
+
+    @Test(description = "This method tests whether a denied authorization is served from the cache")
+    public void testDeniedAuthorization() {
+        ScopeValidationCache cache = new ScopeValidationCache(REFRESH_INTERVAL, AUTHORIZATION_EXPIRY);
+        cache.addAuthorization(PERMISSION_NAMESPACE, TENANT_ID, USERNAME, SCOPE, false);
+        Assert.assertEquals(cache.getAuthorization(PERMISSION_NAMESPACE, TENANT_ID, USERNAME, SCOPE), Boolean.FALSE,
+                "Denied authorization is not cached");
+        Assert.assertNull(cache.getAuthorization(PERMISSION_NAMESPACE, TENANT_ID, "SECONDARY/admin", SCOPE),
+                "Authorization of a user is used for a user of another user store");
+    }
+
+    @Test(description = "This method tests whether the validators do not share their cached results")
+    public void testNamespacesAreSeparated() {
+        ScopeValidationCache cache = new ScopeValidationCache(REFRESH_INTERVAL, AUTHORIZATION_EXPIRY);
+        cache.addAuthorization(PERMISSION_NAMESPACE, TENANT_ID, USERNAME, SCOPE, true);
+        cache.addScopeBindings(PERMISSION_NAMESPACE, TENANT_ID, SCOPE,
+                Collections.singleton("/permission/admin/device-mgt/devices/view"));
+        Assert.assertNull(cache.getAuthorization(ROLE_NAMESPACE, TENANT_ID, USERNAME, SCOPE),
+                "Authorization of a validator is used by another validator");
+        Assert.assertNull(cache.getScopeBindings(ROLE_NAMESPACE, TENANT_ID, SCOPE),
+                "Scope bindings of a validator are used by another validator");
+    }
+
+    @Test(description = "This method tests whether a scope without bindings is looked up again")
+    public void testEmptyScopeBindingsAreNotCached() {
+        ScopeValidationCache cache = new ScopeValidationCache(REFRESH_INTERVAL, AUTHORIZATION_EXPIRY);
+        cache.addScopeBindings(ROLE_NAMESPACE, TENANT_ID, SCOPE, Collections.<String>emptySet());
+        Assert.assertNull(cache.getScopeBindings(ROLE_NAMESPACE, TENANT_ID, SCOPE),
+                "Scope without bindings is cached");
+    }
+
+    @Test(description = "This method tests whether the scope bindings are loaded again after the refresh interval")
+    public void testScopeBindingsRefresh() throws InterruptedException {
+        ScopeValidationCache cache = new ScopeValidationCache(100, AUTHORIZATION_EXPIRY);
+        Set<String> roles = new HashSet<>(Collections.singleton("Internal/devicemgt-user"));
+        cache.addScopeBindings(ROLE_NAMESPACE, TENANT_ID, SCOPE, roles);
+        Assert.assertEquals(cache.getScopeBindings(ROLE_NAMESPACE, TENANT_ID, SCOPE), roles,
+                "Scope bindings are not cached");
+        Thread.sleep(200);
+        Assert.assertNull(cache.getScopeBindings(ROLE_NAMESPACE, TENANT_ID, SCOPE),
+                "Scope bindings are served after the refresh interval");
+    }
+
+    @Test(description = "This method tests whether an authorization is checked again once it has expired")
+    public void testAuthorizationExpiry() throws InterruptedException {
+        ScopeValidationCache cache = new ScopeValidationCache(REFRESH_INTERVAL, 100);
+        cache.addAuthorization(ROLE_NAMESPACE, TENANT_ID, USERNAME, SCOPE, true);
+        Thread.sleep(200);
+        Assert.assertNull(cache.getAuthorization(ROLE_NAMESPACE, TENANT_ID, USERNAME, SCOPE),
+                "Authorization is served after it has expired");
+    }
+
+    @Test(description = "This method tests whether clearing a tenant drops its scope bindings and authorizations")
+    public void testClearTenant() {
+        ScopeValidationCache cache = new ScopeValidationCache(REFRESH_INTERVAL, AUTHORIZATION_EXPIRY);
+        Set<String> roles = Collections.singleton("Internal/devicemgt-user");
+        cache.addScopeBindings(ROLE_NAMESPACE, TENANT_ID, SCOPE, roles);
+        cache.addScopeBindings(ROLE_NAMESPACE, TENANT_ID + 1, SCOPE, roles);
+        cache.addAuthorization(ROLE_NAMESPACE, TENANT_ID, USERNAME, SCOPE, false);
+
+        cache.clear(TENANT_ID);
+        Assert.assertNull(cache.getScopeBindings(ROLE_NAMESPACE, TENANT_ID, SCOPE),
+                "Scope bindings of the tenant are not dropped");
+        Assert.assertNull(cache.getAuthorization(ROLE_NAMESPACE, TENANT_ID, USERNAME, SCOPE),
+                "Authorizations of the tenant are not dropped");
+        Assert.assertEquals(cache.getScopeBindings(ROLE_NAMESPACE, TENANT_ID + 1, SCOPE), roles,
+                "Scope bindings of another tenant are dropped");
+    }
+
+}
@@ -18,6 +18,7 @@
 
 package org.wso2.carbon.identity.jwt.client.extension;
 
+import com.nimbusds.jwt.SignedJWT;
 import org.apache.commons.codec.binary.Base64;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -30,6 +31,7 @@ import org.apache.http.message.BasicNameValuePair;
 import org.json.simple.JSONObject;
 import org.json.simple.parser.JSONParser;
 import org.json.simple.parser.ParseException;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
 import org.wso2.carbon.identity.jwt.client.extension.constant.JWTConstants;
 import org.wso2.carbon.identity.jwt.client.extension.dto.AccessTokenInfo;
 import org.wso2.carbon.identity.jwt.client.extension.dto.JWTConfig;
@@ -43,6 +45,11 @@ import java.security.KeyManagementException;
 import java.security.KeyStoreException;
 import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -52,8 +59,17 @@ import java.util.Map;
 public class JWTClient {
 
 	private static Log log = LogFactory.getLog(JWTClient.class);
+	private static final int MAX_CACHED_JWT_TOKENS = 1000;
+	private static final long JWT_TOKEN_REFRESH_MARGIN = 60 * 1000L;
 	private JWTConfig jwtConfig;
 	private boolean isDefaultJWTClient;
+	private final Map<List<Object>, CachedJwtToken> jwtTokens =
+			new LinkedHashMap<List<Object>, CachedJwtToken>(16, 0.75f, true) {
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<List<Object>, CachedJwtToken> eldest) {
+					return size() > MAX_CACHED_JWT_TOKENS;
+				}
+			};
 
 	public JWTClient(JWTConfig jwtConfig) {
 		this.jwtConfig = jwtConfig;
@@ -186,23 +202,101 @@ public class JWTClient {
         return (new String(Base64.decodeBase64((encodedKey).getBytes()))).split(":");
     }
 
+    /**
+     * Returns a signed JWT of the user. Signed JWTs are reused for the same user and claims until shortly before they
+     * expire, so that the assertion is not signed again on every backend call.
+     */
     public String getJwtToken(String username) throws JWTClientException {
-		return JWTClientUtil.generateSignedJWTAssertion(username, jwtConfig, isDefaultJWTClient);
-	}
+        List<Object> key = getJwtTokenKey(username, null, null);
+        String jwtToken = getCachedJwtToken(key);
+        if (jwtToken == null) {
+            jwtToken = JWTClientUtil.generateSignedJWTAssertion(username, jwtConfig, isDefaultJWTClient);
+            addCachedJwtToken(key, jwtToken);
+        }
+        return jwtToken;
+    }
 
     public String getJwtToken(String username, Map<String, String> claims) throws JWTClientException {
-        return JWTClientUtil.generateSignedJWTAssertion(username, jwtConfig, isDefaultJWTClient, claims);
+        List<Object> key = getJwtTokenKey(username, claims, null);
+        String jwtToken = getCachedJwtToken(key);
+        if (jwtToken == null) {
+            jwtToken = JWTClientUtil.generateSignedJWTAssertion(username, jwtConfig, isDefaultJWTClient, claims);
+            addCachedJwtToken(key, jwtToken);
+        }
+        return jwtToken;
     }
 
     public String getJwtToken(String username, Map<String, String> claims, boolean enableTenantSigning)
             throws JWTClientException {
         if (enableTenantSigning) {
-            return JWTClientUtil.generateSignedJWTAssertion(username, jwtConfig, false, claims);
+            // The token is signed with the key of the tenant of the current thread
+            int tenantId = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId();
+            List<Object> key = getJwtTokenKey(username, claims, tenantId);
+            String jwtToken = getCachedJwtToken(key);
+            if (jwtToken == null) {
+                jwtToken = JWTClientUtil.generateSignedJWTAssertion(username, jwtConfig, false, claims);
+                addCachedJwtToken(key, jwtToken);
+            }
+            return jwtToken;
         } else {
             return getJwtToken(username, claims);
         }
     }
-}
 
+    private List<Object> getJwtTokenKey(String username, Map<String, String> claims, Integer signingTenantId) {
+        Map<String, String> claimsOfToken = (claims == null) ? Collections.<String, String>emptyMap() :
+                new HashMap<>(claims);
+        return Arrays.asList(username, claimsOfToken, signingTenantId);
+    }
 
+    private String getCachedJwtToken(List<Object> key) {
+        synchronized (jwtTokens) {
+            CachedJwtToken cachedJwtToken = jwtTokens.get(key);
+            if (cachedJwtToken == null) {
+                return null;
+            }
+            if (cachedJwtToken.reuseUntil <= System.currentTimeMillis()) {
+                jwtTokens.remove(key);
+                return null;
+            }
+            return cachedJwtToken.jwtToken;
+        }
+    }
 
+    /**
+     * Caches a signed JWT until the refresh margin before its expiry. Tokens without a readable expiry time are not
+     * cached.
+     */
+    private void addCachedJwtToken(List<Object> key, String jwtToken) {
+        if (jwtToken == null) {
+            return;
+        }
+        try {
+            Date expirationTime = SignedJWT.parse(jwtToken).getJWTClaimsSet().getExpirationTime();
+            if (expirationTime == null) {
+                return;
+            }
+            long reuseUntil = expirationTime.getTime() - JWT_TOKEN_REFRESH_MARGIN;
+            if (reuseUntil > System.currentTimeMillis()) {
+                synchronized (jwtTokens) {
+                    jwtTokens.put(key, new CachedJwtToken(jwtToken, reuseUntil));
+                }
+            }
+        } catch (java.text.ParseException e) {
+            if (log.isDebugEnabled()) {
+                log.debug("Signed JWT of user '" + key.get(0) + "' is not cached, since it cannot be parsed.", e);
+            }
+        }
+    }
+
+    private static class CachedJwtToken {
+
+        private final String jwtToken;
+        private final long reuseUntil;
+
+        CachedJwtToken(String jwtToken, long reuseUntil) {
+            this.jwtToken = jwtToken;
+            this.reuseUntil = reuseUntil;
+        }
+    }
+}
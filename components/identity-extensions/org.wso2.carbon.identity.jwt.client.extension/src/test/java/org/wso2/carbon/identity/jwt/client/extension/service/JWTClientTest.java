@@ -17,6 +17,12 @@
  */
 package org.wso2.carbon.identity.jwt.client.extension.service;
 
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.http.HttpResponse;
@@ -38,8 +44,11 @@ import org.wso2.carbon.identity.jwt.client.extension.util.JWTClientUtil;
 
 import java.io.IOException;
 import java.security.KeyManagementException;
+import java.security.KeyPairGenerator;
 import java.security.KeyStoreException;
 import java.security.NoSuchAlgorithmException;
+import java.security.interfaces.RSAPrivateKey;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Properties;
@@ -193,6 +202,51 @@ public class JWTClientTest {
         Assert.assertEquals(tokenInfo.getAccessToken(), "b7882d23f1f8257f4bc6cf4a20633ab1");
     }
 
+    @Test(description = "Test whether signed JWTs are reused for the same user and claims.")
+    public void testGetJwtTokenIsReused() throws Exception {
+        JWTClient jwtClient = new JWTClient(new JWTConfig(new Properties()));
+        String firstToken = createSignedJWT(System.currentTimeMillis() + 10 * 60 * 1000);
+        String secondToken = createSignedJWT(System.currentTimeMillis() + 10 * 60 * 1000);
+        PowerMockito.mockStatic(JWTClientUtil.class);
+        PowerMockito.when(JWTClientUtil.generateSignedJWTAssertion(Mockito.anyString(), Mockito.any(JWTConfig.class),
+                Mockito.anyBoolean(), Mockito.any())).thenReturn(firstToken, secondToken);
+        Map<String, String> claims = new HashMap<>();
+        claims.put("deviceIdentifier", "1234");
+
+        Assert.assertEquals(jwtClient.getJwtToken("admin", claims), firstToken);
+        Assert.assertEquals(jwtClient.getJwtToken("admin", claims), firstToken,
+                "JWT is signed again for the same user and claims");
+        claims.put("deviceIdentifier", "5678");
+        Assert.assertEquals(jwtClient.getJwtToken("admin", claims), secondToken,
+                "JWT of different claims is reused");
+    }
+
+    @Test(description = "Test whether signed JWTs are issued again shortly before they expire.")
+    public void testGetJwtTokenIsRefreshedBeforeExpiry() throws Exception {
+        JWTClient jwtClient = new JWTClient(new JWTConfig(new Properties()));
+        String expiringToken = createSignedJWT(System.currentTimeMillis() + 30 * 1000);
+        String refreshedToken = createSignedJWT(System.currentTimeMillis() + 10 * 60 * 1000);
+        PowerMockito.mockStatic(JWTClientUtil.class);
+        PowerMockito.when(JWTClientUtil.generateSignedJWTAssertion(Mockito.anyString(), Mockito.any(JWTConfig.class),
+                Mockito.anyBoolean())).thenReturn(expiringToken, refreshedToken);
+
+        Assert.assertEquals(jwtClient.getJwtToken("admin"), expiringToken);
+        Assert.assertEquals(jwtClient.getJwtToken("admin"), refreshedToken,
+                "JWT which is about to expire is reused");
+        Assert.assertEquals(jwtClient.getJwtToken("admin"), refreshedToken);
+    }
+
+    private String createSignedJWT(long expiryTime) throws NoSuchAlgorithmException, JOSEException {
+        KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+        keyPairGenerator.initialize(2048);
+        JWTClaimsSet claimsSet = new JWTClaimsSet();
+        claimsSet.setSubject("admin");
+        claimsSet.setExpirationTime(new Date(expiryTime));
+        SignedJWT signedJWT = new SignedJWT(new JWSHeader(JWSAlgorithm.RS256), claimsSet);
+        signedJWT.sign(new RSASSASigner((RSAPrivateKey) keyPairGenerator.generateKeyPair().getPrivate()));
+        return signedJWT.serialize();
+    }
+
     private void mockJWTClientUtil() throws KeyManagementException, NoSuchAlgorithmException, KeyStoreException,
             IOException, JWTClientException {
         HttpClient httpClient = Mockito.mock(HttpClient.class);
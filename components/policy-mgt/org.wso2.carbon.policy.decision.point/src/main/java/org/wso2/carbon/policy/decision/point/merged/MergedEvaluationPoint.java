@@ -27,6 +27,8 @@ import org.wso2.carbon.device.mgt.common.policy.mgt.Profile;
 import org.wso2.carbon.device.mgt.common.policy.mgt.ProfileFeature;
 import org.wso2.carbon.policy.mgt.common.*;
 import org.wso2.carbon.policy.mgt.core.PolicyManagerService;
+import org.wso2.carbon.policy.mgt.core.cache.impl.PolicyCacheManagerImpl;
+import org.wso2.carbon.policy.mgt.core.util.PolicyManagerUtil;
 import org.wso2.carbon.policy.decision.point.internal.PolicyDecisionPointDataHolder;
 
 import java.sql.Timestamp;
@@ -41,6 +43,10 @@ public class MergedEvaluationPoint implements PolicyEvaluationPoint {
     private PolicyManagerService policyManagerService;
     private static final String effectivePolicyName = "Effective-Policy";
     private static final String policyEvaluationPoint = "Merged";
+    private static final int MERGED_POLICY_CACHE_SIZE = 1000;
+    private static final long MERGED_POLICY_CACHE_EXPIRY = 60 * 1000L;
+    private static final MergedPolicyCache mergedPolicyCache =
+            new MergedPolicyCache(MERGED_POLICY_CACHE_SIZE, MERGED_POLICY_CACHE_EXPIRY);
 
     @Override
     public List<ProfileFeature> getEffectiveFeatures(DeviceIdentifier deviceIdentifier)
@@ -64,6 +70,9 @@ public class MergedEvaluationPoint implements PolicyEvaluationPoint {
                 return null;
             }
             PolicyInformationPoint policyInformationPoint = policyManagerService.getPIP();
+            // Read the version before the policies, so that a concurrent change can only make the entry stale
+            boolean cacheEnabled = PolicyManagerUtil.isPolicyCacheEnabled();
+            long policyVersion = cacheEnabled ? PolicyCacheManagerImpl.getInstance().getVersion() : 0;
             pipDevice = policyInformationPoint.getDeviceData(deviceIdentifier);
             policyList = policyInformationPoint.getRelatedPolicies(pipDevice);
 
@@ -73,21 +82,39 @@ public class MergedEvaluationPoint implements PolicyEvaluationPoint {
 
             // Set effective-policy information
             Profile profile = new Profile();
-            policy = policyResolve(policyList);
+            int tenantId = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId();
+            if (cacheEnabled) {
+                String key = MergedPolicyCache.getKey(tenantId, policyList);
+                List<ProfileFeature> features = mergedPolicyCache.get(key, policyVersion);
+                if (features == null) {
+                    policy = policyResolve(policyList);
+                    mergedPolicyCache.put(key, policyVersion, policy.getProfile().getProfileFeaturesList());
+                } else {
+                    policy = new Policy();
+                    policy.setProfile(new Profile());
+                    policy.getProfile().setProfileFeaturesList(features);
+                }
+                if (log.isDebugEnabled()) {
+                    log.debug("Merged policy cache hits : " + mergedPolicyCache.getHitCount() + ", misses : " +
+                            mergedPolicyCache.getMissCount() + ", entries : " + mergedPolicyCache.size());
+                }
+            } else {
+                policy = policyResolve(policyList);
+            }
             profile.setProfileFeaturesList(policy.getProfile().getProfileFeaturesList());
             policy.setProfile(profile);
             Timestamp currentTimestamp = new Timestamp(Calendar.getInstance().getTime().getTime());
             profile.setCreatedDate(currentTimestamp);
             profile.setUpdatedDate(currentTimestamp);
             profile.setDeviceType(deviceIdentifier.getType());
-            profile.setTenantId(PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId());
+            profile.setTenantId(tenantId);
             // Set effective policy name
             policy.setPolicyName(effectivePolicyName);
             policy.setOwnershipType(pipDevice.getOwnershipType());
             // Set effective policy Active and Updated
             policy.setActive(true);
             policy.setUpdated(true);
-            policy.setTenantId(PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId());
+            policy.setTenantId(tenantId);
             String policyIds = "";
             Collections.sort(policyList);
             for (Policy appliedPolicy : policyList) {
@@ -107,7 +134,7 @@ public class MergedEvaluationPoint implements PolicyEvaluationPoint {
         }
     }
 
-    private Policy policyResolve(List<Policy> policyList) throws PolicyEvaluationException, PolicyManagementException {
+    Policy policyResolve(List<Policy> policyList) {
         Collections.sort(policyList, Collections.reverseOrder());
 
         // Iterate through all policies
@@ -130,6 +157,13 @@ public class MergedEvaluationPoint implements PolicyEvaluationPoint {
         return effectivePolicy;
     }
 
+    /**
+     * Returns the cache of merged profile features, which exposes the hit and miss counts of the evaluations.
+     */
+    public static MergedPolicyCache getMergedPolicyCache() {
+        return mergedPolicyCache;
+    }
+
     private PolicyManagerService getPolicyManagerService() {
         return PolicyDecisionPointDataHolder.getInstance().getPolicyManagerService();
     }
@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.policy.decision.point.merged;
+
+import org.wso2.carbon.device.mgt.common.policy.mgt.Policy;
+import org.wso2.carbon.device.mgt.common.policy.mgt.ProfileFeature;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded, least recently used cache of merged profile features. Entries are keyed by the tenant and the ids of the
+ * policies which were merged, and the whole cache is dropped as soon as a different policy cache version is seen.
+ * As the version only tracks the policy changes made on this node, every entry also expires after a fixed time, which
+ * bounds how long a policy change made on another node of the cluster goes unnoticed. The features are copied in and
+ * out of the cache, so that callers which modify the returned features do not alter the cached ones.
+ */
+public class MergedPolicyCache {
+
+    private final int maxEntries;
+    private final long expiry;
+    private final Map<String, CacheEntry> entries;
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private long version = -1;
+
+    /**
+     * @param maxEntries Maximum number of merged feature lists kept in the cache
+     * @param expiry     Time in milliseconds for which a merged feature list is served after it is added
+     */
+    public MergedPolicyCache(final int maxEntries, long expiry) {
+        this.maxEntries = maxEntries;
+        this.expiry = expiry;
+        this.entries = new LinkedHashMap<String, CacheEntry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest) {
+                return size() > MergedPolicyCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Builds the cache key of a set of matching policies. The key does not depend on the order of the policies.
+     */
+    public static String getKey(int tenantId, List<Policy> policies) {
+        int[] policyIds = new int[policies.size()];
+        for (int i = 0; i < policyIds.length; i++) {
+            policyIds[i] = policies.get(i).getId();
+        }
+        Arrays.sort(policyIds);
+        StringBuilder key = new StringBuilder().append(tenantId);
+        for (int policyId : policyIds) {
+            key.append(':').append(policyId);
+        }
+        return key.toString();
+    }
+
+    /**
+     * Returns a copy of the merged features cached against the key, or null if there is no such entry, if it has
+     * expired or if the policies have changed since it was added.
+     */
+    public synchronized List<ProfileFeature> get(String key, long policyVersion) {
+        invalidateIfStale(policyVersion);
+        CacheEntry entry = entries.get(key);
+        if (entry == null) {
+            missCount.incrementAndGet();
+            return null;
+        }
+        if (entry.expiryTime <= System.currentTimeMillis()) {
+            entries.remove(key);
+            missCount.incrementAndGet();
+            return null;
+        }
+        hitCount.incrementAndGet();
+        return copy(entry.features);
+    }
+
+    public synchronized void put(String key, long policyVersion, List<ProfileFeature> features) {
+        invalidateIfStale(policyVersion);
+        if (policyVersion == version) {
+            entries.put(key, new CacheEntry(copy(features), System.currentTimeMillis() + expiry));
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public double getHitRate() {
+        long hits = hitCount.get();
+        long total = hits + missCount.get();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    private void invalidateIfStale(long policyVersion) {
+        if (policyVersion > version) {
+            entries.clear();
+            version = policyVersion;
+        }
+    }
+
+    private static List<ProfileFeature> copy(List<ProfileFeature> features) {
+        List<ProfileFeature> copies = new ArrayList<>(features.size());
+        for (ProfileFeature feature : features) {
+            ProfileFeature copy = new ProfileFeature();
+            copy.setId(feature.getId());
+            copy.setFeatureCode(feature.getFeatureCode());
+            copy.setProfileId(feature.getProfileId());
+            copy.setDeviceType(feature.getDeviceType());
+            copy.setContent(copyContent(feature.getContent()));
+            copies.add(copy);
+        }
+        return copies;
+    }
+
+    /**
+     * Feature contents are usually JSON strings, which are immutable and hence shared. Any other content is copied
+     * through serialization, as it is read from the database.
+     */
+    private static Object copyContent(Object content) {
+        if (content == null || content instanceof String) {
+            return content;
+        }
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream outputStream = new ObjectOutputStream(bytes)) {
+                outputStream.writeObject(content);
+            }
+            try (ObjectInputStream inputStream = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+                return inputStream.readObject();
+            }
+        } catch (IOException | ClassNotFoundException e) {
+            throw new IllegalStateException("Unable to copy the content of a profile feature", e);
+        }
+    }
+
+    private static class CacheEntry {
+
+        private final List<ProfileFeature> features;
+        private final long expiryTime;
+
+        CacheEntry(List<ProfileFeature> features, long expiryTime) {
+            this.features = features;
+            this.expiryTime = expiryTime;
+        }
+    }
+
+}
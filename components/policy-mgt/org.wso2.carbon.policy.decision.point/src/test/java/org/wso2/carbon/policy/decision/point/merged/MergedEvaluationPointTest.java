@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.policy.decision.point.merged;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.carbon.device.mgt.common.policy.mgt.Policy;
+import org.wso2.carbon.device.mgt.common.policy.mgt.Profile;
+import org.wso2.carbon.device.mgt.common.policy.mgt.ProfileFeature;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class MergedEvaluationPointTest {
+
+    private static final int TENANT_ID = -1234;
+    private static final long CACHE_EXPIRY = 60 * 1000L;
+
+    @Test(description = "Merged features served from the cache should match the uncached merge.")
+    public void testCachedMergeMatchesUncachedMerge() {
+        MergedEvaluationPoint evaluationPoint = new MergedEvaluationPoint();
+        MergedPolicyCache cache = new MergedPolicyCache(10, CACHE_EXPIRY);
+
+        List<Policy> policies = new ArrayList<>();
+        policies.add(createPolicy(1, 2, "CAMERA", "WIFI"));
+        policies.add(createPolicy(2, 1, "CAMERA", "PASSCODE"));
+        policies.add(createPolicy(3, 3, "WIFI", "ENCRYPT"));
+
+        List<ProfileFeature> uncached = evaluationPoint.policyResolve(new ArrayList<>(policies)).getProfile()
+                .getProfileFeaturesList();
+        String key = MergedPolicyCache.getKey(TENANT_ID, policies);
+        Assert.assertNull(cache.get(key, 1));
+        cache.put(key, 1, uncached);
+
+        List<Policy> reordered = Arrays.asList(policies.get(2), policies.get(0), policies.get(1));
+        List<ProfileFeature> cached = cache.get(MergedPolicyCache.getKey(TENANT_ID, reordered), 1);
+        Assert.assertNotNull(cached, "Merged features were not served from the cache.");
+        Assert.assertEquals(toContentMap(cached), toContentMap(uncached));
+        Assert.assertEquals(toContentMap(cached).get("CAMERA"), "policy-2",
+                "Feature of the highest priority policy was not retained.");
+        Assert.assertEquals(cache.getHitCount(), 1);
+        Assert.assertEquals(cache.getMissCount(), 1);
+        Assert.assertEquals(cache.getHitRate(), 0.5d);
+    }
+
+    @Test(description = "Entries added before a policy change should not be served afterwards.")
+    public void testInvalidationOnPolicyVersionChange() {
+        MergedPolicyCache cache = new MergedPolicyCache(10, CACHE_EXPIRY);
+        List<Policy> policies = Arrays.asList(createPolicy(1, 1, "CAMERA"));
+        String key = MergedPolicyCache.getKey(TENANT_ID, policies);
+        cache.put(key, 1, policies.get(0).getProfile().getProfileFeaturesList());
+        Assert.assertNotNull(cache.get(key, 1));
+        Assert.assertNull(cache.get(key, 2), "Stale merged features were served after a policy change.");
+
+        cache.put(key, 1, policies.get(0).getProfile().getProfileFeaturesList());
+        Assert.assertNull(cache.get(key, 2), "Merge of an older policy version was added to the cache.");
+    }
+
+    @Test(description = "Cache should not grow beyond the configured number of entries.")
+    public void testBoundedSize() {
+        MergedPolicyCache cache = new MergedPolicyCache(2, CACHE_EXPIRY);
+        for (int i = 1; i <= 5; i++) {
+            List<Policy> policies = Arrays.asList(createPolicy(i, i, "CAMERA"));
+            cache.put(MergedPolicyCache.getKey(TENANT_ID, policies), 1,
+                    policies.get(0).getProfile().getProfileFeaturesList());
+        }
+        Assert.assertEquals(cache.size(), 2);
+        Assert.assertNotNull(cache.get(MergedPolicyCache.getKey(TENANT_ID,
+                Arrays.asList(createPolicy(5, 5, "CAMERA"))), 1));
+        Assert.assertNull(cache.get(MergedPolicyCache.getKey(TENANT_ID,
+                Arrays.asList(createPolicy(1, 1, "CAMERA"))), 1));
+    }
+
+    @Test(description = "Entries should not be served once they have expired, as changes on other nodes are not seen.")
+    public void testExpiry() throws InterruptedException {
+        MergedPolicyCache cache = new MergedPolicyCache(10, 100);
+        List<Policy> policies = Arrays.asList(createPolicy(1, 1, "CAMERA"));
+        String key = MergedPolicyCache.getKey(TENANT_ID, policies);
+        cache.put(key, 1, policies.get(0).getProfile().getProfileFeaturesList());
+        Assert.assertNotNull(cache.get(key, 1));
+        Thread.sleep(200);
+        Assert.assertNull(cache.get(key, 1), "Merged features were served after they expired.");
+        Assert.assertEquals(cache.size(), 0);
+    }
+
+    @Test(description = "Modifying the features given to or served by the cache should not alter the cached entry.")
+    public void testCachedFeaturesAreCopied() {
+        MergedPolicyCache cache = new MergedPolicyCache(10, CACHE_EXPIRY);
+        List<Policy> policies = Arrays.asList(createPolicy(1, 1, "CAMERA"));
+        String key = MergedPolicyCache.getKey(TENANT_ID, policies);
+        List<ProfileFeature> features = policies.get(0).getProfile().getProfileFeaturesList();
+        cache.put(key, 1, features);
+        features.get(0).setContent("modified");
+        cache.get(key, 1).get(0).setContent("modified");
+        Assert.assertEquals(cache.get(key, 1).get(0).getContent(), "policy-1",
+                "Cached feature was modified through a shared reference.");
+    }
+
+    private Policy createPolicy(int id, int priority, String... featureCodes) {
+        List<ProfileFeature> features = new ArrayList<>();
+        for (String featureCode : featureCodes) {
+            ProfileFeature feature = new ProfileFeature();
+            feature.setFeatureCode(featureCode);
+            feature.setContent("policy-" + id);
+            features.add(feature);
+        }
+        Profile profile = new Profile();
+        profile.setProfileFeaturesList(features);
+        Policy policy = new Policy();
+        policy.setId(id);
+        policy.setPriorityId(priority);
+        policy.setProfile(profile);
+        return policy;
+    }
+
+    private Map<String, Object> toContentMap(List<ProfileFeature> features) {
+        Map<String, Object> contents = new HashMap<>();
+        for (ProfileFeature feature : features) {
+            contents.put(feature.getFeatureCode(), feature.getContent());
+        }
+        return contents;
+    }
+
+}
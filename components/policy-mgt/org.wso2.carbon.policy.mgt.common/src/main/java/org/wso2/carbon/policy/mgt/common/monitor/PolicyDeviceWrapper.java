@@ -21,10 +21,19 @@ package org.wso2.carbon.policy.mgt.common.monitor;
 
 public class PolicyDeviceWrapper {
 
+    private int id;
     private int policyId;
     private int deviceId;
     private int enrolmentId;
 
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
     public int getPolicyId() {
         return policyId;
     }
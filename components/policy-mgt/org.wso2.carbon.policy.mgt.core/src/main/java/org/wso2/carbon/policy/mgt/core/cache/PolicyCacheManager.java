@@ -113,4 +113,11 @@ public interface PolicyCacheManager {
      * @return - Id of the policy.
      */
     int getPolicyIdOfDevice(int deviceId);
+
+    /**
+     * This method will return a number which changes whenever the policies in the cache are modified on this node.
+     * Caches derived from the cached policies can compare it to find out that they are stale.
+     * @return - version of the cached policies.
+     */
+    long getVersion();
 }
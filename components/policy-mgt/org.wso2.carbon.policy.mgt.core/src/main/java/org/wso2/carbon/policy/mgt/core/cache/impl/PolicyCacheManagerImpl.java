@@ -32,12 +32,14 @@ import org.wso2.carbon.policy.mgt.core.util.PolicyManagerUtil;
 import javax.cache.Cache;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class PolicyCacheManagerImpl implements PolicyCacheManager {
 
     private static final Log log = LogFactory.getLog(PolicyCacheManagerImpl.class);
 
     private static PolicyCacheManagerImpl policyCacheManager;
+    private static final AtomicLong version = new AtomicLong();
 
     private static Cache<Integer, List<Policy>> getPolicyListCache() {
         return PolicyManagerUtil.getPolicyListCache(PolicyManagementConstants.DM_CACHE_LIST);
@@ -59,6 +61,7 @@ public class PolicyCacheManagerImpl implements PolicyCacheManager {
 
     @Override
     public void addAllPolicies(List<Policy> policies) {
+        version.incrementAndGet();
 
         Cache<Integer, List<Policy>> lCache = getPolicyListCache();
         lCache.put(1, policies);
@@ -66,6 +69,7 @@ public class PolicyCacheManagerImpl implements PolicyCacheManager {
 
     @Override
     public void updateAllPolicies(List<Policy> policies) {
+        version.incrementAndGet();
 
         Cache<Integer, List<Policy>> lCache = getPolicyListCache();
         lCache.removeAll();
@@ -110,6 +114,7 @@ public class PolicyCacheManagerImpl implements PolicyCacheManager {
 
     @Override
     public void removeAllPolicies() {
+        version.incrementAndGet();
 
         Cache<Integer, List<Policy>> lCache = getPolicyListCache();
         lCache.removeAll();
@@ -117,6 +122,7 @@ public class PolicyCacheManagerImpl implements PolicyCacheManager {
 
     @Override
     public void addPolicy(Policy policy) {
+        version.incrementAndGet();
 
         Cache<Integer, List<Policy>> lCache = getPolicyListCache();
         if (lCache.containsKey(1)) {
@@ -134,6 +140,7 @@ public class PolicyCacheManagerImpl implements PolicyCacheManager {
 
     @Override
     public void updatePolicy(Policy policy) {
+        version.incrementAndGet();
 
         Cache<Integer, List<Policy>> lCache = getPolicyListCache();
         if (lCache.containsKey(1)) {
@@ -166,6 +173,7 @@ public class PolicyCacheManagerImpl implements PolicyCacheManager {
 
     @Override
     public void removePolicy(int policyId) {
+        version.incrementAndGet();
 
         Cache<Integer, List<Policy>> lCache = getPolicyListCache();
         if (lCache.containsKey(1)) {
@@ -203,6 +211,11 @@ public class PolicyCacheManagerImpl implements PolicyCacheManager {
         return policy;
     }
 
+    @Override
+    public long getVersion() {
+        return version.get();
+    }
+
     @Override
     public void addPolicyToDevice(int deviceId, int policyId) {
 
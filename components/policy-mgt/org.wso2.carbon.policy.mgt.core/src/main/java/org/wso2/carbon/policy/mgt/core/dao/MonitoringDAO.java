@@ -55,6 +55,14 @@ public interface MonitoringDAO {
 
     List<NonComplianceData> getCompliance() throws MonitoringDAOException;
 
+    /**
+     * This is getting a page of the compliance data of the tenant, ordered by the compliance record id.
+     * @param lastId Id of the last compliance record of the previous page, 0 for the first page
+     * @param limit Maximum number of compliance records to be returned
+     * @throws MonitoringDAOException
+     */
+    List<NonComplianceData> getCompliancePage(int lastId, int limit) throws MonitoringDAOException;
+
     List<ComplianceFeature> getNoneComplianceFeatures(int policyComplianceStatusId) throws MonitoringDAOException;
 
     void deleteNoneComplianceData(int policyComplianceStatusId) throws MonitoringDAOException;
@@ -23,6 +23,7 @@ import org.wso2.carbon.policy.mgt.common.Criterion;
 import org.wso2.carbon.device.mgt.common.policy.mgt.DeviceGroupWrapper;
 import org.wso2.carbon.device.mgt.common.policy.mgt.Policy;
 import org.wso2.carbon.device.mgt.common.policy.mgt.PolicyCriterion;
+import org.wso2.carbon.policy.mgt.common.monitor.PolicyDeviceWrapper;
 
 import java.util.HashMap;
 import java.util.List;
@@ -149,5 +150,15 @@ public interface PolicyDAO {
 
     HashMap<Integer, Integer> getAppliedPolicyIds() throws PolicyManagerDAOException;
 
+    /**
+     * This method returns a page of the policies applied to the devices of the tenant, ordered by the record id.
+     *
+     * @param lastId Id of the last applied policy record of the previous page, 0 for the first page.
+     * @param limit Maximum number of records to be returned.
+     * @return list of device, enrolment and applied policy id wrappers.
+     * @throws PolicyManagerDAOException
+     */
+    List<PolicyDeviceWrapper> getAppliedPolicyIdsPage(int lastId, int limit) throws PolicyManagerDAOException;
+
     HashMap<Integer, Integer> getAppliedPolicyIdsDeviceIds() throws PolicyManagerDAOException;
 }
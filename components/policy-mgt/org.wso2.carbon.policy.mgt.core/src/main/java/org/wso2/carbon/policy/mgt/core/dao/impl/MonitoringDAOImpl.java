@@ -347,6 +347,45 @@ public class MonitoringDAOImpl implements MonitoringDAO {
         }
     }
 
+    @Override
+    public List<NonComplianceData> getCompliancePage(int lastId, int limit) throws MonitoringDAOException {
+        Connection conn;
+        PreparedStatement stmt = null;
+        ResultSet resultSet = null;
+        List<NonComplianceData> complianceDataList = new ArrayList<>();
+        int tenantId = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId();
+        try {
+            conn = this.getConnection();
+            String query = "SELECT * FROM DM_POLICY_COMPLIANCE_STATUS WHERE TENANT_ID = ? AND ID > ? ORDER BY ID";
+            stmt = conn.prepareStatement(query);
+            stmt.setMaxRows(limit);
+            stmt.setFetchSize(limit);
+            stmt.setInt(1, tenantId);
+            stmt.setInt(2, lastId);
+
+            resultSet = stmt.executeQuery();
+            while (resultSet.next()) {
+                NonComplianceData complianceData = new NonComplianceData();
+                complianceData.setId(resultSet.getInt("ID"));
+                complianceData.setDeviceId(resultSet.getInt("DEVICE_ID"));
+                complianceData.setEnrolmentId(resultSet.getInt("ENROLMENT_ID"));
+                complianceData.setPolicyId(resultSet.getInt("POLICY_ID"));
+                complianceData.setStatus(resultSet.getBoolean("STATUS"));
+                complianceData.setAttempts(resultSet.getInt("ATTEMPTS"));
+                complianceData.setLastRequestedTime(resultSet.getTimestamp("LAST_REQUESTED_TIME"));
+                complianceData.setLastSucceededTime(resultSet.getTimestamp("LAST_SUCCESS_TIME"));
+                complianceData.setLastFailedTime(resultSet.getTimestamp("LAST_FAILED_TIME"));
+
+                complianceDataList.add(complianceData);
+            }
+            return complianceDataList;
+        } catch (SQLException e) {
+            throw new MonitoringDAOException("Unable to retrieve compliance data from database.", e);
+        } finally {
+            PolicyManagementDAOUtil.cleanupResources(stmt, resultSet);
+        }
+    }
+
     @Override
     public List<ComplianceFeature> getNoneComplianceFeatures(int policyComplianceStatusId) throws
             MonitoringDAOException {
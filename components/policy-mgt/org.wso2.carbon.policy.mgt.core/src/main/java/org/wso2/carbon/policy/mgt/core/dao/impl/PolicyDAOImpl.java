@@ -26,6 +26,7 @@ import org.wso2.carbon.policy.mgt.common.Criterion;
 import org.wso2.carbon.device.mgt.common.policy.mgt.DeviceGroupWrapper;
 import org.wso2.carbon.device.mgt.common.policy.mgt.Policy;
 import org.wso2.carbon.device.mgt.common.policy.mgt.PolicyCriterion;
+import org.wso2.carbon.policy.mgt.common.monitor.PolicyDeviceWrapper;
 import org.wso2.carbon.policy.mgt.core.dao.PolicyDAO;
 import org.wso2.carbon.policy.mgt.core.dao.PolicyManagementDAOFactory;
 import org.wso2.carbon.policy.mgt.core.dao.PolicyManagerDAOException;
@@ -1677,6 +1678,40 @@ public class PolicyDAOImpl implements PolicyDAO {
         return devicePolicyIds;
     }
 
+    @Override
+    public List<PolicyDeviceWrapper> getAppliedPolicyIdsPage(int lastId, int limit) throws PolicyManagerDAOException {
+        Connection conn;
+        PreparedStatement stmt = null;
+        ResultSet resultSet = null;
+        List<PolicyDeviceWrapper> appliedPolicies = new ArrayList<>();
+        int tenantId = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId();
+        try {
+            conn = this.getConnection();
+            String query = "SELECT ID, DEVICE_ID, ENROLMENT_ID, POLICY_ID FROM DM_DEVICE_POLICY_APPLIED " +
+                    "WHERE TENANT_ID = ? AND ID > ? ORDER BY ID";
+            stmt = conn.prepareStatement(query);
+            stmt.setMaxRows(limit);
+            stmt.setFetchSize(limit);
+            stmt.setInt(1, tenantId);
+            stmt.setInt(2, lastId);
+            resultSet = stmt.executeQuery();
+
+            while (resultSet.next()) {
+                PolicyDeviceWrapper wrapper = new PolicyDeviceWrapper();
+                wrapper.setId(resultSet.getInt("ID"));
+                wrapper.setDeviceId(resultSet.getInt("DEVICE_ID"));
+                wrapper.setEnrolmentId(resultSet.getInt("ENROLMENT_ID"));
+                wrapper.setPolicyId(resultSet.getInt("POLICY_ID"));
+                appliedPolicies.add(wrapper);
+            }
+        } catch (SQLException e) {
+            throw new PolicyManagerDAOException("Error occurred while getting the applied policies", e);
+        } finally {
+            PolicyManagementDAOUtil.cleanupResources(stmt, resultSet);
+        }
+        return appliedPolicies;
+    }
+
     @Override
     public HashMap<Integer, Integer> getAppliedPolicyIdsDeviceIds() throws PolicyManagerDAOException {
 
@@ -28,6 +28,7 @@ import org.wso2.carbon.device.mgt.common.operation.mgt.OperationManagementExcept
 import org.wso2.carbon.device.mgt.core.operation.mgt.CommandOperation;
 import org.wso2.carbon.device.mgt.core.operation.mgt.OperationMgtConstants;
 import org.wso2.carbon.device.mgt.common.policy.mgt.Policy;
+import org.wso2.carbon.device.mgt.common.policy.mgt.ProfileFeature;
 import org.wso2.carbon.policy.mgt.common.PolicyAdministratorPoint;
 import org.wso2.carbon.policy.mgt.common.PolicyEvaluationException;
 import org.wso2.carbon.policy.mgt.common.PolicyManagementException;
@@ -37,14 +38,19 @@ import org.wso2.carbon.policy.mgt.core.internal.PolicyManagementDataHolder;
 import org.wso2.carbon.policy.mgt.core.util.PolicyManagerUtil;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 public class PolicyEnforcementDelegatorImpl implements PolicyEnforcementDelegator{
 
     private static final Log log = LogFactory.getLog(PolicyEnforcementDelegatorImpl.class);
+    private static final int MERGED_POLICY_ID = -1;
 
     private List<Device> devices;
     private List<Integer> updatedPolicyIds;
+    private PolicyManagerService policyManagerService;
 
     public PolicyEnforcementDelegatorImpl(List<Device> devices, List<Integer> updatedPolicyIds) {
 
@@ -58,11 +64,20 @@ public class PolicyEnforcementDelegatorImpl implements PolicyEnforcementDelegato
         }
         this.devices = devices;
         this.updatedPolicyIds = updatedPolicyIds;
-
+        this.policyManagerService = new PolicyManagerServiceImpl();
     }
 
     @Override
     public void delegate() throws PolicyDelegationException {
+        /*
+        Devices are grouped by device type and then by the effective policy, so that each distinct policy operation
+        is created once and added to all of its devices with a single addOperation call. Merged policies do not have
+        an id of their own, hence they are grouped by their features instead.
+         */
+        Map<String, List<DeviceIdentifier>> revokeDevices = new LinkedHashMap<>();
+        Map<String, Map<String, List<DeviceIdentifier>>> policyDevices = new LinkedHashMap<>();
+        Map<String, Policy> effectivePolicies = new HashMap<>();
+
         for (Device device : devices) {
             DeviceIdentifier identifier = new DeviceIdentifier();
             identifier.setId(device.getDeviceIdentifier());
@@ -70,8 +85,6 @@ public class PolicyEnforcementDelegatorImpl implements PolicyEnforcementDelegato
 
             Policy devicePolicy = this.getAppliedPolicyToDevice(identifier);
             Policy policy = this.getEffectivePolicy(identifier);
-            List<DeviceIdentifier> deviceIdentifiers = new ArrayList<>();
-            deviceIdentifiers.add(identifier);
             if (policy != null) {
                  /*
                 We add policy operation for the device if,
@@ -81,20 +94,63 @@ public class PolicyEnforcementDelegatorImpl implements PolicyEnforcementDelegato
                  */
                 if (devicePolicy == null || devicePolicy.getId() != policy.getId() || updatedPolicyIds.contains
                         (policy.getId())) {
-                    this.addPolicyRevokeOperation(deviceIdentifiers);
-                    this.addPolicyOperation(deviceIdentifiers, policy);
+                    this.getDeviceList(revokeDevices, identifier.getType()).add(identifier);
+                    Map<String, List<DeviceIdentifier>> typePolicyDevices = policyDevices.get(identifier.getType());
+                    if (typePolicyDevices == null) {
+                        typePolicyDevices = new LinkedHashMap<>();
+                        policyDevices.put(identifier.getType(), typePolicyDevices);
+                    }
+                    String policyKey = this.getPolicyKey(policy);
+                    this.getDeviceList(typePolicyDevices, policyKey).add(identifier);
+                    if (!effectivePolicies.containsKey(policyKey)) {
+                        effectivePolicies.put(policyKey, policy);
+                    }
                 }
             } else {
                 //This means all the applicable policies have been removed from device. Hence calling a policy revoke.
-                this.addPolicyRevokeOperation(deviceIdentifiers);
+                this.getDeviceList(revokeDevices, identifier.getType()).add(identifier);
+            }
+        }
+
+        for (List<DeviceIdentifier> deviceIdentifiers : revokeDevices.values()) {
+            this.addPolicyRevokeOperation(deviceIdentifiers);
+        }
+        for (Map<String, List<DeviceIdentifier>> typePolicyDevices : policyDevices.values()) {
+            for (Map.Entry<String, List<DeviceIdentifier>> entry : typePolicyDevices.entrySet()) {
+                this.addPolicyOperation(entry.getValue(), effectivePolicies.get(entry.getKey()));
+            }
+        }
+    }
+
+    /**
+     * Provides the key which groups the devices getting the same policy operation. Merged policies all carry the id
+     * {@value #MERGED_POLICY_ID}, hence they are keyed by the features which end up in the operation.
+     */
+    private String getPolicyKey(Policy policy) {
+        if (policy.getId() != MERGED_POLICY_ID) {
+            return String.valueOf(policy.getId());
+        }
+        StringBuilder policyKey = new StringBuilder(String.valueOf(MERGED_POLICY_ID));
+        if (policy.getProfile() != null && policy.getProfile().getProfileFeaturesList() != null) {
+            for (ProfileFeature feature : policy.getProfile().getProfileFeaturesList()) {
+                policyKey.append('\n').append(feature.getFeatureCode()).append('=').append(feature.getContent());
             }
         }
+        return policyKey.toString();
+    }
+
+    private <K> List<DeviceIdentifier> getDeviceList(Map<K, List<DeviceIdentifier>> deviceLists, K key) {
+        List<DeviceIdentifier> deviceIdentifiers = deviceLists.get(key);
+        if (deviceIdentifiers == null) {
+            deviceIdentifiers = new ArrayList<>();
+            deviceLists.put(key, deviceIdentifiers);
+        }
+        return deviceIdentifiers;
     }
 
     @Override
     public Policy getEffectivePolicy(DeviceIdentifier identifier) throws PolicyDelegationException {
         try {
-            PolicyManagerService policyManagerService = new PolicyManagerServiceImpl();
             PolicyAdministratorPoint policyAdministratorPoint;
 
             Policy policy = policyManagerService.getPEP().getEffectivePolicy(identifier);
@@ -176,7 +232,6 @@ public class PolicyEnforcementDelegatorImpl implements PolicyEnforcementDelegato
      */
     public Policy getAppliedPolicyToDevice(DeviceIdentifier identifier) throws PolicyDelegationException {
         try {
-            PolicyManagerService policyManagerService = new PolicyManagerServiceImpl();
             return policyManagerService.getAppliedPolicyToDevice(identifier);
         } catch (PolicyManagementException e) {
             String msg = "Error occurred while retrieving the applied policy for devices.";
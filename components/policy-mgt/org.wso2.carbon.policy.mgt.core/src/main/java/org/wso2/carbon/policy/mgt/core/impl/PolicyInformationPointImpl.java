@@ -32,16 +32,17 @@ import org.wso2.carbon.device.mgt.core.service.DeviceManagementProviderService;
 import org.wso2.carbon.device.mgt.common.Feature;
 import org.wso2.carbon.device.mgt.core.service.DeviceManagementProviderServiceImpl;
 import org.wso2.carbon.device.mgt.core.service.GroupManagementProviderService;
-import org.wso2.carbon.device.mgt.core.service.GroupManagementProviderServiceImpl;
 import org.wso2.carbon.policy.mgt.common.*;
 import org.wso2.carbon.policy.mgt.core.internal.PolicyManagementDataHolder;
 import org.wso2.carbon.policy.mgt.core.mgt.FeatureManager;
 import org.wso2.carbon.policy.mgt.core.mgt.PolicyManager;
 import org.wso2.carbon.policy.mgt.core.mgt.impl.FeatureManagerImpl;
 import org.wso2.carbon.policy.mgt.core.mgt.impl.PolicyManagerImpl;
+import org.wso2.carbon.policy.mgt.core.util.PolicyManagerUtil;
 import org.wso2.carbon.user.api.UserRealm;
 import org.wso2.carbon.user.api.UserStoreException;
 
+import javax.cache.Cache;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -54,10 +55,12 @@ public class PolicyInformationPointImpl implements PolicyInformationPoint {
     PolicyManager policyManager;
     FeatureManager featureManager;
     DeviceManagementProviderService deviceManagementService;
+    GroupManagementProviderService groupManagementService;
 
     public PolicyInformationPointImpl() {
         deviceManagementService =
                 PolicyManagementDataHolder.getInstance().getDeviceManagementService();
+        groupManagementService = PolicyManagementDataHolder.getInstance().getGroupManagementService();
         policyManager = new PolicyManagerImpl();
         featureManager = new FeatureManagerImpl();
     }
@@ -68,8 +71,6 @@ public class PolicyInformationPointImpl implements PolicyInformationPoint {
         Device device;
         DeviceType deviceType = new DeviceType();
         deviceType.setName(deviceIdentifier.getType());
-        DeviceManagementProviderService deviceManagementService = new DeviceManagementProviderServiceImpl();
-        GroupManagementProviderService groupManagementProviderService = new GroupManagementProviderServiceImpl();
 
         try {
             device = deviceManagementService.getDevice(deviceIdentifier, false);
@@ -81,7 +82,7 @@ public class PolicyInformationPointImpl implements PolicyInformationPoint {
                 pipDevice.setDeviceIdentifier(deviceIdentifier);
                 pipDevice.setUserId(device.getEnrolmentInfo().getOwner());
                 pipDevice.setOwnershipType(device.getEnrolmentInfo().getOwnership().toString());
-                pipDevice.setDeviceGroups(groupManagementProviderService.getGroups(pipDevice.getDeviceIdentifier()));
+                pipDevice.setDeviceGroups(groupManagementService.getGroups(device));
 
             } else {
                 throw new PolicyManagementException("Device details cannot be null.");
@@ -154,10 +155,20 @@ public class PolicyInformationPointImpl implements PolicyInformationPoint {
     }
 
     private String[] getRoleOfDevice(Device device) throws PolicyManagementException {
+        String owner = device.getEnrolmentInfo().getOwner();
+        Cache<String, String[]> ownerRoleCache = PolicyManagerUtil.getOwnerRoleCache();
+        String[] roles = ownerRoleCache.get(owner);
+        if (roles != null) {
+            return roles;
+        }
         try {
             UserRealm userRealm = CarbonContext.getThreadLocalCarbonContext().getUserRealm();
             if (userRealm != null) {
-                return userRealm.getUserStoreManager().getRoleListOfUser(device.getEnrolmentInfo().getOwner());
+                roles = userRealm.getUserStoreManager().getRoleListOfUser(owner);
+                if (roles != null) {
+                    ownerRoleCache.put(owner, roles);
+                }
+                return roles;
             } else {
                 return null;
             }
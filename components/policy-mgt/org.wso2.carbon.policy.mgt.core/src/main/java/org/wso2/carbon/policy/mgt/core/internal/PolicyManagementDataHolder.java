@@ -21,6 +21,7 @@ package org.wso2.carbon.policy.mgt.core.internal;
 import org.wso2.carbon.device.mgt.core.config.DeviceConfigurationManager;
 import org.wso2.carbon.device.mgt.core.config.policy.PolicyConfiguration;
 import org.wso2.carbon.device.mgt.core.service.DeviceManagementProviderService;
+import org.wso2.carbon.device.mgt.core.service.GroupManagementProviderService;
 import org.wso2.carbon.ntask.core.service.TaskService;
 import org.wso2.carbon.policy.mgt.common.PolicyEvaluationPoint;
 import org.wso2.carbon.policy.mgt.common.PolicyInformationPoint;
@@ -40,6 +41,7 @@ public class PolicyManagementDataHolder {
     private Map<String, PolicyEvaluationPoint> policyEvaluationPoints = new HashMap<>();
     private PolicyInformationPoint policyInformationPoint;
     private DeviceManagementProviderService deviceManagementService;
+    private GroupManagementProviderService groupManagementService;
     private MonitoringManager monitoringManager;
     private PolicyManager policyManager;
     private TaskService taskService;
@@ -120,6 +122,14 @@ public class PolicyManagementDataHolder {
         this.deviceManagementService = deviceManagementService;
     }
 
+    public GroupManagementProviderService getGroupManagementService() {
+        return groupManagementService;
+    }
+
+    public void setGroupManagementService(GroupManagementProviderService groupManagementService) {
+        this.groupManagementService = groupManagementService;
+    }
+
     public TaskService getTaskService() {
         return taskService;
     }
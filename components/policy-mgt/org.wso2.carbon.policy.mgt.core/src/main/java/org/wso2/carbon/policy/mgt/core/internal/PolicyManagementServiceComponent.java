@@ -24,6 +24,7 @@ import org.osgi.service.component.ComponentContext;
 import org.wso2.carbon.device.mgt.core.config.DeviceConfigurationManager;
 import org.wso2.carbon.device.mgt.core.config.policy.PolicyConfiguration;
 import org.wso2.carbon.device.mgt.core.service.DeviceManagementProviderService;
+import org.wso2.carbon.device.mgt.core.service.GroupManagementProviderService;
 import org.wso2.carbon.ntask.core.service.TaskService;
 import org.wso2.carbon.policy.mgt.common.PolicyEvaluationPoint;
 import org.wso2.carbon.policy.mgt.core.PolicyManagerService;
@@ -57,6 +58,12 @@ import org.wso2.carbon.user.core.service.RealmService;
  * policy="dynamic"
  * bind="setDeviceManagementService"
  * unbind="unsetDeviceManagementService"
+ * @scr.reference name="org.wso2.carbon.device.group.manager"
+ * interface="org.wso2.carbon.device.mgt.core.service.GroupManagementProviderService"
+ * cardinality="1..1"
+ * policy="dynamic"
+ * bind="setGroupManagementService"
+ * unbind="unsetGroupManagementService"
  * @scr.reference name="ntask.component"
  * interface="org.wso2.carbon.ntask.core.service.TaskService"
  * cardinality="1..1"
@@ -176,6 +183,20 @@ public class PolicyManagementServiceComponent {
         PolicyManagementDataHolder.getInstance().setDeviceManagementService(null);
     }
 
+    protected void setGroupManagementService(GroupManagementProviderService groupManagementService) {
+        if (log.isDebugEnabled()) {
+            log.debug("Setting Group Management Service");
+        }
+        PolicyManagementDataHolder.getInstance().setGroupManagementService(groupManagementService);
+    }
+
+    protected void unsetGroupManagementService(GroupManagementProviderService groupManagementService) {
+        if (log.isDebugEnabled()) {
+            log.debug("Removing Group Management Service");
+        }
+        PolicyManagementDataHolder.getInstance().setGroupManagementService(null);
+    }
+
     protected void setTaskService(TaskService taskService) {
         if (log.isDebugEnabled()) {
             log.debug("Setting the task service.");
@@ -60,6 +60,7 @@ public class MonitoringManagerImpl implements MonitoringManager {
 
     private static final Log log = LogFactory.getLog(MonitoringManagerImpl.class);
     private static final String OPERATION_MONITOR = "MONITOR";
+    private static final int MONITORING_DATA_PAGE_SIZE = 1000;
 
 
     public MonitoringManagerImpl() {
@@ -238,33 +239,42 @@ public class MonitoringManagerImpl implements MonitoringManager {
     public void addMonitoringOperation(List<Device> devices) throws PolicyComplianceException {
 
         //int tenantId = PolicyManagerUtil.getTenantId();
-        Map<Integer, Device> deviceIds = new HashMap<>();
-        List<NonComplianceData> complianceDatas = new ArrayList<>();
-        HashMap<Integer, Integer> devicePolicyIdMap = new HashMap<>();
+        Map<Integer, Device> enrolmentDevices = new HashMap<>();
+        Map<Integer, NonComplianceData> enrolmentComplianceData = new HashMap<>();
+        Map<Integer, Integer> enrolmentPolicyIds = new HashMap<>();
+
+        for (Device device : devices) {
+            enrolmentDevices.put(device.getEnrolmentInfo().getId(), device);
+        }
 
         try {
             PolicyManagementDAOFactory.openConnection();
-            //TODO: Return a map from getCompliance to reduce O(n^2) -> O(n)
-            List<NonComplianceData> cd = monitoringDAO.getCompliance();
-
-            for (Device device : devices) {
-                deviceIds.put(device.getId(), device);
-
-                for (NonComplianceData data : cd) {
-                    if (device.getId() == data.getDeviceId() && device.getEnrolmentInfo().getId() == data
-                            .getEnrolmentId()) {
-                        complianceDatas.add(data);
+            // Compliance data and applied policies are read page by page and joined with the devices by enrolment id.
+            int lastId = 0;
+            List<NonComplianceData> compliancePage;
+            do {
+                compliancePage = monitoringDAO.getCompliancePage(lastId, MONITORING_DATA_PAGE_SIZE);
+                for (NonComplianceData data : compliancePage) {
+                    lastId = data.getId();
+                    Device device = enrolmentDevices.get(data.getEnrolmentId());
+                    if (device != null && device.getId() == data.getDeviceId()) {
+                        enrolmentComplianceData.put(data.getEnrolmentId(), data);
                     }
                 }
-            }
-            List<Integer> deviceIDs = new ArrayList<>(deviceIds.keySet());
-
-            HashMap<Integer, Integer> temp = policyDAO.getAppliedPolicyIds();
-            for (Integer id : deviceIDs) {
-                if (temp != null && !temp.isEmpty() && temp.containsKey(id)) {
-                    devicePolicyIdMap.put(id, temp.get(id));
+            } while (compliancePage.size() == MONITORING_DATA_PAGE_SIZE);
+
+            lastId = 0;
+            List<PolicyDeviceWrapper> appliedPolicyPage;
+            do {
+                appliedPolicyPage = policyDAO.getAppliedPolicyIdsPage(lastId, MONITORING_DATA_PAGE_SIZE);
+                for (PolicyDeviceWrapper wrapper : appliedPolicyPage) {
+                    lastId = wrapper.getId();
+                    Device device = enrolmentDevices.get(wrapper.getEnrolmentId());
+                    if (device != null && device.getId() == wrapper.getDeviceId()) {
+                        enrolmentPolicyIds.put(wrapper.getEnrolmentId(), wrapper.getPolicyId());
+                    }
                 }
-            }
+            } while (appliedPolicyPage.size() == MONITORING_DATA_PAGE_SIZE);
 
         } catch (SQLException e) {
             throw new PolicyComplianceException("SQL error occurred while getting monitoring details.", e);
@@ -281,36 +291,27 @@ public class MonitoringManagerImpl implements MonitoringManager {
 
         List<PolicyDeviceWrapper> firstTimeDevices = new ArrayList<>();
 
-        Map<Integer, NonComplianceData> tempMap = new HashMap<>();
-
         try {
-            if (complianceDatas != null || !complianceDatas.isEmpty()) {
-                for (NonComplianceData complianceData : complianceDatas) {
-
-                    tempMap.put(complianceData.getDeviceId(), complianceData);
-
-                    if (complianceData.getAttempts() == 0) {
-                        deviceIdsToAddOperation.put(complianceData.getDeviceId(),
-                                deviceIds.get(complianceData.getDeviceId()));
-                    } else {
-                        deviceIdsWithExistingOperation.put(complianceData.getDeviceId(),
-                                deviceIds.get(complianceData.getDeviceId()));
-                    }
+            for (NonComplianceData complianceData : enrolmentComplianceData.values()) {
+                Device device = enrolmentDevices.get(complianceData.getEnrolmentId());
+                if (complianceData.getAttempts() == 0) {
+                    deviceIdsToAddOperation.put(complianceData.getDeviceId(), device);
+                } else {
+                    deviceIdsWithExistingOperation.put(complianceData.getDeviceId(), device);
                 }
             }
 
-            for (Device device : devices) {
-                if ((!tempMap.containsKey(device.getId())) && (devicePolicyIdMap.containsKey(device.getId()))) {
+            for (Map.Entry<Integer, Integer> entry : enrolmentPolicyIds.entrySet()) {
+                if (!enrolmentComplianceData.containsKey(entry.getKey())) {
+                    Device device = enrolmentDevices.get(entry.getKey());
                     deviceIdsToAddOperation.put(device.getId(), device);
 
                     PolicyDeviceWrapper policyDeviceWrapper = new PolicyDeviceWrapper();
                     policyDeviceWrapper.setDeviceId(device.getId());
-                    policyDeviceWrapper.setEnrolmentId(device.getEnrolmentInfo().getId());
-                    policyDeviceWrapper.setPolicyId(devicePolicyIdMap.get(device.getId()));
+                    policyDeviceWrapper.setEnrolmentId(entry.getKey());
+                    policyDeviceWrapper.setPolicyId(entry.getValue());
 
                     firstTimeDevices.add(policyDeviceWrapper);
-
-                    // firstTimeDeviceIdsWithPolicyIds.put(device.getId(), devicePolicyIdMap.get(device.getId()));
                 }
             }
 
@@ -376,10 +377,6 @@ public class MonitoringManagerImpl implements MonitoringManager {
             throws PolicyComplianceException, OperationManagementException, InvalidDeviceException {
 
         List<DeviceIdentifier> deviceIdentifiers = this.getDeviceIdentifiersFromDevices(devices);
-        CommandOperation monitoringOperation = new CommandOperation();
-        monitoringOperation.setEnabled(true);
-        monitoringOperation.setType(Operation.Type.COMMAND);
-        monitoringOperation.setCode(OPERATION_MONITOR);
         //	    CommandOperation infoOperation = new CommandOperation();
         //	    infoOperation.setEnabled(true);
         //	    infoOperation.setType(Operation.Type.COMMAND);\\
@@ -389,13 +386,24 @@ public class MonitoringManagerImpl implements MonitoringManager {
         //	    appListOperation.setType(Operation.Type.COMMAND);
         //	    appListOperation.setCode(OPERATION_APP_LIST);
 
-        //TODO: Fix this properly later adding device type to be passed in when the task manage executes "addOperations()"
-        String type = null;
-        if (deviceIdentifiers.size() > 0) {
-            type = deviceIdentifiers.get(0).getType();
+        // A single monitoring operation is added for all the devices of each device type.
+        Map<String, List<DeviceIdentifier>> typeDeviceIdentifiers = new HashMap<>();
+        for (DeviceIdentifier identifier : deviceIdentifiers) {
+            List<DeviceIdentifier> identifiers = typeDeviceIdentifiers.get(identifier.getType());
+            if (identifiers == null) {
+                identifiers = new ArrayList<>();
+                typeDeviceIdentifiers.put(identifier.getType(), identifiers);
+            }
+            identifiers.add(identifier);
         }
         DeviceManagementProviderService service = PolicyManagementDataHolder.getInstance().getDeviceManagementService();
-        service.addOperation(type, monitoringOperation, deviceIdentifiers);
+        for (Map.Entry<String, List<DeviceIdentifier>> entry : typeDeviceIdentifiers.entrySet()) {
+            CommandOperation monitoringOperation = new CommandOperation();
+            monitoringOperation.setEnabled(true);
+            monitoringOperation.setType(Operation.Type.COMMAND);
+            monitoringOperation.setCode(OPERATION_MONITOR);
+            service.addOperation(entry.getKey(), monitoringOperation, entry.getValue());
+        }
         //	    service.addOperation(infoOperation, deviceIdentifiers);
         //	    service.addOperation(appListOperation, deviceIdentifiers);
     }
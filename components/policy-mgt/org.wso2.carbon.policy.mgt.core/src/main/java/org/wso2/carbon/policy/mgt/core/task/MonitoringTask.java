@@ -27,24 +27,48 @@ import org.wso2.carbon.device.mgt.common.DeviceManagementException;
 import org.wso2.carbon.device.mgt.common.EnrolmentInfo;
 import org.wso2.carbon.device.mgt.common.policy.mgt.PolicyMonitoringManager;
 import org.wso2.carbon.device.mgt.common.policy.mgt.monitor.PolicyComplianceException;
+import org.wso2.carbon.device.mgt.core.config.DeviceConfigurationManager;
+import org.wso2.carbon.device.mgt.core.config.policy.PolicyConfiguration;
 import org.wso2.carbon.device.mgt.core.service.DeviceManagementProviderService;
-import org.wso2.carbon.device.mgt.core.service.DeviceManagementProviderServiceImpl;
 import org.wso2.carbon.ntask.core.Task;
 import org.wso2.carbon.policy.mgt.core.internal.PolicyManagementDataHolder;
 import org.wso2.carbon.policy.mgt.core.mgt.MonitoringManager;
 import org.wso2.carbon.user.api.UserStoreException;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class MonitoringTask implements Task {
 
     private static Log log = LogFactory.getLog(MonitoringTask.class);
 
+    private static final int DEFAULT_THREAD_POOL_SIZE = 5;
+    private static final int DEFAULT_THREADS_PER_TENANT = 2;
+    private static final int DEFAULT_DEVICE_PAGE_SIZE = 1000;
+
+    /**
+     * Devices in any other enrolment status are not sent monitoring operations.
+     */
+    private static final List<EnrolmentInfo.Status> MONITORABLE_STATUSES = Arrays.asList(
+            EnrolmentInfo.Status.CREATED, EnrolmentInfo.Status.ACTIVE, EnrolmentInfo.Status.INACTIVE,
+            EnrolmentInfo.Status.UNREACHABLE);
+
     Map<String, String> properties;
     private boolean executeForTenants = false;
     private final String IS_CLOUD = "is.cloud";
+    private int threadsPerTenant = DEFAULT_THREADS_PER_TENANT;
+    private int devicePageSize = DEFAULT_DEVICE_PAGE_SIZE;
+    private long monitoringFrequency;
 
 
     @Override
@@ -65,10 +89,44 @@ public class MonitoringTask implements Task {
         if(System.getProperty(IS_CLOUD) != null && Boolean.parseBoolean(System.getProperty(IS_CLOUD))){
             executeForTenants = true;
         }
-        if(executeForTenants) {
-            this.executeforAllTenants();
-        } else {
-            this.executeTask();
+        int threadPoolSize = DEFAULT_THREAD_POOL_SIZE;
+        PolicyConfiguration policyConfiguration = DeviceConfigurationManager.getInstance().
+                getDeviceManagementConfig().getPolicyConfiguration();
+        if (policyConfiguration != null) {
+            if (policyConfiguration.getMonitoringThreadPoolSize() > 0) {
+                threadPoolSize = policyConfiguration.getMonitoringThreadPoolSize();
+            }
+            if (policyConfiguration.getMonitoringThreadsPerTenant() > 0) {
+                threadsPerTenant = policyConfiguration.getMonitoringThreadsPerTenant();
+            }
+            if (policyConfiguration.getMonitoringDevicePageSize() > 0) {
+                devicePageSize = policyConfiguration.getMonitoringDevicePageSize();
+            }
+            monitoringFrequency = policyConfiguration.getMonitoringFrequency();
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threadPoolSize, new MonitoringThreadFactory());
+        try {
+            List<Future<?>> futures;
+            if(executeForTenants) {
+                futures = this.executeforAllTenants(executor);
+            } else {
+                PrivilegedCarbonContext carbonContext = PrivilegedCarbonContext.getThreadLocalCarbonContext();
+                futures = this.executeTask(carbonContext.getTenantId(), carbonContext.getTenantDomain(), executor);
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            if (log.isDebugEnabled()) {
+                log.debug("Monitoring task running completed.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("Monitoring task was interrupted while waiting for the device types to be monitored.", e);
+        } catch (ExecutionException e) {
+            log.error("Error occurred while trying to run a task.", e);
+        } finally {
+            executor.shutdown();
         }
     }
 
@@ -89,13 +147,15 @@ public class MonitoringTask implements Task {
         return false;
     }
 
-    private void executeforAllTenants() {
+    private List<Future<?>> executeforAllTenants(ExecutorService executor) {
 
         if (log.isDebugEnabled()) {
             log.debug("Monitoring task started to run for all tenants.");
         }
+        List<Future<?>> futures = new ArrayList<>();
         try {
-            DeviceManagementProviderService deviceManagementService = new DeviceManagementProviderServiceImpl();
+            DeviceManagementProviderService deviceManagementService =
+                    PolicyManagementDataHolder.getInstance().getDeviceManagementService();
             List<Integer> tenants = deviceManagementService.getDeviceEnrolledTenants();
             for (Integer tenant : tenants) {
                 String tenantDomain = PolicyManagementDataHolder.getInstance().
@@ -104,7 +164,7 @@ public class MonitoringTask implements Task {
                     PrivilegedCarbonContext.startTenantFlow();
                     PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantDomain(tenantDomain);
                     PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantId(tenant);
-                    this.executeTask();
+                    futures.addAll(this.executeTask(tenant, tenantDomain, executor));
                 } finally {
                     PrivilegedCarbonContext.endTenantFlow();
                 }
@@ -114,13 +174,21 @@ public class MonitoringTask implements Task {
         } catch (DeviceManagementException e) {
             log.error("Error occurred while trying to get the available tenants from device manager service ", e);
         }
+        return futures;
     }
 
-    private void executeTask(){
+    /**
+     * Schedules the monitoring of the device types of the current tenant. At most the configured number of device
+     * types of a tenant are processed at once, so that a single large tenant does not hold all the worker threads.
+     *
+     * @return futures of the workers scheduled for the tenant.
+     */
+    private List<Future<?>> executeTask(int tenantId, String tenantDomain, ExecutorService executor) {
 
         MonitoringManager monitoringManager = PolicyManagementDataHolder.getInstance().getMonitoringManager();
         List<String> deviceTypes = new ArrayList<>();
         List<String> configDeviceTypes = new ArrayList<>();
+        List<Future<?>> futures = new ArrayList<>();
         try {
             deviceTypes = monitoringManager.getDeviceTypes();
             for (String deviceType : deviceTypes) {
@@ -132,55 +200,143 @@ public class MonitoringTask implements Task {
             log.error("Error occurred while getting the device types.");
         }
         if (!deviceTypes.isEmpty()) {
-            try {
-                DeviceManagementProviderService deviceManagementProviderService =
-                        PolicyManagementDataHolder.getInstance().getDeviceManagementService();
-                for (String deviceType : configDeviceTypes) {
-                    if (log.isDebugEnabled()) {
-                        log.debug("Running task for device type : " + deviceType);
-                    }
-                    PolicyMonitoringManager monitoringService =
-                            PolicyManagementDataHolder.getInstance().getDeviceManagementService()
-                                    .getPolicyMonitoringManager(deviceType);
-                    List<Device> devices = deviceManagementProviderService.getAllDevices(deviceType, false);
-                    if (monitoringService != null && !devices.isEmpty()) {
-                        List<Device> notifiableDevices = new ArrayList<>();
-                        if (log.isDebugEnabled()) {
-                            log.debug("Removing inactive and blocked devices from the list for the device type : " +
-                                    deviceType);
-                        }
-                        for (Device device : devices) {
-
-                            EnrolmentInfo.Status status = device.getEnrolmentInfo().getStatus();
-                            if (status.equals(EnrolmentInfo.Status.BLOCKED) ||
-                                    status.equals(EnrolmentInfo.Status.REMOVED) ||
-                                    status.equals(EnrolmentInfo.Status.UNCLAIMED) ||
-                                    status.equals(EnrolmentInfo.Status.DISENROLLMENT_REQUESTED) ||
-                                    status.equals(EnrolmentInfo.Status.SUSPENDED)) {
-                                continue;
-                            } else {
-                                notifiableDevices.add(device);
-                            }
-                        }
-                        if (log.isDebugEnabled()) {
-                            log.debug("Following devices selected to send the notification for " + deviceType);
-                            for (Device device : notifiableDevices) {
-                                log.debug(device.getDeviceIdentifier());
-                            }
-                        }
-                        if (!notifiableDevices.isEmpty()) {
-                            monitoringManager.addMonitoringOperation(notifiableDevices);
-                        }
-                    }
-                }
-                if (log.isDebugEnabled()) {
-                    log.debug("Monitoring task running completed.");
+            if (!configDeviceTypes.isEmpty()) {
+                TenantMonitoringContext context = new TenantMonitoringContext(tenantId, tenantDomain,
+                        configDeviceTypes, Math.min(threadsPerTenant, configDeviceTypes.size()));
+                for (int i = 0; i < context.activeWorkers.get(); i++) {
+                    futures.add(executor.submit(new TenantMonitoringWorker(context, monitoringManager)));
                 }
-            } catch (Exception e) {
-                log.error("Error occurred while trying to run a task.", e);
             }
         } else {
             log.info("No device types registered currently. So did not run the monitoring task.");
         }
+        return futures;
+    }
+
+    private void executeTask(String deviceType, MonitoringManager monitoringManager, TenantMonitoringContext context) {
+        try {
+            if (log.isDebugEnabled()) {
+                log.debug("Running task for device type : " + deviceType);
+            }
+            PolicyMonitoringManager monitoringService =
+                    PolicyManagementDataHolder.getInstance().getDeviceManagementService()
+                            .getPolicyMonitoringManager(deviceType);
+            if (monitoringService != null) {
+                List<Device> notifiableDevices = this.getMonitorableDevices(deviceType);
+                if (log.isDebugEnabled()) {
+                    log.debug("Following devices selected to send the notification for " + deviceType);
+                    for (Device device : notifiableDevices) {
+                        log.debug(device.getDeviceIdentifier());
+                    }
+                }
+                if (!notifiableDevices.isEmpty()) {
+                    monitoringManager.addMonitoringOperation(notifiableDevices);
+                }
+                context.deviceCount.addAndGet(notifiableDevices.size());
+            }
+        } catch (Exception e) {
+            log.error("Error occurred while trying to run a task for device type : " + deviceType, e);
+        }
+    }
+
+    /**
+     * Loads the devices of the given type which are in a monitorable enrolment status, a page at a time. Pages are
+     * fetched after the enrolment id of the last device of the previous page, so that no device is skipped or loaded
+     * twice when devices are enrolled or removed meanwhile.
+     */
+    private List<Device> getMonitorableDevices(String deviceType) throws DeviceManagementException {
+        DeviceManagementProviderService deviceManagementProviderService =
+                PolicyManagementDataHolder.getInstance().getDeviceManagementService();
+        List<Device> devices = new ArrayList<>();
+        int lastEnrolmentId = 0;
+        List<Device> page;
+        do {
+            page = deviceManagementProviderService.getDevicesByTypeAndStatus(deviceType, MONITORABLE_STATUSES,
+                    lastEnrolmentId, devicePageSize);
+            if (page.isEmpty()) {
+                break;
+            }
+            devices.addAll(page);
+            lastEnrolmentId = page.get(page.size() - 1).getEnrolmentInfo().getId();
+        } while (page.size() == devicePageSize);
+        return devices;
+    }
+
+    /**
+     * Holds the device types of a tenant which are yet to be monitored and the timing of the tenant's run.
+     */
+    private static class TenantMonitoringContext {
+
+        private final int tenantId;
+        private final String tenantDomain;
+        private final Queue<String> deviceTypes;
+        private final AtomicInteger activeWorkers;
+        private final AtomicInteger deviceCount = new AtomicInteger();
+        private final int deviceTypeCount;
+        private final long startTime = System.currentTimeMillis();
+
+        TenantMonitoringContext(int tenantId, String tenantDomain, List<String> deviceTypes, int workers) {
+            this.tenantId = tenantId;
+            this.tenantDomain = tenantDomain;
+            this.deviceTypes = new ConcurrentLinkedQueue<>(deviceTypes);
+            this.deviceTypeCount = deviceTypes.size();
+            this.activeWorkers = new AtomicInteger(workers);
+        }
+    }
+
+    /**
+     * Monitors the device types of a tenant one after another until none are left, within the tenant's flow.
+     */
+    private class TenantMonitoringWorker implements Runnable {
+
+        private final TenantMonitoringContext context;
+        private final MonitoringManager monitoringManager;
+
+        TenantMonitoringWorker(TenantMonitoringContext context, MonitoringManager monitoringManager) {
+            this.context = context;
+            this.monitoringManager = monitoringManager;
+        }
+
+        @Override
+        public void run() {
+            try {
+                PrivilegedCarbonContext.startTenantFlow();
+                PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantDomain(context.tenantDomain);
+                PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantId(context.tenantId);
+                String deviceType;
+                while ((deviceType = context.deviceTypes.poll()) != null) {
+                    executeTask(deviceType, monitoringManager, context);
+                }
+            } finally {
+                PrivilegedCarbonContext.endTenantFlow();
+                if (context.activeWorkers.decrementAndGet() == 0) {
+                    reportTenantMetrics(context);
+                }
+            }
+        }
+    }
+
+    private void reportTenantMetrics(TenantMonitoringContext context) {
+        long timeTaken = System.currentTimeMillis() - context.startTime;
+        if (monitoringFrequency > 0 && timeTaken > monitoringFrequency) {
+            log.warn("Monitoring task for tenant " + context.tenantDomain + " took " + timeTaken + " ms to monitor " +
+                    context.deviceCount.get() + " devices of " + context.deviceTypeCount + " device types, which " +
+                    "exceeds the monitoring frequency of " + monitoringFrequency + " ms.");
+        } else if (log.isDebugEnabled()) {
+            log.debug("Monitoring task for tenant " + context.tenantDomain + " took " + timeTaken + " ms to monitor " +
+                    context.deviceCount.get() + " devices of " + context.deviceTypeCount + " device types.");
+        }
+    }
+
+    private static class MonitoringThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "PolicyMonitoringTask-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
     }
 }
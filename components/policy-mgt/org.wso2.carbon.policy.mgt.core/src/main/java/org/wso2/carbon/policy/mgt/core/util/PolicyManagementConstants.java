@@ -38,6 +38,8 @@ public final class PolicyManagementConstants {
     public static final String DM_CACHE_MANAGER = "DM_CACHE_MANAGER";
     // public static final String DM_CACHE = "DM_CACHE";
     public static final String DM_CACHE_LIST = "DM_CACHE_LIST";
+    public static final String DM_OWNER_ROLE_CACHE = "DM_OWNER_ROLE_CACHE";
+    public static final int OWNER_ROLE_CACHE_EXPIRY = 60;
 
     public static final String DELEGATION_TASK_TYPE = "DELEGATION__TASK";
     public static final String DELEGATION_TASK_NAME = "DELEGATION";
@@ -21,6 +21,7 @@ package org.wso2.carbon.policy.mgt.core.util;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.w3c.dom.Document;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
 import org.wso2.carbon.device.mgt.common.Device;
 import org.wso2.carbon.device.mgt.common.configuration.mgt.ConfigurationEntry;
 import org.wso2.carbon.device.mgt.common.configuration.mgt.ConfigurationManagementException;
@@ -41,6 +42,7 @@ import org.wso2.carbon.policy.mgt.core.config.datasource.JNDILookupDefinition;
 import org.wso2.carbon.policy.mgt.core.dao.util.PolicyManagementDAOUtil;
 
 import javax.cache.Cache;
+import javax.cache.CacheConfiguration;
 import javax.cache.CacheManager;
 import javax.cache.Caching;
 import javax.sql.DataSource;
@@ -51,12 +53,16 @@ import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.ObjectOutputStream;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 public class PolicyManagerUtil {
 
     public static final String GENERAL_CONFIG_RESOURCE_PATH = "general";
     public static final String MONITORING_FREQUENCY = "notifierFrequency";
     private static final Log log = LogFactory.getLog(PolicyManagerUtil.class);
+    private static final Set<Integer> ownerRoleCacheTenants =
+            Collections.newSetFromMap(new ConcurrentHashMap<Integer, Boolean>());
 
     public static Document convertToDocument(File file) throws PolicyManagementException {
         DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
@@ -177,6 +183,28 @@ public class PolicyManagerUtil {
                 Caching.getCacheManager().<Integer, List<Policy>>getCache(name);
     }
 
+    /**
+     * Returns the cache of device owners' roles of the current tenant. Entries expire shortly after they are added,
+     * so that role changes in the user store are picked up by the next policy evaluations.
+     */
+    public static Cache<String, String[]> getOwnerRoleCache() {
+        CacheManager manager = getCacheManager();
+        int tenantId = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId();
+        if (!ownerRoleCacheTenants.contains(tenantId)) {
+            synchronized (ownerRoleCacheTenants) {
+                if (!ownerRoleCacheTenants.contains(tenantId)) {
+                    CacheConfiguration.Duration expiry = new CacheConfiguration.Duration(TimeUnit.SECONDS,
+                            PolicyManagementConstants.OWNER_ROLE_CACHE_EXPIRY);
+                    manager.<String, String[]>createCacheBuilder(PolicyManagementConstants.DM_OWNER_ROLE_CACHE).
+                            setExpiry(CacheConfiguration.ExpiryType.MODIFIED, expiry).
+                            setStoreByValue(false).build();
+                    ownerRoleCacheTenants.add(tenantId);
+                }
+            }
+        }
+        return manager.getCache(PolicyManagementConstants.DM_OWNER_ROLE_CACHE);
+    }
+
     private static CacheManager getCacheManager() {
         return Caching.getCacheManagerFactory().getCacheManager(
                 PolicyManagementConstants.DM_CACHE_MANAGER);
@@ -227,6 +255,16 @@ public class PolicyManagerUtil {
         return monitoringFrequency;
     }
 
+    /**
+     * Returns whether policies are served from the policy cache, in which case every policy change goes through
+     * {@link org.wso2.carbon.policy.mgt.core.cache.PolicyCacheManager}.
+     */
+    public static boolean isPolicyCacheEnabled() {
+        PolicyConfiguration policyConfiguration = DeviceConfigurationManager.getInstance().
+                getDeviceManagementConfig().getPolicyConfiguration();
+        return policyConfiguration != null && policyConfiguration.getCacheEnable();
+    }
+
 
     public static Map<Integer, DeviceGroup> convertDeviceGroupMap(List<DeviceGroup> deviceGroups) {
         Map<Integer, DeviceGroup> groupMap = new HashMap<>();
@@ -117,6 +117,7 @@ public abstract class BasePolicyManagementDAOTest {
         PolicyEvaluationPoint policyEvaluationPoint = new SimplePolicyEvaluationTest();
         PolicyManagementDataHolder.getInstance().setPolicyEvaluationPoint("Simple", policyEvaluationPoint);
         PolicyManagementDataHolder.getInstance().setDeviceManagementService(deviceMgtService);
+        PolicyManagementDataHolder.getInstance().setGroupManagementService(groupMgtService);
 
         profileManager = new ProfileManagerImpl();
     }
@@ -0,0 +1,302 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.policy.mgt.core;
+
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.carbon.base.MultitenantConstants;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
+import org.wso2.carbon.device.mgt.common.Device;
+import org.wso2.carbon.device.mgt.common.DeviceIdentifier;
+import org.wso2.carbon.device.mgt.common.EnrolmentInfo;
+import org.wso2.carbon.device.mgt.common.operation.mgt.Activity;
+import org.wso2.carbon.device.mgt.common.operation.mgt.Operation;
+import org.wso2.carbon.device.mgt.common.policy.mgt.monitor.NonComplianceData;
+import org.wso2.carbon.device.mgt.core.service.DeviceManagementProviderService;
+import org.wso2.carbon.policy.mgt.common.monitor.PolicyDeviceWrapper;
+import org.wso2.carbon.policy.mgt.core.dao.PolicyManagementDAOFactory;
+import org.wso2.carbon.policy.mgt.core.internal.PolicyManagementDataHolder;
+import org.wso2.carbon.policy.mgt.core.mgt.impl.MonitoringManagerImpl;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * This class tests the keyset pages of the compliance data and of the applied policies, and how the monitoring
+ * operation joins them with the monitored devices by enrolment id.
+ */
+public class MonitoringDataPageTestCase extends BasePolicyManagementDAOTest {
+
+    private static final int PAGE_TENANT_ID = 11;
+    private static final int OTHER_TENANT_ID = 12;
+    private static final int JOIN_TENANT_ID = 13;
+    private static final int PAGE_SIZE = 2;
+    private static final int RECORD_COUNT = 5;
+    // same as the page size of MonitoringManagerImpl, so that the records of the monitored devices are on the
+    // second page
+    private static final int MONITORING_DATA_PAGE_SIZE = 1000;
+    private static final int UNMONITORED_DEVICE_ID = 100000;
+    private static final int UNMONITORED_ENROLMENT_ID = 100000;
+    private static final String DEVICE_TYPE = "monitored-type";
+
+    @BeforeClass
+    public void init() throws Exception {
+        initDatSource();
+        initiatePrivilegedCaronContext();
+    }
+
+    @AfterMethod
+    public void resetTenant() {
+        PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantId(MultitenantConstants.SUPER_TENANT_ID);
+    }
+
+    @Test(description = "This method tests whether the compliance data of the tenant is returned page by page, with "
+            + "each record exactly once")
+    public void testCompliancePageBoundaries() throws Exception {
+        int deviceId = addDevice("compliance-page-device", PAGE_TENANT_ID);
+        for (int i = 0; i < RECORD_COUNT; i++) {
+            addComplianceRecord(deviceId, i + 1, 1, 0, PAGE_TENANT_ID);
+        }
+        addComplianceRecord(deviceId, RECORD_COUNT + 1, 1, 0, OTHER_TENANT_ID);
+        PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantId(PAGE_TENANT_ID);
+
+        List<Integer> pageSizes = new ArrayList<>();
+        List<Integer> enrolmentIds = new ArrayList<>();
+        int lastId = 0;
+        List<NonComplianceData> page;
+        PolicyManagementDAOFactory.openConnection();
+        try {
+            do {
+                page = PolicyManagementDAOFactory.getMonitoringDAO().getCompliancePage(lastId, PAGE_SIZE);
+                pageSizes.add(page.size());
+                for (NonComplianceData complianceData : page) {
+                    Assert.assertTrue(complianceData.getId() > lastId, "Compliance data is not ordered by id");
+                    lastId = complianceData.getId();
+                    enrolmentIds.add(complianceData.getEnrolmentId());
+                }
+            } while (!page.isEmpty());
+            Assert.assertEquals(
+                    PolicyManagementDAOFactory.getMonitoringDAO().getCompliancePage(0, RECORD_COUNT).size(),
+                    RECORD_COUNT, "Page which holds all the records is not full");
+        } finally {
+            PolicyManagementDAOFactory.closeConnection();
+        }
+        Assert.assertEquals(pageSizes, Arrays.asList(2, 2, 1, 0), "Compliance data is not split into pages");
+        Assert.assertEquals(enrolmentIds, Arrays.asList(1, 2, 3, 4, 5),
+                "A compliance record is skipped, repeated or taken from another tenant");
+    }
+
+    @Test(description = "This method tests whether the policies applied to the devices of the tenant are returned page "
+            + "by page, with each record exactly once")
+    public void testAppliedPolicyPageBoundaries() throws Exception {
+        int deviceId = addDevice("applied-policy-page-device", PAGE_TENANT_ID);
+        for (int i = 0; i < RECORD_COUNT; i++) {
+            addAppliedPolicy(deviceId, i + 1, i + 1, PAGE_TENANT_ID);
+        }
+        addAppliedPolicy(deviceId, RECORD_COUNT + 1, RECORD_COUNT + 1, OTHER_TENANT_ID);
+        PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantId(PAGE_TENANT_ID);
+
+        List<Integer> pageSizes = new ArrayList<>();
+        List<Integer> policyIds = new ArrayList<>();
+        int lastId = 0;
+        List<PolicyDeviceWrapper> page;
+        PolicyManagementDAOFactory.openConnection();
+        try {
+            do {
+                page = PolicyManagementDAOFactory.getPolicyDAO().getAppliedPolicyIdsPage(lastId, PAGE_SIZE);
+                pageSizes.add(page.size());
+                for (PolicyDeviceWrapper wrapper : page) {
+                    Assert.assertTrue(wrapper.getId() > lastId, "Applied policies are not ordered by id");
+                    Assert.assertEquals(wrapper.getDeviceId(), deviceId);
+                    Assert.assertEquals(wrapper.getEnrolmentId(), wrapper.getPolicyId());
+                    lastId = wrapper.getId();
+                    policyIds.add(wrapper.getPolicyId());
+                }
+            } while (!page.isEmpty());
+        } finally {
+            PolicyManagementDAOFactory.closeConnection();
+        }
+        Assert.assertEquals(pageSizes, Arrays.asList(2, 2, 1, 0), "Applied policies are not split into pages");
+        Assert.assertEquals(policyIds, Arrays.asList(1, 2, 3, 4, 5),
+                "An applied policy is skipped, repeated or taken from another tenant");
+    }
+
+    @Test(description = "This method tests whether the monitoring operation is added to the devices according to the "
+            + "compliance data and the applied policies of their enrolments, read over more than one page")
+    public void testMonitoringOperationJoin() throws Exception {
+        // the first page is filled with the compliance data of devices which are not monitored in this run
+        for (int i = 0; i < MONITORING_DATA_PAGE_SIZE; i++) {
+            addComplianceRecord(UNMONITORED_DEVICE_ID, UNMONITORED_ENROLMENT_ID + i, 1, 0, JOIN_TENANT_ID);
+        }
+        Device requestedDevice = createDevice("requested-device", 1);
+        Device pendingDevice = createDevice("pending-device", 2);
+        Device firstTimeDevice = createDevice("first-time-device", 3);
+        Device unmanagedDevice = createDevice("unmanaged-device", 4);
+        addComplianceRecord(requestedDevice.getId(), 1, 1, 0, JOIN_TENANT_ID);
+        // compliance data of a previous enrolment of the device
+        addComplianceRecord(firstTimeDevice.getId(), UNMONITORED_ENROLMENT_ID - 1, 1, 0, JOIN_TENANT_ID);
+        addComplianceRecord(pendingDevice.getId(), 2, 1, 1, JOIN_TENANT_ID);
+        addAppliedPolicy(firstTimeDevice.getId(), 3, 31, JOIN_TENANT_ID);
+        addAppliedPolicy(firstTimeDevice.getId(), 3, 32, JOIN_TENANT_ID);
+        addAppliedPolicy(pendingDevice.getId(), 2, 21, JOIN_TENANT_ID);
+
+        final List<DeviceIdentifier> monitoredDevices = new ArrayList<>();
+        DeviceManagementProviderService deviceManagementService = Mockito.mock(DeviceManagementProviderService.class);
+        Mockito.when(deviceManagementService.addOperation(Mockito.anyString(), Mockito.any(Operation.class),
+                Mockito.anyList())).thenAnswer(new Answer<Activity>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Activity answer(InvocationOnMock invocation) {
+                monitoredDevices.addAll((List<DeviceIdentifier>) invocation.getArguments()[2]);
+                return null;
+            }
+        });
+        DeviceManagementProviderService previousService =
+                PolicyManagementDataHolder.getInstance().getDeviceManagementService();
+        PolicyManagementDataHolder.getInstance().setDeviceManagementService(deviceManagementService);
+        PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantId(JOIN_TENANT_ID);
+        try {
+            new MonitoringManagerImpl().addMonitoringOperation(
+                    Arrays.asList(requestedDevice, pendingDevice, firstTimeDevice, unmanagedDevice));
+        } finally {
+            PolicyManagementDataHolder.getInstance().setDeviceManagementService(previousService);
+        }
+
+        Set<String> monitoredDeviceNames = new HashSet<>();
+        for (DeviceIdentifier deviceIdentifier : monitoredDevices) {
+            Assert.assertEquals(deviceIdentifier.getType(), DEVICE_TYPE);
+            monitoredDeviceNames.add(deviceIdentifier.getId());
+        }
+        Assert.assertEquals(monitoredDeviceNames.size(), monitoredDevices.size(),
+                "Monitoring operation is added to a device more than once");
+        Assert.assertEquals(monitoredDeviceNames, new HashSet<>(Arrays.asList(requestedDevice.getDeviceIdentifier(),
+                firstTimeDevice.getDeviceIdentifier())), "Monitoring operation is not added to the expected devices");
+
+        Map<Integer, Integer> policyIds = getCompliancePolicyIds(firstTimeDevice.getId(), JOIN_TENANT_ID);
+        Assert.assertEquals(policyIds.get(3), Integer.valueOf(32),
+                "Compliance data of a device is not added with the policy applied last");
+        Assert.assertTrue(getCompliancePolicyIds(unmanagedDevice.getId(), JOIN_TENANT_ID).isEmpty(),
+                "Compliance data is added to a device without an applied policy");
+        Assert.assertEquals(getCompliancePolicyIds(pendingDevice.getId(), JOIN_TENANT_ID).size(), 1,
+                "Compliance data of a device with a pending monitoring operation is added again");
+    }
+
+    private Device createDevice(String deviceName, int enrolmentId) throws Exception {
+        EnrolmentInfo enrolmentInfo = new EnrolmentInfo(ADMIN_USER, EnrolmentInfo.OwnerShip.BYOD,
+                EnrolmentInfo.Status.ACTIVE);
+        enrolmentInfo.setId(enrolmentId);
+        Device device = new Device(deviceName, DEVICE_TYPE, deviceName, deviceName, enrolmentInfo, null, null);
+        device.setId(addDevice(deviceName, JOIN_TENANT_ID));
+        return device;
+    }
+
+    private int addDevice(String deviceName, int tenantId) throws Exception {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        try {
+            conn = getDataSource().getConnection();
+            stmt = conn.prepareStatement("INSERT INTO DM_DEVICE (NAME, DEVICE_IDENTIFICATION, "
+                    + "LAST_UPDATED_TIMESTAMP, TENANT_ID) VALUES (?, ?, ?, ?)", Statement.RETURN_GENERATED_KEYS);
+            stmt.setString(1, deviceName);
+            stmt.setString(2, deviceName);
+            stmt.setTimestamp(3, new Timestamp(System.currentTimeMillis()));
+            stmt.setInt(4, tenantId);
+            stmt.executeUpdate();
+            rs = stmt.getGeneratedKeys();
+            Assert.assertTrue(rs.next(), "Device is not added");
+            return rs.getInt(1);
+        } finally {
+            TestUtils.cleanupResources(conn, stmt, rs);
+        }
+    }
+
+    private void addComplianceRecord(int deviceId, int enrolmentId, int policyId, int attempts, int tenantId)
+            throws Exception {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        try {
+            conn = getDataSource().getConnection();
+            stmt = conn.prepareStatement("INSERT INTO DM_POLICY_COMPLIANCE_STATUS (DEVICE_ID, ENROLMENT_ID, "
+                    + "POLICY_ID, TENANT_ID, STATUS, ATTEMPTS) VALUES (?, ?, ?, ?, 1, ?)");
+            stmt.setInt(1, deviceId);
+            stmt.setInt(2, enrolmentId);
+            stmt.setInt(3, policyId);
+            stmt.setInt(4, tenantId);
+            stmt.setInt(5, attempts);
+            stmt.executeUpdate();
+        } finally {
+            TestUtils.cleanupResources(conn, stmt, null);
+        }
+    }
+
+    private void addAppliedPolicy(int deviceId, int enrolmentId, int policyId, int tenantId) throws Exception {
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        try {
+            conn = getDataSource().getConnection();
+            stmt = conn.prepareStatement("INSERT INTO DM_DEVICE_POLICY_APPLIED (DEVICE_ID, ENROLMENT_ID, POLICY_ID, "
+                    + "TENANT_ID, APPLIED) VALUES (?, ?, ?, ?, 1)");
+            stmt.setInt(1, deviceId);
+            stmt.setInt(2, enrolmentId);
+            stmt.setInt(3, policyId);
+            stmt.setInt(4, tenantId);
+            stmt.executeUpdate();
+        } finally {
+            TestUtils.cleanupResources(conn, stmt, null);
+        }
+    }
+
+    private Map<Integer, Integer> getCompliancePolicyIds(int deviceId, int tenantId) throws Exception {
+        Map<Integer, Integer> policyIds = new HashMap<>();
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        try {
+            conn = getDataSource().getConnection();
+            stmt = conn.prepareStatement("SELECT ENROLMENT_ID, POLICY_ID FROM DM_POLICY_COMPLIANCE_STATUS "
+                    + "WHERE DEVICE_ID = ? AND TENANT_ID = ?");
+            stmt.setInt(1, deviceId);
+            stmt.setInt(2, tenantId);
+            rs = stmt.executeQuery();
+            while (rs.next()) {
+                policyIds.put(rs.getInt("ENROLMENT_ID"), rs.getInt("POLICY_ID"));
+            }
+        } finally {
+            TestUtils.cleanupResources(conn, stmt, rs);
+        }
+        return policyIds;
+    }
+
+}
@@ -0,0 +1,232 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.policy.mgt.core.enforcement;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.mockito.ArgumentCaptor;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
+import org.wso2.carbon.device.mgt.common.Device;
+import org.wso2.carbon.device.mgt.common.DeviceIdentifier;
+import org.wso2.carbon.device.mgt.common.operation.mgt.Operation;
+import org.wso2.carbon.device.mgt.common.policy.mgt.Policy;
+import org.wso2.carbon.device.mgt.common.policy.mgt.Profile;
+import org.wso2.carbon.device.mgt.common.policy.mgt.ProfileFeature;
+import org.wso2.carbon.device.mgt.core.operation.mgt.PolicyOperation;
+import org.wso2.carbon.device.mgt.core.operation.mgt.ProfileOperation;
+import org.wso2.carbon.device.mgt.core.service.DeviceManagementProviderService;
+import org.wso2.carbon.policy.mgt.common.PolicyEvaluationPoint;
+import org.wso2.carbon.policy.mgt.core.BasePolicyManagementDAOTest;
+import org.wso2.carbon.policy.mgt.core.PolicyManagerService;
+import org.wso2.carbon.policy.mgt.core.PolicyManagerServiceImpl;
+import org.wso2.carbon.policy.mgt.core.internal.PolicyManagementDataHolder;
+import org.wso2.carbon.policy.mgt.core.mock.TypeXDeviceManagementService;
+import org.wso2.carbon.policy.mgt.core.util.PolicyManagementConstants;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class PolicyEnforcementDelegatorImplTest extends BasePolicyManagementDAOTest {
+
+    private static final Log log = LogFactory.getLog(PolicyEnforcementDelegatorImplTest.class);
+
+    private static final String DEVICE_TYPE_E = "deviceTypeE";
+    private static final String POLICY5 = "policy5";
+    private static final String POLICY5_FEATURE1_CODE = "DISALLOW_ADJUST_VOLUME";
+    private static final int MERGED_POLICY_ID = -1;
+    private static final int DEVICE_COUNT = 5;
+
+    private List<Device> devices = new ArrayList<>();
+    private DeviceManagementProviderService deviceManagementService;
+    private PolicyEvaluationPoint oldPolicyEvaluationPoint;
+    private Policy policy;
+
+    @BeforeClass
+    public void init() throws Exception {
+        log.info("Initializing policy enforcement delegator tests");
+        super.initializeServices();
+        int tenantId = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId();
+        deviceMgtService.registerDeviceType(new TypeXDeviceManagementService(DEVICE_TYPE_E));
+        for (int i = 0; i < DEVICE_COUNT; i++) {
+            String deviceId = "delegationDevice" + i;
+            enrollDevice(deviceId, DEVICE_TYPE_E);
+            devices.add(deviceMgtService.getDevice(new DeviceIdentifier(deviceId, DEVICE_TYPE_E), false));
+        }
+
+        Profile profile = new Profile();
+        profile.setTenantId(tenantId);
+        profile.setCreatedDate(new Timestamp(System.currentTimeMillis()));
+        profile.setDeviceType(DEVICE_TYPE_E);
+        List<ProfileFeature> profileFeatures = new ArrayList<>();
+        ProfileFeature profileFeature = new ProfileFeature();
+        profileFeature.setContent("{'enable':'true'}");
+        profileFeature.setDeviceType(DEVICE_TYPE_E);
+        profileFeature.setFeatureCode(POLICY5_FEATURE1_CODE);
+        profileFeatures.add(profileFeature);
+        profile.setProfileFeaturesList(profileFeatures);
+        profile.setProfileName("tp_profile5");
+        profile.setUpdatedDate(new Timestamp(System.currentTimeMillis()));
+
+        policy = new Policy();
+        policy.setPolicyName(POLICY5);
+        policy.setDescription(POLICY5);
+        policy.setProfile(profile);
+        policy.setOwnershipType("BYOD");
+        policy.setActive(false);
+        policy.setRoles(new ArrayList<>());
+        policy.setUsers(new ArrayList<>());
+        policy.setCompliance(PolicyManagementConstants.ENFORCE);
+        policy.setDeviceGroups(new ArrayList<>());
+        policy.setDevices(new ArrayList<>());
+        policy.setTenantId(tenantId);
+        PolicyManagerService policyManagerService = new PolicyManagerServiceImpl();
+        policy = policyManagerService.addPolicy(policy);
+
+        PolicyEvaluationPoint policyEvaluationPoint = mock(PolicyEvaluationPoint.class);
+        when(policyEvaluationPoint.getEffectivePolicy(any(DeviceIdentifier.class))).thenReturn(policy);
+        oldPolicyEvaluationPoint = PolicyManagementDataHolder.getInstance().getPolicyEvaluationPoint();
+        PolicyManagementDataHolder.getInstance().setPolicyEvaluationPoint("Simple", policyEvaluationPoint);
+
+        deviceManagementService = spy(deviceMgtService);
+        PolicyManagementDataHolder.getInstance().setDeviceManagementService(deviceManagementService);
+    }
+
+    @AfterClass
+    public void tearDown() {
+        PolicyManagementDataHolder.getInstance().setPolicyEvaluationPoint("Simple", oldPolicyEvaluationPoint);
+        PolicyManagementDataHolder.getInstance().setDeviceManagementService(deviceMgtService);
+    }
+
+    @Test(description = "Delegating a new policy to devices adds one revoke and one policy operation for all of " +
+            "them, instead of two operations per device")
+    public void testDelegateGroupsDevicesByPolicy() throws Exception {
+        reset(deviceManagementService);
+        PolicyEnforcementDelegator delegator = new PolicyEnforcementDelegatorImpl(devices,
+                Collections.singletonList(policy.getId()));
+        delegator.delegate();
+
+        // Previously each device got its own revoke and policy operation, i.e. DEVICE_COUNT * 2 calls.
+        verify(deviceManagementService, times(2)).addOperation(anyString(), any(Operation.class),
+                anyListOf(DeviceIdentifier.class));
+        verify(deviceManagementService, times(2)).addOperation(eq(DEVICE_TYPE_E), any(Operation.class),
+                anyListOf(DeviceIdentifier.class));
+        Assert.assertEquals(delegator.getEffectivePolicy(new DeviceIdentifier(devices.get(0).getDeviceIdentifier(),
+                DEVICE_TYPE_E)).getId(), policy.getId(), "Effective policy was not applied to the device.");
+    }
+
+    @Test(description = "Delegating an unchanged policy which is already applied to the devices adds no operations",
+            dependsOnMethods = "testDelegateGroupsDevicesByPolicy")
+    public void testDelegateUnchangedPolicy() throws Exception {
+        reset(deviceManagementService);
+        PolicyEnforcementDelegator delegator = new PolicyEnforcementDelegatorImpl(devices, new ArrayList<>());
+        delegator.delegate();
+        verify(deviceManagementService, times(0)).addOperation(anyString(), any(Operation.class),
+                anyListOf(DeviceIdentifier.class));
+    }
+
+    @Test(description = "Delegating merged policies adds a separate policy operation for each distinct merged " +
+            "profile, although all merged policies carry the same id",
+            dependsOnMethods = "testDelegateUnchangedPolicy")
+    public void testDelegateMergedPolicies() throws Exception {
+        reset(deviceManagementService);
+        Policy mergedPolicyA = getMergedPolicy("{'enable':'true'}");
+        Policy mergedPolicyB = getMergedPolicy("{'enable':'false'}");
+        PolicyEvaluationPoint policyEvaluationPoint = mock(PolicyEvaluationPoint.class);
+        when(policyEvaluationPoint.getEffectivePolicy(any(DeviceIdentifier.class))).thenReturn(mergedPolicyA,
+                mergedPolicyB, mergedPolicyA);
+        PolicyEvaluationPoint currentPolicyEvaluationPoint = PolicyManagementDataHolder.getInstance()
+                .getPolicyEvaluationPoint();
+        PolicyManagementDataHolder.getInstance().setPolicyEvaluationPoint("Simple", policyEvaluationPoint);
+        try {
+            PolicyEnforcementDelegator delegator = new PolicyEnforcementDelegatorImpl(devices.subList(0, 3),
+                    new ArrayList<>());
+            delegator.delegate();
+        } finally {
+            PolicyManagementDataHolder.getInstance().setPolicyEvaluationPoint("Simple", currentPolicyEvaluationPoint);
+        }
+
+        ArgumentCaptor<Operation> operations = ArgumentCaptor.forClass(Operation.class);
+        ArgumentCaptor<List> deviceIdentifiers = ArgumentCaptor.forClass(List.class);
+        // One revoke operation for all the devices and one policy operation for each distinct merged profile.
+        verify(deviceManagementService, times(3)).addOperation(eq(DEVICE_TYPE_E), operations.capture(),
+                deviceIdentifiers.capture());
+        Assert.assertTrue(operations.getAllValues().get(1) instanceof PolicyOperation);
+        Assert.assertEquals(getPayloads((PolicyOperation) operations.getAllValues().get(1)),
+                Collections.singletonList("{'enable':'true'}"));
+        Assert.assertEquals(getDeviceIds(deviceIdentifiers.getAllValues().get(1)),
+                Arrays.asList(devices.get(0).getDeviceIdentifier(), devices.get(2).getDeviceIdentifier()),
+                "Devices of the first merged profile are not grouped together.");
+        Assert.assertTrue(operations.getAllValues().get(2) instanceof PolicyOperation);
+        Assert.assertEquals(getPayloads((PolicyOperation) operations.getAllValues().get(2)),
+                Collections.singletonList("{'enable':'false'}"));
+        Assert.assertEquals(getDeviceIds(deviceIdentifiers.getAllValues().get(2)),
+                Collections.singletonList(devices.get(1).getDeviceIdentifier()),
+                "Device of the second merged profile got the operation of the first merged profile.");
+    }
+
+    private Policy getMergedPolicy(String content) {
+        ProfileFeature profileFeature = new ProfileFeature();
+        profileFeature.setContent(content);
+        profileFeature.setDeviceType(DEVICE_TYPE_E);
+        profileFeature.setFeatureCode(POLICY5_FEATURE1_CODE);
+        Profile profile = new Profile();
+        profile.setDeviceType(DEVICE_TYPE_E);
+        profile.setProfileFeaturesList(Collections.singletonList(profileFeature));
+        Policy mergedPolicy = new Policy();
+        mergedPolicy.setId(MERGED_POLICY_ID);
+        mergedPolicy.setPolicyName(POLICY5);
+        mergedPolicy.setProfile(profile);
+        mergedPolicy.setCompliance(PolicyManagementConstants.ENFORCE);
+        mergedPolicy.setTenantId(policy.getTenantId());
+        return mergedPolicy;
+    }
+
+    private List<Object> getPayloads(PolicyOperation policyOperation) {
+        List<Object> payloads = new ArrayList<>();
+        for (ProfileOperation profileOperation : policyOperation.getProfileOperations()) {
+            payloads.add(profileOperation.getPayLoad());
+        }
+        return payloads;
+    }
+
+    private List<String> getDeviceIds(List<?> deviceIdentifiers) {
+        List<String> deviceIds = new ArrayList<>();
+        for (Object deviceIdentifier : deviceIdentifiers) {
+            deviceIds.add(((DeviceIdentifier) deviceIdentifier).getId());
+        }
+        return deviceIds;
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.carbon.policy.mgt.core.impl;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
+import org.wso2.carbon.device.mgt.common.DeviceIdentifier;
+import org.wso2.carbon.policy.mgt.common.PIPDevice;
+import org.wso2.carbon.policy.mgt.common.PolicyInformationPoint;
+import org.wso2.carbon.policy.mgt.core.BasePolicyManagementDAOTest;
+import org.wso2.carbon.policy.mgt.core.mock.TypeXDeviceManagementService;
+import org.wso2.carbon.policy.mgt.core.util.PolicyManagerUtil;
+import org.wso2.carbon.user.core.UserRealm;
+import org.wso2.carbon.user.core.UserStoreManager;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class PolicyInformationPointImplTest extends BasePolicyManagementDAOTest {
+
+    private static final Log log = LogFactory.getLog(PolicyInformationPointImplTest.class);
+
+    private static final String DEVICE_TYPE_F = "deviceTypeF";
+    private static final String DEVICE_PREFIX = "pipDevice";
+    private static final String GROUP6 = "group6";
+    private static final String[] OWNER_ROLES = {"admin", "Internal/everyone"};
+    private static final int DEVICE_COUNT = 5;
+
+    private UserStoreManager userStoreManager;
+    private UserRealm oldUserRealm;
+
+    @BeforeClass
+    public void init() throws Exception {
+        log.info("Initializing policy information point tests");
+        super.initializeServices();
+        deviceMgtService.registerDeviceType(new TypeXDeviceManagementService(DEVICE_TYPE_F));
+        createDeviceGroup(GROUP6);
+        for (int i = 0; i < DEVICE_COUNT; i++) {
+            enrollDevice(DEVICE_PREFIX + i, DEVICE_TYPE_F);
+            addDeviceToGroup(new DeviceIdentifier(DEVICE_PREFIX + i, DEVICE_TYPE_F), GROUP6);
+        }
+
+        userStoreManager = mock(UserStoreManager.class);
+        when(userStoreManager.getRoleListOfUser(ADMIN_USER)).thenReturn(OWNER_ROLES);
+        UserRealm userRealm = mock(UserRealm.class);
+        when(userRealm.getUserStoreManager()).thenReturn(userStoreManager);
+        oldUserRealm = PrivilegedCarbonContext.getThreadLocalCarbonContext().getUserRealm();
+        PrivilegedCarbonContext.getThreadLocalCarbonContext().setUserRealm(userRealm);
+        PolicyManagerUtil.getOwnerRoleCache().removeAll();
+    }
+
+    @AfterClass
+    public void tearDown() {
+        PrivilegedCarbonContext.getThreadLocalCarbonContext().setUserRealm(oldUserRealm);
+        PolicyManagerUtil.getOwnerRoleCache().removeAll();
+    }
+
+    @Test(description = "Evaluating a batch of devices of the same owner looks up the owner's roles only once")
+    public void testGetDeviceDataOfBatch() throws Exception {
+        PolicyInformationPoint policyInformationPoint = new PolicyInformationPointImpl();
+        for (int round = 0; round < 2; round++) {
+            for (int i = 0; i < DEVICE_COUNT; i++) {
+                PIPDevice pipDevice = policyInformationPoint.getDeviceData(
+                        new DeviceIdentifier(DEVICE_PREFIX + i, DEVICE_TYPE_F));
+                Assert.assertEquals(pipDevice.getDevice().getDeviceIdentifier(), DEVICE_PREFIX + i);
+                Assert.assertEquals(pipDevice.getRoles(), OWNER_ROLES, "Owner roles were not set to the device.");
+                Assert.assertEquals(pipDevice.getDeviceGroups().size(), 1, "Device groups were not loaded.");
+                Assert.assertEquals(pipDevice.getDeviceGroups().get(0).getName(), GROUP6);
+            }
+        }
+        // Without the owner role cache the user store would be called 2 * DEVICE_COUNT times.
+        verify(userStoreManager, times(1)).getRoleListOfUser(ADMIN_USER);
+    }
+}
@@ -0,0 +1,247 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.policy.mgt.core.task;
+
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
+import org.wso2.carbon.device.mgt.common.Device;
+import org.wso2.carbon.device.mgt.common.EnrolmentInfo;
+import org.wso2.carbon.device.mgt.common.policy.mgt.PolicyMonitoringManager;
+import org.wso2.carbon.device.mgt.core.config.DeviceConfigurationManager;
+import org.wso2.carbon.device.mgt.core.config.policy.PolicyConfiguration;
+import org.wso2.carbon.device.mgt.core.service.DeviceManagementProviderService;
+import org.wso2.carbon.policy.mgt.core.internal.PolicyManagementDataHolder;
+import org.wso2.carbon.policy.mgt.core.mgt.MonitoringManager;
+import org.wso2.carbon.user.core.service.RealmService;
+import org.wso2.carbon.user.core.tenant.TenantManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unit tests for {@link MonitoringTask}, which check how the device types of tenants are spread over the worker
+ * threads and how the devices of a device type are paged.
+ */
+public class MonitoringTaskTest {
+
+    private static final String IS_CLOUD = "is.cloud";
+    private static final List<String> DEVICE_TYPES = Arrays.asList("type-a", "type-b", "type-c", "type-d");
+    private static final List<Integer> TENANTS = Arrays.asList(1, 2);
+    private static final int THREADS_PER_TENANT = 2;
+    private static final int DEVICE_PAGE_SIZE = 2;
+    private static final int DEVICES_PER_TYPE = 5;
+    private static final long MONITORING_TIME = 200L;
+
+    private final Map<Integer, AtomicInteger> runningWorkers = new ConcurrentHashMap<>();
+    private final Map<Integer, AtomicInteger> maxRunningWorkers = new ConcurrentHashMap<>();
+    private final Map<Integer, List<String>> monitoredDevices = new ConcurrentHashMap<>();
+    private final AtomicInteger runningTenantWorkers = new AtomicInteger();
+    private final AtomicInteger maxRunningTenantWorkers = new AtomicInteger();
+
+    private PolicyConfiguration previousPolicyConfiguration;
+    private MonitoringManager previousMonitoringManager;
+    private DeviceManagementProviderService previousDeviceManagementService;
+    private RealmService previousRealmService;
+
+    @BeforeClass
+    public void init() throws Exception {
+        DeviceConfigurationManager.getInstance().initConfig();
+        previousPolicyConfiguration = DeviceConfigurationManager.getInstance().getDeviceManagementConfig()
+                .getPolicyConfiguration();
+        previousMonitoringManager = PolicyManagementDataHolder.getInstance().getMonitoringManager();
+        previousDeviceManagementService = PolicyManagementDataHolder.getInstance().getDeviceManagementService();
+        previousRealmService = PolicyManagementDataHolder.getInstance().getRealmService();
+
+        PolicyConfiguration policyConfiguration = new PolicyConfiguration();
+        policyConfiguration.setMonitoringThreadPoolSize(TENANTS.size() * THREADS_PER_TENANT);
+        policyConfiguration.setMonitoringThreadsPerTenant(THREADS_PER_TENANT);
+        policyConfiguration.setMonitoringDevicePageSize(DEVICE_PAGE_SIZE);
+        DeviceConfigurationManager.getInstance().getDeviceManagementConfig()
+                .setPolicyConfiguration(policyConfiguration);
+
+        DeviceManagementProviderService deviceManagementService = Mockito.mock(DeviceManagementProviderService.class);
+        Mockito.when(deviceManagementService.getDeviceEnrolledTenants()).thenReturn(TENANTS);
+        Mockito.when(deviceManagementService.getPolicyMonitoringManager(Mockito.anyString()))
+                .thenReturn(Mockito.mock(PolicyMonitoringManager.class));
+        Mockito.when(deviceManagementService.getDevicesByTypeAndStatus(Mockito.anyString(), Mockito.anyList(),
+                Mockito.anyInt(), Mockito.anyInt())).thenAnswer(new Answer<List<Device>>() {
+            @Override
+            public List<Device> answer(InvocationOnMock invocation) {
+                String deviceType = (String) invocation.getArguments()[0];
+                int lastEnrolmentId = (Integer) invocation.getArguments()[2];
+                int limit = (Integer) invocation.getArguments()[3];
+                List<Device> page = new ArrayList<>();
+                for (int id = lastEnrolmentId + 1; id <= DEVICES_PER_TYPE && page.size() < limit; id++) {
+                    page.add(createDevice(deviceType, id));
+                }
+                return page;
+            }
+        });
+        PolicyManagementDataHolder.getInstance().setDeviceManagementService(deviceManagementService);
+
+        TenantManager tenantManager = Mockito.mock(TenantManager.class);
+        for (Integer tenant : TENANTS) {
+            Mockito.when(tenantManager.getDomain(tenant)).thenReturn("tenant" + tenant + ".com");
+        }
+        RealmService realmService = Mockito.mock(RealmService.class);
+        Mockito.when(realmService.getTenantManager()).thenReturn(tenantManager);
+        PolicyManagementDataHolder.getInstance().setRealmService(realmService);
+
+        MonitoringManager monitoringManager = Mockito.mock(MonitoringManager.class);
+        Mockito.when(monitoringManager.getDeviceTypes()).thenReturn(DEVICE_TYPES);
+        Mockito.doAnswer(new Answer<Void>() {
+            @Override
+            public Void answer(InvocationOnMock invocation) throws InterruptedException {
+                @SuppressWarnings("unchecked")
+                List<Device> devices = (List<Device>) invocation.getArguments()[0];
+                monitorDevices(PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId(), devices);
+                return null;
+            }
+        }).when(monitoringManager).addMonitoringOperation(Mockito.anyList());
+        PolicyManagementDataHolder.getInstance().setMonitoringManager(monitoringManager);
+    }
+
+    @BeforeMethod
+    public void resetCounters() {
+        runningWorkers.clear();
+        maxRunningWorkers.clear();
+        monitoredDevices.clear();
+        runningTenantWorkers.set(0);
+        maxRunningTenantWorkers.set(0);
+    }
+
+    @AfterClass
+    public void cleanUp() {
+        System.clearProperty(IS_CLOUD);
+        DeviceConfigurationManager.getInstance().getDeviceManagementConfig()
+                .setPolicyConfiguration(previousPolicyConfiguration);
+        PolicyManagementDataHolder.getInstance().setMonitoringManager(previousMonitoringManager);
+        PolicyManagementDataHolder.getInstance().setDeviceManagementService(previousDeviceManagementService);
+        if (previousRealmService != null) {
+            PolicyManagementDataHolder.getInstance().setRealmService(previousRealmService);
+        }
+    }
+
+    @Test(description = "Testing whether the device types of a tenant are monitored by at most the configured number "
+            + "of workers, and every device of a type is monitored once across the pages")
+    public void testWorkersPerTenantAreCapped() {
+        System.clearProperty(IS_CLOUD);
+        new MonitoringTask().execute();
+
+        int tenantId = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId();
+        Assert.assertEquals(maxRunningWorkers.get(tenantId).get(), THREADS_PER_TENANT,
+                "Device types of the tenant are not monitored by the configured number of workers at once");
+        assertAllDevicesMonitored(tenantId);
+    }
+
+    @Test(description = "Testing whether the tenants are monitored in parallel, each within its own cap of workers")
+    public void testTenantsAreMonitoredInParallel() {
+        System.setProperty(IS_CLOUD, "true");
+        try {
+            new MonitoringTask().execute();
+        } finally {
+            System.clearProperty(IS_CLOUD);
+        }
+
+        for (Integer tenant : TENANTS) {
+            Assert.assertTrue(maxRunningWorkers.get(tenant).get() <= THREADS_PER_TENANT,
+                    "Tenant " + tenant + " is monitored by more workers than the configured cap");
+            assertAllDevicesMonitored(tenant);
+        }
+        Assert.assertTrue(maxRunningTenantWorkers.get() > THREADS_PER_TENANT,
+                "Tenants are not monitored in parallel");
+    }
+
+    private void monitorDevices(int tenantId, List<Device> devices) throws InterruptedException {
+        AtomicInteger running = getCounter(runningWorkers, tenantId);
+        updateMax(getCounter(maxRunningWorkers, tenantId), running.incrementAndGet());
+        updateMax(maxRunningTenantWorkers, runningTenantWorkers.incrementAndGet());
+        try {
+            List<String> deviceIdentifiers = monitoredDevices.get(tenantId);
+            if (deviceIdentifiers == null) {
+                monitoredDevices.putIfAbsent(tenantId, new ArrayList<String>());
+                deviceIdentifiers = monitoredDevices.get(tenantId);
+            }
+            synchronized (deviceIdentifiers) {
+                for (Device device : devices) {
+                    deviceIdentifiers.add(device.getDeviceIdentifier());
+                }
+            }
+            // Holds the worker for a while, so that the workers of the same run overlap.
+            Thread.sleep(MONITORING_TIME);
+        } finally {
+            running.decrementAndGet();
+            runningTenantWorkers.decrementAndGet();
+        }
+    }
+
+    private void assertAllDevicesMonitored(int tenantId) {
+        List<String> expectedDevices = new ArrayList<>();
+        for (String deviceType : DEVICE_TYPES) {
+            for (int id = 1; id <= DEVICES_PER_TYPE; id++) {
+                expectedDevices.add(deviceType + "-" + id);
+            }
+        }
+        List<String> deviceIdentifiers = monitoredDevices.get(tenantId);
+        Assert.assertNotNull(deviceIdentifiers, "Devices of tenant " + tenantId + " are not monitored");
+        Assert.assertEquals(deviceIdentifiers.size(), expectedDevices.size(),
+                "A device of tenant " + tenantId + " is skipped or monitored more than once");
+        Assert.assertTrue(deviceIdentifiers.containsAll(expectedDevices),
+                "A device of tenant " + tenantId + " is not monitored");
+    }
+
+    private static AtomicInteger getCounter(Map<Integer, AtomicInteger> counters, int tenantId) {
+        AtomicInteger counter = counters.get(tenantId);
+        if (counter == null) {
+            counters.putIfAbsent(tenantId, new AtomicInteger());
+            counter = counters.get(tenantId);
+        }
+        return counter;
+    }
+
+    private static void updateMax(AtomicInteger max, int value) {
+        int current;
+        while (value > (current = max.get()) && !max.compareAndSet(current, value)) {
+            // Retry until the maximum is at least the given value.
+        }
+    }
+
+    private static Device createDevice(String deviceType, int enrolmentId) {
+        EnrolmentInfo enrolmentInfo = new EnrolmentInfo();
+        enrolmentInfo.setId(enrolmentId);
+        enrolmentInfo.setStatus(EnrolmentInfo.Status.ACTIVE);
+        Device device = new Device();
+        device.setType(deviceType);
+        device.setDeviceIdentifier(deviceType + "-" + enrolmentId);
+        device.setEnrolmentInfo(enrolmentInfo);
+        return device;
+    }
+
+}
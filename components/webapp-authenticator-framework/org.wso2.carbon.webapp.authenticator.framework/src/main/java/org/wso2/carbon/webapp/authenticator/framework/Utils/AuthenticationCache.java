@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.webapp.authenticator.framework.Utils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded, least recently used cache of authentication results. Every entry carries its own expiry time, so that a
+ * result is never served after the credential it was derived from has expired.
+ *
+ * @param <V> Type of the cached authentication result
+ */
+public class AuthenticationCache<V> {
+
+    private static final String HASH_ALGORITHM = "SHA-256";
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private final int maxEntries;
+    private final Map<String, CacheEntry<V>> entries;
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    public AuthenticationCache(final int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<String, CacheEntry<V>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CacheEntry<V>> eldest) {
+                return size() > AuthenticationCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached value of the key, or null if there is no such entry or if it has already expired.
+     */
+    public synchronized V get(String key) {
+        CacheEntry<V> entry = entries.get(key);
+        if (entry == null) {
+            missCount.incrementAndGet();
+            return null;
+        }
+        if (entry.expiryTime <= System.currentTimeMillis()) {
+            entries.remove(key);
+            missCount.incrementAndGet();
+            return null;
+        }
+        hitCount.incrementAndGet();
+        return entry.value;
+    }
+
+    /**
+     * Adds a value to the cache, which is served until the given expiry time. Values which have already expired are
+     * not added.
+     *
+     * @param expiryTime Time in milliseconds since the epoch, after which the value must not be served
+     */
+    public synchronized void put(String key, V value, long expiryTime) {
+        if (expiryTime > System.currentTimeMillis()) {
+            entries.put(key, new CacheEntry<>(value, expiryTime));
+        }
+    }
+
+    public synchronized void remove(String key) {
+        entries.remove(key);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * Returns the hex encoded SHA-256 hash of a credential, so that credentials are not kept in memory as cache keys.
+     */
+    public static String hash(String credential) {
+        return hash(credential.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns the hex encoded SHA-256 hash of the given bytes, such as the fingerprint of an encoded certificate.
+     */
+    public static String hash(byte[] credential) {
+        try {
+            byte[] digest = MessageDigest.getInstance(HASH_ALGORITHM).digest(credential);
+            char[] hex = new char[digest.length * 2];
+            for (int i = 0; i < digest.length; i++) {
+                hex[2 * i] = HEX_DIGITS[(digest[i] >> 4) & 0xF];
+                hex[2 * i + 1] = HEX_DIGITS[digest[i] & 0xF];
+            }
+            return new String(hex);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(HASH_ALGORITHM + " is not supported by the JVM", e);
+        }
+    }
+
+    private static class CacheEntry<V> {
+
+        private final V value;
+        private final long expiryTime;
+
+        CacheEntry(V value, long expiryTime) {
+            this.value = value;
+            this.expiryTime = expiryTime;
+        }
+    }
+
+}
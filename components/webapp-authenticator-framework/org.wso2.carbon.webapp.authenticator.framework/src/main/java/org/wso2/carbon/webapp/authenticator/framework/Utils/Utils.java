@@ -24,6 +24,7 @@ import org.wso2.carbon.context.PrivilegedCarbonContext;
 import org.wso2.carbon.user.api.TenantManager;
 import org.wso2.carbon.user.api.UserStoreException;
 import org.wso2.carbon.user.core.service.RealmService;
+import org.wso2.carbon.utils.multitenancy.MultitenantConstants;
 import org.wso2.carbon.utils.multitenancy.MultitenantUtils;
 import org.wso2.carbon.webapp.authenticator.framework.AuthenticationException;
 import org.wso2.carbon.webapp.authenticator.framework.AuthenticationInfo;
@@ -39,15 +40,29 @@ import java.util.regex.Pattern;
 
 public class Utils {
     private static final Log log = LogFactory.getLog(Utils.class);
+    private static final int MAX_CACHED_TENANTS = 1000;
+    private static final long TENANT_CACHE_EXPIRY = 60 * 1000L;
+    // tenants resolved for the authenticated users, which are kept for a short time only so that changes of
+    // tenants are picked up quickly
+    private static final AuthenticationCache<Integer> tenantIdCache = new AuthenticationCache<>(MAX_CACHED_TENANTS);
+    private static final AuthenticationCache<String> tenantDomainCache =
+            new AuthenticationCache<>(MAX_CACHED_TENANTS);
 
     public static int getTenantIdOFUser(String username) throws AuthenticationException {
         int tenantId = 0;
         String domainName = MultitenantUtils.getTenantDomain(username);
         if (domainName != null) {
+            Integer cachedTenantId = tenantIdCache.get(domainName);
+            if (cachedTenantId != null) {
+                return cachedTenantId;
+            }
             try {
                 TenantManager tenantManager = AuthenticatorFrameworkDataHolder.getInstance().getRealmService()
                         .getTenantManager();
                 tenantId = tenantManager.getTenantId(domainName);
+                if (tenantId != MultitenantConstants.INVALID_TENANT_ID) {
+                    tenantIdCache.put(domainName, tenantId, System.currentTimeMillis() + TENANT_CACHE_EXPIRY);
+                }
             } catch (UserStoreException e) {
                 String errorMsg = "Error when getting the tenant id from the tenant domain : " +
                         domainName;
@@ -59,6 +74,11 @@ public class Utils {
     }
 
     public static String getTenantDomain(int tenantId) throws AuthenticationException {
+        String cacheKey = String.valueOf(tenantId);
+        String cachedTenantDomain = tenantDomainCache.get(cacheKey);
+        if (cachedTenantDomain != null) {
+            return cachedTenantDomain;
+        }
         try {
             PrivilegedCarbonContext.startTenantFlow();
             RealmService realmService = AuthenticatorFrameworkDataHolder.getInstance().getRealmService();
@@ -68,7 +88,11 @@ public class Utils {
                 throw new AuthenticationException(msg);
             }
 
-            return realmService.getTenantManager().getDomain(tenantId);
+            String tenantDomain = realmService.getTenantManager().getDomain(tenantId);
+            if (tenantDomain != null) {
+                tenantDomainCache.put(cacheKey, tenantDomain, System.currentTimeMillis() + TENANT_CACHE_EXPIRY);
+            }
+            return tenantDomain;
 
         } catch (UserStoreException e) {
             String msg = "User store not initialized";
@@ -118,6 +142,12 @@ public class Utils {
         if (maxConnectionsPerHost != null) {
             validatorProperties.setProperty("MaxConnectionsPerHost", maxConnectionsPerHost);
         }
+        for (String cacheProperty : new String[]{"TokenCacheSize", "TokenCacheExpiry", "NegativeTokenCacheExpiry"}) {
+            String value = properties.getProperty(cacheProperty);
+            if (value != null) {
+                validatorProperties.setProperty(cacheProperty, value);
+            }
+        }
         return OAuthValidatorFactory.getValidator(url, adminUsername, adminPassword, isRemote, validatorProperties);
     }
 
@@ -142,6 +172,22 @@ public class Utils {
         return authenticationInfo;
     }
 
+    /**
+     * To create a copy of an authentication info, so that cached authentication info is not modified by the callers.
+     *
+     * @param authenticationInfo Authentication info to be copied
+     * @return Copy of the authentication info
+     */
+    public static AuthenticationInfo copyAuthenticationInfo(AuthenticationInfo authenticationInfo) {
+        AuthenticationInfo copy = new AuthenticationInfo();
+        copy.setTenantId(authenticationInfo.getTenantId());
+        copy.setUsername(authenticationInfo.getUsername());
+        copy.setTenantDomain(authenticationInfo.getTenantDomain());
+        copy.setStatus(authenticationInfo.getStatus());
+        copy.setMessage(authenticationInfo.getMessage());
+        return copy;
+    }
+
     private static String replaceSystemProperty(String urlWithPlaceholders)  {
         String regex = "\\$\\{(.*?)\\}";
         Pattern pattern = Pattern.compile(regex);
@@ -18,23 +18,152 @@
  */
 package org.wso2.carbon.webapp.authenticator.framework;
 
+import org.apache.catalina.Context;
 import org.apache.catalina.connector.Request;
+import org.apache.tomcat.util.buf.MessageBytes;
+import org.wso2.carbon.webapp.authenticator.framework.authenticator.BSTAuthenticator;
+import org.wso2.carbon.webapp.authenticator.framework.authenticator.BasicAuthAuthenticator;
+import org.wso2.carbon.webapp.authenticator.framework.authenticator.CertificateAuthenticator;
+import org.wso2.carbon.webapp.authenticator.framework.authenticator.JWTAuthenticator;
+import org.wso2.carbon.webapp.authenticator.framework.authenticator.OAuthAuthenticator;
 import org.wso2.carbon.webapp.authenticator.framework.authenticator.WebappAuthenticator;
 import org.wso2.carbon.webapp.authenticator.framework.internal.AuthenticatorFrameworkDataHolder;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
+/**
+ * Picks the authenticator which handles a request. The choice is cached per request shape, i.e. the web app of the
+ * request, the authentication headers present in it and the scheme of its authorization header, as long as only the
+ * authenticators of the framework are registered, since their choice depends on nothing else for such requests.
+ */
 class WebappAuthenticatorFactory {
 
+    private static final int MAX_CACHED_REQUEST_SHAPES = 1000;
+    private static final String BASIC_AUTH_PARAM_NAME = "basicAuth";
+    private static final String[] AUTHENTICATION_HEADERS =
+            {"X-JWT-Assertion", "Mdm-Signature", "mutual-auth-header", "proxy-mutual-auth-header"};
+    // BST authenticator looks into the body of requests of these content types
+    private static final List<String> BST_CONTENT_TYPES =
+            Arrays.asList("application/xml", "application/soap+xml", "application/text");
+    private static final List<Class<?>> FRAMEWORK_AUTHENTICATORS = Arrays.<Class<?>>asList(BasicAuthAuthenticator.class,
+            OAuthAuthenticator.class, JWTAuthenticator.class, CertificateAuthenticator.class, BSTAuthenticator.class);
+
+    private static final ConcurrentMap<String, String> authenticatorNames = new ConcurrentHashMap<>();
+    private static volatile AuthenticatorChoice authenticatorChoice;
+
     static WebappAuthenticator getAuthenticator(Request request) {
         Map<String, WebappAuthenticator> authenticators =
                 AuthenticatorFrameworkDataHolder.getInstance().getWebappAuthenticatorRepository().getAuthenticators();
+        String requestShape = isChoiceCacheable(authenticators) ? getRequestShape(request) : null;
+        if (requestShape != null) {
+            String authenticatorName = authenticatorNames.get(requestShape);
+            if (authenticatorName != null) {
+                WebappAuthenticator authenticator = authenticators.get(authenticatorName);
+                if (authenticator != null) {
+                    return authenticator;
+                }
+            }
+        }
         for (WebappAuthenticator authenticator : authenticators.values()) {
             if (authenticator.canHandle(request)) {
+                if (requestShape != null && authenticatorNames.size() < MAX_CACHED_REQUEST_SHAPES) {
+                    authenticatorNames.put(requestShape, authenticator.getName());
+                }
                 return authenticator;
             }
         }
         return null;
     }
 
+    /**
+     * Drops the cached authenticator choices, such as when an authenticator is added to the repository.
+     */
+    static void clearCache() {
+        authenticatorChoice = null;
+        authenticatorNames.clear();
+    }
+
+    static int getCachedChoiceCount() {
+        return authenticatorNames.size();
+    }
+
+    private static boolean isChoiceCacheable(Map<String, WebappAuthenticator> authenticators) {
+        AuthenticatorChoice choice = authenticatorChoice;
+        if (choice == null || choice.authenticators != authenticators) {
+            authenticatorNames.clear();
+            boolean cacheable = true;
+            for (WebappAuthenticator authenticator : authenticators.values()) {
+                if (!FRAMEWORK_AUTHENTICATORS.contains(authenticator.getClass())) {
+                    cacheable = false;
+                    break;
+                }
+            }
+            choice = new AuthenticatorChoice(authenticators, cacheable);
+            authenticatorChoice = choice;
+        }
+        return choice.cacheable;
+    }
+
+    /**
+     * Returns the shape of the request, or null if the authenticators have to look into the request to decide
+     * whether they can handle it.
+     */
+    private static String getRequestShape(Request request) {
+        Context context = request.getContext();
+        if (context == null || request.getCoyoteRequest() == null ||
+                request.getCoyoteRequest().getMimeHeaders() == null) {
+            return null;
+        }
+        String contentType = request.getContentType();
+        if (contentType != null && BST_CONTENT_TYPES.contains(contentType)) {
+            return null;
+        }
+        // basic auth authenticator handles requests only if it is enabled for the web app
+        StringBuilder requestShape = new StringBuilder(context.getPath()).append('|')
+                .append(context.findParameter(BASIC_AUTH_PARAM_NAME)).append('|');
+        for (String header : AUTHENTICATION_HEADERS) {
+            String value = request.getHeader(header);
+            requestShape.append(value == null ? '0' : (value.isEmpty() ? 'e' : '1'));
+        }
+        MessageBytes authorization = request.getCoyoteRequest().getMimeHeaders()
+                .getValue(Constants.HTTPHeaders.HEADER_HTTP_AUTHORIZATION);
+        if (authorization == null) {
+            return requestShape.toString();
+        }
+        // only a single credential without white spaces may follow the scheme, so that the scheme alone decides
+        // between the basic auth and OAuth authenticators
+        String authorizationValue = authorization.toString();
+        int separator = authorizationValue.indexOf(' ');
+        if (separator < 0) {
+            return null;
+        }
+        for (int i = separator + 1; i < authorizationValue.length(); i++) {
+            if (Character.isWhitespace(authorizationValue.charAt(i))) {
+                return null;
+            }
+        }
+        String scheme = authorizationValue.substring(0, separator);
+        if ("basic".equalsIgnoreCase(scheme)) {
+            return requestShape.append("|basic").toString();
+        } else if ("Bearer".equals(scheme) || "bearer".equals(scheme)) {
+            return requestShape.append("|bearer").toString();
+        }
+        return null;
+    }
+
+    private static class AuthenticatorChoice {
+
+        private final Map<String, WebappAuthenticator> authenticators;
+        private final boolean cacheable;
+
+        AuthenticatorChoice(Map<String, WebappAuthenticator> authenticators, boolean cacheable) {
+            this.authenticators = authenticators;
+            this.cacheable = cacheable;
+        }
+    }
+
 }
@@ -41,6 +41,7 @@ public class WebappAuthenticatorRepository {
             throw new IllegalStateException("Authenticator name cannot be null or empty");
         }
         authenticators.put(authenticator.getName(), authenticator);
+        WebappAuthenticatorFactory.clearCache();
     }
 
     public WebappAuthenticator getAuthenticator(String name) {
@@ -33,9 +33,11 @@ import org.wso2.carbon.device.mgt.common.DeviceManagementConstants;
 import org.wso2.carbon.device.mgt.common.EnrolmentInfo;
 import org.wso2.carbon.webapp.authenticator.framework.AuthenticationException;
 import org.wso2.carbon.webapp.authenticator.framework.AuthenticationInfo;
+import org.wso2.carbon.webapp.authenticator.framework.Utils.AuthenticationCache;
 import org.wso2.carbon.webapp.authenticator.framework.internal.AuthenticatorFrameworkDataHolder;
 import org.wso2.carbon.webapp.authenticator.framework.Utils.Utils;
 
+import java.security.cert.CertificateEncodingException;
 import java.security.cert.X509Certificate;
 import java.util.Properties;
 
@@ -50,6 +52,15 @@ public class CertificateAuthenticator implements WebappAuthenticator {
     private static final String PROXY_MUTUAL_AUTH_HEADER = "proxy-mutual-auth-header";
     private static final String CERTIFICATE_VERIFICATION_HEADER = "Mdm-Signature";
     private static final String CLIENT_CERTIFICATE_ATTRIBUTE = "javax.servlet.request.X509Certificate";
+    private static final String SUBJECT_DN_KEY_PREFIX = "dn:";
+    private static final String CLIENT_CERTIFICATE_KEY_PREFIX = "pem:";
+    private static final String SIGNATURE_CERTIFICATE_KEY_PREFIX = "signature:";
+    private static final int AUTHENTICATION_CACHE_SIZE = 10000;
+    // Removed certificates are rejected at the latest once this period has passed
+    private static final long AUTHENTICATION_MAX_CACHE_TIME = 60 * 1000L;
+
+    private static final AuthenticationCache<AuthenticationInfo> authenticationCache =
+            new AuthenticationCache<>(AUTHENTICATION_CACHE_SIZE);
 
     @Override
     public void init() {
@@ -75,9 +86,16 @@ public class CertificateAuthenticator implements WebappAuthenticator {
             // When there is a load balancer terminating mutual SSL, it should pass this header along and
             // as the value of this header, the client certificate subject dn should be passed.
             if (request.getHeader(PROXY_MUTUAL_AUTH_HEADER) != null) {
+                String subjectDN = request.getHeader(PROXY_MUTUAL_AUTH_HEADER);
+                String cacheKey = SUBJECT_DN_KEY_PREFIX + AuthenticationCache.hash(subjectDN);
+                AuthenticationInfo cachedInfo = authenticationCache.get(cacheKey);
+                if (cachedInfo != null) {
+                    return Utils.copyAuthenticationInfo(cachedInfo);
+                }
                 CertificateResponse certificateResponse = AuthenticatorFrameworkDataHolder.getInstance().
-                        getCertificateManagementService().verifySubjectDN(request.getHeader(PROXY_MUTUAL_AUTH_HEADER));
+                        getCertificateManagementService().verifySubjectDN(subjectDN);
                 authenticationInfo = checkCertificateResponse(certificateResponse);
+                cacheAuthenticationInfo(cacheKey, authenticationInfo, Long.MAX_VALUE);
             }
             else if (request.getHeader(MUTUAL_AUTH_HEADER) != null) {
                 Object object = request.getAttribute(CLIENT_CERTIFICATE_ATTRIBUTE);
@@ -87,24 +105,31 @@ public class CertificateAuthenticator implements WebappAuthenticator {
                             getAttribute(CLIENT_CERTIFICATE_ATTRIBUTE);
                 }
                 if (clientCertificate != null && clientCertificate[0] != null) {
+                    String cacheKey = getCacheKey(CLIENT_CERTIFICATE_KEY_PREFIX, clientCertificate[0]);
+                    AuthenticationInfo cachedInfo = cacheKey == null ? null : authenticationCache.get(cacheKey);
+                    if (cachedInfo != null) {
+                        return Utils.copyAuthenticationInfo(cachedInfo);
+                    }
                     CertificateResponse certificateResponse = AuthenticatorFrameworkDataHolder.getInstance().
                             getCertificateManagementService().verifyPEMSignature(clientCertificate[0]);
                     authenticationInfo = checkCertificateResponse(certificateResponse);
-
+                    cacheAuthenticationInfo(cacheKey, authenticationInfo,
+                            clientCertificate[0].getNotAfter().getTime());
                 } else {
                     authenticationInfo.setStatus(Status.FAILURE);
                     authenticationInfo.setMessage("No client certificate is present");
                 }
             } else if (request.getHeader(CERTIFICATE_VERIFICATION_HEADER) != null) {
                 String certHeader = request.getHeader(CERTIFICATE_VERIFICATION_HEADER);
-                if (certHeader != null &&
-                    AuthenticatorFrameworkDataHolder.getInstance().getCertificateManagementService().
-                            verifySignature(certHeader)) {
-                    AuthenticatorFrameworkDataHolder.getInstance().getCertificateManagementService().
-                            extractCertificateFromSignature(certHeader);
-                    X509Certificate certificate =
-                            AuthenticatorFrameworkDataHolder.getInstance().getCertificateManagementService().
-                                    extractCertificateFromSignature(certHeader);
+                // The signature is verified by extracting the signer certificate from it, which is done only once
+                X509Certificate certificate = certHeader == null ? null : AuthenticatorFrameworkDataHolder.
+                        getInstance().getCertificateManagementService().extractCertificateFromSignature(certHeader);
+                if (certificate != null) {
+                    String cacheKey = getCacheKey(SIGNATURE_CERTIFICATE_KEY_PREFIX, certificate);
+                    AuthenticationInfo cachedInfo = cacheKey == null ? null : authenticationCache.get(cacheKey);
+                    if (cachedInfo != null) {
+                        return Utils.copyAuthenticationInfo(cachedInfo);
+                    }
                     String challengeToken = AuthenticatorFrameworkDataHolder.getInstance().
                             getCertificateManagementService().extractChallengeToken(certificate);
 
@@ -125,6 +150,7 @@ public class CertificateAuthenticator implements WebappAuthenticator {
                             authenticationInfo.setUsername(enrolmentInfo.getOwner());
                         }
                         authenticationInfo.setStatus(Status.CONTINUE);
+                        cacheAuthenticationInfo(cacheKey, authenticationInfo, certificate.getNotAfter().getTime());
                     }
                 }
             }
@@ -136,6 +162,37 @@ public class CertificateAuthenticator implements WebappAuthenticator {
         return authenticationInfo;
     }
 
+    /**
+     * Caches a successful authentication until the certificate expires, but not longer than the maximum cache time,
+     * so that certificates removed from the store stop being accepted.
+     */
+    private void cacheAuthenticationInfo(String cacheKey, AuthenticationInfo authenticationInfo,
+                                         long certificateExpiryTime) {
+        if (cacheKey != null && authenticationInfo.getStatus() == Status.CONTINUE) {
+            long expiryTime = Math.min(certificateExpiryTime,
+                    System.currentTimeMillis() + AUTHENTICATION_MAX_CACHE_TIME);
+            authenticationCache.put(cacheKey, Utils.copyAuthenticationInfo(authenticationInfo), expiryTime);
+        }
+    }
+
+    /**
+     * Returns the cache key made of the SHA-256 fingerprint of the certificate, or null if the certificate cannot be
+     * encoded, in which case the authentication result is not cached.
+     */
+    private String getCacheKey(String prefix, X509Certificate certificate) {
+        try {
+            return prefix + AuthenticationCache.hash(certificate.getEncoded());
+        } catch (CertificateEncodingException e) {
+            log.warn("Error occurred while encoding the client certificate, hence authentication will not be cached",
+                    e);
+            return null;
+        }
+    }
+
+    static AuthenticationCache<AuthenticationInfo> getAuthenticationCache() {
+        return authenticationCache;
+    }
+
     private AuthenticationInfo checkCertificateResponse(CertificateResponse certificateResponse) {
         AuthenticationInfo authenticationInfo = new AuthenticationInfo();
         if (certificateResponse == null) {
@@ -36,6 +36,8 @@ import org.wso2.carbon.user.api.UserStoreManager;
 import org.wso2.carbon.utils.CarbonUtils;
 import org.wso2.carbon.utils.multitenancy.MultitenantUtils;
 import org.wso2.carbon.webapp.authenticator.framework.AuthenticationInfo;
+import org.wso2.carbon.webapp.authenticator.framework.Utils.AuthenticationCache;
+import org.wso2.carbon.webapp.authenticator.framework.Utils.Utils;
 import org.wso2.carbon.webapp.authenticator.framework.internal.AuthenticatorFrameworkDataHolder;
 
 import java.io.FileInputStream;
@@ -43,11 +45,12 @@ import java.security.KeyStore;
 import java.security.PublicKey;
 import java.security.interfaces.RSAPublicKey;
 import java.text.ParseException;
-import java.util.HashMap;
+import java.util.Date;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Properties;
 import java.util.StringTokenizer;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * This authenticator authenticates HTTP requests using JWT header.
@@ -62,7 +65,12 @@ public class JWTAuthenticator implements WebappAuthenticator {
     private static final String DEFAULT_TRUST_STORE_LOCATION = "Security.TrustStore.Location";
     private static final String DEFAULT_TRUST_STORE_PASSWORD = "Security.TrustStore.Password";
 
-    private static final Map<IssuerAlias, PublicKey> publicKeyHolder = new HashMap<>();
+    private static final int VERIFIED_TOKEN_CACHE_SIZE = 10000;
+    private static final long VERIFIED_TOKEN_MAX_CACHE_TIME = 5 * 60 * 1000L;
+
+    private static final Map<IssuerAlias, PublicKey> publicKeyHolder = new ConcurrentHashMap<>();
+    private static final AuthenticationCache<AuthenticationInfo> verifiedTokenCache =
+            new AuthenticationCache<>(VERIFIED_TOKEN_CACHE_SIZE);
     private Properties properties;
 
     private static void loadTenantRegistry(int tenantId) throws RegistryException {
@@ -105,13 +113,24 @@ public class JWTAuthenticator implements WebappAuthenticator {
             authenticationInfo.setStatus(Status.CONTINUE);
         }
 
+        String authorizationHeader = request.getHeader(JWT_ASSERTION_HEADER);
+        if (authorizationHeader == null) {
+            authenticationInfo.setMessage("JWT header is not available");
+            return authenticationInfo;
+        }
+        String tokenHash = AuthenticationCache.hash(authorizationHeader);
+        AuthenticationInfo verifiedInfo = verifiedTokenCache.get(tokenHash);
+        if (verifiedInfo != null) {
+            return Utils.copyAuthenticationInfo(verifiedInfo);
+        }
+        Date expirationTime;
         try {
-            String authorizationHeader = request.getHeader(JWT_ASSERTION_HEADER);
             jwsObject = SignedJWT.parse(authorizationHeader);
             username = jwsObject.getJWTClaimsSet().getStringClaim(SIGNED_JWT_AUTH_USERNAME);
             tenantDomain = MultitenantUtils.getTenantDomain(username);
             tenantId = Integer.parseInt(jwsObject.getJWTClaimsSet().getStringClaim(SIGNED_JWT_AUTH_TENANT_ID));
             issuer = jwsObject.getJWTClaimsSet().getIssuer();
+            expirationTime = jwsObject.getJWTClaimsSet().getExpirationTime();
         } catch (ParseException e) {
             log.error("Error occurred while parsing JWT header.", e);
             authenticationInfo.setMessage("Error occurred while parsing JWT header");
@@ -122,36 +141,14 @@ public class JWTAuthenticator implements WebappAuthenticator {
             PrivilegedCarbonContext.startTenantFlow();
             PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantDomain(tenantDomain);
             PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantId(tenantId);
-            IssuerAlias issuerAlias = new IssuerAlias(issuer, tenantDomain);
-            PublicKey publicKey =  publicKeyHolder.get(issuerAlias);
-            if (publicKey == null) {
-                loadTenantRegistry(tenantId);
-                KeyStoreManager keyStoreManager = KeyStoreManager.getInstance(tenantId);
-                if (MultitenantConstants.SUPER_TENANT_DOMAIN_NAME.equals(tenantDomain)) {
-                    String alias = properties == null ?  null : properties.getProperty(issuer);
-                    if (alias != null && !alias.isEmpty()) {
-                        ServerConfiguration serverConfig = CarbonUtils.getServerConfiguration();
-                        KeyStore keyStore = KeyStore.getInstance(KeyStore.getDefaultType());
-                        String trustStorePath = serverConfig.getFirstProperty(DEFAULT_TRUST_STORE_LOCATION);
-                        String trustStorePassword = serverConfig.getFirstProperty(
-                                DEFAULT_TRUST_STORE_PASSWORD);
-                        keyStore.load(new FileInputStream(trustStorePath), trustStorePassword.toCharArray());
-                        java.security.cert.Certificate certificate = keyStore.getCertificate(alias);
-                        publicKey = certificate == null ? null : certificate.getPublicKey();
-                    } else {
-                        authenticationInfo.setStatus(Status.FAILURE);
-                        return  authenticationInfo;
-                    }
-                } else {
-                    String ksName = tenantDomain.trim().replace('.', '-');
-                    String jksName = ksName + ".jks";
-                    publicKey = keyStoreManager.getKeyStore(jksName).getCertificate(tenantDomain).getPublicKey();
-                }
-                if (publicKey != null) {
-                    issuerAlias = new IssuerAlias(tenantDomain);
-                    publicKeyHolder.put(issuerAlias, publicKey);
+            if (MultitenantConstants.SUPER_TENANT_DOMAIN_NAME.equals(tenantDomain)) {
+                String alias = properties == null ?  null : properties.getProperty(issuer);
+                if (alias == null || alias.isEmpty()) {
+                    authenticationInfo.setStatus(Status.FAILURE);
+                    return  authenticationInfo;
                 }
             }
+            PublicKey publicKey = getPublicKey(issuer, tenantDomain, tenantId);
             //Get the filesystem keystore default primary certificate
             JWSVerifier verifier = null;
             if (publicKey != null) {
@@ -166,6 +163,12 @@ public class JWTAuthenticator implements WebappAuthenticator {
                     authenticationInfo.setUsername(username);
                     authenticationInfo.setTenantDomain(tenantDomain);
                     authenticationInfo.setStatus(Status.CONTINUE);
+                    long cacheExpiryTime = System.currentTimeMillis() + VERIFIED_TOKEN_MAX_CACHE_TIME;
+                    if (expirationTime != null && expirationTime.getTime() < cacheExpiryTime) {
+                        cacheExpiryTime = expirationTime.getTime();
+                    }
+                    verifiedTokenCache.put(tokenHash, Utils.copyAuthenticationInfo(authenticationInfo),
+                            cacheExpiryTime);
                 } else {
                     authenticationInfo.setStatus(Status.FAILURE);
                 }
@@ -184,6 +187,54 @@ public class JWTAuthenticator implements WebappAuthenticator {
         return authenticationInfo;
     }
 
+    /**
+     * Returns the public key of the issuer, loading it from the key store only on the first use of the issuer. The
+     * loading is serialized, so that concurrent first requests of an issuer do not load the key store repeatedly.
+     */
+    private PublicKey getPublicKey(String issuer, String tenantDomain, int tenantId) throws Exception {
+        IssuerAlias issuerAlias = new IssuerAlias(issuer, tenantDomain);
+        PublicKey publicKey = publicKeyHolder.get(issuerAlias);
+        if (publicKey != null) {
+            return publicKey;
+        }
+        synchronized (publicKeyHolder) {
+            publicKey = publicKeyHolder.get(issuerAlias);
+            if (publicKey != null) {
+                return publicKey;
+            }
+            loadTenantRegistry(tenantId);
+            KeyStoreManager keyStoreManager = KeyStoreManager.getInstance(tenantId);
+            if (MultitenantConstants.SUPER_TENANT_DOMAIN_NAME.equals(tenantDomain)) {
+                String alias = properties == null ? null : properties.getProperty(issuer);
+                ServerConfiguration serverConfig = CarbonUtils.getServerConfiguration();
+                KeyStore keyStore = KeyStore.getInstance(KeyStore.getDefaultType());
+                String trustStorePath = serverConfig.getFirstProperty(DEFAULT_TRUST_STORE_LOCATION);
+                String trustStorePassword = serverConfig.getFirstProperty(DEFAULT_TRUST_STORE_PASSWORD);
+                try (FileInputStream trustStoreStream = new FileInputStream(trustStorePath)) {
+                    keyStore.load(trustStoreStream, trustStorePassword.toCharArray());
+                }
+                java.security.cert.Certificate certificate = keyStore.getCertificate(alias);
+                publicKey = certificate == null ? null : certificate.getPublicKey();
+            } else {
+                String ksName = tenantDomain.trim().replace('.', '-');
+                String jksName = ksName + ".jks";
+                publicKey = keyStoreManager.getKeyStore(jksName).getCertificate(tenantDomain).getPublicKey();
+            }
+            if (publicKey != null) {
+                publicKeyHolder.put(issuerAlias, publicKey);
+            }
+            return publicKey;
+        }
+    }
+
+    static AuthenticationCache<AuthenticationInfo> getVerifiedTokenCache() {
+        return verifiedTokenCache;
+    }
+
+    static void clearPublicKeys() {
+        publicKeyHolder.clear();
+    }
+
     @Override
     public String getName() {
         return JWTAuthenticator.JWT_AUTHENTICATOR;
@@ -207,7 +258,7 @@ public class JWTAuthenticator implements WebappAuthenticator {
         return this.properties.getProperty(name);
     }
 
-    private class IssuerAlias {
+    private static class IssuerAlias {
 
         private String issuer;
         private String tenantDomain;
@@ -19,6 +19,7 @@ package org.wso2.carbon.webapp.authenticator.framework.authenticator.oauth.impl;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.apache.commons.pool.PoolableObjectFactory;
 import org.apache.commons.pool.impl.GenericObjectPool;
 import org.wso2.carbon.identity.oauth2.stub.OAuth2TokenValidationServiceStub;
 import org.wso2.carbon.identity.oauth2.stub.dto.OAuth2TokenValidationRequestDTO;
@@ -26,6 +27,7 @@ import org.wso2.carbon.identity.oauth2.stub.dto.OAuth2TokenValidationRequestDTO_
 import org.wso2.carbon.identity.oauth2.stub.dto.OAuth2TokenValidationRequestDTO_TokenValidationContextParam;
 import org.wso2.carbon.identity.oauth2.stub.dto.OAuth2TokenValidationResponseDTO;
 import org.wso2.carbon.utils.multitenancy.MultitenantUtils;
+import org.wso2.carbon.webapp.authenticator.framework.Utils.AuthenticationCache;
 import org.wso2.carbon.webapp.authenticator.framework.Utils.OAuthTokenValidationStubFactory;
 import org.wso2.carbon.webapp.authenticator.framework.authenticator.oauth.OAuth2TokenValidator;
 import org.wso2.carbon.webapp.authenticator.framework.authenticator.oauth.OAuthTokenValidationException;
@@ -33,28 +35,77 @@ import org.wso2.carbon.webapp.authenticator.framework.authenticator.oauth.OAuthV
 
 import java.rmi.RemoteException;
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Handles the OAuth2 token validation from remote IS servers using remote OAuthValidation service-stub.
  */
 public class RemoteOAuthValidator implements OAuth2TokenValidator {
 
+    private static final String TOKEN_CACHE_SIZE = "TokenCacheSize";
+    private static final String TOKEN_CACHE_EXPIRY = "TokenCacheExpiry";
+    private static final String NEGATIVE_TOKEN_CACHE_EXPIRY = "NegativeTokenCacheExpiry";
+    private static final int DEFAULT_TOKEN_CACHE_SIZE = 10000;
+    private static final int DEFAULT_TOKEN_CACHE_EXPIRY = 120;
+    private static final long POOL_WAIT_THRESHOLD = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private static final AtomicLong poolWaitCount = new AtomicLong();
+    private static final AtomicLong poolWaitTime = new AtomicLong();
+
     private GenericObjectPool stubs;
+    private AuthenticationCache<OAuthValidationResponse> tokenCache;
+    private long tokenCacheExpiry;
+    private long negativeTokenCacheExpiry;
     private static final Log log = LogFactory.getLog(RemoteOAuthValidator.class);
 
     public RemoteOAuthValidator(String hostURL, String adminUserName, String adminPassword, Properties properties) {
-        this.stubs =
-                new GenericObjectPool(new OAuthTokenValidationStubFactory(
-                        hostURL, adminUserName, adminPassword, properties));
+        this(new OAuthTokenValidationStubFactory(hostURL, adminUserName, adminPassword, properties), properties);
+    }
+
+    /**
+     * Creates a validator which obtains its service stubs from the given factory. Validation results are cached as
+     * configured by the TokenCacheSize, TokenCacheExpiry and NegativeTokenCacheExpiry properties, where the expiry
+     * times are in seconds. Invalid tokens are cached only if a negative cache expiry is configured.
+     */
+    public RemoteOAuthValidator(PoolableObjectFactory stubFactory, Properties properties) {
+        this.stubs = new GenericObjectPool(stubFactory);
+        int tokenCacheSize = getIntProperty(properties, TOKEN_CACHE_SIZE, DEFAULT_TOKEN_CACHE_SIZE);
+        this.tokenCacheExpiry = TimeUnit.SECONDS.toMillis(
+                getIntProperty(properties, TOKEN_CACHE_EXPIRY, DEFAULT_TOKEN_CACHE_EXPIRY));
+        this.negativeTokenCacheExpiry = TimeUnit.SECONDS.toMillis(
+                getIntProperty(properties, NEGATIVE_TOKEN_CACHE_EXPIRY, 0));
+        if (tokenCacheSize > 0 && tokenCacheExpiry > 0) {
+            this.tokenCache = new AuthenticationCache<>(tokenCacheSize);
+        }
     }
 
     public OAuthValidationResponse validateToken(String accessToken,
                                                  String resource) throws OAuthTokenValidationException {
+        String cacheKey = null;
+        if (tokenCache != null) {
+            cacheKey = AuthenticationCache.hash(accessToken) + ":" + resource;
+            OAuthValidationResponse cachedResponse = tokenCache.get(cacheKey);
+            if (log.isDebugEnabled()) {
+                log.debug("OAuth token validation cache hits : " + tokenCache.getHitCount() + ", misses : " +
+                        tokenCache.getMissCount() + ", stub pool waits : " + poolWaitCount.get() + " (" +
+                        TimeUnit.NANOSECONDS.toMillis(poolWaitTime.get()) + " ms)");
+            }
+            if (cachedResponse != null) {
+                return copyOf(cachedResponse);
+            }
+        }
         OAuth2TokenValidationServiceStub stub = null;
         OAuth2TokenValidationResponseDTO validationResponse;
         try {
             OAuth2TokenValidationRequestDTO validationRequest = createValidationRequest(accessToken, resource);
+            long borrowStartTime = System.nanoTime();
             stub = (OAuth2TokenValidationServiceStub) this.stubs.borrowObject();
+            long borrowTime = System.nanoTime() - borrowStartTime;
+            if (borrowTime >= POOL_WAIT_THRESHOLD) {
+                poolWaitCount.incrementAndGet();
+                poolWaitTime.addAndGet(borrowTime);
+            }
             validationResponse = stub.findOAuthConsumerIfTokenIsValid(validationRequest)
                     .getAccessTokenValidationResponse();
         } catch (RemoteException e) {
@@ -84,14 +135,69 @@ public class RemoteOAuthValidator implements OAuth2TokenValidator {
         if (isValid) {
             username = MultitenantUtils.getTenantAwareUsername(validationResponse.getAuthorizedUser());
             tenantDomain = MultitenantUtils.getTenantDomain(validationResponse.getAuthorizedUser());
-            return new OAuthValidationResponse(username, tenantDomain, true);
+            OAuthValidationResponse oAuthValidationResponse = new OAuthValidationResponse(username, tenantDomain,
+                    true);
+            if (tokenCache != null) {
+                // Expiry time of the response is the remaining validity period of the token in seconds
+                long cacheTime = Math.min(tokenCacheExpiry,
+                        TimeUnit.SECONDS.toMillis(validationResponse.getExpiryTime()));
+                tokenCache.put(cacheKey, copyOf(oAuthValidationResponse), System.currentTimeMillis() + cacheTime);
+            }
+            return oAuthValidationResponse;
         } else {
             OAuthValidationResponse oAuthValidationResponse = new OAuthValidationResponse();
             oAuthValidationResponse.setErrorMsg(validationResponse.getErrorMsg());
+            if (tokenCache != null && negativeTokenCacheExpiry > 0) {
+                tokenCache.put(cacheKey, copyOf(oAuthValidationResponse),
+                        System.currentTimeMillis() + negativeTokenCacheExpiry);
+            }
             return oAuthValidationResponse;
         }
     }
 
+    /**
+     * Returns the number of times a service stub could not be borrowed from the pool right away.
+     */
+    public static long getPoolWaitCount() {
+        return poolWaitCount.get();
+    }
+
+    /**
+     * Returns the total time, in milliseconds, spent waiting for service stubs from the pool.
+     */
+    public static long getPoolWaitTime() {
+        return TimeUnit.NANOSECONDS.toMillis(poolWaitTime.get());
+    }
+
+    public long getCacheHitCount() {
+        return tokenCache == null ? 0 : tokenCache.getHitCount();
+    }
+
+    public long getCacheMissCount() {
+        return tokenCache == null ? 0 : tokenCache.getMissCount();
+    }
+
+    private static OAuthValidationResponse copyOf(OAuthValidationResponse response) {
+        OAuthValidationResponse copy = new OAuthValidationResponse(response.getUserName(),
+                response.getTenantDomain(), response.isValid());
+        copy.setErrorMsg(response.getErrorMsg());
+        return copy;
+    }
+
+    private static int getIntProperty(Properties properties, String name, int defaultValue) {
+        String value = properties == null ? null : properties.getProperty(name);
+        if (value == null || value.isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            log.warn("Invalid value '" + value + "' is configured for " + name + ", hence the default value "
+                    + defaultValue + " will be used");
+            return defaultValue;
+        }
+    }
+
     private OAuth2TokenValidationRequestDTO createValidationRequest(String accessToken, String resource) {
         OAuth2TokenValidationRequestDTO validationRequest = new OAuth2TokenValidationRequestDTO();
         OAuth2TokenValidationRequestDTO_OAuth2AccessToken oauthToken =
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.webapp.authenticator.framework;
+
+import org.apache.catalina.Context;
+import org.apache.catalina.connector.Request;
+import org.apache.catalina.core.StandardContext;
+import org.apache.tomcat.util.buf.MessageBytes;
+import org.apache.tomcat.util.http.MimeHeaders;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.webapp.authenticator.framework.authenticator.BasicAuthAuthenticator;
+import org.wso2.carbon.webapp.authenticator.framework.authenticator.OAuthAuthenticator;
+import org.wso2.carbon.webapp.authenticator.framework.internal.AuthenticatorFrameworkDataHolder;
+import org.wso2.carbon.webapp.authenticator.framework.util.TestRequest;
+import org.wso2.carbon.webapp.authenticator.framework.util.TestWebappAuthenticator;
+
+import java.lang.reflect.Field;
+
+/**
+ * This is a test class for the caching of authenticator choices in {@link WebappAuthenticatorFactory}.
+ */
+public class WebappAuthenticatorFactoryTest {
+
+    private WebappAuthenticatorRepository originalRepository;
+    private WebappAuthenticatorRepository repository;
+
+    @BeforeClass
+    public void init() {
+        originalRepository = AuthenticatorFrameworkDataHolder.getInstance().getWebappAuthenticatorRepository();
+    }
+
+    @BeforeMethod
+    public void setupRepository() {
+        repository = new WebappAuthenticatorRepository();
+        repository.addAuthenticator(new BasicAuthAuthenticator());
+        repository.addAuthenticator(new OAuthAuthenticator());
+        AuthenticatorFrameworkDataHolder.getInstance().setWebappAuthenticatorRepository(repository);
+    }
+
+    @AfterClass
+    public void cleanup() {
+        AuthenticatorFrameworkDataHolder.getInstance().setWebappAuthenticatorRepository(originalRepository);
+        WebappAuthenticatorFactory.clearCache();
+    }
+
+    @Test(description = "This method tests whether the authenticator choice is cached per request shape")
+    public void testAuthenticatorChoiceIsCached() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals(WebappAuthenticatorFactory.getAuthenticator(createRequest("Basic YWRtaW46YWRtaW4="))
+                    .getName(), "BasicAuth");
+            Assert.assertEquals(WebappAuthenticatorFactory.getAuthenticator(createRequest("Bearer " + i)).getName(),
+                    "OAuth");
+        }
+        Assert.assertEquals(WebappAuthenticatorFactory.getCachedChoiceCount(), 2,
+                "Authenticator choice is not cached per request shape");
+    }
+
+    @Test(description = "This method tests that requests which are not identified by their shape are not cached")
+    public void testAmbiguousRequestsAreNotCached() throws Exception {
+        Assert.assertNull(WebappAuthenticatorFactory.getAuthenticator(createRequest("basic")));
+        Assert.assertNotNull(WebappAuthenticatorFactory.getAuthenticator(createRequest("Basic abc Bearer xyz")));
+        Assert.assertEquals(WebappAuthenticatorFactory.getAuthenticator(createRequest("Token bearer xyz"))
+                .getName(), "OAuth");
+        Assert.assertEquals(WebappAuthenticatorFactory.getCachedChoiceCount(), 0,
+                "Authenticator choice of an ambiguous request is cached");
+    }
+
+    @Test(description = "This method tests that the cache is dropped and disabled once a custom authenticator is added")
+    public void testCacheIsDisabledForCustomAuthenticators() throws Exception {
+        Assert.assertEquals(WebappAuthenticatorFactory.getAuthenticator(createRequest("Basic YWRtaW46YWRtaW4="))
+                .getName(), "BasicAuth");
+        Assert.assertEquals(WebappAuthenticatorFactory.getCachedChoiceCount(), 1);
+        repository.addAuthenticator(new TestWebappAuthenticator());
+        Assert.assertEquals(WebappAuthenticatorFactory.getCachedChoiceCount(), 0,
+                "Cached choices are not dropped when an authenticator is added");
+        Assert.assertEquals(WebappAuthenticatorFactory.getAuthenticator(createRequest("Basic YWRtaW46YWRtaW4="))
+                .getName(), "BasicAuth");
+        Assert.assertEquals(WebappAuthenticatorFactory.getCachedChoiceCount(), 0,
+                "Authenticator choice is cached while a custom authenticator is registered");
+    }
+
+    private Request createRequest(String authorizationHeader) throws NoSuchFieldException, IllegalAccessException {
+        Request request = new TestRequest("", "");
+        Context context = new StandardContext();
+        context.addParameter("basicAuth", "true");
+        context.setPath("factory");
+        request.setContext(context);
+        MimeHeaders mimeHeaders = new MimeHeaders();
+        MessageBytes bytes = mimeHeaders.addValue(BaseWebAppAuthenticatorFrameworkTest.AUTHORIZATION_HEADER);
+        bytes.setString(authorizationHeader);
+        Field headersField = org.apache.coyote.Request.class.getDeclaredField("headers");
+        headersField.setAccessible(true);
+        org.apache.coyote.Request coyoteRequest = new org.apache.coyote.Request();
+        headersField.set(coyoteRequest, mimeHeaders);
+        request.setCoyoteRequest(coyoteRequest);
+        return request;
+    }
+
+}
@@ -82,12 +82,13 @@ public class CertificateAuthenticatorTest {
     private static final String CERTIFICATE_VERIFICATION_HEADER = "Mdm-Signature";
     private static final String CLIENT_CERTIFICATE_ATTRIBUTE = "javax.servlet.request.X509Certificate";
     private X509Certificate X509certificate;
+    private CertificateManagementService certificateManagementService;
 
     @BeforeClass
     public void setup() throws KeystoreException, NoSuchFieldException, IllegalAccessException, SQLException,
             DeviceManagementException, CertificateEncodingException, CMSException, IOException, SCEPException {
         certificateAuthenticator = new CertificateAuthenticator();
-        CertificateManagementService certificateManagementService = Mockito
+        certificateManagementService = Mockito
                 .mock(CertificateManagementServiceImpl.class, Mockito.CALLS_REAL_METHODS);
         headersField = org.apache.coyote.Request.class.getDeclaredField("headers");
         headersField.setAccessible(true);
@@ -206,6 +207,34 @@ public class CertificateAuthenticatorTest {
         Assert.assertEquals(authenticationInfo.getTenantDomain(), MultitenantConstants.SUPER_TENANT_DOMAIN_NAME,
                 "Authentication failed even with proper certificate");
     }
+
+    @Test(description = "This test case tests that certificates are verified only once over repeated requests",
+            dependsOnMethods = {"testRequestCertificateVerificationHeader", "testMutalAuthHeaderRequest"})
+    public void testRepeatedRequestsAreVerifiedOnce() throws KeystoreException, CertificateEncodingException,
+            CMSException, IOException, NoSuchFieldException, IllegalAccessException {
+        CertificateAuthenticator.getAuthenticationCache().clear();
+        X509Certificate certificate = certificateManagementService.generateX509Certificate();
+        Request request = createRequest(MUTUAL_AUTH_HEADER, "test");
+        request.setAttribute(CLIENT_CERTIFICATE_ATTRIBUTE, new X509Certificate[]{certificate});
+        String signature = createEncodedSignature(certificate);
+        Request signatureRequest = createRequest(CERTIFICATE_VERIFICATION_HEADER, signature);
+        int requestCount = 5;
+        for (int i = 0; i < requestCount; i++) {
+            AuthenticationInfo authenticationInfo = certificateAuthenticator.authenticate(request, null);
+            Assert.assertEquals(authenticationInfo.getStatus(), WebappAuthenticator.Status.CONTINUE,
+                    "Authentication failed for a repeated request with a proper certificate");
+            Assert.assertEquals(authenticationInfo.getTenantDomain(), MultitenantConstants.SUPER_TENANT_DOMAIN_NAME);
+            authenticationInfo = certificateAuthenticator.authenticate(signatureRequest, null);
+            Assert.assertEquals(authenticationInfo.getTenantDomain(), MultitenantConstants.SUPER_TENANT_DOMAIN_NAME,
+                    "Authentication failed for a repeated request with " + CERTIFICATE_VERIFICATION_HEADER
+                            + " header");
+        }
+        Mockito.verify(certificateManagementService, Mockito.times(1)).verifyPEMSignature(certificate);
+        Mockito.verify(certificateManagementService, Mockito.times(requestCount))
+                .extractCertificateFromSignature(signature);
+        Mockito.verify(certificateManagementService, Mockito.never()).verifySignature(signature);
+        Mockito.verify(certificateManagementService, Mockito.times(1)).extractChallengeToken(certificate);
+    }
     /**
      * To create a request that can be understandable by Certificate Authenticator.
      *
@@ -35,9 +35,16 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.lang.reflect.Field;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * This is a test class for {@link JWTAuthenticator}.
@@ -49,6 +56,7 @@ public class JWTAuthenticatorTest {
     private String jwtToken;
     private String wrongJwtToken;
     private String jwtTokenWithWrongUser;
+    private String expiredJwtToken;
     private static final String SIGNED_JWT_AUTH_USERNAME = "http://wso2.org/claims/enduser";
     private static final String SIGNED_JWT_AUTH_TENANT_ID = "http://wso2.org/claims/enduserTenantId";
     private Properties properties;
@@ -82,6 +90,16 @@ public class JWTAuthenticatorTest {
         customClaims.put(SIGNED_JWT_AUTH_USERNAME, "notexisting");
         customClaims.put(SIGNED_JWT_AUTH_TENANT_ID, String.valueOf(MultitenantConstants.SUPER_TENANT_ID));
         jwtTokenWithWrongUser = JWTClientUtil.generateSignedJWTAssertion("notexisting", jwtConfig, false, customClaims);
+        if (resourceUrl != null) {
+            Properties expiredConfigProperties = new Properties();
+            expiredConfigProperties.load(new FileInputStream(new File(resourceUrl.getFile())));
+            expiredConfigProperties.setProperty("exp", "-1");
+            customClaims = new HashMap<>();
+            customClaims.put(SIGNED_JWT_AUTH_USERNAME, "admin");
+            customClaims.put(SIGNED_JWT_AUTH_TENANT_ID, String.valueOf(MultitenantConstants.SUPER_TENANT_ID));
+            expiredJwtToken = JWTClientUtil.generateSignedJWTAssertion("admin", new JWTConfig(expiredConfigProperties),
+                    false, customClaims);
+        }
     }
 
     @Test(description = "This method tests the get methods in the JWTAuthenticator",
@@ -152,6 +170,79 @@ public class JWTAuthenticatorTest {
                 "Un authenticated request does not contain status as failure");
     }
 
+    @Test(description = "This method tests whether verified tokens are served from the cache",
+            dependsOnMethods = "testAuthenticate")
+    public void testVerifiedTokenCache() throws NoSuchFieldException, IllegalAccessException {
+        JWTAuthenticator.getVerifiedTokenCache().clear();
+        long hitCount = JWTAuthenticator.getVerifiedTokenCache().getHitCount();
+        AuthenticationInfo authenticationInfo = jwtAuthenticator.authenticate(createJWTRequest(jwtToken, "test"), null);
+        Assert.assertEquals(authenticationInfo.getStatus(), WebappAuthenticator.Status.CONTINUE);
+        Assert.assertEquals(JWTAuthenticator.getVerifiedTokenCache().size(), 1, "Verified token was not cached");
+        AuthenticationInfo cachedInfo = jwtAuthenticator.authenticate(createJWTRequest(jwtToken, "test"), null);
+        Assert.assertEquals(JWTAuthenticator.getVerifiedTokenCache().getHitCount(), hitCount + 1,
+                "Verified token was not served from the cache");
+        Assert.assertEquals(cachedInfo.getStatus(), WebappAuthenticator.Status.CONTINUE);
+        Assert.assertEquals(cachedInfo.getUsername(), authenticationInfo.getUsername());
+        Assert.assertEquals(cachedInfo.getTenantId(), authenticationInfo.getTenantId());
+        Assert.assertEquals(cachedInfo.getTenantDomain(), authenticationInfo.getTenantDomain());
+    }
+
+    @Test(description = "This method tests that a tampered token is rejected although the original token is cached",
+            dependsOnMethods = "testVerifiedTokenCache")
+    public void testTamperedToken() throws NoSuchFieldException, IllegalAccessException {
+        int signatureIndex = jwtToken.lastIndexOf('.') + 1;
+        int tamperedIndex = signatureIndex + (jwtToken.length() - signatureIndex) / 2;
+        char tamperedChar = jwtToken.charAt(tamperedIndex) == 'A' ? 'B' : 'A';
+        String tamperedToken = jwtToken.substring(0, tamperedIndex) + tamperedChar +
+                jwtToken.substring(tamperedIndex + 1);
+        AuthenticationInfo authenticationInfo = jwtAuthenticator.authenticate(
+                createJWTRequest(tamperedToken, "test"), null);
+        Assert.assertEquals(authenticationInfo.getStatus(), WebappAuthenticator.Status.FAILURE,
+                "Tampered token was authenticated");
+        Assert.assertNull(authenticationInfo.getUsername(), "Tampered token was authenticated");
+    }
+
+    @Test(description = "This method tests that tokens are not cached beyond their expiry time",
+            dependsOnMethods = "testAuthenticate")
+    public void testExpiredTokenIsNotCached() throws NoSuchFieldException, IllegalAccessException {
+        JWTAuthenticator.getVerifiedTokenCache().clear();
+        long hitCount = JWTAuthenticator.getVerifiedTokenCache().getHitCount();
+        jwtAuthenticator.authenticate(createJWTRequest(expiredJwtToken, "test"), null);
+        jwtAuthenticator.authenticate(createJWTRequest(expiredJwtToken, "test"), null);
+        Assert.assertEquals(JWTAuthenticator.getVerifiedTokenCache().size(), 0, "Expired token was cached");
+        Assert.assertEquals(JWTAuthenticator.getVerifiedTokenCache().getHitCount(), hitCount,
+                "Expired token was served from the cache");
+    }
+
+    @Test(description = "This method tests concurrent requests which use the issuer key for the first time",
+            dependsOnMethods = "testAuthenticate")
+    public void testConcurrentFirstUse() throws Exception {
+        JWTAuthenticator.clearPublicKeys();
+        JWTAuthenticator.getVerifiedTokenCache().clear();
+        int threadCount = 10;
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+        try {
+            List<Future<AuthenticationInfo>> results = new ArrayList<>();
+            for (int i = 0; i < threadCount; i++) {
+                final Request request = createJWTRequest(jwtToken, "test");
+                results.add(executorService.submit(new Callable<AuthenticationInfo>() {
+                    @Override
+                    public AuthenticationInfo call() throws Exception {
+                        startLatch.await();
+                        return jwtAuthenticator.authenticate(request, null);
+                    }
+                }));
+            }
+            startLatch.countDown();
+            for (Future<AuthenticationInfo> result : results) {
+                Assert.assertEquals(result.get().getStatus(), WebappAuthenticator.Status.CONTINUE,
+                        "Concurrent request was not authenticated");
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
 
     /**
      * To create a JWT request with the given jwt header.
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2018, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * you may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.webapp.authenticator.framework.authenticator.oauth.impl;
+
+import org.apache.commons.pool.PoolableObjectFactory;
+import org.mockito.Mockito;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.oauth2.stub.OAuth2TokenValidationServiceStub;
+import org.wso2.carbon.identity.oauth2.stub.dto.OAuth2ClientApplicationDTO;
+import org.wso2.carbon.identity.oauth2.stub.dto.OAuth2TokenValidationRequestDTO;
+import org.wso2.carbon.identity.oauth2.stub.dto.OAuth2TokenValidationResponseDTO;
+import org.wso2.carbon.webapp.authenticator.framework.authenticator.oauth.OAuthValidationResponse;
+
+import java.util.Properties;
+
+/**
+ * This is a test class for {@link RemoteOAuthValidator}, which uses a local stub of the token validation service.
+ */
+public class RemoteOAuthValidatorTest {
+
+    private static final String RESOURCE = "/api/device-mgt/v1.0 GET";
+    private OAuth2TokenValidationServiceStub validationServiceStub;
+    private OAuth2TokenValidationResponseDTO validationResponse;
+
+    @BeforeMethod
+    public void setup() throws Exception {
+        validationResponse = new OAuth2TokenValidationResponseDTO();
+        validationResponse.setValid(true);
+        validationResponse.setAuthorizedUser("admin@carbon.super");
+        validationResponse.setExpiryTime(3600);
+        OAuth2ClientApplicationDTO clientApplicationDTO = new OAuth2ClientApplicationDTO();
+        clientApplicationDTO.setAccessTokenValidationResponse(validationResponse);
+        validationServiceStub = Mockito.mock(OAuth2TokenValidationServiceStub.class);
+        Mockito.doReturn(clientApplicationDTO).when(validationServiceStub)
+                .findOAuthConsumerIfTokenIsValid(Mockito.any(OAuth2TokenValidationRequestDTO.class));
+    }
+
+    @Test(description = "This method tests that valid tokens are validated remotely only once")
+    public void testValidTokenCache() throws Exception {
+        RemoteOAuthValidator validator = new RemoteOAuthValidator(new LocalStubFactory(), new Properties());
+        for (int i = 0; i < 5; i++) {
+            OAuthValidationResponse response = validator.validateToken("valid-token", RESOURCE);
+            Assert.assertTrue(response.isValid(), "Valid token is not validated");
+            Assert.assertEquals(response.getUserName(), "admin");
+            Assert.assertEquals(response.getTenantDomain(), "carbon.super");
+        }
+        validator.validateToken("valid-token", "/api/device-mgt/v1.0 POST");
+        Mockito.verify(validationServiceStub, Mockito.times(2))
+                .findOAuthConsumerIfTokenIsValid(Mockito.any(OAuth2TokenValidationRequestDTO.class));
+        Assert.assertEquals(validator.getCacheHitCount(), 4);
+        Assert.assertEquals(validator.getCacheMissCount(), 2);
+    }
+
+    @Test(description = "This method tests that tokens are not cached beyond their remaining validity")
+    public void testExpiredTokenIsNotCached() throws Exception {
+        validationResponse.setExpiryTime(0);
+        RemoteOAuthValidator validator = new RemoteOAuthValidator(new LocalStubFactory(), new Properties());
+        validator.validateToken("expiring-token", RESOURCE);
+        validator.validateToken("expiring-token", RESOURCE);
+        Mockito.verify(validationServiceStub, Mockito.times(2))
+                .findOAuthConsumerIfTokenIsValid(Mockito.any(OAuth2TokenValidationRequestDTO.class));
+    }
+
+    @Test(description = "This method tests that invalid tokens are cached only if negative caching is enabled")
+    public void testNegativeCache() throws Exception {
+        validationResponse.setValid(false);
+        validationResponse.setErrorMsg("Invalid token");
+        RemoteOAuthValidator validator = new RemoteOAuthValidator(new LocalStubFactory(), new Properties());
+        validator.validateToken("invalid-token", RESOURCE);
+        validator.validateToken("invalid-token", RESOURCE);
+        Mockito.verify(validationServiceStub, Mockito.times(2))
+                .findOAuthConsumerIfTokenIsValid(Mockito.any(OAuth2TokenValidationRequestDTO.class));
+
+        Properties properties = new Properties();
+        properties.setProperty("NegativeTokenCacheExpiry", "60");
+        validator = new RemoteOAuthValidator(new LocalStubFactory(), properties);
+        for (int i = 0; i < 3; i++) {
+            OAuthValidationResponse response = validator.validateToken("invalid-token", RESOURCE);
+            Assert.assertFalse(response.isValid(), "Invalid token is validated");
+            Assert.assertEquals(response.getErrorMsg(), "Invalid token");
+        }
+        Mockito.verify(validationServiceStub, Mockito.times(3))
+                .findOAuthConsumerIfTokenIsValid(Mockito.any(OAuth2TokenValidationRequestDTO.class));
+    }
+
+    @Test(description = "This method tests that every token is validated remotely when the cache is disabled")
+    public void testDisabledCache() throws Exception {
+        Properties properties = new Properties();
+        properties.setProperty("TokenCacheSize", "0");
+        RemoteOAuthValidator validator = new RemoteOAuthValidator(new LocalStubFactory(), properties);
+        for (int i = 0; i < 3; i++) {
+            validator.validateToken("valid-token", RESOURCE);
+        }
+        Mockito.verify(validationServiceStub, Mockito.times(3))
+                .findOAuthConsumerIfTokenIsValid(Mockito.any(OAuth2TokenValidationRequestDTO.class));
+        Assert.assertEquals(validator.getCacheHitCount(), 0);
+    }
+
+    /**
+     * Stub factory which hands out the local token validation service stub of the test.
+     */
+    private class LocalStubFactory implements PoolableObjectFactory {
+
+        @Override
+        public Object makeObject() throws Exception {
+            return validationServiceStub;
+        }
+
+        @Override
+        public void destroyObject(Object o) throws Exception {
+        }
+
+        @Override
+        public boolean validateObject(Object o) {
+            return true;
+        }
+
+        @Override
+        public void activateObject(Object o) throws Exception {
+        }
+
+        @Override
+        public void passivateObject(Object o) throws Exception {
+        }
+    }
+}